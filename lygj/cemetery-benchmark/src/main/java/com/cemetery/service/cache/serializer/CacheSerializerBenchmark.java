@@ -0,0 +1,113 @@
+package com.cemetery.service.cache.serializer;
+
+import cn.hutool.core.util.StrUtil;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.domain.vo.DigitalMemorialVO;
+import com.cemetery.service.cache.CacheValueWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存序列化基准测试
+ * 对同一条纪念空间详情缓存（含较长的生平介绍）分别用JSON和紧凑格式（不压缩/deflate/lz4）编解码，
+ * 用于切换 serializer-mode 和调整压缩阈值前评估效果；压缩阈值取 CacheConfig 默认值。
+ * 各格式的编码后体积在初始化时输出到控制台。
+ * <p>
+ * 运行：mvn -P benchmark -pl cemetery-benchmark -am package，
+ * 然后 java -jar cemetery-benchmark/target/benchmarks.jar CacheSerializerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    private static final String FORMAT_JSON = "json";
+
+    @Param({FORMAT_JSON, CompactRedisSerializer.CODEC_NONE, CompactRedisSerializer.CODEC_DEFLATE,
+            CompactRedisSerializer.CODEC_LZ4})
+    private String format;
+
+    private RedisSerializer<Object> serializer;
+
+    private Object value;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        CacheConfig cacheConfig = new CacheConfig();
+        serializer = FORMAT_JSON.equals(format)
+                ? CacheSerializerFactory.createJsonSerializer()
+                : CacheSerializerFactory.createCompactSerializer(CacheClassRegistry.createDefault(),
+                        CacheSerializerFactory.MODE_COMPACT, cacheConfig.getCompressionThreshold(), format);
+        value = buildSample(cacheConfig);
+        bytes = serializer.serialize(value);
+
+        int jsonSize = CacheSerializerFactory.createJsonSerializer().serialize(value).length;
+        System.out.printf("%n# format=%s, bytes=%d, ratio=%.3f%n", format, bytes.length, bytes.length * 1.0 / jsonSize);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(bytes);
+    }
+
+    /**
+     * 构造一条典型的纪念空间详情缓存（含较长的生平介绍）
+     */
+    private static Object buildSample(CacheConfig cacheConfig) {
+        DigitalMemorialVO vo = new DigitalMemorialVO();
+        vo.setId(10001L);
+        vo.setSpaceNo("MS202401010001");
+        vo.setTombId(2001L);
+        vo.setDeceasedId(3001L);
+        vo.setSpaceName("永远怀念我们敬爱的父亲");
+        vo.setBiography(StrUtil.repeat("他一生勤勉朴实，热爱家庭，乐于助人，将毕生精力奉献给了教育事业。", 40));
+        vo.setLifeAchievements(StrUtil.repeat("从教四十年，桃李满天下；多次获评优秀教师。", 10));
+        vo.setFamilyWords("愿您在天堂安好，我们永远爱您。");
+        vo.setBackgroundTheme("classic");
+        vo.setBackgroundColor("#333333");
+        vo.setMusicEnabled(1);
+        vo.setCandleEnabled(1);
+        vo.setFlowerEnabled(1);
+        vo.setIncenseEnabled(1);
+        vo.setMessageEnabled(1);
+        vo.setMessageAudit(1);
+        vo.setVisitCount(12580);
+        vo.setCandleCount(3021);
+        vo.setFlowerCount(2876);
+        vo.setIncenseCount(1544);
+        vo.setMessageCount(432);
+        vo.setIsPublished(1);
+        vo.setPublishTime(new Date());
+        vo.setCreateTime(new Date());
+        vo.setTombNo("A-01-0001");
+        vo.setDeceasedName("张三");
+        vo.setShareUrl("https://example.com/memorial/MS202401010001");
+
+        long now = System.currentTimeMillis();
+        long ttlMillis = cacheConfig.getDetailExpire() * 1000;
+        return new CacheValueWrapper(vo, now + ttlMillis, ttlMillis);
+    }
+}
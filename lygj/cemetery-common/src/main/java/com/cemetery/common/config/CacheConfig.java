@@ -4,6 +4,10 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * 缓存配置
  */
@@ -53,17 +57,32 @@ public class CacheConfig {
     private Boolean preloadEnabled = true;
 
     /**
-     * 热点数据访问阈值（访问次数）
+     * 热点数据访问阈值（访问次数），预热时只加载访问量不低于该值的纪念空间
      */
     private Integer hotDataThreshold = 100;
 
     /**
-     * 是否启用布隆过滤器（防止缓存穿透）
+     * 预热的热门纪念空间数量（按访问量排序）
+     */
+    private Integer preloadTopN = 100;
+
+    /**
+     * 预热并发数
+     */
+    private Integer preloadConcurrency = 8;
+
+    /**
+     * 预热最长等待时间（秒），超时后不再阻塞启动，剩余任务取消
+     */
+    private Long preloadTimeout = 60L;
+
+    /**
+     * 是否启用布隆过滤器（按实体ID判断是否存在，防止缓存穿透）
      */
     private Boolean bloomFilterEnabled = true;
 
     /**
-     * 布隆过滤器预期元素数量
+     * 布隆过滤器预期元素数量（最小值，重建时按实际数据量放大）
      */
     private Long bloomFilterExpectedInsertions = 100000L;
 
@@ -72,6 +91,26 @@ public class CacheConfig {
      */
     private Double bloomFilterFpp = 0.01;
 
+    /**
+     * 布隆过滤器饱和度（已插入数量/预期数量）达到该值时轮换重建
+     */
+    private Double bloomFilterRotateThreshold = 0.8;
+
+    /**
+     * 重建时预期元素数量相对当前数据量的放大倍数
+     */
+    private Double bloomFilterGrowthFactor = 2.0;
+
+    /**
+     * 重建时每批从数据库读取的ID数量
+     */
+    private Integer bloomFilterRebuildBatchSize = 1000;
+
+    /**
+     * 布隆过滤器饱和度检查间隔（毫秒）
+     */
+    private Long bloomFilterCheckIntervalMs = 60000L;
+
     /**
      * 缓存更新策略：lazy(懒加载), active(主动更新)
      */
@@ -81,4 +120,135 @@ public class CacheConfig {
      * 是否启用多级缓存
      */
     private Boolean multiLevelEnabled = false;
+
+    /**
+     * 本地缓存最大容量（字节，按序列化后大小计算）
+     */
+    private Long localMaxWeightBytes = 64L * 1024 * 1024;
+
+    /**
+     * 本地缓存最长过期时间（秒），实际过期时间取该值与Redis剩余时间的较小值
+     */
+    private Long localMaxExpire = 60L;
+
+    /**
+     * 是否启用热点key探测（热点key在本地保留短时副本，避免单个Redis节点被打满）
+     */
+    private Boolean hotKeyEnabled = true;
+
+    /**
+     * 热点key探测采样率（0-1）
+     */
+    private Double hotKeySampleRate = 0.1;
+
+    /**
+     * 热点key统计窗口（秒）
+     */
+    private Long hotKeyWindow = 10L;
+
+    /**
+     * 热点阈值：单个统计窗口内估算的访问次数
+     */
+    private Long hotKeyThreshold = 2000L;
+
+    /**
+     * 最多同时保留的热点key数量
+     */
+    private Integer hotKeyMaxCount = 100;
+
+    /**
+     * 热点key本地副本过期时间（毫秒），决定其他节点修改后本节点的最长不一致时间
+     */
+    private Long hotKeyLocalExpireMillis = 2000L;
+
+    /**
+     * 热点key冷却窗口数：连续多少个窗口未达到阈值后取消热点标记
+     */
+    private Integer hotKeyCooldownWindows = 3;
+
+    /**
+     * 缓存失效广播频道（不含key前缀）
+     */
+    private String invalidationChannel = "cache:invalidate";
+
+    /**
+     * 是否启用过期后继续返回旧值并在后台刷新（stale-while-revalidate）
+     */
+    private Boolean staleWhileRevalidateEnabled = true;
+
+    /**
+     * 逻辑过期后旧值的保留时间（秒）
+     */
+    private Long staleExpire = 300L;
+
+    /**
+     * 是否启用提前刷新（被访问的键在过期前主动重新加载）
+     */
+    private Boolean refreshAheadEnabled = false;
+
+    /**
+     * 提前刷新比例：剩余时间小于过期时间的该比例时触发刷新
+     */
+    private Double refreshAheadRatio = 0.2;
+
+    /**
+     * 跨节点加载锁等待时间（毫秒）
+     */
+    private Long loadLockWaitMillis = 3000L;
+
+    /**
+     * 跨节点加载锁租约时间（毫秒）
+     */
+    private Long loadLockLeaseMillis = 10000L;
+
+    /**
+     * 后台刷新线程数
+     */
+    private Integer refreshThreads = 4;
+
+    /**
+     * 后台刷新队列容量（队列满时放弃本次刷新，继续返回旧值）
+     */
+    private Integer refreshQueueCapacity = 1000;
+
+    /**
+     * 模式删除时SCAN每次扫描的数量（COUNT）
+     */
+    private Long scanCount = 1000L;
+
+    /**
+     * 模式删除时每批UNLINK的键数量
+     */
+    private Integer unlinkBatchSize = 500;
+
+    /**
+     * 是否启用前缀标签索引（前缀:* 形式的模式删除无需扫描键空间）
+     */
+    private Boolean tagIndexEnabled = true;
+
+    /**
+     * 模式删除和清空缓存时跳过的键前缀（不含key前缀），用于保护非缓存数据
+     */
+    private List<String> cleanupExcludePrefixes = new ArrayList<>(Arrays.asList("counter:", "bloom:"));
+
+    /**
+     * 缓存值写入格式：json(原JSON格式), compact(Smile二进制+类型注册表)
+     * 两种格式在读取时均可识别，滚动升级时先全部发布再切换为compact
+     */
+    private String serializerMode = "json";
+
+    /**
+     * 压缩阈值（字节），compact格式下编码后不小于该值才压缩
+     */
+    private Integer compressionThreshold = 2048;
+
+    /**
+     * 压缩方式：lz4, deflate, none
+     */
+    private String compressionCodec = "lz4";
+
+    /**
+     * 缓存指标最多统计的key前缀数量，超出后归入other（限制Micrometer标签数量）
+     */
+    private Integer metricsMaxPrefixes = 200;
 }
@@ -0,0 +1,64 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 嵌入式搜索配置（本机Lucene索引，未部署Elasticsearch时使用）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.embedded-search")
+public class EmbeddedSearchConfig {
+
+    /**
+     * 是否启用嵌入式搜索（启用后搜索改查本机索引，发件箱不再写入Elasticsearch；需同时启用memorial.search-index）
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 索引目录（内存映射读取），每个节点各自维护一份
+     */
+    private String indexDirectory = "/data/cemetery/search-index";
+
+    /**
+     * 按发件箱追踪变更并刷新可见性的间隔（毫秒），决定搜索结果的新鲜度
+     */
+    private Long refreshIntervalMs = 1000L;
+
+    /**
+     * 提交到磁盘的间隔（毫秒），停机后从上次提交的发件箱位置继续追踪
+     */
+    private Long commitIntervalMs = 30000L;
+
+    /**
+     * 越过的空缺发件箱ID持续回查的时间（秒），较早分配ID但较晚提交的事务在此期间补写，超时视为回滚放弃
+     */
+    private Integer gapTimeoutSeconds = 600;
+
+    /**
+     * 最多同时跟踪的空缺ID数量，超过时放弃最早的空缺
+     */
+    private Integer maxOpenGaps = 1000;
+
+    /**
+     * 单次追踪读取的发件箱记录数
+     */
+    private Integer tailBatchSize = 500;
+
+    /**
+     * 全量导入时每批读取的纪念空间数量
+     */
+    private Integer rebuildBatchSize = 1000;
+
+    /**
+     * 写入缓冲区大小（MB），写满后生成新段
+     */
+    private Double ramBufferMb = 32.0;
+
+    /**
+     * 最多可翻到的结果数（页码×每页数量），与Elasticsearch的max_result_window一致
+     */
+    private Integer maxResultWindow = 10000;
+}
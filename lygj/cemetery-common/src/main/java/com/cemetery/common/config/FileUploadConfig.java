@@ -103,4 +103,44 @@ public class FileUploadConfig {
      * 存储类型：local, oss, qiniu
      */
     private String storageType = "local";
+
+    /**
+     * 阿里云OSS访问域名（存储类型为oss时使用）
+     */
+    private String ossEndpoint;
+
+    /**
+     * 阿里云OSS AccessKeyId
+     */
+    private String ossAccessKeyId;
+
+    /**
+     * 阿里云OSS AccessKeySecret
+     */
+    private String ossAccessKeySecret;
+
+    /**
+     * 阿里云OSS存储空间，私有文件以私有读写权限写入
+     */
+    private String ossBucket;
+
+    /**
+     * 七牛云AccessKey（存储类型为qiniu时使用）
+     */
+    private String qiniuAccessKey;
+
+    /**
+     * 七牛云SecretKey
+     */
+    private String qiniuSecretKey;
+
+    /**
+     * 七牛云私有存储空间（私有文件只写入私有空间）
+     */
+    private String qiniuPrivateBucket;
+
+    /**
+     * 七牛云私有存储空间的下载域名，如 https://private.example.com
+     */
+    private String qiniuPrivateDomain;
 }
@@ -0,0 +1,64 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间实时推送配置（SSE长连接，Redis发布订阅跨节点分发）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.live")
+public class LiveFeedConfig {
+
+    /**
+     * 是否开启实时推送
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 跨节点分发事件的Redis频道（会加上缓存键前缀）
+     */
+    private String channel = "live:memorial";
+
+    /**
+     * 本节点最大连接数，超出后拒绝新连接
+     */
+    private Integer maxConnections = 5000;
+
+    /**
+     * 单个连接的待发送事件上限，写满说明客户端过慢，断开后由客户端携带Last-Event-ID重连补发
+     */
+    private Integer bufferSize = 256;
+
+    /**
+     * 发送线程数
+     */
+    private Integer senderThreads = 4;
+
+    /**
+     * 连接超时时间（分钟），超时后客户端自动重连
+     */
+    private Long emitterTimeoutMinutes = 30L;
+
+    /**
+     * 心跳间隔（毫秒），防止代理和负载均衡断开空闲连接
+     */
+    private Long heartbeatIntervalMs = 15000L;
+
+    /**
+     * 互动事件（点烛、献花、上香）合并推送的间隔（毫秒）
+     */
+    private Long interactionFlushMs = 1000L;
+
+    /**
+     * 每个纪念空间保留的最近事件数，用于断线重连补发
+     */
+    private Integer historySize = 200;
+
+    /**
+     * 最近事件保留时间（小时）
+     */
+    private Integer historyExpireHours = 24;
+}
@@ -0,0 +1,49 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间互动计数配置（访问、点烛、献花、上香）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.counter")
+public class MemorialCounterConfig {
+
+    /**
+     * 是否启用异步回写（关闭时每次互动直接更新数据库）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本地累加器分段数量（取2的幂）
+     */
+    private Integer stripes = 16;
+
+    /**
+     * 本地增量同步到Redis的间隔（毫秒）
+     */
+    private Long drainIntervalMs = 1000L;
+
+    /**
+     * Redis增量回写MySQL的间隔（毫秒）
+     */
+    private Long flushIntervalMs = 10000L;
+
+    /**
+     * 单条批量UPDATE语句包含的纪念空间数量
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 回写分布式锁租约时间（秒）
+     */
+    private Long lockLeaseSeconds = 60L;
+
+    /**
+     * 回写批次日志保留天数
+     */
+    private Integer flushLogRetainDays = 7;
+}
@@ -0,0 +1,44 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间排行榜配置（Redis有序集合）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.leaderboard")
+public class MemorialLeaderboardConfig {
+
+    /**
+     * 是否启用排行榜（关闭时排行查询直接读数据库）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 每日榜保留天数（日期范围查询在此范围内时合并每日榜）
+     */
+    private Integer dayRetainDays = 8;
+
+    /**
+     * 每周榜保留周数
+     */
+    private Integer weekRetainWeeks = 5;
+
+    /**
+     * 日期范围合并结果的缓存时间（秒）
+     */
+    private Integer rangeCacheSeconds = 60;
+
+    /**
+     * 重建总榜时每批读取的纪念空间数量
+     */
+    private Integer rebuildBatchSize = 1000;
+
+    /**
+     * 重建分布式锁租约时间（秒）
+     */
+    private Integer lockLeaseSeconds = 600;
+}
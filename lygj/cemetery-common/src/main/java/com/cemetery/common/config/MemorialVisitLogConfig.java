@@ -0,0 +1,59 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间访问日志配置（访问记录异步批量写入及分桶统计）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.visit-log")
+public class MemorialVisitLogConfig {
+
+    /**
+     * 是否记录访问日志
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 环形缓冲区容量（取2的幂），写满后丢弃新事件，不阻塞请求线程
+     */
+    private Integer bufferCapacity = 65536;
+
+    /**
+     * 缓冲区写入数据库的间隔（毫秒）
+     */
+    private Long flushIntervalMs = 1000L;
+
+    /**
+     * 单条多行INSERT包含的记录数
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 单次定时任务最多写入的记录数，避免积压时长时间占用调度线程
+     */
+    private Integer maxDrainPerFlush = 20000;
+
+    /**
+     * 是否统计独立访客（Redis HyperLogLog）
+     */
+    private Boolean uvEnabled = true;
+
+    /**
+     * 全站每日独立访客保留天数
+     */
+    private Integer uvDayRetainDays = 400;
+
+    /**
+     * 纪念空间每日独立访客保留天数
+     */
+    private Integer uvMemorialDayRetainDays = 90;
+
+    /**
+     * 全站每周、每月独立访客保留天数
+     */
+    private Integer uvRollupRetainDays = 800;
+}
@@ -0,0 +1,34 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 留言点赞配置（Redis集合去重、点赞数缓冲回写）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.message-like")
+public class MessageLikeConfig {
+
+    /**
+     * 是否启用点赞数缓冲回写（关闭时每次点赞直接累加数据库）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本地点赞数增量回写MySQL的间隔（毫秒）
+     */
+    private Long flushIntervalMs = 3000L;
+
+    /**
+     * 单条批量UPDATE包含的留言数量
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 留言点赞访客集合的过期时间（天），过期后按点赞记录表重新加载
+     */
+    private Integer setExpireDays = 7;
+}
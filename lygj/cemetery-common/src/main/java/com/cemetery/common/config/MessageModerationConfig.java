@@ -0,0 +1,59 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 留言自动审核配置（敏感词自动机、审核线程池）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.moderation")
+public class MessageModerationConfig {
+
+    /**
+     * 是否启用自动审核（关闭时新留言直接审核通过）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 敏感词表位置，支持classpath:和file:前缀，每行一个词，#开头为注释
+     */
+    private String wordListLocation = "classpath:moderation/sensitive-words.txt";
+
+    /**
+     * 检查词表是否变更的间隔（毫秒），变更后重新编译自动机
+     */
+    private Long reloadIntervalMs = 60000L;
+
+    /**
+     * 审核线程数
+     */
+    private Integer workerThreads = 2;
+
+    /**
+     * 审核队列容量，写满后留言保持待审核，由补审任务重新提交
+     */
+    private Integer queueCapacity = 10000;
+
+    /**
+     * 审核备注中记录的命中词数量上限
+     */
+    private Integer maxRecordedHits = 5;
+
+    /**
+     * 提交后超过该时间（秒）仍未自动审核的留言重新提交
+     */
+    private Integer retryDelaySeconds = 120;
+
+    /**
+     * 补审任务执行间隔（毫秒）
+     */
+    private Long retryIntervalMs = 60000L;
+
+    /**
+     * 补审任务单次提交的留言数量
+     */
+    private Integer retryBatchSize = 200;
+}
@@ -0,0 +1,39 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实时统计配置（内存滑动窗口计数及多节点Redis汇总）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "statistics.realtime")
+public class RealTimeStatisticsConfig {
+
+    /**
+     * 是否开启实时统计
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本节点计数同步到Redis并汇总全部节点的间隔（毫秒）
+     */
+    private Long syncIntervalMs = 2000L;
+
+    /**
+     * 滑动窗口分段数（取2的幂），并发写入时分散到不同分段，减少CAS冲突
+     */
+    private Integer stripes = 16;
+
+    /**
+     * 在线用户判定窗口（秒）：该时间内有访问即视为在线
+     */
+    private Integer onlineWindowSeconds = 300;
+
+    /**
+     * 节点心跳超时（秒）：超时未同步的节点不再参与汇总
+     */
+    private Integer nodeExpireSeconds = 10;
+}
@@ -0,0 +1,94 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索索引同步配置（发件箱、批量写入Elasticsearch）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "memorial.search-index")
+public class SearchIndexConfig {
+
+    /**
+     * 是否启用索引同步（关闭时不写发件箱）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 拉取发件箱的间隔（毫秒），决定搜索结果的新鲜度
+     */
+    private Long relayIntervalMs = 1000L;
+
+    /**
+     * 单次拉取的发件箱记录数，合并后作为一个_bulk请求写入
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 单次任务最多处理的批次数，积压时分多次任务追平
+     */
+    private Integer maxBatchesPerRun = 20;
+
+    /**
+     * 最大重试次数，超过后标记为失败
+     */
+    private Integer maxRetries = 10;
+
+    /**
+     * 首次重试间隔（秒），之后按2的幂次递增
+     */
+    private Integer retryBaseDelaySeconds = 5;
+
+    /**
+     * 最大重试间隔（秒）
+     */
+    private Integer retryMaxDelaySeconds = 600;
+
+    /**
+     * 已完成记录的保留天数
+     */
+    private Integer retainDays = 3;
+
+    /**
+     * 同步分布式锁租约时间（秒）
+     */
+    private Long lockLeaseSeconds = 300L;
+
+    /**
+     * 重建索引的并行读取线程数，按主键范围均分
+     */
+    private Integer rebuildParallelism = 4;
+
+    /**
+     * 重建索引时每个_bulk请求包含的文档数
+     */
+    private Integer rebuildBatchSize = 1000;
+
+    /**
+     * 新索引的主分片数
+     */
+    private Integer rebuildShards = 1;
+
+    /**
+     * 新索引导入完成后的副本数（导入期间为0）
+     */
+    private Integer rebuildReplicas = 1;
+
+    /**
+     * 新索引导入完成后的刷新间隔（导入期间关闭刷新）
+     */
+    private String rebuildRefreshInterval = "1s";
+
+    /**
+     * 重建索引分布式锁租约时间（分钟）
+     */
+    private Long rebuildLockLeaseMinutes = 120L;
+
+    /**
+     * 重建进度保留时间（小时）
+     */
+    private Integer rebuildProgressExpireHours = 24;
+}
@@ -0,0 +1,60 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计报表导出配置（异步流式导出Excel）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "statistics.export")
+public class StatisticsExportConfig {
+
+    /**
+     * 本节点同时执行的导出任务数
+     */
+    private Integer maxConcurrent = 2;
+
+    /**
+     * 排队等待的导出任务数，超出后拒绝新的导出请求
+     */
+    private Integer queueCapacity = 4;
+
+    /**
+     * 每批写入Excel的行数（内存中最多保留一批）
+     */
+    private Integer batchSize = 2000;
+
+    /**
+     * 每个工作表的最大行数，超出后自动新建工作表（xlsx单表上限约104万行）
+     */
+    private Integer maxRowsPerSheet = 1000000;
+
+    /**
+     * 单次导出的最大日期跨度（天）
+     */
+    private Integer maxRangeDays = 366;
+
+    /**
+     * 导出文件本地目录（含访客IP等明细，必须在静态上传目录之外，只能通过授权下载接口获取）
+     * 本地存储时即文件存放目录，多节点部署须挂载同一共享卷；oss/qiniu存储时只作生成过程的工作目录
+     */
+    private String directory = "/data/cemetery/export";
+
+    /**
+     * 导出文件在oss/qiniu中的对象前缀（私有权限，不经公开地址访问）
+     */
+    private String objectPrefix = "private/export";
+
+    /**
+     * 导出文件保留时间（小时），超期由定时任务删除；任务状态过期后文件已无法下载，不宜短于状态保留时间
+     */
+    private Integer fileRetentionHours = 24;
+
+    /**
+     * 导出任务状态保留时间（小时）
+     */
+    private Integer taskExpireHours = 24;
+}
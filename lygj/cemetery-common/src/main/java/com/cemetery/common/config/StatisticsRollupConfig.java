@@ -0,0 +1,39 @@
+package com.cemetery.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计汇总表配置（全站、纪念空间、按天汇总）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "statistics.rollup")
+public class StatisticsRollupConfig {
+
+    /**
+     * 本地增量写入汇总表的间隔（毫秒）
+     */
+    private Long flushIntervalMs = 5000L;
+
+    /**
+     * 单条批量INSERT ... ON DUPLICATE KEY UPDATE包含的行数
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 对账时每批处理的纪念空间数量
+     */
+    private Integer reconcileBatchSize = 1000;
+
+    /**
+     * 对账时重算按天汇总的最近天数（含当天）
+     */
+    private Integer reconcileDays = 2;
+
+    /**
+     * 对账分布式锁租约时间（秒）
+     */
+    private Long lockLeaseSeconds = 1800L;
+}
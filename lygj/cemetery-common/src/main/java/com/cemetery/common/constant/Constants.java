@@ -70,6 +70,31 @@ public class Constants {
      */
     public static final String RATE_LIMIT_KEY = "rate_limit:";
 
+    /**
+     * 纪念空间详情缓存 key
+     */
+    public static final String MEMORIAL_DETAIL_KEY = "memorial:detail:";
+
+    /**
+     * 热门纪念空间列表缓存 key
+     */
+    public static final String MEMORIAL_POPULAR_KEY = "memorial:popular:";
+
+    /**
+     * 纪念空间精选内容缓存 key
+     */
+    public static final String MEMORIAL_FEATURED_KEY = "memorial:featured:";
+
+    /**
+     * 纪念空间置顶留言缓存 key
+     */
+    public static final String MEMORIAL_PINNED_KEY = "memorial:pinned:";
+
+    /**
+     * 整体概况统计缓存 key
+     */
+    public static final String STATISTICS_OVERVIEW_KEY = "statistics:overview";
+
     /**
      * 验证码有效期（分钟）
      */
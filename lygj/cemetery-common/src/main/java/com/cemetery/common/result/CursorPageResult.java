@@ -0,0 +1,48 @@
+package com.cemetery.common.result;
+
+import lombok.Data;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果类
+ * 不返回总记录数和总页数，通过nextCursor继续查询下一页
+ *
+ * @param <T> 数据列表的泛型类型
+ */
+@Data
+public class CursorPageResult<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 数据列表
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标（没有更多数据时为空）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private Boolean hasMore;
+
+    public CursorPageResult() {
+    }
+
+    public CursorPageResult(List<T> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    /**
+     * 创建游标分页结果
+     */
+    public static <T> CursorPageResult<T> build(List<T> records, String nextCursor) {
+        return new CursorPageResult<>(records, nextCursor);
+    }
+}
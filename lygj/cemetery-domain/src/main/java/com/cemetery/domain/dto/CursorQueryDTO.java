@@ -0,0 +1,24 @@
+package com.cemetery.domain.dto;
+
+import lombok.Data;
+import java.io.Serializable;
+
+/**
+ * 游标分页查询DTO
+ * 按 (创建时间, ID) 倒序翻页，首页不传游标，之后传上一页返回的nextCursor
+ */
+@Data
+public class CursorQueryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 分页游标（上一页返回的nextCursor，首页为空）
+     */
+    private String cursor;
+
+    /**
+     * 每页显示条数
+     */
+    private Integer pageSize = 10;
+}
@@ -0,0 +1,39 @@
+package com.cemetery.domain.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 纪念空间互动计数增量DTO（用于批量回写）
+ */
+@Data
+public class MemorialCounterDeltaDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 纪念空间ID
+     */
+    private Long memorialId;
+
+    /**
+     * 访问次数增量
+     */
+    private Long visitDelta = 0L;
+
+    /**
+     * 点烛次数增量
+     */
+    private Long candleDelta = 0L;
+
+    /**
+     * 献花次数增量
+     */
+    private Long flowerDelta = 0L;
+
+    /**
+     * 上香次数增量
+     */
+    private Long incenseDelta = 0L;
+}
@@ -0,0 +1,45 @@
+package com.cemetery.domain.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 统计汇总行DTO（增量写入、对账覆盖和读取共用）
+ */
+@Data
+public class StatRollupDeltaDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 统计日期（仅按天汇总使用）
+     */
+    private Date statDate;
+
+    /**
+     * 纪念空间ID（按天汇总中0表示全站）
+     */
+    private Long memorialId;
+
+    /**
+     * 指标名
+     */
+    private String metric;
+
+    /**
+     * 指标值或增量
+     */
+    private Long metricValue;
+
+    public StatRollupDeltaDTO() {
+    }
+
+    public StatRollupDeltaDTO(Date statDate, Long memorialId, String metric, Long metricValue) {
+        this.statDate = statDate;
+        this.memorialId = memorialId;
+        this.metric = metric;
+        this.metricValue = metricValue;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cemetery.domain.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 访问分桶统计（按小时/按天）
+ */
+@Data
+public class VisitStatBucketDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 纪念空间ID（0表示全站）
+     */
+    private Long memorialId;
+
+    /**
+     * 分桶时间（整点或当天零点）
+     */
+    private Date bucketTime;
+
+    /**
+     * 访问类型编码
+     */
+    private Integer visitType;
+
+    /**
+     * 次数
+     */
+    private Long visitCount;
+
+    public VisitStatBucketDTO() {
+    }
+
+    public VisitStatBucketDTO(Long memorialId, Date bucketTime, Integer visitType, Long visitCount) {
+        this.memorialId = memorialId;
+        this.bucketTime = bucketTime;
+        this.visitType = visitType;
+        this.visitCount = visitCount;
+    }
+}
@@ -0,0 +1,76 @@
+package com.cemetery.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 搜索索引同步发件箱实体类
+ * 与纪念空间变更在同一事务内写入，由后台任务同步到Elasticsearch后标记完成；
+ * 处理完成即定期物理清理，没有逻辑删除和审计字段，因此不继承BaseEntity
+ */
+@Data
+@TableName("memorial_index_outbox")
+public class MemorialIndexOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 记录ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 纪念空间ID
+     */
+    @TableField("memorial_id")
+    private Long memorialId;
+
+    /**
+     * 触发操作（UPSERT / DELETE）
+     */
+    @TableField("operation")
+    private String operation;
+
+    /**
+     * 状态（0-待处理，1-已完成，2-失败）
+     */
+    @TableField("status")
+    private Integer status;
+
+    /**
+     * 已重试次数
+     */
+    @TableField("retry_count")
+    private Integer retryCount;
+
+    /**
+     * 最早可处理时间
+     */
+    @TableField("next_retry_time")
+    private Date nextRetryTime;
+
+    /**
+     * 最近一次失败原因
+     */
+    @TableField("last_error")
+    private String lastError;
+
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField("update_time")
+    private Date updateTime;
+}
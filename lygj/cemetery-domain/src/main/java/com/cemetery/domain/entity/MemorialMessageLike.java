@@ -0,0 +1,51 @@
+package com.cemetery.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 留言点赞记录实体类
+ * 点赞记录只新增和物理删除（取消点赞），没有逻辑删除和审计字段，因此不继承BaseEntity
+ */
+@Data
+@TableName("memorial_message_like")
+public class MemorialMessageLike implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 点赞ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 留言ID（关联memorial_message）
+     */
+    @TableField("message_id")
+    private Long messageId;
+
+    /**
+     * 点赞用户ID（关联sys_user，匿名点赞时为NULL）
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * IP地址（匿名点赞按IP去重）
+     */
+    @TableField("ip_address")
+    private String ipAddress;
+
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private Date createTime;
+}
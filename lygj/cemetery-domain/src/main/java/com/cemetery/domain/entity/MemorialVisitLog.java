@@ -0,0 +1,100 @@
+package com.cemetery.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.cemetery.domain.enums.VisitTypeEnum;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 纪念空间访问记录实体类
+ * 访问日志只追加不修改，没有逻辑删除和审计字段，因此不继承BaseEntity
+ */
+@Data
+@TableName("memorial_visit_log")
+public class MemorialVisitLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 访问ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 纪念空间ID（关联digital_memorial）
+     */
+    @TableField("memorial_id")
+    private Long memorialId;
+
+    /**
+     * 访问用户ID（关联sys_user，匿名访问时为NULL）
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 访客昵称
+     */
+    @TableField("visitor_name")
+    private String visitorName;
+
+    /**
+     * 访问类型
+     */
+    @TableField("visit_type")
+    private VisitTypeEnum visitType;
+
+    /**
+     * IP地址
+     */
+    @TableField("ip_address")
+    private String ipAddress;
+
+    /**
+     * 访问位置-省份
+     */
+    @TableField("location_province")
+    private String locationProvince;
+
+    /**
+     * 访问位置-城市
+     */
+    @TableField("location_city")
+    private String locationCity;
+
+    /**
+     * 设备类型（PC/Mobile/Tablet）
+     */
+    @TableField("device_type")
+    private String deviceType;
+
+    /**
+     * 设备信息
+     */
+    @TableField("device_info")
+    private String deviceInfo;
+
+    /**
+     * 浏览器信息
+     */
+    @TableField("browser_info")
+    private String browserInfo;
+
+    /**
+     * 访问时间（分区键）
+     */
+    @TableField("visit_time")
+    private Date visitTime;
+
+    /**
+     * 停留时长（秒）
+     */
+    @TableField("duration")
+    private Integer duration;
+}
@@ -0,0 +1,41 @@
+package com.cemetery.domain.enums;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 访问类型枚举
+ */
+@Getter
+@AllArgsConstructor
+public enum VisitTypeEnum {
+
+    VIEW(1, "浏览"),
+    CANDLE(2, "点烛"),
+    FLOWER(3, "献花"),
+    INCENSE(4, "上香"),
+    MESSAGE(5, "留言");
+
+    @EnumValue
+    private final Integer code;
+
+    @JsonValue
+    private final String desc;
+
+    /**
+     * 根据code获取枚举
+     */
+    public static VisitTypeEnum getByCode(Integer code) {
+        if (code == null) {
+            return null;
+        }
+        for (VisitTypeEnum type : values()) {
+            if (type.getCode().equals(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
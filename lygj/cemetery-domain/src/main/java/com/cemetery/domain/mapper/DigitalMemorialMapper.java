@@ -3,11 +3,14 @@ package com.cemetery.domain.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.domain.dto.MemorialCounterDeltaDTO;
 import com.cemetery.domain.entity.DigitalMemorial;
 import com.cemetery.domain.enums.AccessPermissionEnum;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -119,6 +122,54 @@ public interface DigitalMemorialMapper extends BaseMapper<DigitalMemorial> {
      */
     int incrementMessageCount(@Param("id") Long id);
 
+    /**
+     * 批量累加互动计数（UPDATE ... CASE）
+     * @param deltas 各纪念空间的计数增量
+     * @return 影响行数
+     */
+    int batchIncrementCounters(@Param("deltas") List<MemorialCounterDeltaDTO> deltas);
+
+    /**
+     * 记录计数回写批次（批次号已存在时忽略）
+     * @param batchNo 批次号
+     * @param memorialCount 本批次涉及的纪念空间数量
+     * @return 影响行数（0表示该批次已回写过）
+     */
+    int insertCounterFlushLog(@Param("batchNo") String batchNo, @Param("memorialCount") Integer memorialCount);
+
+    /**
+     * 清理过期的计数回写批次记录
+     * @param beforeTime 截止时间
+     * @return 影响行数
+     */
+    int deleteCounterFlushLogBefore(@Param("beforeTime") Date beforeTime);
+
+    /**
+     * 按主键顺序分批查询纪念空间ID
+     * @param lastId 上一批的最大ID（首批传0）
+     * @param limit 每批数量
+     * @return 纪念空间ID列表（升序）
+     */
+    List<Long> selectIdsAfter(@Param("lastId") Long lastId, @Param("limit") Integer limit);
+
+    /**
+     * 按主键顺序分批查询纪念空间计数（用于重建排行榜，留言数取自统计汇总表）
+     * @param lastId 上一批的最大ID（首批传0）
+     * @param limit 每批数量
+     * @param messageMetric 汇总表中留言总数的指标名
+     * @return 纪念空间计数（升序）
+     */
+    List<DigitalMemorial> selectCountersAfter(@Param("lastId") Long lastId, @Param("limit") Integer limit,
+                                              @Param("messageMetric") String messageMetric);
+
+    /**
+     * 按计数排行查询纪念空间（只返回排行展示字段）
+     * @param orderBy 排序字段：visitCount / messageCount / interactionCount
+     * @param limit 数量
+     * @return 纪念空间列表
+     */
+    List<DigitalMemorial> selectTopMemorials(@Param("orderBy") String orderBy, @Param("limit") Integer limit);
+
     /**
      * 统计纪念空间总数
      * @param isPublished 是否已发布
@@ -149,4 +200,38 @@ public interface DigitalMemorialMapper extends BaseMapper<DigitalMemorial> {
      * @return 纪念空间详情
      */
     DigitalMemorial selectMemorialWithDetails(@Param("id") Long id);
+
+    /**
+     * 批量查询构建搜索文档所需的字段（联表逝者、墓位，留言数取自统计汇总表）
+     * @param ids 纪念空间ID列表
+     * @param messageMetric 汇总表中留言总数的指标名
+     * @return 未删除的纪念空间（含逝者姓名、照片和墓位编号）
+     */
+    List<DigitalMemorial> selectForSearchIndex(@Param("ids") Collection<Long> ids,
+                                               @Param("messageMetric") String messageMetric);
+
+    /**
+     * 按主键区间分批查询构建搜索文档所需的字段
+     * @param lastId 上一批的最大ID（区间起点减一）
+     * @param endId 区间终点（包含）
+     * @param limit 每批数量
+     * @param messageMetric 汇总表中留言总数的指标名
+     * @return 纪念空间（升序）
+     */
+    List<DigitalMemorial> selectForSearchIndexAfter(@Param("lastId") Long lastId, @Param("endId") Long endId,
+                                                    @Param("limit") Integer limit,
+                                                    @Param("messageMetric") String messageMetric);
+
+    /**
+     * 查询未删除纪念空间的主键范围
+     * @return minId、maxId，没有数据时均为null
+     */
+    Map<String, Object> selectIdRange();
+
+    /**
+     * 流式读取纪念空间（导出用，逐行回调，不在内存中保留结果集）
+     * @param memorialId 纪念空间ID（可选）
+     * @param handler 逐行处理器
+     */
+    void streamForExport(@Param("memorialId") Long memorialId, ResultHandler<DigitalMemorial> handler);
 }
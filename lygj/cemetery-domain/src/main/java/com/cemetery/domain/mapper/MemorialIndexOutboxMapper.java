@@ -0,0 +1,98 @@
+package com.cemetery.domain.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cemetery.domain.entity.MemorialIndexOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 搜索索引同步发件箱Mapper接口
+ */
+@Mapper
+public interface MemorialIndexOutboxMapper extends BaseMapper<MemorialIndexOutbox> {
+
+    /**
+     * 按逝者写入发件箱（逝者信息变更影响其纪念空间文档）
+     * @param deceasedId 逝者ID
+     * @param operation 触发操作
+     * @return 影响行数
+     */
+    int insertByDeceasedId(@Param("deceasedId") Long deceasedId, @Param("operation") String operation);
+
+    /**
+     * 按墓位写入发件箱（墓位信息变更影响其纪念空间文档）
+     * @param tombId 墓位ID
+     * @param operation 触发操作
+     * @return 影响行数
+     */
+    int insertByTombId(@Param("tombId") Long tombId, @Param("operation") String operation);
+
+    /**
+     * 查询当前最大记录ID
+     * @return 最大ID，没有记录时为null
+     */
+    Long selectMaxId();
+
+    /**
+     * 查询ID区间内涉及的纪念空间（重建索引时追平重建期间的变更）
+     * @param afterId 起始ID（不含）
+     * @param toId 结束ID（包含）
+     * @return 去重后的纪念空间ID
+     */
+    List<Long> selectMemorialIdsBetween(@Param("afterId") Long afterId, @Param("toId") Long toId);
+
+    /**
+     * 查询当前最小记录ID（嵌入式索引据此判断停机期间是否有记录已被清理）
+     * @return 最小ID，没有记录时为null
+     */
+    Long selectMinId();
+
+    /**
+     * 按ID顺序查询指定位置之后的记录，不区分状态（嵌入式索引按位置追踪变更）
+     * @param afterId 起始ID（不含）
+     * @param limit 数量
+     * @return 记录（只含id、memorial_id、create_time）
+     */
+    List<MemorialIndexOutbox> selectAfter(@Param("afterId") Long afterId, @Param("limit") Integer limit);
+
+    /**
+     * 按ID顺序查询到期的待处理记录
+     * @param limit 数量
+     * @return 待处理记录（升序）
+     */
+    List<MemorialIndexOutbox> selectDue(@Param("limit") Integer limit);
+
+    /**
+     * 标记为已完成
+     * @param ids 记录ID
+     * @return 影响行数
+     */
+    int markDone(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 标记处理失败：重试次数加一，按指数退避推迟下次处理，超过最大重试次数标记为失败
+     * @param ids 记录ID
+     * @param error 失败原因
+     * @param baseDelaySeconds 首次重试间隔（秒）
+     * @param maxDelaySeconds 最大重试间隔（秒）
+     * @param maxRetries 最大重试次数
+     * @return 影响行数
+     */
+    int markRetry(@Param("ids") Collection<Long> ids,
+                  @Param("error") String error,
+                  @Param("baseDelaySeconds") Integer baseDelaySeconds,
+                  @Param("maxDelaySeconds") Integer maxDelaySeconds,
+                  @Param("maxRetries") Integer maxRetries);
+
+    /**
+     * 清理已完成的记录
+     * @param beforeTime 截止时间
+     * @param limit 单次删除数量
+     * @return 影响行数
+     */
+    int deleteDoneBefore(@Param("beforeTime") Date beforeTime, @Param("limit") Integer limit);
+}
@@ -0,0 +1,38 @@
+package com.cemetery.domain.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cemetery.domain.entity.MemorialMessageLike;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 留言点赞记录Mapper接口
+ */
+@Mapper
+public interface MemorialMessageLikeMapper extends BaseMapper<MemorialMessageLike> {
+
+    /**
+     * 查询访客点赞过的留言ID（登录用户按用户ID，匿名访客按IP）
+     * @param messageIds 留言ID列表
+     * @param userId 用户ID（匿名时为null）
+     * @param ipAddress IP地址
+     * @return 已点赞的留言ID
+     */
+    List<Long> selectLikedMessageIds(@Param("messageIds") Collection<Long> messageIds,
+                                     @Param("userId") Long userId,
+                                     @Param("ipAddress") String ipAddress);
+
+    /**
+     * 删除访客对留言的点赞记录
+     * @param messageId 留言ID
+     * @param userId 用户ID（匿名时为null）
+     * @param ipAddress IP地址
+     * @return 影响行数
+     */
+    int deleteByVisitor(@Param("messageId") Long messageId,
+                        @Param("userId") Long userId,
+                        @Param("ipAddress") String ipAddress);
+}
@@ -8,7 +8,9 @@ import com.cemetery.domain.enums.AuditStatusEnum;
 import com.cemetery.domain.enums.MessageTypeEnum;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -220,4 +222,43 @@ public interface MemorialMessageMapper extends BaseMapper<MemorialMessage> {
             @Param("messageId") Long messageId,
             @Param("userId") Long userId
     );
+
+    /**
+     * 批量累加留言点赞数（单条UPDATE ... CASE，结果不小于0）
+     * @param deltas 留言ID -> 点赞数增量
+     * @return 影响行数
+     */
+    int batchIncrementLikeCount(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 批量查询多条留言的回复，每条父留言最多取前limit条（按创建时间升序）
+     * @param parentIds 父留言ID列表
+     * @param auditStatus 审核状态
+     * @param limit 每条父留言的回复数量上限
+     * @return 回复列表（按父留言、创建时间排序）
+     */
+    List<MemorialMessage> selectRepliesByParentIds(@Param("parentIds") Collection<Long> parentIds,
+                                                   @Param("auditStatus") AuditStatusEnum auditStatus,
+                                                   @Param("limit") Integer limit);
+
+    /**
+     * 批量统计多条留言的回复数
+     * @param parentIds 父留言ID列表
+     * @param auditStatus 审核状态
+     * @return parent_id、reply_count
+     */
+    List<Map<String, Object>> countRepliesByParentIds(@Param("parentIds") Collection<Long> parentIds,
+                                                      @Param("auditStatus") AuditStatusEnum auditStatus);
+
+    /**
+     * 按时间范围流式读取留言（导出用，逐行回调，不在内存中保留结果集）
+     * @param memorialId 纪念空间ID（可选）
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param handler 逐行处理器
+     */
+    void streamForExport(@Param("memorialId") Long memorialId,
+                         @Param("startTime") Date startTime,
+                         @Param("endTime") Date endTime,
+                         ResultHandler<MemorialMessage> handler);
 }
@@ -0,0 +1,76 @@
+package com.cemetery.domain.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.cemetery.domain.dto.VisitStatBucketDTO;
+import com.cemetery.domain.entity.MemorialVisitLog;
+import com.cemetery.domain.enums.VisitTypeEnum;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 纪念空间访问记录Mapper接口（memorial_visit_log 及按小时/按天分桶统计表）
+ */
+@Mapper
+public interface MemorialVisitLogMapper extends BaseMapper<MemorialVisitLog> {
+
+    /**
+     * 多行批量写入访问记录
+     * @param logs 访问记录
+     * @return 影响行数
+     */
+    int batchInsert(@Param("logs") List<MemorialVisitLog> logs);
+
+    /**
+     * 批量累加按小时分桶统计
+     * @param buckets 分桶增量
+     * @return 影响行数
+     */
+    int batchIncrementHourly(@Param("buckets") List<VisitStatBucketDTO> buckets);
+
+    /**
+     * 批量累加按天分桶统计
+     * @param buckets 分桶增量
+     * @return 影响行数
+     */
+    int batchIncrementDaily(@Param("buckets") List<VisitStatBucketDTO> buckets);
+
+    /**
+     * 按时间范围查询按小时分桶统计
+     * @param memorialId 纪念空间ID（0表示全站）
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @return 分桶统计
+     */
+    List<VisitStatBucketDTO> selectHourlyBuckets(@Param("memorialId") Long memorialId,
+                                                 @Param("startTime") Date startTime,
+                                                 @Param("endTime") Date endTime);
+
+    /**
+     * 按日期范围查询按天分桶统计
+     * @param memorialId 纪念空间ID（0表示全站）
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 分桶统计
+     */
+    List<VisitStatBucketDTO> selectDailyBuckets(@Param("memorialId") Long memorialId,
+                                                @Param("startDate") Date startDate,
+                                                @Param("endDate") Date endDate);
+
+    /**
+     * 按时间范围流式读取访问记录（导出用，逐行回调，不在内存中保留结果集）
+     * @param memorialId 纪念空间ID（可选）
+     * @param visitTypes 访问类型
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param handler 逐行处理器
+     */
+    void streamForExport(@Param("memorialId") Long memorialId,
+                         @Param("visitTypes") List<VisitTypeEnum> visitTypes,
+                         @Param("startTime") Date startTime,
+                         @Param("endTime") Date endTime,
+                         ResultHandler<MemorialVisitLog> handler);
+}
@@ -0,0 +1,144 @@
+package com.cemetery.domain.mapper;
+
+import com.cemetery.domain.dto.StatRollupDeltaDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统计汇总表Mapper接口（stat_global_summary / stat_memorial_summary / stat_daily_summary）
+ */
+@Mapper
+public interface StatisticsRollupMapper {
+
+    /**
+     * 批量累加全站汇总
+     * @param rows 指标增量
+     * @return 影响行数
+     */
+    int batchIncrementGlobal(@Param("rows") List<StatRollupDeltaDTO> rows);
+
+    /**
+     * 批量累加纪念空间汇总
+     * @param rows 指标增量
+     * @return 影响行数
+     */
+    int batchIncrementMemorial(@Param("rows") List<StatRollupDeltaDTO> rows);
+
+    /**
+     * 批量累加按天汇总
+     * @param rows 指标增量
+     * @return 影响行数
+     */
+    int batchIncrementDaily(@Param("rows") List<StatRollupDeltaDTO> rows);
+
+    /**
+     * 批量覆盖全站汇总（对账使用）
+     * @param rows 指标值
+     * @return 影响行数
+     */
+    int batchReplaceGlobal(@Param("rows") List<StatRollupDeltaDTO> rows);
+
+    /**
+     * 批量写入纪念空间汇总（对账使用，调用前已删除旧值）
+     * @param rows 指标值
+     * @return 影响行数
+     */
+    int batchInsertMemorial(@Param("rows") List<StatRollupDeltaDTO> rows);
+
+    /**
+     * 批量写入按天汇总（对账使用，调用前已删除旧值）
+     * @param rows 指标值
+     * @return 影响行数
+     */
+    int batchInsertDaily(@Param("rows") List<StatRollupDeltaDTO> rows);
+
+    /**
+     * 删除纪念空间的内容和留言指标
+     * @param memorialIds 纪念空间ID
+     * @return 影响行数
+     */
+    int deleteMemorialMetrics(@Param("memorialIds") Collection<Long> memorialIds);
+
+    /**
+     * 删除指定日期起的内容、留言和新增纪念空间指标
+     * @param startDate 起始日期（含）
+     * @return 影响行数
+     */
+    int deleteDailyMetrics(@Param("startDate") Date startDate);
+
+    /**
+     * 查询全站汇总
+     * @return 指标列表
+     */
+    List<StatRollupDeltaDTO> selectGlobal();
+
+    /**
+     * 查询纪念空间汇总
+     * @param memorialId 纪念空间ID
+     * @return 指标列表
+     */
+    List<StatRollupDeltaDTO> selectMemorial(@Param("memorialId") Long memorialId);
+
+    /**
+     * 按日期范围合计按天汇总
+     * @param memorialId 纪念空间ID（0表示全站）
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 各指标合计
+     */
+    List<StatRollupDeltaDTO> sumDaily(@Param("memorialId") Long memorialId,
+                                      @Param("startDate") Date startDate,
+                                      @Param("endDate") Date endDate);
+
+    /**
+     * 统计全站汇总是否已有数据
+     * @return 行数
+     */
+    Long countGlobal();
+
+    /**
+     * 按源表汇总纪念空间数量和互动计数
+     * @return memorial_total, memorial_published, visit, candle, flower, incense
+     */
+    Map<String, Object> aggregateMemorialTotals();
+
+    /**
+     * 按源表汇总内容数量和大小
+     * @param memorialIds 纪念空间ID，为空时按类型汇总全站
+     * @return memorialId, contentType, cnt, totalSize
+     */
+    List<Map<String, Object>> aggregateContents(@Param("memorialIds") Collection<Long> memorialIds);
+
+    /**
+     * 按源表汇总留言数量
+     * @param memorialIds 纪念空间ID，为空时按类型汇总全站
+     * @return memorialId, messageType, cnt
+     */
+    List<Map<String, Object>> aggregateMessages(@Param("memorialIds") Collection<Long> memorialIds);
+
+    /**
+     * 按源表汇总指定时间之后每天新增的纪念空间
+     * @param startTime 起始时间
+     * @return statDate, cnt
+     */
+    List<Map<String, Object>> aggregateDailyMemorials(@Param("startTime") Date startTime);
+
+    /**
+     * 按源表汇总指定时间之后每天新增的内容
+     * @param startTime 起始时间
+     * @return statDate, memorialId, contentType, cnt, totalSize
+     */
+    List<Map<String, Object>> aggregateDailyContents(@Param("startTime") Date startTime);
+
+    /**
+     * 按源表汇总指定时间之后每天新增的留言
+     * @param startTime 起始时间
+     * @return statDate, memorialId, messageType, cnt
+     */
+    List<Map<String, Object>> aggregateDailyMessages(@Param("startTime") Date startTime);
+}
@@ -0,0 +1,67 @@
+package com.cemetery.domain.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量操作结果VO
+ * 按ID返回处理结果：成功的ID列表，失败的ID及原因
+ */
+@Data
+public class BatchOperationVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 请求处理的ID数量（去重后）
+     */
+    private Integer total = 0;
+
+    /**
+     * 成功数量
+     */
+    private Integer successCount = 0;
+
+    /**
+     * 失败数量
+     */
+    private Integer failedCount = 0;
+
+    /**
+     * 实际影响的记录数（含级联处理的回复）
+     */
+    private Integer affectedCount = 0;
+
+    /**
+     * 成功的ID列表
+     */
+    private List<Long> successIds = new ArrayList<>();
+
+    /**
+     * 失败的ID及原因
+     */
+    private Map<Long, String> failures = new LinkedHashMap<>();
+
+    /**
+     * 记录成功的ID
+     */
+    public void success(Long id) {
+        successIds.add(id);
+        successCount++;
+        total++;
+    }
+
+    /**
+     * 记录失败的ID及原因
+     */
+    public void fail(Long id, String reason) {
+        failures.put(id, reason);
+        failedCount++;
+        total++;
+    }
+}
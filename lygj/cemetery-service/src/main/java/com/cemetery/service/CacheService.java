@@ -1,10 +1,16 @@
 package com.cemetery.service;
 
+import com.cemetery.service.cache.CacheCleanupProgress;
+import com.cemetery.service.cache.CachePipeline;
+import com.cemetery.service.cache.CachePrefixStats;
+
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -41,6 +47,8 @@ public interface CacheService {
 
     /**
      * 获取缓存，如果不存在则从数据库加载并缓存
+     * 同一个键的并发加载在进程内和集群内都只执行一次；过期后可继续返回旧值并在后台刷新，
+     * 此时加载器会在刷新线程中执行，不能依赖请求线程上下文
      *
      * @param key 键
      * @param loader 数据加载器
@@ -52,7 +60,7 @@ public interface CacheService {
     <T> T get(String key, Supplier<T> loader, long timeout, TimeUnit unit);
 
     /**
-     * 批量获取缓存
+     * 批量获取缓存（只返回命中的值）
      *
      * @param keys 键列表
      * @param <T> 值类型
@@ -60,6 +68,35 @@ public interface CacheService {
      */
     <T> List<T> multiGet(Collection<String> keys);
 
+    /**
+     * 批量获取缓存，结果与键一一对应，未命中的位置为null
+     *
+     * @param keys 键列表
+     * @param <T> 值类型
+     * @return 值列表
+     */
+    <T> List<T> multiGetAligned(List<String> keys);
+
+    /**
+     * 批量获取缓存，未命中的键通过批量加载器一次加载，并在一个管道中写回
+     *
+     * @param keys 键列表
+     * @param loader 批量加载器，入参为未命中的键，返回 键 -> 值（未返回的键视为不存在）
+     * @param timeout 过期时间
+     * @param unit 时间单位
+     * @param <T> 值类型
+     * @return 值列表，与键一一对应，不存在的位置为null
+     */
+    <T> List<T> multiGet(List<String> keys, Function<List<String>, Map<String, T>> loader, long timeout, TimeUnit unit);
+
+    /**
+     * 在同一个连接上以管道方式执行多种操作（一次网络往返）
+     *
+     * @param operations 操作
+     * @return 各操作的结果，顺序与调用顺序一致
+     */
+    List<Object> executePipelined(Consumer<CachePipeline> operations);
+
     /**
      * 删除缓存
      *
@@ -76,6 +113,7 @@ public interface CacheService {
 
     /**
      * 删除匹配模式的所有键
+     * 使用SCAN分批扫描并UNLINK，不阻塞Redis；形如 业务前缀:* 的模式直接按标签索引删除（仅覆盖通过set写入的键）
      *
      * @param pattern 模式
      */
@@ -252,4 +290,27 @@ public interface CacheService {
      * 清空所有缓存
      */
     void clearAllCache();
+
+    /**
+     * 获取按key前缀汇总的缓存指标（命中、未命中、回源加载、Redis耗时、值大小、本地淘汰/过期/失效、异常）
+     *
+     * @return 前缀 -> 指标名 -> 数值
+     */
+    Map<String, Map<String, Long>> getCacheStatistics();
+
+    /**
+     * 按指定指标倒序获取问题最突出的key前缀
+     *
+     * @param sort 排序字段：miss, missRate, loadTime, redisLatency, valueSize, error
+     * @param limit 返回数量
+     * @return 前缀指标列表
+     */
+    List<CachePrefixStats> getTopPrefixes(String sort, int limit);
+
+    /**
+     * 获取最近的模式删除任务进度
+     *
+     * @return 进度列表
+     */
+    List<CacheCleanupProgress> getCleanupProgress();
 }
@@ -1,8 +1,11 @@
 package com.cemetery.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.MemorialContentDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
+import com.cemetery.domain.vo.BatchOperationVO;
 import com.cemetery.domain.vo.MemorialContentVO;
 
 import java.util.List;
@@ -42,6 +45,11 @@ public interface MemorialContentService {
      */
     Page<MemorialContentVO> pageMemorialContents(Long memorialId, Integer contentType, PageQueryDTO pageQueryDTO);
 
+    /**
+     * 游标分页查询纪念空间内容（按创建时间倒序，不查询总数）
+     */
+    CursorPageResult<MemorialContentVO> cursorMemorialContents(Long memorialId, Integer contentType, CursorQueryDTO cursorQueryDTO);
+
     /**
      * 获取精选内容
      */
@@ -69,6 +77,7 @@ public interface MemorialContentService {
 
     /**
      * 批量删除内容
+     * @return 每个ID的处理结果
      */
-    void batchDeleteContents(List<Long> ids);
+    BatchOperationVO batchDeleteContents(List<Long> ids);
 }
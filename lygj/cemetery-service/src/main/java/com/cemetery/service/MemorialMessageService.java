@@ -1,11 +1,15 @@
 package com.cemetery.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.MemorialMessageDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
+import com.cemetery.domain.vo.BatchOperationVO;
 import com.cemetery.domain.vo.MemorialMessageVO;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 追思留言服务接口
@@ -42,15 +46,33 @@ public interface MemorialMessageService {
      */
     Page<MemorialMessageVO> pageMemorialMessages(Long memorialId, Integer messageType, PageQueryDTO pageQueryDTO);
 
+    /**
+     * 游标分页查询留言（按创建时间倒序，不查询总数）
+     */
+    CursorPageResult<MemorialMessageVO> cursorMemorialMessages(Long memorialId, Integer messageType, CursorQueryDTO cursorQueryDTO);
+
     /**
      * 获取留言的所有回复
      */
     List<MemorialMessageVO> getMessageReplies(Long id);
 
     /**
-     * 点赞留言
+     * 点赞留言（同一用户或IP重复点赞不重复计数）
+     * @return 当前点赞数
+     */
+    Integer likeMessage(Long id);
+
+    /**
+     * 取消点赞留言
+     * @return 当前点赞数
      */
-    void likeMessage(Long id);
+    Integer unlikeMessage(Long id);
+
+    /**
+     * 批量查询当前用户是否点赞过留言
+     * @return 留言ID -> 是否已点赞
+     */
+    Map<Long, Boolean> getLikedStatus(List<Long> ids);
 
     /**
      * 置顶留言
@@ -67,6 +89,11 @@ public interface MemorialMessageService {
      */
     void auditMessage(Long id, Integer status, String remark);
 
+    /**
+     * 获取纪念空间的置顶留言
+     */
+    List<MemorialMessageVO> getPinnedMessages(Long memorialId);
+
     /**
      * 获取最新留言
      */
@@ -78,12 +105,15 @@ public interface MemorialMessageService {
     Object getMessageStatistics(Long memorialId);
 
     /**
-     * 批量删除留言
+     * 批量删除留言（级联删除回复）
+     * @return 每个ID的处理结果
      */
-    void batchDeleteMessages(List<Long> ids);
+    BatchOperationVO batchDeleteMessages(List<Long> ids);
 
     /**
      * 批量审核留言
+     * @param remark 审核备注，为空时清除原有备注
+     * @return 每个ID的处理结果
      */
-    void batchAuditMessages(List<Long> ids, Integer status);
+    BatchOperationVO batchAuditMessages(List<Long> ids, Integer status, String remark);
 }
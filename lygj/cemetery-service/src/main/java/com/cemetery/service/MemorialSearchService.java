@@ -56,9 +56,15 @@ public interface MemorialSearchService {
     void deleteMemorialIndex(Long id);
 
     /**
-     * 重建索引
+     * 重建索引：在后台导入新版本索引后切换别名，立即返回
+     * @return 重建进度
      */
-    void rebuildIndex();
+    Map<String, Object> rebuildIndex();
+
+    /**
+     * 查询最近一次索引重建的进度
+     */
+    Map<String, Object> getRebuildProgress();
 
     /**
      * 高级搜索
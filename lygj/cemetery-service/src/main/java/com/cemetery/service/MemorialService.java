@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cemetery.domain.dto.DigitalMemorialDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.vo.DigitalMemorialVO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -103,6 +104,14 @@ public interface MemorialService {
      */
     void incrementIncenseCount(Long memorialId);
 
+    /**
+     * 订阅纪念空间实时推送（新留言及点烛、献花、上香事件）
+     * @param memorialId 纪念空间ID
+     * @param lastEventId 客户端最后收到的事件ID，断线重连时补发之后的事件
+     * @return SSE连接
+     */
+    SseEmitter subscribeLiveFeed(Long memorialId, Long lastEventId);
+
     /**
      * 查询热门纪念空间
      * @param limit 数量限制
@@ -1,5 +1,7 @@
 package com.cemetery.service;
 
+import org.springframework.core.io.Resource;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -55,10 +57,21 @@ public interface MemorialStatisticsService {
     Map<String, Object> getStorageUsage(Long memorialId);
 
     /**
-     * 导出统计报表
+     * 导出统计报表（异步执行）
+     * @return 导出任务ID
      */
     String exportStatistics(String reportType, LocalDate startDate, LocalDate endDate, Long memorialId);
 
+    /**
+     * 查询导出任务状态、进度及文件地址
+     */
+    Map<String, Object> getExportTask(String taskId);
+
+    /**
+     * 获取已完成导出任务的文件（从导出文件存储中读取）
+     */
+    Resource getExportFile(String taskId);
+
     /**
      * 获取实时统计数据
      */
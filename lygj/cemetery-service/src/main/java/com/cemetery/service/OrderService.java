@@ -1,6 +1,8 @@
 package com.cemetery.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.dto.ServiceOrderDTO;
 import com.cemetery.domain.enums.OrderStatusEnum;
@@ -69,6 +71,13 @@ public interface OrderService {
      */
     Page<ServiceOrderVO> pageOrders(PageQueryDTO pageQueryDTO);
 
+    /**
+     * 游标分页查询订单（按创建时间倒序，不查询总数）
+     * @param cursorQueryDTO 游标分页参数
+     * @return 订单列表及下一页游标
+     */
+    CursorPageResult<ServiceOrderVO> cursorOrders(CursorQueryDTO cursorQueryDTO);
+
     /**
      * 修改订单状态
      * @param orderId 订单ID
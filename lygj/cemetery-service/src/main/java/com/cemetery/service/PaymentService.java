@@ -1,6 +1,8 @@
 package com.cemetery.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.dto.PaymentRecordDTO;
 import com.cemetery.domain.enums.PaymentStatusEnum;
@@ -82,6 +84,13 @@ public interface PaymentService {
      */
     Page<PaymentRecordVO> pagePayments(PageQueryDTO pageQueryDTO);
 
+    /**
+     * 游标分页查询支付记录（按创建时间倒序，不查询总数）
+     * @param cursorQueryDTO 游标分页参数
+     * @return 支付记录列表及下一页游标
+     */
+    CursorPageResult<PaymentRecordVO> cursorPayments(CursorQueryDTO cursorQueryDTO);
+
     /**
      * 修改支付状态
      * @param paymentNo 支付流水号
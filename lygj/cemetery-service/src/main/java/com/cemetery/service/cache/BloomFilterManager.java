@@ -0,0 +1,197 @@
+package com.cemetery.service.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.entity.DigitalMemorial;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体布隆过滤器管理
+ * 业务服务在查询缓存/数据库之前先用实体ID判断是否存在，不存在的ID直接拒绝；
+ * 新增ID登记失败时留在本地待重试集合中，定时检查时重新登记，不会因为一次Redis抖动长期误判为不存在
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BloomFilterManager {
+
+    /**
+     * 纪念空间
+     */
+    public static final String MEMORIAL = "memorial";
+
+    /**
+     * 旧版按缓存key记录的布隆过滤器
+     */
+    private static final String LEGACY_FILTER_NAME = "memorial:bloom:filter";
+
+    private final RedissonClient redissonClient;
+    private final CacheConfig cacheConfig;
+    private final DigitalMemorialMapper memorialMapper;
+
+    private final Map<String, EntityBloomFilter> filters = new ConcurrentHashMap<>();
+
+    /**
+     * 登记失败待重试的ID：名称 -> ID集合
+     */
+    private final Map<String, Set<Long>> pendingAdds = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        register(new EntityBloomFilter(MEMORIAL, redissonClient, cacheConfig,
+                memorialMapper::selectIdsAfter, () -> memorialMapper.countMemorials(null),
+                id -> memorialMapper.selectCount(new LambdaQueryWrapper<DigitalMemorial>()
+                        .eq(DigitalMemorial::getId, id)) > 0));
+    }
+
+    /**
+     * 注册实体布隆过滤器
+     */
+    public void register(EntityBloomFilter filter) {
+        filters.put(filter.getName(), filter);
+    }
+
+    /**
+     * 加载或构建各布隆过滤器（启动时调用）
+     */
+    public void initialize() {
+        if (!isEnabled()) {
+            return;
+        }
+        removeLegacyFilter();
+        filters.values().forEach(filter -> {
+            try {
+                filter.initialize();
+            } catch (Exception e) {
+                log.error("布隆过滤器初始化失败: name={}", filter.getName(), e);
+            }
+        });
+    }
+
+    /**
+     * 判断实体ID是否可能存在；未启用时始终返回true
+     */
+    public boolean mightContain(String name, Long id) {
+        if (!isEnabled()) {
+            return id != null;
+        }
+        EntityBloomFilter filter = filters.get(name);
+        return filter == null ? id != null : filter.mightContain(id);
+    }
+
+    /**
+     * 登记新增的实体ID
+     * 在事务中调用时延迟到提交后写入：回滚的数据不会留下误判，重建时的全量扫描也一定能看到已登记的ID
+     */
+    public void add(String name, Long id) {
+        EntityBloomFilter filter = filters.get(name);
+        if (!isEnabled() || filter == null || id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addQuietly(filter, id);
+                }
+            });
+        } else {
+            addQuietly(filter, id);
+        }
+    }
+
+    /**
+     * 重试登记失败的ID，刷新代数并检查是否需要轮换（定时调用）
+     */
+    public void checkRotation() {
+        if (!isEnabled()) {
+            return;
+        }
+        retryPendingAdds();
+        filters.values().forEach(filter -> {
+            try {
+                filter.rotateIfSaturated();
+            } catch (Exception e) {
+                log.error("布隆过滤器轮换检查失败: name={}", filter.getName(), e);
+            }
+        });
+    }
+
+    /**
+     * 立即重建指定布隆过滤器
+     * @return 是否执行了重建（其他节点正在重建时返回false）
+     */
+    public boolean rebuild(String name) {
+        if (!isEnabled()) {
+            return false;
+        }
+        EntityBloomFilter filter = filters.get(name);
+        if (filter == null) {
+            throw new BusinessException("布隆过滤器不存在: " + name);
+        }
+        return filter.rebuild();
+    }
+
+    /**
+     * 各布隆过滤器的容量和饱和度
+     */
+    public List<BloomFilterStats> getStats() {
+        List<BloomFilterStats> result = new ArrayList<>();
+        filters.values().forEach(filter -> result.add(filter.getStats()));
+        return result;
+    }
+
+    private void addQuietly(EntityBloomFilter filter, Long id) {
+        try {
+            filter.add(id);
+        } catch (Exception e) {
+            log.warn("布隆过滤器登记失败，稍后重试: name={}, id={}, error={}", filter.getName(), id, e.getMessage());
+            pendingAdds.computeIfAbsent(filter.getName(), key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void retryPendingAdds() {
+        pendingAdds.forEach((name, ids) -> {
+            EntityBloomFilter filter = filters.get(name);
+            for (Long id : new ArrayList<>(ids)) {
+                try {
+                    if (filter != null) {
+                        filter.add(id);
+                    }
+                    ids.remove(id);
+                } catch (Exception e) {
+                    log.warn("布隆过滤器重试登记失败: name={}, pending={}, error={}", name, ids.size(), e.getMessage());
+                    return;
+                }
+            }
+        });
+    }
+
+    private void removeLegacyFilter() {
+        try {
+            if (redissonClient.getBloomFilter(LEGACY_FILTER_NAME).delete()) {
+                log.info("已删除旧版布隆过滤器: {}", LEGACY_FILTER_NAME);
+            }
+        } catch (Exception e) {
+            log.warn("删除旧版布隆过滤器失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(cacheConfig.getBloomFilterEnabled());
+    }
+}
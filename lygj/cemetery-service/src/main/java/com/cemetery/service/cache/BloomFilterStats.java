@@ -0,0 +1,65 @@
+package com.cemetery.service.cache;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 布隆过滤器状态
+ */
+@Data
+public class BloomFilterStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 名称（实体类型）
+     */
+    private String name;
+
+    /**
+     * 当前代数
+     */
+    private Long generation;
+
+    /**
+     * 正在重建的代数（未在重建时为空）
+     */
+    private Long rebuildingGeneration;
+
+    /**
+     * 预期元素数量
+     */
+    private Long expectedInsertions;
+
+    /**
+     * 位数组大小
+     */
+    private Long size;
+
+    /**
+     * 哈希函数个数
+     */
+    private Integer hashIterations;
+
+    /**
+     * 估算的已插入元素数量
+     */
+    private Long approximateCount;
+
+    /**
+     * 饱和度（已插入数量/预期数量）
+     */
+    private Double saturation;
+
+    /**
+     * 按当前元素数量估算的误判率
+     */
+    private Double estimatedFpp;
+
+    /**
+     * 最近一次重建完成时间
+     */
+    private Date lastRebuildTime;
+}
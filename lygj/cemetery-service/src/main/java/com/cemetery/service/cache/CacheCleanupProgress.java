@@ -0,0 +1,60 @@
+package com.cemetery.service.cache;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 缓存批量删除进度
+ */
+@Data
+public class CacheCleanupProgress implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 任务ID
+     */
+    private String taskId;
+
+    /**
+     * 删除模式（完整键通配符）
+     */
+    private String pattern;
+
+    /**
+     * 删除方式：TAG(标签索引), SCAN(游标扫描)
+     */
+    private String mode;
+
+    /**
+     * 已扫描键数量
+     */
+    private long scanned;
+
+    /**
+     * 已删除键数量
+     */
+    private long deleted;
+
+    /**
+     * 状态：RUNNING, FINISHED, FAILED
+     */
+    private String status;
+
+    /**
+     * 开始时间
+     */
+    private Date startTime;
+
+    /**
+     * 结束时间
+     */
+    private Date endTime;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+}
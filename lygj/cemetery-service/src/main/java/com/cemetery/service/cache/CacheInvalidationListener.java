@@ -0,0 +1,108 @@
+package com.cemetery.service.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.cemetery.common.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 本地缓存失效广播
+ * 某个节点修改或删除缓存后，通过Redis发布订阅通知其他节点删除各自的本地副本（含热点key副本）。
+ * 消息格式：节点ID|类型|内容，类型为 KEY（内容为换行分隔的完整键）、PATTERN（通配符模式）、ALL。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+
+    private static final String TYPE_KEY = "KEY";
+    private static final String TYPE_PATTERN = "PATTERN";
+    private static final String TYPE_ALL = "ALL";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 当前节点ID，用于忽略自己发出的消息
+     */
+    private static final String NODE_ID = IdUtil.fastSimpleUUID();
+
+    private final LocalCache localCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheConfig cacheConfig;
+
+    /**
+     * 广播频道
+     */
+    public String getChannel() {
+        return cacheConfig.getKeyPrefix() + cacheConfig.getInvalidationChannel();
+    }
+
+    /**
+     * 广播键失效
+     */
+    public void publishKeys(Collection<String> fullKeys) {
+        if (fullKeys == null || fullKeys.isEmpty()) {
+            return;
+        }
+        publish(TYPE_KEY, String.join("\n", fullKeys));
+    }
+
+    /**
+     * 广播模式失效
+     */
+    public void publishPattern(String fullPattern) {
+        publish(TYPE_PATTERN, fullPattern);
+    }
+
+    /**
+     * 广播清空
+     */
+    public void publishAll() {
+        publish(TYPE_ALL, "");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!localCache.isActive()) {
+            return;
+        }
+
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length < 3 || NODE_ID.equals(parts[0])) {
+            return;
+        }
+
+        switch (parts[1]) {
+            case TYPE_KEY:
+                localCache.invalidateAll(Arrays.asList(parts[2].split("\n")));
+                break;
+            case TYPE_PATTERN:
+                localCache.invalidatePattern(parts[2]);
+                break;
+            case TYPE_ALL:
+                localCache.clear();
+                break;
+            default:
+                log.warn("未知的缓存失效消息类型: {}", parts[1]);
+        }
+    }
+
+    private void publish(String type, String content) {
+        if (!localCache.isActive()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(getChannel(), NODE_ID + SEPARATOR + type + SEPARATOR + content);
+        } catch (Exception e) {
+            log.error("缓存失效广播失败: type={}", type, e);
+        }
+    }
+}
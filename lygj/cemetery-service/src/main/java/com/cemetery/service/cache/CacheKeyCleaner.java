@@ -0,0 +1,260 @@
+package com.cemetery.service.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.cemetery.common.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 缓存批量删除器
+ * 不使用会阻塞Redis的KEYS命令：
+ * 1. 形如 前缀:* 的模式优先走标签索引（写缓存时按前缀记录到有序集合中，分数为键的过期时间，
+ *    每次登记时顺带移除已过期的成员，索引大小随活跃键数量而不是历史写入量增长），无需扫描整个键空间
+ * 2. 其他模式用SCAN游标分批扫描，每凑满一批用UNLINK异步删除
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheKeyCleaner {
+
+    private static final String TAG_KEY = "tagidx:";
+
+    /**
+     * 旧版标签索引（Set，成员只在删除时移除），存在时按模式删除改走扫描并在删除后移除
+     */
+    private static final String LEGACY_TAG_KEY = "tag:";
+    private static final String MODE_TAG = "TAG";
+    private static final String MODE_SCAN = "SCAN";
+    private static final int MAX_PROGRESS_HISTORY = 20;
+
+    /**
+     * 登记键并移除已过期的成员：KEYS[1]标签索引；ARGV[1]成员 ARGV[2]成员过期时间戳（秒）ARGV[3]当前时间戳（秒）
+     * ARGV[4]索引过期秒数。索引过期时间只延长不缩短：短过期的键（如空值占位）不能让长过期键提前失去索引
+     */
+    private static final byte[] INDEX_SCRIPT = ("redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) "
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3]) "
+            + "local ttl = redis.call('TTL', KEYS[1]) "
+            + "if ttl < 0 or ttl < tonumber(ARGV[4]) then redis.call('EXPIRE', KEYS[1], ARGV[4]) end "
+            + "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheConfig cacheConfig;
+    private final CacheMetrics cacheMetrics;
+
+    /**
+     * 最近的删除任务进度（按开始时间顺序，最多保留MAX_PROGRESS_HISTORY条）
+     */
+    private final Map<String, CacheCleanupProgress> progressMap = Collections.synchronizedMap(
+            new LinkedHashMap<String, CacheCleanupProgress>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CacheCleanupProgress> eldest) {
+                    return size() > MAX_PROGRESS_HISTORY;
+                }
+            });
+
+    /**
+     * 在写缓存的同一连接（管道）中把键登记到所属前缀的标签索引
+     * @param connection Redis连接
+     * @param fullKey 完整缓存键
+     * @param timeoutSeconds 缓存过期时间（秒），标签索引过期时间不短于该时间
+     * @return 发出的命令数量（管道中用于对齐结果）
+     */
+    public int indexKey(RedisConnection connection, String fullKey, long timeoutSeconds) {
+        if (!Boolean.TRUE.equals(cacheConfig.getTagIndexEnabled())) {
+            return 0;
+        }
+        String tag = cacheMetrics.resolvePrefix(fullKey);
+        if (!fullKey.startsWith(cacheConfig.getKeyPrefix() + tag + ":")) {
+            return 0;
+        }
+        long expireSeconds = Math.max(timeoutSeconds, 1L) + cacheConfig.getStaleExpire();
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        connection.eval(INDEX_SCRIPT, ReturnType.INTEGER, 1, bytes(tagKey(tag)), bytes(fullKey),
+                bytes(String.valueOf(nowSeconds + expireSeconds)), bytes(String.valueOf(nowSeconds)),
+                bytes(String.valueOf(expireSeconds)));
+        return 1;
+    }
+
+    /**
+     * 按模式删除
+     * @param fullPattern 完整键通配符
+     * @return 删除进度
+     */
+    public CacheCleanupProgress deleteByPattern(String fullPattern) {
+        CacheCleanupProgress progress = new CacheCleanupProgress();
+        progress.setTaskId(IdUtil.fastSimpleUUID());
+        progress.setPattern(fullPattern);
+        progress.setStatus("RUNNING");
+        progress.setStartTime(new Date());
+        progressMap.put(progress.getTaskId(), progress);
+
+        try {
+            String tag = resolveTag(fullPattern);
+            if (tag != null && Boolean.TRUE.equals(redisTemplate.hasKey(tagKey(tag)))
+                    && !Boolean.TRUE.equals(redisTemplate.hasKey(legacyTagKey(tag)))) {
+                progress.setMode(MODE_TAG);
+                deleteByTag(tag, progress);
+            } else {
+                progress.setMode(MODE_SCAN);
+                deleteByScan(fullPattern, progress);
+                if (tag != null) {
+                    // 扫描已覆盖旧版索引中的所有键，旧版索引不再需要
+                    redisTemplate.unlink(legacyTagKey(tag));
+                }
+            }
+            progress.setStatus("FINISHED");
+        } catch (Exception e) {
+            progress.setStatus("FAILED");
+            progress.setErrorMessage(e.getMessage());
+            throw e;
+        } finally {
+            progress.setEndTime(new Date());
+            log.info("模式删除缓存结束: pattern={}, mode={}, scanned={}, deleted={}, status={}, cost={}ms",
+                    fullPattern, progress.getMode(), progress.getScanned(), progress.getDeleted(), progress.getStatus(),
+                    progress.getEndTime().getTime() - progress.getStartTime().getTime());
+        }
+        return progress;
+    }
+
+    /**
+     * 获取最近的删除任务进度
+     */
+    public List<CacheCleanupProgress> getRecentProgress() {
+        synchronized (progressMap) {
+            return new ArrayList<>(progressMap.values());
+        }
+    }
+
+    private void deleteByTag(String tag, CacheCleanupProgress progress) {
+        byte[] tagKey = bytes(tagKey(tag));
+        ScanOptions options = ScanOptions.scanOptions().count(cacheConfig.getScanCount()).build();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            // 只从索引中移除已删除的成员，扫描期间新登记的键保留在索引中，不会逃过下次删除
+            try (Cursor<RedisZSetCommands.Tuple> cursor = connection.zScan(tagKey, options)) {
+                drain(connection, new Iterator<byte[]>() {
+                    @Override
+                    public boolean hasNext() {
+                        return cursor.hasNext();
+                    }
+
+                    @Override
+                    public byte[] next() {
+                        return cursor.next().getValue();
+                    }
+                }, progress, tagKey);
+            }
+            return null;
+        });
+    }
+
+    private void deleteByScan(String fullPattern, CacheCleanupProgress progress) {
+        ScanOptions options = ScanOptions.scanOptions().match(fullPattern).count(cacheConfig.getScanCount()).build();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                drain(connection, cursor, progress, null);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 遍历游标，跳过受保护的键，凑满一批后UNLINK
+     * @param tagKey 标签索引键，不为空时同时从索引中移除已删除的成员
+     */
+    private void drain(RedisConnection connection, Iterator<byte[]> cursor, CacheCleanupProgress progress,
+                       byte[] tagKey) {
+        List<String> excludes = excludePrefixes();
+        List<byte[]> batch = new ArrayList<>(cacheConfig.getUnlinkBatchSize());
+        while (cursor.hasNext()) {
+            byte[] key = cursor.next();
+            progress.setScanned(progress.getScanned() + 1);
+            if (isExcluded(key, excludes)) {
+                continue;
+            }
+            batch.add(key);
+            if (batch.size() >= cacheConfig.getUnlinkBatchSize()) {
+                unlink(connection, batch, progress, tagKey);
+            }
+        }
+        unlink(connection, batch, progress, tagKey);
+    }
+
+    private void unlink(RedisConnection connection, List<byte[]> batch, CacheCleanupProgress progress,
+                        byte[] tagKey) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        byte[][] keys = batch.toArray(new byte[0][]);
+        Long count = connection.unlink(keys);
+        if (tagKey != null) {
+            connection.zRem(tagKey, keys);
+        }
+        progress.setDeleted(progress.getDeleted() + (count != null ? count : 0L));
+        batch.clear();
+        log.debug("模式删除缓存进行中: pattern={}, scanned={}, deleted={}",
+                progress.getPattern(), progress.getScanned(), progress.getDeleted());
+    }
+
+    /**
+     * 解析可走标签索引的前缀：模式必须是 全局前缀 + 标签 + ":*"，且标签中不含通配符
+     */
+    private String resolveTag(String fullPattern) {
+        String keyPrefix = cacheConfig.getKeyPrefix();
+        if (!fullPattern.startsWith(keyPrefix) || !fullPattern.endsWith(":*")) {
+            return null;
+        }
+        String tag = fullPattern.substring(keyPrefix.length(), fullPattern.length() - 2);
+        if (tag.isEmpty() || tag.matches(".*[*?\\[\\]].*")) {
+            return null;
+        }
+        // 只有匹配该模式的任意键在写入时都会解析出同一个前缀，索引才能覆盖所有键
+        // 例如 memorial:detail:* 可走索引，而 memorial:* 还可能匹配 memorial:detail:1，只能扫描
+        return tag.equals(cacheMetrics.resolvePrefix(keyPrefix + tag + ":x")) ? tag : null;
+    }
+
+    private List<String> excludePrefixes() {
+        List<String> excludes = new ArrayList<>();
+        if (cacheConfig.getCleanupExcludePrefixes() != null) {
+            for (String prefix : cacheConfig.getCleanupExcludePrefixes()) {
+                excludes.add(cacheConfig.getKeyPrefix() + prefix);
+            }
+        }
+        return excludes;
+    }
+
+    private boolean isExcluded(byte[] key, List<String> excludes) {
+        if (excludes.isEmpty()) {
+            return false;
+        }
+        String keyStr = new String(key, StandardCharsets.UTF_8);
+        for (String exclude : excludes) {
+            if (keyStr.startsWith(exclude)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String tagKey(String tag) {
+        return cacheConfig.getKeyPrefix() + TAG_KEY + tag;
+    }
+
+    private String legacyTagKey(String tag) {
+        return cacheConfig.getKeyPrefix() + LEGACY_TAG_KEY + tag;
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
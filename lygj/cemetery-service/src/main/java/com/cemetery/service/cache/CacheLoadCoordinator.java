@@ -0,0 +1,167 @@
+package com.cemetery.service.cache;
+
+import com.cemetery.common.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 缓存加载协调器
+ * 1. 进程内：同一个键同一时刻只有一个线程执行加载，其余线程等待并共享结果
+ * 2. 跨节点：加载前获取短租约的分布式锁，拿到锁后由调用方再检查一次缓存
+ * 3. 后台刷新：同一个键同一时刻只提交一个刷新任务，队列满时放弃
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheLoadCoordinator {
+
+    private static final String LOAD_LOCK_KEY = "lock:cache:load:";
+
+    private final RedissonClient redissonClient;
+    private final CacheConfig cacheConfig;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(
+                cacheConfig.getRefreshThreads(), cacheConfig.getRefreshThreads(),
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(cacheConfig.getRefreshQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 同步加载（进程内合并 + 跨节点加锁）
+     * @param fullKey 完整缓存键
+     * @param recheck 拿到分布式锁后再次读取缓存，返回非null表示其他节点已加载完成
+     * @param loader 实际加载并写入缓存的逻辑
+     * @return 加载结果
+     */
+    public Object load(String fullKey, Supplier<Object> recheck, Supplier<Object> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(fullKey, future);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            future.complete(loadWithLock(fullKey, recheck, loader));
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(fullKey, future);
+        }
+        return join(future);
+    }
+
+    /**
+     * 提交后台刷新，同一个键已有刷新任务时直接忽略
+     * @param fullKey 完整缓存键
+     * @param stillNeeded 拿到分布式锁后判断是否仍需刷新（其他节点可能已刷新）
+     * @param loader 实际加载并写入缓存的逻辑
+     */
+    public void refreshAsync(String fullKey, Supplier<Boolean> stillNeeded, Runnable loader) {
+        if (!refreshing.add(fullKey)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                RLock lock = redissonClient.getLock(LOAD_LOCK_KEY + fullKey);
+                boolean locked = false;
+                try {
+                    // 其他节点正在刷新时直接放弃
+                    locked = lock.tryLock(0, cacheConfig.getLoadLockLeaseMillis(), TimeUnit.MILLISECONDS);
+                    if (locked && Boolean.TRUE.equals(stillNeeded.get())) {
+                        loader.run();
+                        log.debug("缓存后台刷新完成: key={}", fullKey);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("缓存后台刷新失败: key={}", fullKey, e);
+                } finally {
+                    if (locked && lock.isHeldByCurrentThread()) {
+                        lock.unlock();
+                    }
+                    refreshing.remove(fullKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(fullKey);
+            log.warn("缓存刷新队列已满，放弃本次刷新: key={}", fullKey);
+        }
+    }
+
+    private Object loadWithLock(String fullKey, Supplier<Object> recheck, Supplier<Object> loader) {
+        RLock lock = null;
+        boolean locked = false;
+        try {
+            lock = redissonClient.getLock(LOAD_LOCK_KEY + fullKey);
+            locked = lock.tryLock(cacheConfig.getLoadLockWaitMillis(), cacheConfig.getLoadLockLeaseMillis(),
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Redis不可用时退化为进程内合并加载
+            log.error("获取缓存加载锁失败，直接加载: key={}", fullKey, e);
+        }
+
+        try {
+            // 无论是否拿到锁都再检查一次：等待期间持锁节点可能已写入缓存
+            Object cached = recheck.get();
+            if (cached != null) {
+                return cached;
+            }
+            if (!locked) {
+                log.warn("未拿到缓存加载锁，直接加载: key={}", fullKey);
+            }
+            return loader.get();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
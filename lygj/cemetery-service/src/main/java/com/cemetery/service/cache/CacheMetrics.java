@@ -0,0 +1,380 @@
+package com.cemetery.service.cache;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 缓存指标统计（按key前缀汇总）
+ * 前缀取key去掉全局前缀后的业务段，遇到数字段即截止，最多两段，如 cemetery:memorial:detail:123 -> memorial:detail
+ * 同时注册到Micrometer（cache.gets / cache.loads / cache.redis.latency / cache.value.size / cache.errors / cache.local.removals，
+ * 均带prefix标签），通过actuator的metrics、prometheus端点输出；前缀数量超过metricsMaxPrefixes后统一归入other，避免标签膨胀
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics {
+
+    private static final int MAX_PREFIX_SEGMENTS = 2;
+
+    private static final String OTHER_PREFIX = "other";
+
+    /**
+     * Redis耗时直方图桶
+     */
+    private static final Duration[] LATENCY_BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250)
+    };
+
+    /**
+     * 加载耗时直方图桶
+     */
+    private static final Duration[] LOAD_BUCKETS = {
+            Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofSeconds(3)
+    };
+
+    /**
+     * 值大小直方图桶（字节）
+     */
+    private static final double[] SIZE_BUCKETS = {256, 1024, 4096, 16384, 65536, 262144, 1048576};
+
+    /**
+     * 排行榜排序字段
+     */
+    private static final Map<String, Function<CachePrefixStats, Number>> SORT_FIELDS = new LinkedHashMap<>();
+
+    static {
+        SORT_FIELDS.put("miss", CachePrefixStats::getMiss);
+        SORT_FIELDS.put("missRate", stats -> 1D - stats.getHitRate());
+        SORT_FIELDS.put("loadTime", CachePrefixStats::getLoadTotalMillis);
+        SORT_FIELDS.put("redisLatency", CachePrefixStats::getRedisAvgMillis);
+        SORT_FIELDS.put("valueSize", CachePrefixStats::getValueMaxBytes);
+        SORT_FIELDS.put("error", CachePrefixStats::getError);
+    }
+
+    private final CacheConfig cacheConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, PrefixStats> statsMap = new ConcurrentHashMap<>();
+
+    public void recordLocalHit(String key) {
+        PrefixStats stats = stats(key);
+        stats.localHit.increment();
+        stats.localHitCounter.increment();
+    }
+
+    public void recordRemoteHit(String key) {
+        PrefixStats stats = stats(key);
+        stats.remoteHit.increment();
+        stats.remoteHitCounter.increment();
+    }
+
+    public void recordMiss(String key) {
+        PrefixStats stats = stats(key);
+        stats.miss.increment();
+        stats.missCounter.increment();
+    }
+
+    public void recordEviction(String key) {
+        PrefixStats stats = stats(key);
+        stats.eviction.increment();
+        stats.evictionCounter.increment();
+    }
+
+    public void recordExpiration(String key) {
+        PrefixStats stats = stats(key);
+        stats.expiration.increment();
+        stats.expirationCounter.increment();
+    }
+
+    public void recordInvalidation(String key) {
+        PrefixStats stats = stats(key);
+        stats.invalidation.increment();
+        stats.invalidationCounter.increment();
+    }
+
+    /**
+     * 记录一次回源加载
+     * @param nanos 加载耗时（纳秒）
+     * @param success 是否成功
+     */
+    public void recordLoad(String key, long nanos, boolean success) {
+        PrefixStats stats = stats(key);
+        stats.load.increment();
+        stats.loadNanos.add(nanos);
+        if (success) {
+            stats.loadSuccessTimer.record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            stats.loadFailure.increment();
+            stats.loadFailureTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 记录一次Redis往返耗时（管道操作按一次往返计）
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordRedisLatency(String key, long nanos) {
+        PrefixStats stats = stats(key);
+        stats.redisCalls.increment();
+        stats.redisNanos.add(nanos);
+        stats.redisTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录读写的值序列化后大小
+     */
+    public void recordValueSize(String key, int bytes) {
+        PrefixStats stats = stats(key);
+        stats.valueCount.increment();
+        stats.valueBytes.add(bytes);
+        stats.valueMaxBytes.accumulate(bytes);
+        stats.valueSizeSummary.record(bytes);
+    }
+
+    /**
+     * 记录一次缓存操作异常
+     * @param operation 操作名，如 get、set、delete
+     */
+    public void recordError(String key, String operation) {
+        PrefixStats stats = stats(key);
+        stats.error.increment();
+        Counter.builder("cache.errors")
+                .description("缓存操作异常次数")
+                .tag("prefix", stats.prefix)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 获取各前缀的指标快照
+     * @return 前缀 -> 指标名 -> 数值
+     */
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        statsMap.forEach((prefix, stats) -> result.put(prefix, stats.toMap()));
+        return result;
+    }
+
+    /**
+     * 按指定字段倒序返回问题最突出的前缀
+     * @param sort 排序字段：miss, missRate, loadTime, redisLatency, valueSize, error
+     * @param limit 返回数量
+     */
+    public List<CachePrefixStats> topPrefixes(String sort, int limit) {
+        Function<CachePrefixStats, Number> field = SORT_FIELDS.get(sort);
+        if (field == null) {
+            throw new BusinessException("不支持的排序字段: " + sort + "，可选值: " + SORT_FIELDS.keySet());
+        }
+        return statsMap.values().stream()
+                .map(PrefixStats::toStats)
+                // 按未命中率排序时忽略没有读取的前缀
+                .filter(stats -> !"missRate".equals(sort) || stats.getLocalHit() + stats.getRemoteHit() + stats.getMiss() > 0)
+                .sorted(Comparator.comparing((CachePrefixStats stats) -> field.apply(stats).doubleValue()).reversed())
+                .limit(Math.max(1, limit))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 解析key所属的统计前缀
+     */
+    public String resolvePrefix(String key) {
+        if (key == null) {
+            return OTHER_PREFIX;
+        }
+        String bizKey = key;
+        String keyPrefix = cacheConfig.getKeyPrefix();
+        if (keyPrefix != null && bizKey.startsWith(keyPrefix)) {
+            bizKey = bizKey.substring(keyPrefix.length());
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        int segments = 0;
+        for (String part : bizKey.split(":")) {
+            if (part.isEmpty() || Character.isDigit(part.charAt(0)) || segments >= MAX_PREFIX_SEGMENTS) {
+                break;
+            }
+            if (segments > 0) {
+                prefix.append(':');
+            }
+            prefix.append(part);
+            segments++;
+        }
+        return prefix.length() > 0 ? prefix.toString() : OTHER_PREFIX;
+    }
+
+    private PrefixStats stats(String key) {
+        String prefix = resolvePrefix(key);
+        PrefixStats stats = statsMap.get(prefix);
+        if (stats != null) {
+            return stats;
+        }
+        if (statsMap.size() >= cacheConfig.getMetricsMaxPrefixes()) {
+            prefix = OTHER_PREFIX;
+        }
+        return statsMap.computeIfAbsent(prefix, this::createStats);
+    }
+
+    private PrefixStats createStats(String prefix) {
+        return new PrefixStats(prefix, meterRegistry);
+    }
+
+    private static class PrefixStats {
+        private final String prefix;
+
+        private final LongAdder localHit = new LongAdder();
+        private final LongAdder remoteHit = new LongAdder();
+        private final LongAdder miss = new LongAdder();
+        private final LongAdder eviction = new LongAdder();
+        private final LongAdder expiration = new LongAdder();
+        private final LongAdder invalidation = new LongAdder();
+        private final LongAdder load = new LongAdder();
+        private final LongAdder loadFailure = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAdder redisCalls = new LongAdder();
+        private final LongAdder redisNanos = new LongAdder();
+        private final LongAdder valueCount = new LongAdder();
+        private final LongAdder valueBytes = new LongAdder();
+        private final LongAccumulator valueMaxBytes = new LongAccumulator(Math::max, 0L);
+        private final LongAdder error = new LongAdder();
+
+        private final Counter localHitCounter;
+        private final Counter remoteHitCounter;
+        private final Counter missCounter;
+        private final Counter evictionCounter;
+        private final Counter expirationCounter;
+        private final Counter invalidationCounter;
+        private final Timer loadSuccessTimer;
+        private final Timer loadFailureTimer;
+        private final Timer redisTimer;
+        private final DistributionSummary valueSizeSummary;
+
+        private PrefixStats(String prefix, MeterRegistry registry) {
+            this.prefix = prefix;
+            this.localHitCounter = getCounter(registry, prefix, "local_hit");
+            this.remoteHitCounter = getCounter(registry, prefix, "remote_hit");
+            this.missCounter = getCounter(registry, prefix, "miss");
+            this.evictionCounter = removalCounter(registry, prefix, "eviction");
+            this.expirationCounter = removalCounter(registry, prefix, "expiration");
+            this.invalidationCounter = removalCounter(registry, prefix, "invalidation");
+            this.loadSuccessTimer = loadTimer(registry, prefix, "success");
+            this.loadFailureTimer = loadTimer(registry, prefix, "failure");
+            this.redisTimer = Timer.builder("cache.redis.latency")
+                    .description("Redis往返耗时")
+                    .tag("prefix", prefix)
+                    .serviceLevelObjectives(LATENCY_BUCKETS)
+                    .register(registry);
+            this.valueSizeSummary = DistributionSummary.builder("cache.value.size")
+                    .description("缓存值序列化后大小")
+                    .baseUnit("bytes")
+                    .tag("prefix", prefix)
+                    .serviceLevelObjectives(SIZE_BUCKETS)
+                    .register(registry);
+        }
+
+        private static Counter getCounter(MeterRegistry registry, String prefix, String result) {
+            return Counter.builder("cache.gets")
+                    .description("缓存读取次数")
+                    .tag("prefix", prefix)
+                    .tag("result", result)
+                    .register(registry);
+        }
+
+        private static Counter removalCounter(MeterRegistry registry, String prefix, String cause) {
+            return Counter.builder("cache.local.removals")
+                    .description("本地缓存移除次数")
+                    .tag("prefix", prefix)
+                    .tag("cause", cause)
+                    .register(registry);
+        }
+
+        private static Timer loadTimer(MeterRegistry registry, String prefix, String result) {
+            return Timer.builder("cache.loads")
+                    .description("缓存未命中时回源加载耗时")
+                    .tag("prefix", prefix)
+                    .tag("result", result)
+                    .serviceLevelObjectives(LOAD_BUCKETS)
+                    .register(registry);
+        }
+
+        private Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            long local = localHit.sum();
+            long remote = remoteHit.sum();
+            long missed = miss.sum();
+            map.put("localHit", local);
+            map.put("remoteHit", remote);
+            map.put("miss", missed);
+            map.put("eviction", eviction.sum());
+            map.put("expiration", expiration.sum());
+            map.put("invalidation", invalidation.sum());
+            long total = local + remote + missed;
+            // 命中率以万分比表示
+            map.put("hitRatePermyriad", total == 0 ? 0L : (local + remote) * 10000 / total);
+            map.put("load", load.sum());
+            map.put("loadFailure", loadFailure.sum());
+            map.put("loadTotalMillis", TimeUnit.NANOSECONDS.toMillis(loadNanos.sum()));
+            map.put("redisCalls", redisCalls.sum());
+            map.put("redisTotalMillis", TimeUnit.NANOSECONDS.toMillis(redisNanos.sum()));
+            map.put("valueBytes", valueBytes.sum());
+            map.put("valueMaxBytes", valueMaxBytes.get());
+            map.put("error", error.sum());
+            return map;
+        }
+
+        private CachePrefixStats toStats() {
+            CachePrefixStats stats = new CachePrefixStats();
+            stats.setPrefix(prefix);
+            long local = localHit.sum();
+            long remote = remoteHit.sum();
+            long missed = miss.sum();
+            long total = local + remote + missed;
+            stats.setLocalHit(local);
+            stats.setRemoteHit(remote);
+            stats.setMiss(missed);
+            stats.setHitRate(total == 0 ? 0D : round((double) (local + remote) / total));
+            long loads = load.sum();
+            long loadMillis = TimeUnit.NANOSECONDS.toMillis(loadNanos.sum());
+            stats.setLoad(loads);
+            stats.setLoadFailure(loadFailure.sum());
+            stats.setLoadTotalMillis(loadMillis);
+            stats.setLoadAvgMillis(loads == 0 ? 0D : round(loadNanos.sum() / 1e6 / loads));
+            long calls = redisCalls.sum();
+            stats.setRedisCalls(calls);
+            stats.setRedisAvgMillis(calls == 0 ? 0D : round(redisNanos.sum() / 1e6 / calls));
+            long values = valueCount.sum();
+            stats.setValueAvgBytes(values == 0 ? 0L : valueBytes.sum() / values);
+            stats.setValueMaxBytes(valueMaxBytes.get());
+            stats.setEviction(eviction.sum());
+            stats.setExpiration(expiration.sum());
+            stats.setInvalidation(invalidation.sum());
+            stats.setError(error.sum());
+            return stats;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000D) / 1000D;
+        }
+    }
+}
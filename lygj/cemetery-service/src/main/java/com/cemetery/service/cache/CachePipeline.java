@@ -0,0 +1,159 @@
+package com.cemetery.service.cache;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 缓存管道操作
+ * 在同一个连接上依次登记多种命令，由CacheService一次性发送并按调用顺序返回结果。
+ * 一个操作可能对应多条Redis命令（如写值时登记标签索引），结果只取第一条命令的返回值；
+ * 状态类命令（如HMSET）在管道结果中没有返回值，对应位置为null。
+ */
+public class CachePipeline {
+
+    private final RedisConnection connection;
+    private final RedisSerializer<String> keySerializer;
+    private final RedisSerializer<Object> valueSerializer;
+    private final Function<String, String> keyBuilder;
+    private final CacheKeyCleaner keyCleaner;
+
+    /**
+     * 每个操作实际发出的命令数量
+     */
+    private final List<Integer> commandCounts = new ArrayList<>();
+
+    /**
+     * 被修改的值类型键（用于失效本地缓存）
+     */
+    private final Set<String> modifiedKeys = new LinkedHashSet<>();
+
+    public CachePipeline(RedisConnection connection, RedisSerializer<String> keySerializer,
+                         RedisSerializer<Object> valueSerializer, Function<String, String> keyBuilder,
+                         CacheKeyCleaner keyCleaner) {
+        this.connection = connection;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.keyBuilder = keyBuilder;
+        this.keyCleaner = keyCleaner;
+    }
+
+    public CachePipeline get(String key) {
+        connection.get(rawKey(key));
+        return record(1);
+    }
+
+    public CachePipeline set(String key, Object value, long timeout, TimeUnit unit) {
+        String fullKey = keyBuilder.apply(key);
+        connection.set(rawKey(fullKey), rawValue(value), Expiration.from(timeout, unit),
+                RedisStringCommands.SetOption.upsert());
+        int indexCommands = keyCleaner.indexKey(connection, fullKey, unit.toSeconds(timeout));
+        modifiedKeys.add(fullKey);
+        return record(1 + indexCommands);
+    }
+
+    public CachePipeline delete(String key) {
+        String fullKey = keyBuilder.apply(key);
+        connection.del(rawKey(fullKey));
+        modifiedKeys.add(fullKey);
+        return record(1);
+    }
+
+    public CachePipeline expire(String key, long timeout, TimeUnit unit) {
+        connection.pExpire(rawKey(key), unit.toMillis(timeout));
+        return record(1);
+    }
+
+    public CachePipeline increment(String key, long delta) {
+        String fullKey = keyBuilder.apply(key);
+        connection.incrBy(rawKey(fullKey), delta);
+        modifiedKeys.add(fullKey);
+        return record(1);
+    }
+
+    public CachePipeline hSet(String key, String hashKey, Object value) {
+        connection.hSet(rawKey(key), keySerializer.serialize(hashKey), rawValue(value));
+        return record(1);
+    }
+
+    public CachePipeline hSetAll(String key, Map<String, Object> map) {
+        Map<byte[], byte[]> rawMap = new LinkedHashMap<>(map.size());
+        map.forEach((hashKey, value) -> rawMap.put(keySerializer.serialize(hashKey), rawValue(value)));
+        connection.hMSet(rawKey(key), rawMap);
+        // HMSET是状态类命令，管道结果中不包含它的返回值
+        return record(0);
+    }
+
+    public CachePipeline hGet(String key, String hashKey) {
+        connection.hGet(rawKey(key), keySerializer.serialize(hashKey));
+        return record(1);
+    }
+
+    public CachePipeline hGetAll(String key) {
+        connection.hGetAll(rawKey(key));
+        return record(1);
+    }
+
+    public CachePipeline hIncrBy(String key, String hashKey, long delta) {
+        connection.hIncrBy(rawKey(key), keySerializer.serialize(hashKey), delta);
+        return record(1);
+    }
+
+    public CachePipeline sAdd(String key, Object... values) {
+        connection.sAdd(rawKey(key), rawValues(values));
+        return record(1);
+    }
+
+    public CachePipeline zAdd(String key, Object value, double score) {
+        connection.zAdd(rawKey(key), score, rawValue(value));
+        return record(1);
+    }
+
+    public CachePipeline zIncrBy(String key, Object value, double delta) {
+        connection.zIncrBy(rawKey(key), delta, rawValue(value));
+        return record(1);
+    }
+
+    /**
+     * 从管道原始结果中取出每个操作的结果
+     */
+    public List<Object> collectResults(List<Object> rawResults) {
+        List<Object> results = new ArrayList<>(commandCounts.size());
+        int index = 0;
+        for (Integer count : commandCounts) {
+            results.add(count > 0 && index < rawResults.size() ? rawResults.get(index) : null);
+            index += count;
+        }
+        return results;
+    }
+
+    public Set<String> getModifiedKeys() {
+        return modifiedKeys;
+    }
+
+    private CachePipeline record(int commandCount) {
+        commandCounts.add(commandCount);
+        return this;
+    }
+
+    private byte[] rawKey(String key) {
+        return keySerializer.serialize(keyBuilder.apply(key));
+    }
+
+    private byte[] rawValue(Object value) {
+        return valueSerializer.serialize(value);
+    }
+
+    private byte[][] rawValues(Object... values) {
+        byte[][] raw = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            raw[i] = rawValue(values[i]);
+        }
+        return raw;
+    }
+}
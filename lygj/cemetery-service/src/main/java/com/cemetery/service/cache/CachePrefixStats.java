@@ -0,0 +1,99 @@
+package com.cemetery.service.cache;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 单个key前缀的缓存指标（进程启动以来累计）
+ */
+@Data
+public class CachePrefixStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * key前缀，如 memorial:detail
+     */
+    private String prefix;
+
+    /**
+     * 本地缓存命中次数
+     */
+    private Long localHit;
+
+    /**
+     * Redis命中次数
+     */
+    private Long remoteHit;
+
+    /**
+     * 未命中次数
+     */
+    private Long miss;
+
+    /**
+     * 命中率（0-1）
+     */
+    private Double hitRate;
+
+    /**
+     * 回源加载次数
+     */
+    private Long load;
+
+    /**
+     * 回源加载失败次数
+     */
+    private Long loadFailure;
+
+    /**
+     * 回源加载总耗时（毫秒）
+     */
+    private Long loadTotalMillis;
+
+    /**
+     * 回源加载平均耗时（毫秒）
+     */
+    private Double loadAvgMillis;
+
+    /**
+     * Redis往返次数
+     */
+    private Long redisCalls;
+
+    /**
+     * Redis平均往返耗时（毫秒）
+     */
+    private Double redisAvgMillis;
+
+    /**
+     * 值平均大小（字节）
+     */
+    private Long valueAvgBytes;
+
+    /**
+     * 值最大大小（字节）
+     */
+    private Long valueMaxBytes;
+
+    /**
+     * 本地缓存淘汰次数
+     */
+    private Long eviction;
+
+    /**
+     * 本地缓存过期次数
+     */
+    private Long expiration;
+
+    /**
+     * 本地缓存失效次数
+     */
+    private Long invalidation;
+
+    /**
+     * 操作异常次数
+     */
+    private Long error;
+}
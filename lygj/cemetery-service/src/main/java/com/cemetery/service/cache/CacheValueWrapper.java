@@ -0,0 +1,59 @@
+package com.cemetery.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 带逻辑过期时间的缓存值
+ * Redis中的实际过期时间 = 逻辑过期时间 + 旧值保留时间，逻辑过期后仍可返回旧值并在后台刷新
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheValueWrapper implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存值
+     */
+    private Object value;
+
+    /**
+     * 逻辑过期时间戳（毫秒）
+     */
+    private Long expireAt;
+
+    /**
+     * 逻辑过期时长（毫秒）
+     */
+    private Long ttlMillis;
+
+    /**
+     * 是否已逻辑过期
+     */
+    public boolean isExpiredAt(long now) {
+        return expireAt != null && now >= expireAt;
+    }
+
+    /**
+     * 是否进入提前刷新窗口
+     * @param ratio 剩余时间占过期时长的比例阈值
+     */
+    public boolean shouldRefreshAt(long now, double ratio) {
+        if (expireAt == null || ttlMillis == null) {
+            return false;
+        }
+        return expireAt - now < ttlMillis * ratio;
+    }
+
+    /**
+     * 取出包装中的值，非包装对象原样返回
+     */
+    public static Object unwrap(Object cached) {
+        return cached instanceof CacheValueWrapper ? ((CacheValueWrapper) cached).getValue() : cached;
+    }
+}
@@ -0,0 +1,137 @@
+package com.cemetery.service.cache;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.domain.vo.DigitalMemorialVO;
+import com.cemetery.service.MemorialContentService;
+import com.cemetery.service.MemorialMessageService;
+import com.cemetery.service.MemorialService;
+import com.cemetery.service.MemorialStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 缓存预热器
+ * 通过业务服务的缓存读取方法加载热点数据，缓存key和过期时间与线上读取完全一致；
+ * Redis中已有的数据只会被读取（多级缓存下同时填充本地缓存），不会重复查库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer {
+
+    /**
+     * 与接口默认返回数量一致，保证预热的正是线上请求的key
+     */
+    private static final int DEFAULT_LIST_LIMIT = 10;
+
+    private final MemorialService memorialService;
+    private final MemorialContentService contentService;
+    private final MemorialMessageService messageService;
+    private final MemorialStatisticsService statisticsService;
+    private final CacheConfig cacheConfig;
+
+    /**
+     * 执行预热，阻塞直到全部完成或超时
+     */
+    public CacheWarmupReport warmUp() {
+        long start = System.currentTimeMillis();
+        CacheWarmupReport report = new CacheWarmupReport();
+
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        tasks.put("overview", statisticsService::getOverview);
+        tasks.put("popular:" + DEFAULT_LIST_LIMIT, () -> memorialService.getPopularMemorials(DEFAULT_LIST_LIMIT));
+
+        List<DigitalMemorialVO> candidates = loadCandidates();
+        List<Long> hotIds = candidates.stream()
+                .filter(vo -> vo.getVisitCount() != null && vo.getVisitCount() >= cacheConfig.getHotDataThreshold())
+                .map(DigitalMemorialVO::getId)
+                .collect(Collectors.toList());
+        for (Long memorialId : hotIds) {
+            tasks.put("detail:" + memorialId, () -> memorialService.getMemorialDetail(memorialId));
+            tasks.put("featured:" + memorialId, () -> contentService.getFeaturedContents(memorialId, DEFAULT_LIST_LIMIT));
+            tasks.put("pinned:" + memorialId, () -> messageService.getPinnedMessages(memorialId));
+        }
+        report.setCandidates(candidates.size());
+        report.setMemorials(hotIds.size());
+        report.setTotal(tasks.size());
+
+        log.info("缓存预热开始, 候选纪念空间={}, 热点纪念空间={}, 任务数={}, 并发数={}",
+                candidates.size(), hotIds.size(), tasks.size(), cacheConfig.getPreloadConcurrency());
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        int total = tasks.size();
+        int step = Math.max(1, total / 10);
+
+        ThreadPoolExecutor executor = createExecutor();
+        tasks.forEach((name, task) -> executor.execute(() -> {
+            try {
+                task.run();
+                succeeded.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("缓存预热任务失败: task={}, error={}", name, e.getMessage());
+            }
+            int done = completed.incrementAndGet();
+            if (done % step == 0 || done == total) {
+                log.info("缓存预热进度: {}/{}, 失败={}, 耗时={}ms",
+                        done, total, failed.get(), System.currentTimeMillis() - start);
+            }
+        }));
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(cacheConfig.getPreloadTimeout(), TimeUnit.SECONDS)) {
+                int cancelled = executor.shutdownNow().size();
+                log.warn("缓存预热超时, timeout={}s, 取消未开始的任务={}", cacheConfig.getPreloadTimeout(), cancelled);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        report.setSucceeded(succeeded.get());
+        report.setFailed(failed.get());
+        report.setCancelled(total - succeeded.get() - failed.get());
+        report.setCostMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * 按访问量取前N个纪念空间作为候选
+     */
+    private List<DigitalMemorialVO> loadCandidates() {
+        try {
+            List<DigitalMemorialVO> popular = memorialService.getPopularMemorials(cacheConfig.getPreloadTopN());
+            return popular != null ? popular : Collections.emptyList();
+        } catch (Exception e) {
+            log.warn("缓存预热获取热门纪念空间失败: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(1, cacheConfig.getPreloadConcurrency());
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-warmup-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -0,0 +1,49 @@
+package com.cemetery.service.cache;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 缓存预热结果
+ */
+@Data
+public class CacheWarmupReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 候选热门纪念空间数量
+     */
+    private int candidates;
+
+    /**
+     * 达到热点阈值、实际预热的纪念空间数量
+     */
+    private int memorials;
+
+    /**
+     * 预热任务总数
+     */
+    private int total;
+
+    /**
+     * 成功数量
+     */
+    private int succeeded;
+
+    /**
+     * 失败数量
+     */
+    private int failed;
+
+    /**
+     * 超时未完成（已取消）的数量
+     */
+    private int cancelled;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long costMillis;
+}
@@ -0,0 +1,310 @@
+package com.cemetery.service.cache;
+
+import com.cemetery.common.config.CacheConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 按实体ID判断是否存在的布隆过滤器（分代轮换）
+ * 布隆过滤器不支持删除，且插入数量超过预期后误判率持续上升，因此按代重建：
+ * 新一代从数据库全量加载ID，加载期间新增的ID同时写入新旧两代，加载完成后切换为当前代；
+ * 旧的当前代降为上一代并继续接收写入，直到下次轮换时删除，保证尚未刷新代数的节点不会漏判。
+ * 当前代记录加载时的最大ID，判定不存在但ID大于该值时（加载后新增、登记可能失败）回查数据库，存在则补登记。
+ * Redis结构：{prefix}bloom:{name}:state（hash：current/next/previous/rebuildTime/maxId），{prefix}bloom:{name}:{代数}
+ */
+@Slf4j
+public class EntityBloomFilter {
+
+    private static final String FIELD_CURRENT = "current";
+    private static final String FIELD_NEXT = "next";
+    private static final String FIELD_PREVIOUS = "previous";
+    private static final String FIELD_REBUILD_TIME = "rebuildTime";
+    private static final String FIELD_MAX_ID = "maxId";
+
+    /**
+     * 重建锁租约时间（分钟）
+     */
+    private static final long REBUILD_LOCK_LEASE_MINUTES = 30L;
+
+    private final String name;
+    private final RedissonClient redissonClient;
+    private final CacheConfig cacheConfig;
+    private final BiFunction<Long, Integer, List<Long>> idLoader;
+    private final Supplier<Long> countLoader;
+    private final Predicate<Long> existsChecker;
+    private final String keyBase;
+
+    /**
+     * 本节点使用的当前代数，定时从Redis刷新
+     */
+    private volatile Long currentGeneration;
+
+    /**
+     * 当前代加载时的最大ID，随代数一起刷新
+     */
+    private volatile Long loadedMaxId;
+
+    /**
+     * @param name 名称（实体类型）
+     * @param idLoader 按主键顺序分批加载ID：(上一批最大ID, 数量) -> 升序ID列表
+     * @param countLoader 实体总数，用于计算新一代的预期元素数量
+     * @param existsChecker 按ID查询数据库是否存在，用于加载后新增的ID判定不存在时回查
+     */
+    public EntityBloomFilter(String name, RedissonClient redissonClient, CacheConfig cacheConfig,
+                             BiFunction<Long, Integer, List<Long>> idLoader, Supplier<Long> countLoader,
+                             Predicate<Long> existsChecker) {
+        this.name = name;
+        this.redissonClient = redissonClient;
+        this.cacheConfig = cacheConfig;
+        this.idLoader = idLoader;
+        this.countLoader = countLoader;
+        this.existsChecker = existsChecker;
+        this.keyBase = cacheConfig.getKeyPrefix() + "bloom:" + name + ":";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 判断ID是否可能存在；返回false时一定不存在
+     * 尚未初始化或Redis异常时放行，由后续查询兜底；大于加载时最大ID的ID判定不存在时回查数据库
+     */
+    public boolean mightContain(Long id) {
+        if (id == null) {
+            return false;
+        }
+        Long generation = currentGeneration;
+        if (generation == null) {
+            return true;
+        }
+        try {
+            if (filter(generation).contains(id.toString())) {
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("布隆过滤器查询失败，放行: name={}, id={}, error={}", name, id, e.getMessage());
+            return true;
+        }
+
+        Long maxId = loadedMaxId;
+        if (maxId == null || id <= maxId || !existsChecker.test(id)) {
+            return false;
+        }
+        log.warn("布隆过滤器漏登记，按数据库放行并补登记: name={}, id={}", name, id);
+        try {
+            add(id);
+        } catch (Exception e) {
+            log.warn("布隆过滤器补登记失败: name={}, id={}, error={}", name, id, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * 添加ID，同时写入当前代、重建中的代和上一代；任一代写入失败时抛出异常，由调用方重试
+     */
+    public void add(Long id) {
+        if (id == null) {
+            return;
+        }
+        Map<String, String> generations = state().getAll(
+                new HashSet<>(Arrays.asList(FIELD_CURRENT, FIELD_NEXT, FIELD_PREVIOUS)));
+        for (String generation : new HashSet<>(generations.values())) {
+            filter(Long.valueOf(generation)).add(id.toString());
+        }
+    }
+
+    /**
+     * 从Redis刷新当前代数及其加载时的最大ID
+     */
+    public void refreshGeneration() {
+        Map<String, String> values = state().getAll(new HashSet<>(Arrays.asList(FIELD_CURRENT, FIELD_MAX_ID)));
+        String current = values.get(FIELD_CURRENT);
+        String maxId = values.get(FIELD_MAX_ID);
+        loadedMaxId = current != null && maxId != null ? Long.valueOf(maxId) : null;
+        currentGeneration = current != null ? Long.valueOf(current) : null;
+    }
+
+    /**
+     * 初始化：已有当前代则直接使用，否则从数据库构建第一代
+     */
+    public void initialize() {
+        refreshGeneration();
+        if (currentGeneration == null) {
+            log.info("布隆过滤器不存在，开始从数据库构建: name={}", name);
+            rebuild();
+        } else {
+            log.info("布隆过滤器已加载: name={}, generation={}", name, currentGeneration);
+        }
+    }
+
+    /**
+     * 饱和度达到阈值时轮换重建
+     * @return 是否执行了重建
+     */
+    public boolean rotateIfSaturated() {
+        refreshGeneration();
+        if (currentGeneration == null) {
+            return rebuild();
+        }
+        BloomFilterStats stats = getStats();
+        if (stats.getSaturation() == null || stats.getSaturation() < cacheConfig.getBloomFilterRotateThreshold()) {
+            return false;
+        }
+        log.info("布隆过滤器饱和度达到阈值，开始轮换: name={}, saturation={}, estimatedFpp={}",
+                name, stats.getSaturation(), stats.getEstimatedFpp());
+        return rebuild();
+    }
+
+    /**
+     * 重建新一代并切换（集群内同一时间只有一个节点执行）
+     * @return 是否执行了重建
+     */
+    public boolean rebuild() {
+        RLock lock = redissonClient.getLock(keyBase + "lock");
+        boolean locked;
+        try {
+            locked = lock.tryLock(0, REBUILD_LOCK_LEASE_MINUTES, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (!locked) {
+            log.info("布隆过滤器正在由其他节点重建: name={}", name);
+            return false;
+        }
+        try {
+            doRebuild();
+            return true;
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void doRebuild() {
+        long start = System.currentTimeMillis();
+        Long total = countLoader.get();
+        long expected = Math.max(cacheConfig.getBloomFilterExpectedInsertions(),
+                (long) Math.ceil((total != null ? total : 0L) * cacheConfig.getBloomFilterGrowthFactor()));
+        long generation = redissonClient.getAtomicLong(keyBase + "seq").incrementAndGet();
+
+        RBloomFilter<String> next = filter(generation);
+        next.delete();
+        next.tryInit(expected, cacheConfig.getBloomFilterFpp());
+
+        RMap<String, String> state = state();
+        // 先登记为重建中的代，此后新增的ID同时写入新旧两代
+        state.fastPut(FIELD_NEXT, String.valueOf(generation));
+
+        long loaded = 0;
+        long lastId = 0L;
+        try {
+            int batchSize = cacheConfig.getBloomFilterRebuildBatchSize();
+            while (true) {
+                List<Long> ids = idLoader.apply(lastId, batchSize);
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+                for (Long id : ids) {
+                    next.add(id.toString());
+                }
+                loaded += ids.size();
+                lastId = ids.get(ids.size() - 1);
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            state.fastRemove(FIELD_NEXT);
+            next.delete();
+            log.error("布隆过滤器重建失败: name={}, generation={}", name, generation, e);
+            throw e;
+        }
+
+        // 切换：新一代成为当前代，旧的当前代降为上一代，更早的一代删除
+        String oldCurrent = state.get(FIELD_CURRENT);
+        String oldPrevious = state.get(FIELD_PREVIOUS);
+        Map<String, String> updated = new HashMap<>();
+        updated.put(FIELD_CURRENT, String.valueOf(generation));
+        updated.put(FIELD_REBUILD_TIME, String.valueOf(System.currentTimeMillis()));
+        updated.put(FIELD_MAX_ID, String.valueOf(lastId));
+        if (oldCurrent != null) {
+            updated.put(FIELD_PREVIOUS, oldCurrent);
+        }
+        state.putAll(updated);
+        state.fastRemove(FIELD_NEXT);
+        if (oldPrevious != null && !oldPrevious.equals(String.valueOf(generation))) {
+            filter(Long.valueOf(oldPrevious)).delete();
+        }
+        loadedMaxId = lastId;
+        currentGeneration = generation;
+
+        log.info("布隆过滤器重建完成: name={}, generation={}, loaded={}, expectedInsertions={}, cost={}ms",
+                name, generation, loaded, expected, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 当前代的容量和饱和度
+     */
+    public BloomFilterStats getStats() {
+        Map<String, String> state = state().readAllMap();
+        BloomFilterStats stats = new BloomFilterStats();
+        stats.setName(name);
+        String next = state.get(FIELD_NEXT);
+        stats.setRebuildingGeneration(next != null ? Long.valueOf(next) : null);
+        String rebuildTime = state.get(FIELD_REBUILD_TIME);
+        stats.setLastRebuildTime(rebuildTime != null ? new Date(Long.parseLong(rebuildTime)) : null);
+
+        String current = state.get(FIELD_CURRENT);
+        if (current == null) {
+            return stats;
+        }
+        stats.setGeneration(Long.valueOf(current));
+        RBloomFilter<String> filter = filter(stats.getGeneration());
+        if (!filter.isExists()) {
+            return stats;
+        }
+
+        long expected = filter.getExpectedInsertions();
+        long size = filter.getSize();
+        int hashIterations = filter.getHashIterations();
+        long count = filter.count();
+        stats.setExpectedInsertions(expected);
+        stats.setSize(size);
+        stats.setHashIterations(hashIterations);
+        stats.setApproximateCount(count);
+        stats.setSaturation(round(expected > 0 ? (double) count / expected : 0D));
+        // 误判率估算：(1 - e^(-kn/m))^k
+        stats.setEstimatedFpp(round(Math.pow(1 - Math.exp(-(double) hashIterations * count / size), hashIterations)));
+        return stats;
+    }
+
+    private RBloomFilter<String> filter(long generation) {
+        return redissonClient.getBloomFilter(keyBase + generation, StringCodec.INSTANCE);
+    }
+
+    private RMap<String, String> state() {
+        return redissonClient.getMap(keyBase + "state", StringCodec.INSTANCE);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000000D) / 1000000D;
+    }
+}
@@ -0,0 +1,163 @@
+package com.cemetery.service.cache;
+
+import com.cemetery.common.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 热点key探测
+ * 按采样率对缓存读取计数，计数使用 Count-Min Sketch（固定内存，只会高估不会低估），
+ * 单个窗口内估算次数达到阈值的key标记为热点，由本地缓存保留短时副本；
+ * 窗口滚动时重置计数，连续若干窗口未达到阈值的key取消热点标记。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotKeyDetector {
+
+    /**
+     * Sketch行数（哈希函数个数）
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * Sketch每行计数器个数（2的幂）
+     */
+    private static final int WIDTH = 4096;
+
+    private final CacheConfig cacheConfig;
+
+    private final AtomicIntegerArray sketch = new AtomicIntegerArray(DEPTH * WIDTH);
+    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * 热点key
+     */
+    private final Map<String, HotKeyInfo> hotKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 是否启用
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(cacheConfig.getHotKeyEnabled());
+    }
+
+    /**
+     * 记录一次访问（按采样率计数）
+     */
+    public void record(String fullKey) {
+        if (!isEnabled() || fullKey == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        rollWindowIfNeeded(now);
+
+        double sampleRate = cacheConfig.getHotKeySampleRate();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        int hash = spread(fullKey.hashCode());
+        int step = spread(hash * 0x9E3779B9) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = i * WIDTH + ((hash + i * step) & (WIDTH - 1));
+            min = Math.min(min, sketch.incrementAndGet(index));
+        }
+
+        long estimated = (long) (min / sampleRate);
+        if (estimated >= cacheConfig.getHotKeyThreshold()) {
+            promote(fullKey, estimated, now);
+        }
+    }
+
+    /**
+     * 是否为热点key
+     */
+    public boolean isHot(String fullKey) {
+        if (!isEnabled() || hotKeys.isEmpty()) {
+            return false;
+        }
+        HotKeyInfo info = hotKeys.get(fullKey);
+        return info != null && info.getExpireTime().getTime() > System.currentTimeMillis();
+    }
+
+    /**
+     * 当前热点key（按访问次数倒序）
+     */
+    public List<HotKeyInfo> getHotKeys() {
+        long now = System.currentTimeMillis();
+        rollWindowIfNeeded(now);
+        List<HotKeyInfo> result = new ArrayList<>();
+        hotKeys.values().stream()
+                .filter(info -> info.getExpireTime().getTime() > now)
+                .sorted(Comparator.comparing(HotKeyInfo::getWindowCount).reversed())
+                .forEach(result::add);
+        return result;
+    }
+
+    private void promote(String fullKey, long estimated, long now) {
+        Date expireTime = new Date(now + cooldownMillis());
+        HotKeyInfo existing = hotKeys.get(fullKey);
+        if (existing != null) {
+            existing.setWindowCount(estimated);
+            existing.setExpireTime(expireTime);
+            return;
+        }
+        if (hotKeys.size() >= cacheConfig.getHotKeyMaxCount()) {
+            return;
+        }
+        HotKeyInfo info = new HotKeyInfo();
+        info.setKey(fullKey);
+        info.setWindowCount(estimated);
+        info.setDetectedTime(new Date(now));
+        info.setExpireTime(expireTime);
+        if (hotKeys.putIfAbsent(fullKey, info) == null) {
+            log.info("发现热点key: key={}, estimated={}/{}s", fullKey, estimated, cacheConfig.getHotKeyWindow());
+        }
+    }
+
+    /**
+     * 窗口到期时重置计数，并清理已冷却的热点key
+     */
+    private void rollWindowIfNeeded(long now) {
+        long start = windowStart.get();
+        long windowMillis = cacheConfig.getHotKeyWindow() * 1000;
+        if (now - start < windowMillis || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.set(i, 0);
+        }
+        hotKeys.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().getExpireTime().getTime() <= now;
+            if (expired) {
+                log.info("热点key已冷却: key={}", entry.getKey());
+            }
+            return expired;
+        });
+    }
+
+    private long cooldownMillis() {
+        return cacheConfig.getHotKeyWindow() * 1000 * Math.max(1, cacheConfig.getHotKeyCooldownWindows());
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
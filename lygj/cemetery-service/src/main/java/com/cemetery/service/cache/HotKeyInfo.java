@@ -0,0 +1,35 @@
+package com.cemetery.service.cache;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 热点key信息
+ */
+@Data
+public class HotKeyInfo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 完整缓存键
+     */
+    private String key;
+
+    /**
+     * 最近一次达到阈值时，所在统计窗口内估算的访问次数
+     */
+    private Long windowCount;
+
+    /**
+     * 首次判定为热点的时间
+     */
+    private Date detectedTime;
+
+    /**
+     * 热点标记到期时间（到期前未再次达到阈值则取消）
+     */
+    private Date expireTime;
+}
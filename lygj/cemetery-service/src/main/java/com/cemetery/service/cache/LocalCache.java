@@ -0,0 +1,219 @@
+package com.cemetery.service.cache;
+
+import com.cemetery.common.config.CacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 本地缓存（多级缓存L1）
+ * 容量按值序列化后的字节数计算，每个条目有独立的过期时间（不超过localMaxExpire）。
+ * 另有热点key副本区：未启用多级缓存时，热点key也会在本地保留极短时间的副本（hotKeyLocalExpireMillis），
+ * 两部分共用失效逻辑。缓存的是对象本身，读取方不应修改返回的对象。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalCache {
+
+    private final CacheConfig cacheConfig;
+    private final CacheMetrics cacheMetrics;
+
+    private Cache<String, Entry> cache;
+
+    private Cache<String, Object> hotReplicas;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(cacheConfig.getLocalMaxWeightBytes())
+                .weigher((String key, Entry entry) -> entry.weight)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (key == null) {
+                        return;
+                    }
+                    if (cause == RemovalCause.SIZE) {
+                        cacheMetrics.recordEviction(key);
+                    } else if (cause == RemovalCause.EXPIRED) {
+                        cacheMetrics.recordExpiration(key);
+                    }
+                })
+                .build();
+        hotReplicas = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getHotKeyMaxCount())
+                .expireAfterWrite(cacheConfig.getHotKeyLocalExpireMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        log.info("本地缓存初始化完成, enabled={}, maxWeightBytes={}, maxExpire={}s",
+                cacheConfig.getMultiLevelEnabled(), cacheConfig.getLocalMaxWeightBytes(), cacheConfig.getLocalMaxExpire());
+    }
+
+    /**
+     * 是否启用本地缓存
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(cacheConfig.getMultiLevelEnabled());
+    }
+
+    /**
+     * 是否需要参与失效广播（启用多级缓存或热点key副本）
+     */
+    public boolean isActive() {
+        return isEnabled() || Boolean.TRUE.equals(cacheConfig.getHotKeyEnabled());
+    }
+
+    /**
+     * 获取本地缓存值（先查热点副本）
+     * @param fullKey 完整缓存键
+     * @return 值，不存在或未启用时返回null
+     */
+    public Object get(String fullKey) {
+        Object hot = hotReplicas.getIfPresent(fullKey);
+        if (hot != null || !isEnabled()) {
+            return hot;
+        }
+        Entry entry = cache.getIfPresent(fullKey);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 写入热点key副本
+     */
+    public void putHot(String fullKey, Object value) {
+        if (value != null) {
+            hotReplicas.put(fullKey, value);
+        }
+    }
+
+    /**
+     * 写入本地缓存
+     * @param fullKey 完整缓存键
+     * @param value 值
+     * @param weight 序列化后的字节数
+     * @param ttlMillis Redis中的剩余过期时间（毫秒），小于等于0表示不过期
+     */
+    public void put(String fullKey, Object value, int weight, long ttlMillis) {
+        // 热点副本不在写入时更新，下次读取时重新从Redis加载
+        hotReplicas.invalidate(fullKey);
+        if (!isEnabled() || value == null) {
+            return;
+        }
+        long maxMillis = TimeUnit.SECONDS.toMillis(cacheConfig.getLocalMaxExpire());
+        long millis = ttlMillis > 0 ? Math.min(ttlMillis, maxMillis) : maxMillis;
+        cache.put(fullKey, new Entry(value, Math.max(weight, 1), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    /**
+     * 失效单个键
+     */
+    public void invalidate(String fullKey) {
+        hotReplicas.invalidate(fullKey);
+        if (cache.asMap().remove(fullKey) != null) {
+            cacheMetrics.recordInvalidation(fullKey);
+        }
+    }
+
+    /**
+     * 批量失效
+     */
+    public void invalidateAll(Collection<String> fullKeys) {
+        for (String fullKey : fullKeys) {
+            invalidate(fullKey);
+        }
+    }
+
+    /**
+     * 按Redis通配符模式失效（支持 * ? 及 [...]）
+     */
+    public void invalidatePattern(String fullPattern) {
+        Pattern regex = Pattern.compile(globToRegex(fullPattern));
+        hotReplicas.asMap().keySet().removeIf(key -> regex.matcher(key).matches());
+        cache.asMap().keySet().removeIf(key -> {
+            boolean matched = regex.matcher(key).matches();
+            if (matched) {
+                cacheMetrics.recordInvalidation(key);
+            }
+            return matched;
+        });
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void clear() {
+        hotReplicas.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    /**
+     * 当前条目数（近似值）
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inBracket = false;
+        for (char c : glob.toCharArray()) {
+            if (inBracket) {
+                if (c == ']') {
+                    inBracket = false;
+                }
+                regex.append(c == '\\' ? "\\\\" : String.valueOf(c));
+                continue;
+            }
+            switch (c) {
+                case '*':
+                    regex.append(".*");
+                    break;
+                case '?':
+                    regex.append('.');
+                    break;
+                case '[':
+                    inBracket = true;
+                    regex.append(c);
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final int weight;
+        private final long ttlNanos;
+
+        private Entry(Object value, int weight, long ttlNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
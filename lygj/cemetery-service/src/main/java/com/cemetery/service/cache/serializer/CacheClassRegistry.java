@@ -0,0 +1,86 @@
+package com.cemetery.service.cache.serializer;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.domain.vo.*;
+import com.cemetery.service.cache.CacheValueWrapper;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存类型注册表
+ * 二进制序列化时用短ID代替完整类名写入类型信息，未注册的类型仍写完整类名。
+ * 注意：ID一经发布不可修改或复用，新增类型只能追加新的ID，否则已写入Redis的数据将无法读取。
+ */
+public class CacheClassRegistry {
+
+    private static final String ID_PREFIX = "#";
+
+    private final Map<String, Class<?>> idToClass = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> classToId = new ConcurrentHashMap<>();
+
+    /**
+     * 创建包含默认类型的注册表
+     */
+    public static CacheClassRegistry createDefault() {
+        CacheClassRegistry registry = new CacheClassRegistry();
+        // 缓存包装与常用集合
+        registry.register(1, CacheValueWrapper.class);
+        registry.register(2, ArrayList.class);
+        registry.register(3, HashMap.class);
+        registry.register(4, LinkedHashMap.class);
+        registry.register(5, HashSet.class);
+        registry.register(6, LinkedHashSet.class);
+        registry.register(7, TreeMap.class);
+        registry.register(8, Date.class);
+        registry.register(9, Timestamp.class);
+        registry.register(10, BigDecimal.class);
+        registry.register(11, Page.class);
+        // 纪念空间相关VO
+        registry.register(20, DigitalMemorialVO.class);
+        registry.register(21, MemorialContentVO.class);
+        registry.register(22, MemorialMessageVO.class);
+        registry.register(23, DeceasedInfoVO.class);
+        registry.register(24, TombLocationVO.class);
+        return registry;
+    }
+
+    /**
+     * 注册类型
+     * @param id 类型ID（全局唯一且不可复用）
+     * @param clazz 类型
+     */
+    public void register(int id, Class<?> clazz) {
+        String typeId = ID_PREFIX + id;
+        Class<?> existing = idToClass.putIfAbsent(typeId, clazz);
+        if (existing != null && existing != clazz) {
+            throw new IllegalStateException("缓存类型ID重复: " + typeId + " -> " + existing.getName() + ", " + clazz.getName());
+        }
+        classToId.put(clazz, typeId);
+    }
+
+    /**
+     * 获取类型ID，未注册返回null
+     */
+    public String idOf(Class<?> clazz) {
+        return classToId.get(clazz);
+    }
+
+    /**
+     * 根据类型ID获取类型，非注册ID返回null
+     */
+    public Class<?> classOf(String id) {
+        return id != null && id.startsWith(ID_PREFIX) ? idToClass.get(id) : null;
+    }
+
+    /**
+     * 已注册的类型（ID -> 类名）
+     */
+    public Map<String, String> describe() {
+        Map<String, String> result = new TreeMap<>();
+        idToClass.forEach((id, clazz) -> result.put(id, clazz.getName()));
+        return result;
+    }
+}
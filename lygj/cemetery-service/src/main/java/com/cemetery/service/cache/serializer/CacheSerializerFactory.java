@@ -0,0 +1,69 @@
+package com.cemetery.service.cache.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 缓存序列化器工厂
+ */
+public final class CacheSerializerFactory {
+
+    public static final String MODE_JSON = "json";
+    public static final String MODE_COMPACT = "compact";
+
+    private CacheSerializerFactory() {
+    }
+
+    /**
+     * 原JSON序列化器（默认类型信息为完整类名）
+     */
+    public static RedisSerializer<Object> createJsonSerializer() {
+        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        serializer.setObjectMapper(mapper);
+        return serializer;
+    }
+
+    /**
+     * 紧凑序列化器
+     * @param mode 写入格式：json, compact（读取时两种格式都支持）
+     * @param compressionThreshold 压缩阈值（字节）
+     * @param codec 压缩方式：none, deflate, lz4
+     */
+    public static CompactRedisSerializer createCompactSerializer(CacheClassRegistry registry, String mode,
+                                                                 int compressionThreshold, String codec) {
+        return new CompactRedisSerializer(createSmileMapper(registry), createJsonSerializer(),
+                MODE_COMPACT.equalsIgnoreCase(mode), compressionThreshold, codec);
+    }
+
+    /**
+     * Smile二进制ObjectMapper：字段可见性与JSON一致，重复的字段名和短字符串值写为回引用
+     */
+    private static ObjectMapper createSmileMapper(CacheClassRegistry registry) {
+        SmileFactory factory = new SmileFactory();
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // 滚动升级期间新旧版本VO字段可能不一致
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        TypeResolverBuilder<?> typer = new RegistryTypeResolverBuilder(LaissezFaireSubTypeValidator.instance, registry);
+        typer = typer.init(JsonTypeInfo.Id.CLASS, null);
+        typer = typer.inclusion(JsonTypeInfo.As.WRAPPER_ARRAY);
+        mapper.setDefaultTyping(typer);
+        return mapper;
+    }
+}
@@ -0,0 +1,178 @@
+package com.cemetery.service.cache.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值紧凑序列化器
+ * 格式：魔数(1字节) + 压缩方式(1字节) + [原始长度(4字节，仅压缩时)] + Smile二进制数据
+ * 魔数不是合法的JSON首字节，读取时据此区分新旧格式，旧的JSON数据交给原JSON序列化器读取，
+ * 因此滚动升级期间新旧数据可以共存；写入格式由 writeCompact 控制。
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+
+    public static final String CODEC_NONE = "none";
+    public static final String CODEC_DEFLATE = "deflate";
+    public static final String CODEC_LZ4 = "lz4";
+
+    private static final byte FLAG_NONE = 0;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final byte FLAG_LZ4 = 2;
+
+    private static final int PLAIN_HEADER_LENGTH = 2;
+    private static final int COMPRESSED_HEADER_LENGTH = 6;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private final ObjectMapper smileMapper;
+    private final RedisSerializer<Object> jsonSerializer;
+    private final boolean writeCompact;
+    private final int compressionThreshold;
+    private final byte codec;
+
+    private final LZ4Compressor lz4Compressor;
+    private final LZ4FastDecompressor lz4Decompressor;
+
+    /**
+     * @param smileMapper 二进制编码使用的ObjectMapper
+     * @param jsonSerializer 原JSON序列化器（读取旧数据，及writeCompact=false时写入）
+     * @param writeCompact 是否以紧凑格式写入
+     * @param compressionThreshold 压缩阈值（字节），编码后不小于该值才压缩
+     * @param codec 压缩方式：none, deflate, lz4
+     */
+    public CompactRedisSerializer(ObjectMapper smileMapper, RedisSerializer<Object> jsonSerializer,
+                                  boolean writeCompact, int compressionThreshold, String codec) {
+        this.smileMapper = smileMapper;
+        this.jsonSerializer = jsonSerializer;
+        this.writeCompact = writeCompact;
+        this.compressionThreshold = compressionThreshold;
+        this.codec = toFlag(codec);
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.lz4Compressor = factory.fastCompressor();
+        this.lz4Decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+        // 整数保持JSON文本格式，INCRBY/HINCRBY 等命令仍可直接作用于该值
+        if (!writeCompact || value instanceof Long || value instanceof Integer) {
+            return jsonSerializer.serialize(value);
+        }
+
+        byte[] payload;
+        try {
+            payload = smileMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("缓存值序列化失败: " + e.getMessage(), e);
+        }
+
+        if (codec != FLAG_NONE && payload.length >= compressionThreshold) {
+            byte[] compressed = codec == FLAG_LZ4 ? lz4Compressor.compress(payload) : deflate(payload);
+            // 压缩收益不明显时保留原始数据，省去读取时的解压
+            if (compressed.length < payload.length) {
+                return ByteBuffer.allocate(COMPRESSED_HEADER_LENGTH + compressed.length)
+                        .put(MAGIC)
+                        .put(codec)
+                        .putInt(payload.length)
+                        .put(compressed)
+                        .array();
+            }
+        }
+
+        byte[] result = new byte[PLAIN_HEADER_LENGTH + payload.length];
+        result[0] = MAGIC;
+        result[1] = FLAG_NONE;
+        System.arraycopy(payload, 0, result, PLAIN_HEADER_LENGTH, payload.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < PLAIN_HEADER_LENGTH) {
+            throw new SerializationException("缓存值格式错误: 长度不足");
+        }
+
+        try {
+            byte flag = bytes[1];
+            if (flag == FLAG_NONE) {
+                return smileMapper.readValue(bytes, PLAIN_HEADER_LENGTH, bytes.length - PLAIN_HEADER_LENGTH, Object.class);
+            }
+
+            int originalLength = ByteBuffer.wrap(bytes, PLAIN_HEADER_LENGTH, 4).getInt();
+            byte[] payload;
+            if (flag == FLAG_LZ4) {
+                payload = lz4Decompressor.decompress(bytes, COMPRESSED_HEADER_LENGTH, originalLength);
+            } else if (flag == FLAG_DEFLATE) {
+                payload = inflate(bytes, COMPRESSED_HEADER_LENGTH, originalLength);
+            } else {
+                throw new SerializationException("未知的缓存压缩方式: " + flag);
+            }
+            return smileMapper.readValue(payload, Object.class);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("缓存值反序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] bytes, int offset, int originalLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] result = new byte[originalLength];
+            int length = inflater.inflate(result);
+            return length == originalLength ? result : Arrays.copyOf(result, length);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte toFlag(String codec) {
+        if (CODEC_LZ4.equalsIgnoreCase(codec)) {
+            return FLAG_LZ4;
+        }
+        if (CODEC_DEFLATE.equalsIgnoreCase(codec)) {
+            return FLAG_DEFLATE;
+        }
+        return FLAG_NONE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cemetery.service.cache.serializer;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+
+/**
+ * 基于注册表的类型ID解析器
+ * 已注册的类型写短ID，其余类型沿用完整类名
+ */
+public class RegistryTypeIdResolver extends ClassNameIdResolver {
+
+    private final CacheClassRegistry registry;
+
+    public RegistryTypeIdResolver(JavaType baseType, TypeFactory typeFactory,
+                                  PolymorphicTypeValidator ptv, CacheClassRegistry registry) {
+        super(baseType, typeFactory, ptv);
+        this.registry = registry;
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        String id = registry.idOf(value.getClass());
+        return id != null ? id : super.idFromValue(value);
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> type) {
+        String id = registry.idOf(type);
+        return id != null ? id : super.idFromValueAndType(value, type);
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        Class<?> clazz = registry.classOf(id);
+        if (clazz != null) {
+            return context.constructSpecializedType(_baseType, clazz);
+        }
+        return super.typeFromId(context, id);
+    }
+}
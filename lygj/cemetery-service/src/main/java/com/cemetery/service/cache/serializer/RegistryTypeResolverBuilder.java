@@ -0,0 +1,32 @@
+package com.cemetery.service.cache.serializer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+
+import java.util.Collection;
+
+/**
+ * 默认类型信息构建器（与 activateDefaultTyping(NON_FINAL) 行为一致，类型ID改为走注册表）
+ */
+public class RegistryTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CacheClassRegistry registry;
+
+    public RegistryTypeResolverBuilder(PolymorphicTypeValidator ptv, CacheClassRegistry registry) {
+        super(ObjectMapper.DefaultTyping.NON_FINAL, ptv);
+        this.registry = registry;
+    }
+
+    @Override
+    protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+                                        PolymorphicTypeValidator subtypeValidator, Collection<NamedType> subtypes,
+                                        boolean forSer, boolean forDeser) {
+        return new RegistryTypeIdResolver(baseType, config.getTypeFactory(), subtypeValidator, registry);
+    }
+}
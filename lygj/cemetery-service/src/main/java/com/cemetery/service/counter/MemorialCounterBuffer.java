@@ -0,0 +1,113 @@
+package com.cemetery.service.counter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 纪念空间互动计数本地累加器
+ * 按线程分段存放增量，同一热点纪念空间的并发累加会分散到不同分段，避免争抢同一把锁。
+ * 累加与取出都在ConcurrentHashMap的桶锁内完成，取出后的增量数组不会再被修改，保证不丢计数。
+ */
+public class MemorialCounterBuffer {
+
+    private static final int TYPE_COUNT = MemorialCounterType.values().length;
+
+    private final ConcurrentHashMap<Long, long[]>[] stripes;
+
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    public MemorialCounterBuffer(int stripeCount) {
+        int size = 1;
+        while (size < Math.max(stripeCount, 1)) {
+            size <<= 1;
+        }
+        this.stripes = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 累加增量
+     */
+    public void add(Long memorialId, MemorialCounterType type, long delta) {
+        currentStripe().compute(memorialId, (id, counts) -> {
+            if (counts == null) {
+                counts = new long[TYPE_COUNT];
+            }
+            counts[type.ordinal()] += delta;
+            return counts;
+        });
+    }
+
+    /**
+     * 批量放回增量（回写失败时使用）
+     */
+    public void addAll(Map<Long, long[]> deltas) {
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            long[] counts = entry.getValue();
+            for (MemorialCounterType type : MemorialCounterType.values()) {
+                if (counts[type.ordinal()] != 0) {
+                    add(entry.getKey(), type, counts[type.ordinal()]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查看某个纪念空间尚未取出的增量（各分段求和）
+     */
+    public long[] peek(Long memorialId) {
+        long[] result = new long[TYPE_COUNT];
+        for (ConcurrentHashMap<Long, long[]> stripe : stripes) {
+            stripe.computeIfPresent(memorialId, (id, counts) -> {
+                for (int i = 0; i < TYPE_COUNT; i++) {
+                    result[i] += counts[i];
+                }
+                return counts;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 取出并清空所有增量（按纪念空间合并各分段）
+     */
+    public Map<Long, long[]> drain() {
+        Map<Long, long[]> result = new HashMap<>();
+        for (ConcurrentHashMap<Long, long[]> stripe : stripes) {
+            for (Long memorialId : stripe.keySet()) {
+                long[] counts = stripe.remove(memorialId);
+                if (counts == null) {
+                    continue;
+                }
+                long[] merged = result.computeIfAbsent(memorialId, id -> new long[TYPE_COUNT]);
+                for (int i = 0; i < TYPE_COUNT; i++) {
+                    merged[i] += counts[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 当前缓冲中的纪念空间条目数（各分段之和，可能包含重复ID）
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<Long, long[]> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<Long, long[]> currentStripe() {
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32));
+        hash ^= hash >>> 16;
+        return stripes[hash & mask];
+    }
+}
@@ -0,0 +1,415 @@
+package com.cemetery.service.counter;
+
+import cn.hutool.core.util.IdUtil;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.MemorialCounterConfig;
+import com.cemetery.common.constant.Constants;
+import com.cemetery.domain.dto.MemorialCounterDeltaDTO;
+import com.cemetery.service.CacheService;
+import com.cemetery.service.leaderboard.MemorialLeaderboardManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 纪念空间互动计数管理器（写回模式）
+ * 计数链路：请求线程累加到本地分段累加器 -> 定时以管道HINCRBY同步到Redis待回写Hash
+ * -> 定时将待回写Hash整体改名为处理中Hash，按批次以UPDATE ... CASE回写MySQL后删除。
+ * 应用重启时先重放上次未完成的处理中Hash，批次号保证同一批次只回写一次。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialCounterManager {
+
+    private static final String PENDING_KEY = "counter:memorial:pending";
+    private static final String PROCESSING_KEY = "counter:memorial:processing";
+    private static final String BATCH_KEY = "counter:memorial:processing:batch";
+    private static final String FLUSH_LOCK_KEY = "counter:memorial:flush:lock";
+    private static final String DRAINED_KEY = "counter:memorial:drained:";
+
+    /**
+     * 同步批次标记的保留时间（秒），结果未知的批次须在此期间内确认
+     */
+    private static final long DRAINED_MARK_SECONDS = 3600L;
+
+    /**
+     * 待回写Hash交给处理中并写入暂停标记：KEYS[1]待回写 KEYS[2]处理中 KEYS[3]标记键；ARGV[1]标记值 ARGV[2]过期秒数
+     */
+    private static final String HAND_OFF_SCRIPT =
+            "if redis.call('EXISTS', KEYS[1]) == 1 and redis.call('EXISTS', KEYS[2]) == 0 then "
+            + "redis.call('RENAME', KEYS[1], KEYS[2]) end "
+            + "redis.call('SET', KEYS[3], ARGV[1], 'EX', ARGV[2]) "
+            + "return 1";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+    private final MemorialCounterWriter counterWriter;
+    private final MemorialCounterConfig counterConfig;
+    private final CacheConfig cacheConfig;
+    private final CacheService cacheService;
+    private final MemorialLeaderboardManager leaderboardManager;
+
+    private MemorialCounterBuffer buffer;
+
+    /**
+     * 已发出但结果未知的同步批次：批次号 -> 增量
+     */
+    private final Map<String, Map<Long, long[]>> unresolved = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        buffer = new MemorialCounterBuffer(counterConfig.getStripes());
+        log.info("互动计数管理器初始化完成, enabled={}, stripes={}",
+                counterConfig.getEnabled(), counterConfig.getStripes());
+    }
+
+    /**
+     * 累加一次互动计数
+     */
+    public void increment(Long memorialId, MemorialCounterType type) {
+        if (memorialId == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            counterWriter.incrementDirect(memorialId, type);
+            evictDetailCache(Collections.singletonList(memorialId));
+            long[] counts = new long[MemorialCounterType.values().length];
+            counts[type.ordinal()] = 1L;
+            recordLeaderboard(Collections.singletonMap(memorialId, counts));
+            return;
+        }
+        buffer.add(memorialId, type, 1L);
+    }
+
+    /**
+     * 获取尚未回写数据库的计数增量（本地 + Redis待回写 + Redis处理中）
+     * @return 按MemorialCounterType顺序排列的增量
+     */
+    public long[] getPendingDeltas(Long memorialId) {
+        long[] result = buffer.peek(memorialId);
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            return result;
+        }
+
+        MemorialCounterType[] types = MemorialCounterType.values();
+        String[] fields = new String[types.length];
+        for (MemorialCounterType type : types) {
+            fields[type.ordinal()] = buildField(memorialId, type);
+        }
+
+        try {
+            List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.hMGet(key(PENDING_KEY), fields);
+                conn.hMGet(key(PROCESSING_KEY), fields);
+                return null;
+            });
+            for (Object reply : replies) {
+                if (!(reply instanceof List)) {
+                    continue;
+                }
+                List<?> values = (List<?>) reply;
+                for (int i = 0; i < values.size() && i < result.length; i++) {
+                    if (values.get(i) != null) {
+                        result[i] += Long.parseLong(values.get(i).toString());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("读取待回写计数失败, memorialId={}", memorialId, e);
+        }
+        return result;
+    }
+
+    /**
+     * 将本地增量同步到Redis待回写Hash（单次管道往返）
+     * 每批增量在同一事务中累加并写入批次标记，要么全部生效要么全部不生效：
+     * 未连上Redis时直接回写MySQL（仍失败则放回本地缓冲）；已发出命令但结果未知时按批次标记确认，
+     * 标记存在说明已生效，不存在再放回本地缓冲重新同步，Redis暂时查不到就留到下次确认，避免重复计数
+     */
+    public void drainToRedis() {
+        confirmUnresolved();
+        Map<Long, long[]> deltas = buffer.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        String batchNo = IdUtil.fastSimpleUUID();
+        boolean[] sent = new boolean[1];
+        try {
+            String pendingKey = key(PENDING_KEY);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                sent[0] = true;
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                // 计数与排行榜增量在同一事务中生效，排行榜重建的回写交接不会把两者拆开
+                conn.multi();
+                for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+                    for (MemorialCounterType type : MemorialCounterType.values()) {
+                        long delta = entry.getValue()[type.ordinal()];
+                        if (delta != 0) {
+                            conn.hIncrBy(pendingKey, buildField(entry.getKey(), type), delta);
+                        }
+                    }
+                }
+                leaderboardManager.appendBufferedCounters(conn, deltas);
+                conn.setEx(key(DRAINED_KEY + batchNo), DRAINED_MARK_SECONDS, "1");
+                conn.exec();
+                return null;
+            });
+            log.debug("本地计数同步到Redis完成, memorials={}", deltas.size());
+        } catch (Exception e) {
+            if (sent[0]) {
+                log.error("本地计数同步到Redis结果未知，按批次标记确认, batchNo={}, memorials={}",
+                        batchNo, deltas.size(), e);
+                unresolved.put(batchNo, deltas);
+                confirmUnresolved();
+                return;
+            }
+            log.error("本地计数同步到Redis失败，尝试直接回写数据库, memorials={}", deltas.size(), e);
+            try {
+                counterWriter.applyBatch(batchNo, toDeltaList(deltas), counterConfig.getBatchSize());
+                evictDetailCache(deltas.keySet());
+            } catch (Exception ex) {
+                log.error("计数直接回写数据库失败，放回本地缓冲, memorials={}", deltas.size(), ex);
+                buffer.addAll(deltas);
+            }
+        }
+    }
+
+    /**
+     * 将Redis中的待回写计数批量回写MySQL（集群内同一时刻只有一个节点执行）
+     */
+    public void flushToDatabase() {
+        RLock lock = redissonClient.getLock(key(FLUSH_LOCK_KEY));
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(0, counterConfig.getLockLeaseSeconds(), TimeUnit.SECONDS);
+            if (!locked) {
+                return;
+            }
+
+            // 先重放上一轮未完成的批次
+            applyProcessingBatch();
+
+            String pendingKey = key(PENDING_KEY);
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(pendingKey))
+                    && Boolean.TRUE.equals(stringRedisTemplate.renameIfAbsent(pendingKey, key(PROCESSING_KEY)))) {
+                applyProcessingBatch();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("互动计数回写数据库失败", e);
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 回写全部待回写计数后执行action，执行期间暂停回写，数据库中的计数保持不变（排行榜重建使用）
+     * 待回写Hash改名与写入标记键在同一脚本内完成：此前同步的增量回写进数据库，
+     * 此后同步的增量留在Redis中直到action结束，由调用方按标记键另行记录，两边不重叠
+     * @param markKey 标记键，值为"0"
+     * @param pauseSeconds 最长暂停时间（秒），同时作为标记键的过期时间
+     * @return action的结果，等不到回写锁时返回null
+     */
+    public <T> T flushAndPause(String markKey, long pauseSeconds, Supplier<T> action) throws InterruptedException {
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            // 未启用写回时增量直接写库，没有可交接的缓冲
+            stringRedisTemplate.opsForValue().set(markKey, "0", pauseSeconds, TimeUnit.SECONDS);
+            return action.get();
+        }
+
+        RLock lock = redissonClient.getLock(key(FLUSH_LOCK_KEY));
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(counterConfig.getLockLeaseSeconds(), pauseSeconds, TimeUnit.SECONDS);
+            if (!locked) {
+                log.warn("等待互动计数回写锁超时，放弃本次暂停回写");
+                return null;
+            }
+
+            applyProcessingBatch();
+            stringRedisTemplate.execute((RedisCallback<Object>) connection ->
+                    ((StringRedisConnection) connection).eval(HAND_OFF_SCRIPT, ReturnType.INTEGER, 3,
+                            key(PENDING_KEY), key(PROCESSING_KEY), markKey, "0", String.valueOf(pauseSeconds)));
+            applyProcessingBatch();
+            return action.get();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 清理过期的回写批次记录
+     */
+    public void purgeFlushLog() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_MONTH, -counterConfig.getFlushLogRetainDays());
+        int rows = counterWriter.purgeFlushLog(calendar.getTime());
+        log.info("清理计数回写批次记录完成, count={}", rows);
+    }
+
+    /**
+     * 启动后重放崩溃前未完成的批次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            return;
+        }
+        log.info("开始重放未完成的互动计数批次");
+        flushToDatabase();
+    }
+
+    /**
+     * 停机前同步本地增量并回写
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            return;
+        }
+        log.info("应用停止，回写剩余互动计数, bufferSize={}", buffer.size());
+        drainToRedis();
+        flushToDatabase();
+        if (!unresolved.isEmpty()) {
+            log.error("停机时仍有结果未知的计数同步批次, batchNos={}", unresolved.keySet());
+        }
+    }
+
+    /**
+     * 确认结果未知的同步批次：有批次标记的已生效直接丢弃，没有的放回本地缓冲重新同步
+     */
+    private void confirmUnresolved() {
+        for (String batchNo : new ArrayList<>(unresolved.keySet())) {
+            Boolean applied;
+            try {
+                applied = stringRedisTemplate.hasKey(key(DRAINED_KEY + batchNo));
+            } catch (Exception e) {
+                log.warn("确认计数同步批次失败，下次重试, unresolved={}", unresolved.size(), e);
+                return;
+            }
+            Map<Long, long[]> deltas = unresolved.remove(batchNo);
+            if (deltas == null) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(applied)) {
+                log.info("计数同步批次已生效, batchNo={}, memorials={}", batchNo, deltas.size());
+            } else {
+                log.info("计数同步批次未生效，放回本地缓冲, batchNo={}, memorials={}", batchNo, deltas.size());
+                buffer.addAll(deltas);
+            }
+        }
+    }
+
+    /**
+     * 详情缓存中的计数已落后于数据库，直接写库或批量回写后统一失效
+     */
+    private void evictDetailCache(Collection<Long> memorialIds) {
+        List<String> detailKeys = new ArrayList<>(memorialIds.size());
+        for (Long memorialId : memorialIds) {
+            detailKeys.add(Constants.MEMORIAL_DETAIL_KEY + memorialId);
+        }
+        cacheService.deleteMulti(detailKeys);
+    }
+
+    /**
+     * 增量计入排行榜，失败只记录日志（排行榜每晚按数据库重建）
+     */
+    private void recordLeaderboard(Map<Long, long[]> deltas) {
+        try {
+            leaderboardManager.recordCounters(deltas);
+        } catch (Exception e) {
+            log.error("互动计数写入排行榜失败, memorials={}", deltas.size(), e);
+        }
+    }
+
+    /**
+     * 回写处理中Hash，成功后删除
+     */
+    private void applyProcessingBatch() {
+        String processingKey = key(PROCESSING_KEY);
+        String batchKey = key(BATCH_KEY);
+
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(processingKey);
+        if (entries.isEmpty()) {
+            stringRedisTemplate.delete(batchKey);
+            return;
+        }
+
+        // 批次号在回写前固定下来，重放时沿用同一个批次号
+        stringRedisTemplate.opsForValue().setIfAbsent(batchKey, IdUtil.fastSimpleUUID());
+        String batchNo = stringRedisTemplate.opsForValue().get(batchKey);
+
+        Map<Long, long[]> deltas = parseEntries(entries);
+        int rows = counterWriter.applyBatch(batchNo, toDeltaList(deltas), counterConfig.getBatchSize());
+        stringRedisTemplate.delete(Arrays.asList(processingKey, batchKey));
+
+        evictDetailCache(deltas.keySet());
+
+        log.info("互动计数回写完成, batchNo={}, memorials={}, rows={}", batchNo, deltas.size(), rows);
+    }
+
+    private Map<Long, long[]> parseEntries(Map<Object, Object> entries) {
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            String field = entry.getKey().toString();
+            int index = field.lastIndexOf(':');
+            if (index <= 0) {
+                continue;
+            }
+            MemorialCounterType type = MemorialCounterType.getByField(field.substring(index + 1));
+            if (type == null) {
+                continue;
+            }
+            Long memorialId = Long.valueOf(field.substring(0, index));
+            long[] counts = deltas.computeIfAbsent(memorialId, id -> new long[MemorialCounterType.values().length]);
+            counts[type.ordinal()] += Long.parseLong(entry.getValue().toString());
+        }
+        return deltas;
+    }
+
+    private List<MemorialCounterDeltaDTO> toDeltaList(Map<Long, long[]> deltas) {
+        List<MemorialCounterDeltaDTO> list = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            long[] counts = entry.getValue();
+            MemorialCounterDeltaDTO dto = new MemorialCounterDeltaDTO();
+            dto.setMemorialId(entry.getKey());
+            dto.setVisitDelta(counts[MemorialCounterType.VISIT.ordinal()]);
+            dto.setCandleDelta(counts[MemorialCounterType.CANDLE.ordinal()]);
+            dto.setFlowerDelta(counts[MemorialCounterType.FLOWER.ordinal()]);
+            dto.setIncenseDelta(counts[MemorialCounterType.INCENSE.ordinal()]);
+            list.add(dto);
+        }
+        return list;
+    }
+
+    private String buildField(Long memorialId, MemorialCounterType type) {
+        return memorialId + ":" + type.getField();
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
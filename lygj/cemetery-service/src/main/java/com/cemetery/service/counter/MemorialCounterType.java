@@ -0,0 +1,36 @@
+package com.cemetery.service.counter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 纪念空间互动计数类型
+ */
+@Getter
+@AllArgsConstructor
+public enum MemorialCounterType {
+
+    VISIT("v", "访问"),
+    CANDLE("c", "点烛"),
+    FLOWER("f", "献花"),
+    INCENSE("i", "上香");
+
+    /**
+     * Redis Hash字段后缀
+     */
+    private final String field;
+
+    private final String desc;
+
+    /**
+     * 根据字段后缀获取枚举
+     */
+    public static MemorialCounterType getByField(String field) {
+        for (MemorialCounterType type : values()) {
+            if (type.getField().equals(field)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,126 @@
+package com.cemetery.service.counter;
+
+import com.cemetery.domain.dto.MemorialCounterDeltaDTO;
+import com.cemetery.domain.dto.StatRollupDeltaDTO;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.domain.mapper.StatisticsRollupMapper;
+import com.cemetery.service.statistics.StatisticsMetric;
+import com.cemetery.service.statistics.StatisticsRollupManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 纪念空间互动计数回写器
+ * 批次号与计数更新在同一事务内提交，同一批次重放时会被跳过，避免重复累加
+ * 全站统计汇总随计数在同一事务内累加，与纪念空间计数保持一致
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialCounterWriter {
+
+    private final DigitalMemorialMapper memorialMapper;
+    private final StatisticsRollupMapper rollupMapper;
+    private final StatisticsRollupManager rollupManager;
+
+    /**
+     * 按批次回写计数增量
+     * @param batchNo 批次号
+     * @param deltas 计数增量
+     * @param batchSize 单条UPDATE包含的纪念空间数量
+     * @return 实际更新的行数（批次已回写过时返回0）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int applyBatch(String batchNo, List<MemorialCounterDeltaDTO> deltas, int batchSize) {
+        if (deltas == null || deltas.isEmpty()) {
+            return 0;
+        }
+
+        if (memorialMapper.insertCounterFlushLog(batchNo, deltas.size()) == 0) {
+            log.warn("计数批次已回写过，跳过重放, batchNo={}", batchNo);
+            return 0;
+        }
+
+        int rows = 0;
+        for (int from = 0; from < deltas.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, deltas.size());
+            rows += memorialMapper.batchIncrementCounters(deltas.subList(from, to));
+        }
+        applyRollup(deltas);
+
+        log.debug("计数批次回写完成, batchNo={}, memorials={}, rows={}", batchNo, deltas.size(), rows);
+        return rows;
+    }
+
+    /**
+     * 直接累加单个计数（未启用异步回写时使用）
+     */
+    public void incrementDirect(Long memorialId, MemorialCounterType type) {
+        switch (type) {
+            case CANDLE:
+                memorialMapper.incrementCandleCount(memorialId);
+                break;
+            case FLOWER:
+                memorialMapper.incrementFlowerCount(memorialId);
+                break;
+            case INCENSE:
+                memorialMapper.incrementIncenseCount(memorialId);
+                break;
+            default:
+                memorialMapper.incrementVisitCount(memorialId);
+        }
+        rollupManager.onCounterIncremented(StatisticsMetric.counter(type), 1L);
+    }
+
+    /**
+     * 将本批次的计数合计累加到全站汇总和当天的全站按天汇总
+     */
+    private void applyRollup(List<MemorialCounterDeltaDTO> deltas) {
+        long visit = 0, candle = 0, flower = 0, incense = 0;
+        for (MemorialCounterDeltaDTO delta : deltas) {
+            visit += valueOf(delta.getVisitDelta());
+            candle += valueOf(delta.getCandleDelta());
+            flower += valueOf(delta.getFlowerDelta());
+            incense += valueOf(delta.getIncenseDelta());
+        }
+        Date today = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        List<StatRollupDeltaDTO> global = new ArrayList<>();
+        List<StatRollupDeltaDTO> daily = new ArrayList<>();
+        addRollup(global, daily, today, StatisticsMetric.CANDLE, candle);
+        addRollup(global, daily, today, StatisticsMetric.FLOWER, flower);
+        addRollup(global, daily, today, StatisticsMetric.INCENSE, incense);
+        addRollup(global, daily, today, StatisticsMetric.VISIT, visit);
+        if (!global.isEmpty()) {
+            rollupMapper.batchIncrementGlobal(global);
+            rollupMapper.batchIncrementDaily(daily);
+        }
+    }
+
+    private void addRollup(List<StatRollupDeltaDTO> global, List<StatRollupDeltaDTO> daily,
+                           Date today, String metric, long value) {
+        if (value != 0) {
+            global.add(new StatRollupDeltaDTO(null, null, metric, value));
+            daily.add(new StatRollupDeltaDTO(today, StatisticsRollupManager.GLOBAL_SCOPE, metric, value));
+        }
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * 清理过期批次记录
+     */
+    public int purgeFlushLog(Date beforeTime) {
+        return memorialMapper.deleteCounterFlushLogBefore(beforeTime);
+    }
+}
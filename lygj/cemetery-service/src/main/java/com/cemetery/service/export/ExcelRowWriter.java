@@ -0,0 +1,122 @@
+package com.cemetery.service.export;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.support.ExcelTypeEnum;
+import com.alibaba.excel.write.metadata.WriteSheet;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * 逐行写入Excel
+ * 行先攒成一批再交给EasyExcel（xlsx使用SXSSF，已写出的行落到临时文件），内存中最多保留一批数据；
+ * 单个工作表写满后自动新建工作表。
+ */
+public class ExcelRowWriter<T> implements Closeable {
+
+    private final ExcelWriter excelWriter;
+
+    private final Class<T> head;
+
+    private final String sheetName;
+
+    private final int batchSize;
+
+    private final int maxRowsPerSheet;
+
+    private final LongConsumer onFlush;
+
+    private final List<T> batch;
+
+    private WriteSheet sheet;
+
+    private int sheetIndex;
+
+    private int sheetRows;
+
+    private long totalRows;
+
+    private boolean finished;
+
+    public ExcelRowWriter(File file, Class<T> head, String sheetName, int batchSize, int maxRowsPerSheet,
+                          LongConsumer onFlush) {
+        this.excelWriter = EasyExcel.write(file, head).excelType(ExcelTypeEnum.XLSX).build();
+        this.head = head;
+        this.sheetName = sheetName;
+        this.batchSize = batchSize;
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        this.onFlush = onFlush;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * 追加一行，攒满一批后写出
+     */
+    public void add(T row) {
+        batch.add(row);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 写出当前批次
+     */
+    public void flush() {
+        while (!batch.isEmpty()) {
+            if (sheet == null || sheetRows >= maxRowsPerSheet) {
+                nextSheet();
+            }
+            List<T> part = batch.size() <= maxRowsPerSheet - sheetRows
+                    ? batch : batch.subList(0, maxRowsPerSheet - sheetRows);
+            int size = part.size();
+            excelWriter.write(part, sheet);
+            part.clear();
+            sheetRows += size;
+            totalRows += size;
+        }
+        if (onFlush != null) {
+            onFlush.accept(totalRows);
+        }
+    }
+
+    /**
+     * 写出剩余数据并生成文件
+     * @return 写入的总行数
+     */
+    public long finish() {
+        flush();
+        if (sheet == null) {
+            // 没有数据时也输出表头
+            nextSheet();
+            excelWriter.write(Collections.emptyList(), sheet);
+        }
+        finished = true;
+        excelWriter.finish();
+        return totalRows;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() {
+        if (!finished) {
+            finished = true;
+            excelWriter.finish();
+        }
+    }
+
+    private void nextSheet() {
+        String name = sheetIndex == 0 ? sheetName : sheetName + (sheetIndex + 1);
+        sheet = EasyExcel.writerSheet(sheetIndex, name).head(head).build();
+        sheetIndex++;
+        sheetRows = 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.cemetery.service.export;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.CannedAccessControlList;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.cemetery.common.config.FileUploadConfig;
+import com.cemetery.common.config.StatisticsExportConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.qiniu.common.QiniuException;
+import com.qiniu.storage.BucketManager;
+import com.qiniu.storage.Configuration;
+import com.qiniu.storage.Region;
+import com.qiniu.storage.UploadManager;
+import com.qiniu.util.Auth;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出文件存储
+ * 按上传存储类型（file.upload.storage-type）保存导出文件，始终放在不公开的位置：
+ * local写入上传目录之外的导出目录（多节点须挂载同一共享卷），oss以私有读写权限写入，qiniu写入私有空间；
+ * 下载时由服务端按短时签名地址读取后转发，签名地址不返回给客户端。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExportFileStore {
+
+    private static final String STORAGE_OSS = "oss";
+    private static final String STORAGE_QINIU = "qiniu";
+
+    /**
+     * 服务端读取私有对象的签名有效期（秒）
+     */
+    private static final long SIGNED_URL_SECONDS = 300L;
+
+    private final FileUploadConfig fileConfig;
+    private final StatisticsExportConfig exportConfig;
+
+    private OSS ossClient;
+    private Auth qiniuAuth;
+    private Configuration qiniuConfiguration;
+
+    @PostConstruct
+    public void init() {
+        if (STORAGE_OSS.equals(fileConfig.getStorageType())) {
+            ossClient = new OSSClientBuilder().build(fileConfig.getOssEndpoint(),
+                    fileConfig.getOssAccessKeyId(), fileConfig.getOssAccessKeySecret());
+        } else if (STORAGE_QINIU.equals(fileConfig.getStorageType())) {
+            qiniuAuth = Auth.create(fileConfig.getQiniuAccessKey(), fileConfig.getQiniuSecretKey());
+            qiniuConfiguration = new Configuration(Region.autoRegion());
+        }
+        log.info("导出文件存储初始化完成, storageType={}", fileConfig.getStorageType());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (ossClient != null) {
+            ossClient.shutdown();
+        }
+    }
+
+    /**
+     * 本地目录：本地存储时为存放目录，其他存储类型时为生成文件的工作目录
+     */
+    public Path localRoot() {
+        return Paths.get(exportConfig.getDirectory()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 保存已生成的文件，oss/qiniu上传后删除本地文件
+     * @param fileKey 相对路径，如 2024/01/31/visit_xxx.xlsx
+     */
+    public void save(String fileKey, Path file) throws Exception {
+        if (STORAGE_OSS.equals(fileConfig.getStorageType())) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setObjectAcl(CannedAccessControlList.Private);
+            PutObjectRequest request = new PutObjectRequest(fileConfig.getOssBucket(), objectKey(fileKey), file.toFile());
+            request.setMetadata(metadata);
+            ossClient.putObject(request);
+            Files.deleteIfExists(file);
+        } else if (STORAGE_QINIU.equals(fileConfig.getStorageType())) {
+            String bucket = fileConfig.getQiniuPrivateBucket();
+            new UploadManager(qiniuConfiguration).put(file.toFile(), objectKey(fileKey), qiniuAuth.uploadToken(bucket));
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * 读取文件（oss/qiniu按短时签名地址流式读取）
+     */
+    public Resource load(String fileKey) throws Exception {
+        if (STORAGE_OSS.equals(fileConfig.getStorageType())) {
+            String objectKey = objectKey(fileKey);
+            if (!ossClient.doesObjectExist(fileConfig.getOssBucket(), objectKey)) {
+                throw new BusinessException("导出文件不存在或已清理");
+            }
+            Date expiration = new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(SIGNED_URL_SECONDS));
+            return new UrlResource(ossClient.generatePresignedUrl(fileConfig.getOssBucket(), objectKey, expiration));
+        }
+        if (STORAGE_QINIU.equals(fileConfig.getStorageType())) {
+            String baseUrl = StringUtils.removeEnd(fileConfig.getQiniuPrivateDomain(), "/") + "/"
+                    + URLEncoder.encode(objectKey(fileKey), StandardCharsets.UTF_8.name()).replace("%2F", "/");
+            return new UrlResource(qiniuAuth.privateDownloadUrl(baseUrl, SIGNED_URL_SECONDS));
+        }
+
+        Path root = localRoot();
+        Path file = root.resolve(fileKey).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new BusinessException("导出文件不存在或已清理");
+        }
+        return new FileSystemResource(file);
+    }
+
+    /**
+     * 删除文件，不存在时忽略
+     */
+    public void delete(String fileKey) throws Exception {
+        if (STORAGE_OSS.equals(fileConfig.getStorageType())) {
+            ossClient.deleteObject(fileConfig.getOssBucket(), objectKey(fileKey));
+            return;
+        }
+        if (STORAGE_QINIU.equals(fileConfig.getStorageType())) {
+            try {
+                new BucketManager(qiniuAuth, qiniuConfiguration).delete(fileConfig.getQiniuPrivateBucket(),
+                        objectKey(fileKey));
+            } catch (QiniuException e) {
+                // 612：文件不存在
+                if (e.code() != 612) {
+                    throw e;
+                }
+            }
+            return;
+        }
+
+        Path root = localRoot();
+        Path file = root.resolve(fileKey).normalize();
+        if (file.startsWith(root)) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private String objectKey(String fileKey) {
+        return StringUtils.removeEnd(exportConfig.getObjectPrefix(), "/") + "/" + fileKey;
+    }
+}
@@ -0,0 +1,49 @@
+package com.cemetery.service.export;
+
+import com.cemetery.domain.enums.VisitTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 统计报表导出类型
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportReportType {
+
+    OVERVIEW("overview", "纪念空间概况", false, Collections.emptyList()),
+    VISIT("visit", "访问记录", true, Collections.singletonList(VisitTypeEnum.VIEW)),
+    INTERACTION("interaction", "互动记录", true,
+            Arrays.asList(VisitTypeEnum.CANDLE, VisitTypeEnum.FLOWER, VisitTypeEnum.INCENSE)),
+    MESSAGE("message", "追思留言", true, Collections.emptyList());
+
+    private final String code;
+
+    private final String desc;
+
+    /**
+     * 是否按日期范围导出
+     */
+    private final boolean ranged;
+
+    /**
+     * 访问记录类报表包含的访问类型
+     */
+    private final List<VisitTypeEnum> visitTypes;
+
+    /**
+     * 根据code获取枚举
+     */
+    public static ExportReportType getByCode(String code) {
+        for (ExportReportType type : values()) {
+            if (type.getCode().equalsIgnoreCase(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
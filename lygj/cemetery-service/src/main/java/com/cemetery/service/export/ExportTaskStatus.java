@@ -0,0 +1,19 @@
+package com.cemetery.service.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 导出任务状态
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportTaskStatus {
+
+    PENDING("排队中"),
+    RUNNING("导出中"),
+    SUCCESS("已完成"),
+    FAILED("失败");
+
+    private final String desc;
+}
@@ -0,0 +1,82 @@
+package com.cemetery.service.export;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import com.cemetery.domain.entity.DigitalMemorial;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 纪念空间概况导出行
+ */
+@Data
+@ColumnWidth(14)
+public class MemorialExportRow {
+
+    @ExcelProperty("纪念空间ID")
+    private Long id;
+
+    @ExcelProperty("空间编号")
+    @ColumnWidth(20)
+    private String spaceNo;
+
+    @ExcelProperty("空间名称")
+    @ColumnWidth(24)
+    private String spaceName;
+
+    @ExcelProperty("访问权限")
+    private String accessPermission;
+
+    @ExcelProperty("是否发布")
+    private String published;
+
+    @ExcelProperty("访问量")
+    private Integer visitCount;
+
+    @ExcelProperty("点烛数")
+    private Integer candleCount;
+
+    @ExcelProperty("献花数")
+    private Integer flowerCount;
+
+    @ExcelProperty("上香数")
+    private Integer incenseCount;
+
+    @ExcelProperty("留言数")
+    private Integer messageCount;
+
+    @ExcelProperty("发布时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private Date publishTime;
+
+    @ExcelProperty("到期时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private Date expireTime;
+
+    @ExcelProperty("创建时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private Date createTime;
+
+    public static MemorialExportRow from(DigitalMemorial memorial) {
+        MemorialExportRow row = new MemorialExportRow();
+        row.setId(memorial.getId());
+        row.setSpaceNo(memorial.getSpaceNo());
+        row.setSpaceName(memorial.getSpaceName());
+        row.setAccessPermission(memorial.getAccessPermission() != null ? memorial.getAccessPermission().getDesc() : null);
+        row.setPublished(Integer.valueOf(1).equals(memorial.getIsPublished()) ? "是" : "否");
+        row.setVisitCount(memorial.getVisitCount());
+        row.setCandleCount(memorial.getCandleCount());
+        row.setFlowerCount(memorial.getFlowerCount());
+        row.setIncenseCount(memorial.getIncenseCount());
+        row.setMessageCount(memorial.getMessageCount());
+        row.setPublishTime(memorial.getPublishTime());
+        row.setExpireTime(memorial.getExpireTime());
+        row.setCreateTime(memorial.getCreateTime());
+        return row;
+    }
+}
@@ -0,0 +1,89 @@
+package com.cemetery.service.export;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import com.cemetery.domain.entity.MemorialMessage;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 追思留言导出行
+ */
+@Data
+@ColumnWidth(14)
+public class MessageExportRow {
+
+    @ExcelProperty("留言时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private Date messageTime;
+
+    @ExcelProperty("留言ID")
+    private Long id;
+
+    @ExcelProperty("纪念空间ID")
+    private Long memorialId;
+
+    @ExcelProperty("父留言ID")
+    private Long parentId;
+
+    @ExcelProperty("用户ID")
+    private Long userId;
+
+    @ExcelProperty("留言人")
+    private String authorName;
+
+    @ExcelProperty("关系")
+    private String relationship;
+
+    @ExcelProperty("留言类型")
+    private String messageType;
+
+    @ExcelProperty("审核状态")
+    private String auditStatus;
+
+    @ExcelProperty("是否匿名")
+    private String anonymous;
+
+    @ExcelProperty("是否置顶")
+    private String pinned;
+
+    @ExcelProperty("点赞数")
+    private Integer likeCount;
+
+    @ExcelProperty("回复数")
+    private Integer replyCount;
+
+    @ExcelProperty("省份")
+    private String locationProvince;
+
+    @ExcelProperty("城市")
+    private String locationCity;
+
+    @ExcelProperty("留言内容")
+    @ColumnWidth(60)
+    private String messageContent;
+
+    public static MessageExportRow from(MemorialMessage message) {
+        MessageExportRow row = new MessageExportRow();
+        row.setMessageTime(message.getMessageTime());
+        row.setId(message.getId());
+        row.setMemorialId(message.getMemorialId());
+        row.setParentId(message.getParentId());
+        row.setUserId(message.getUserId());
+        row.setAuthorName(message.getAuthorName());
+        row.setRelationship(message.getRelationship());
+        row.setMessageType(message.getMessageType() != null ? message.getMessageType().getDesc() : null);
+        row.setAuditStatus(message.getAuditStatus() != null ? message.getAuditStatus().getDesc() : null);
+        row.setAnonymous(Integer.valueOf(1).equals(message.getIsAnonymous()) ? "是" : "否");
+        row.setPinned(Integer.valueOf(1).equals(message.getIsPinned()) ? "是" : "否");
+        row.setLikeCount(message.getLikeCount());
+        row.setReplyCount(message.getReplyCount());
+        row.setLocationProvince(message.getLocationProvince());
+        row.setLocationCity(message.getLocationCity());
+        row.setMessageContent(message.getMessageContent());
+        return row;
+    }
+}
@@ -0,0 +1,380 @@
+package com.cemetery.service.export;
+
+import cn.hutool.core.util.IdUtil;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.StatisticsExportConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.domain.mapper.MemorialMessageMapper;
+import com.cemetery.domain.mapper.MemorialVisitLogMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.core.io.Resource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 统计报表导出管理器
+ * 导出请求只登记任务并返回任务ID，由有界线程池异步执行（超出并发和排队上限时直接拒绝）；
+ * 数据通过MyBatis流式结果集逐行读出、按批写入Excel，无论数据量多大内存中只保留一批。
+ * 任务状态和进度保存在Redis中，任一节点都能查询；导出文件含访客IP等明细，按上传存储类型保存到不公开的位置
+ * （见ExportFileStore），任一节点都能通过需要管理员权限的下载接口读取，文件登记在Redis中，超过保留时间由定时任务删除。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticsExportManager {
+
+    private static final String TASK_KEY = "export:task:";
+    private static final String FILES_KEY = "export:files";
+
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_ROWS = "rows";
+    private static final String FIELD_FILE_PATH = "filePath";
+    private static final String FIELD_FILE_NAME = "fileName";
+    private static final String FIELD_MESSAGE = "message";
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheConfig cacheConfig;
+    private final StatisticsExportConfig exportConfig;
+    private final ExportFileStore fileStore;
+    private final DigitalMemorialMapper memorialMapper;
+    private final MemorialVisitLogMapper visitLogMapper;
+    private final MemorialMessageMapper messageMapper;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                exportConfig.getMaxConcurrent(), exportConfig.getMaxConcurrent(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(exportConfig.getQueueCapacity(), 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statistics-export-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交导出任务
+     * @return 任务ID
+     */
+    public String submit(String reportType, LocalDate startDate, LocalDate endDate, Long memorialId) {
+        ExportReportType type = ExportReportType.getByCode(reportType);
+        if (type == null) {
+            throw new BusinessException("不支持的报表类型: " + reportType);
+        }
+        if (type.isRanged()) {
+            if (endDate == null) {
+                endDate = LocalDate.now();
+            }
+            if (startDate == null) {
+                startDate = endDate.minusDays(29);
+            }
+            if (startDate.isAfter(endDate)) {
+                throw new BusinessException("开始日期不能晚于结束日期");
+            }
+            if (ChronoUnit.DAYS.between(startDate, endDate) + 1 > exportConfig.getMaxRangeDays()) {
+                throw new BusinessException("导出日期跨度不能超过" + exportConfig.getMaxRangeDays() + "天");
+            }
+        }
+
+        String taskId = IdUtil.fastSimpleUUID();
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_STATUS, ExportTaskStatus.PENDING.name());
+        fields.put("reportType", type.getCode());
+        fields.put(FIELD_ROWS, "0");
+        fields.put("createTime", String.valueOf(System.currentTimeMillis()));
+        if (type.isRanged()) {
+            fields.put("startDate", startDate.toString());
+            fields.put("endDate", endDate.toString());
+        }
+        if (memorialId != null) {
+            fields.put("memorialId", String.valueOf(memorialId));
+        }
+        updateTask(taskId, fields);
+
+        LocalDate start = startDate;
+        LocalDate end = endDate;
+        try {
+            executor.execute(() -> run(taskId, type, start, end, memorialId));
+        } catch (RejectedExecutionException e) {
+            stringRedisTemplate.delete(key(TASK_KEY + taskId));
+            throw new BusinessException("导出任务过多，请稍后再试");
+        }
+        log.info("提交导出任务, taskId={}, reportType={}, startDate={}, endDate={}, memorialId={}",
+                taskId, type.getCode(), start, end, memorialId);
+        return taskId;
+    }
+
+    /**
+     * 查询导出任务状态和进度
+     */
+    public Map<String, Object> getTask(String taskId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key(TASK_KEY + taskId));
+        if (entries.isEmpty()) {
+            throw new BusinessException("导出任务不存在或已过期");
+        }
+        Map<String, Object> task = new LinkedHashMap<>();
+        task.put("taskId", taskId);
+        entries.forEach((field, value) -> task.put(field.toString(), value));
+        // 服务器上的文件路径不对外暴露
+        task.remove(FIELD_FILE_PATH);
+        task.put(FIELD_ROWS, Long.parseLong(entries.getOrDefault(FIELD_ROWS, "0").toString()));
+        ExportTaskStatus status = ExportTaskStatus.valueOf(entries.get(FIELD_STATUS).toString());
+        task.put("statusDesc", status.getDesc());
+        return task;
+    }
+
+    /**
+     * 获取已完成导出任务的文件（供授权下载接口使用）
+     */
+    public Resource getExportFile(String taskId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key(TASK_KEY + taskId));
+        if (entries.isEmpty()) {
+            throw new BusinessException("导出任务不存在或已过期");
+        }
+        if (!ExportTaskStatus.SUCCESS.name().equals(entries.get(FIELD_STATUS))) {
+            throw new BusinessException("导出任务尚未完成");
+        }
+        Object filePath = entries.get(FIELD_FILE_PATH);
+        if (filePath == null) {
+            throw new BusinessException("导出文件不存在或已清理");
+        }
+        try {
+            return fileStore.load(filePath.toString());
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("读取导出文件失败, taskId={}, file={}", taskId, filePath, e);
+            throw new BusinessException("读取导出文件失败");
+        }
+    }
+
+    /**
+     * 删除超过保留时间的导出文件：先按Redis登记删除存储中的文件，
+     * 再清理本节点目录中的过期文件（含中断遗留的临时文件）及清空的日期目录
+     * @return 删除的文件数
+     */
+    public int cleanExpiredFiles() {
+        long expireBefore = System.currentTimeMillis()
+                - TimeUnit.HOURS.toMillis(exportConfig.getFileRetentionHours());
+        int deleted = cleanRegisteredFiles(expireBefore);
+
+        Path root = fileStore.localRoot();
+        if (!Files.isDirectory(root)) {
+            return deleted;
+        }
+        List<Path> expired = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isDirectory()) {
+                        if (!path.equals(root)) {
+                            directories.add(path);
+                        }
+                    } else if (attributes.lastModifiedTime().toMillis() < expireBefore) {
+                        expired.add(path);
+                    }
+                } catch (Exception e) {
+                    log.warn("读取导出文件属性失败, file={}", path, e);
+                }
+            });
+        } catch (Exception e) {
+            throw new BusinessException("扫描导出目录失败: " + e.getMessage());
+        }
+
+        for (Path path : expired) {
+            try {
+                if (Files.deleteIfExists(path)) {
+                    deleted++;
+                }
+            } catch (Exception e) {
+                log.warn("删除过期导出文件失败, file={}", path, e);
+            }
+        }
+        // 由深到浅删除空目录，非空目录删除失败直接跳过
+        directories.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+        for (Path directory : directories) {
+            try (Stream<Path> children = Files.list(directory)) {
+                if (!children.findAny().isPresent()) {
+                    Files.deleteIfExists(directory);
+                }
+            } catch (Exception e) {
+                log.warn("删除空导出目录失败, directory={}", directory, e);
+            }
+        }
+        if (deleted > 0) {
+            log.info("清理过期导出文件, deleted={}, retentionHours={}", deleted, exportConfig.getFileRetentionHours());
+        }
+        return deleted;
+    }
+
+    /**
+     * 按登记删除存储中的过期文件，删除成功后移除登记
+     */
+    private int cleanRegisteredFiles(long expireBefore) {
+        String filesKey = key(FILES_KEY);
+        Set<String> fileKeys = stringRedisTemplate.opsForZSet().rangeByScore(filesKey, 0, expireBefore);
+        if (fileKeys == null || fileKeys.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (String fileKey : fileKeys) {
+            try {
+                fileStore.delete(fileKey);
+                stringRedisTemplate.opsForZSet().remove(filesKey, fileKey);
+                deleted++;
+            } catch (Exception e) {
+                log.warn("删除过期导出文件失败, file={}", fileKey, e);
+            }
+        }
+        return deleted;
+    }
+
+    private void run(String taskId, ExportReportType type, LocalDate startDate, LocalDate endDate, Long memorialId) {
+        Map<String, String> running = new HashMap<>();
+        running.put(FIELD_STATUS, ExportTaskStatus.RUNNING.name());
+        running.put("startTime", String.valueOf(System.currentTimeMillis()));
+        updateTask(taskId, running);
+
+        String relativeDir = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+        String fileName = type.getCode()
+                + (type.isRanged() ? "_" + startDate.format(DAY_FORMATTER) + "_" + endDate.format(DAY_FORMATTER) : "")
+                + "_" + taskId + ".xlsx";
+        Path directory = fileStore.localRoot().resolve(relativeDir);
+        Path target = directory.resolve(fileName);
+        Path temp = directory.resolve(fileName + ".part");
+
+        try {
+            Files.createDirectories(directory);
+            long rows = export(taskId, type, temp.toFile(), startDate, endDate, memorialId);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            String fileKey = relativeDir + "/" + fileName;
+            // 先登记再保存，保存中途失败留下的文件也会按保留时间清理
+            stringRedisTemplate.opsForZSet().add(key(FILES_KEY), fileKey, System.currentTimeMillis());
+            fileStore.save(fileKey, target);
+
+            Map<String, String> success = new HashMap<>();
+            success.put(FIELD_STATUS, ExportTaskStatus.SUCCESS.name());
+            success.put(FIELD_ROWS, String.valueOf(rows));
+            success.put(FIELD_FILE_PATH, fileKey);
+            success.put(FIELD_FILE_NAME, fileName);
+            success.put("finishTime", String.valueOf(System.currentTimeMillis()));
+            updateTask(taskId, success);
+            log.info("导出任务完成, taskId={}, reportType={}, rows={}, file={}", taskId, type.getCode(), rows, target);
+        } catch (Exception e) {
+            log.error("导出任务失败, taskId={}, reportType={}", taskId, type.getCode(), e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (Exception deleteError) {
+                log.warn("删除导出临时文件失败, file={}", temp, deleteError);
+            }
+            Map<String, String> failed = new HashMap<>();
+            failed.put(FIELD_STATUS, ExportTaskStatus.FAILED.name());
+            failed.put(FIELD_MESSAGE, StringUtils.defaultString(StringUtils.left(e.getMessage(), 200), "导出失败"));
+            failed.put("finishTime", String.valueOf(System.currentTimeMillis()));
+            updateTask(taskId, failed);
+        }
+    }
+
+    private long export(String taskId, ExportReportType type, File file,
+                        LocalDate startDate, LocalDate endDate, Long memorialId) {
+        switch (type) {
+            case OVERVIEW:
+                return stream(taskId, type, file, MemorialExportRow.class, MemorialExportRow::from,
+                        handler -> memorialMapper.streamForExport(memorialId, handler));
+            case VISIT:
+            case INTERACTION:
+                return stream(taskId, type, file, VisitLogExportRow.class, VisitLogExportRow::from,
+                        handler -> visitLogMapper.streamForExport(memorialId, type.getVisitTypes(),
+                                toDate(startDate), toDate(endDate.plusDays(1)), handler));
+            case MESSAGE:
+                return stream(taskId, type, file, MessageExportRow.class, MessageExportRow::from,
+                        handler -> messageMapper.streamForExport(memorialId,
+                                toDate(startDate), toDate(endDate.plusDays(1)), handler));
+            default:
+                throw new BusinessException("不支持的报表类型: " + type.getCode());
+        }
+    }
+
+    /**
+     * 流式读取并逐行写入Excel，每写出一批更新一次进度
+     */
+    private <E, R> long stream(String taskId, ExportReportType type, File file, Class<R> head,
+                               Function<E, R> converter, Consumer<ResultHandler<E>> query) {
+        String rowsKey = key(TASK_KEY + taskId);
+        try (ExcelRowWriter<R> writer = new ExcelRowWriter<>(file, head, type.getDesc(),
+                exportConfig.getBatchSize(), exportConfig.getMaxRowsPerSheet(),
+                rows -> stringRedisTemplate.opsForHash().put(rowsKey, FIELD_ROWS, String.valueOf(rows)))) {
+            query.accept(context -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    context.stop();
+                    return;
+                }
+                writer.add(converter.apply(context.getResultObject()));
+            });
+            if (Thread.currentThread().isInterrupted()) {
+                throw new BusinessException("导出任务已中断");
+            }
+            return writer.finish();
+        }
+    }
+
+    private void updateTask(String taskId, Map<String, String> fields) {
+        String taskKey = key(TASK_KEY + taskId);
+        stringRedisTemplate.opsForHash().putAll(taskKey, fields);
+        stringRedisTemplate.expire(taskKey, exportConfig.getTaskExpireHours(), TimeUnit.HOURS);
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
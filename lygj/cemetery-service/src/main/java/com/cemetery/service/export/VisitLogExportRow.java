@@ -0,0 +1,69 @@
+package com.cemetery.service.export;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.format.DateTimeFormat;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import com.cemetery.domain.entity.MemorialVisitLog;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 访问/互动记录导出行
+ */
+@Data
+@ColumnWidth(14)
+public class VisitLogExportRow {
+
+    @ExcelProperty("访问时间")
+    @DateTimeFormat("yyyy-MM-dd HH:mm:ss")
+    @ColumnWidth(20)
+    private Date visitTime;
+
+    @ExcelProperty("纪念空间ID")
+    private Long memorialId;
+
+    @ExcelProperty("类型")
+    private String visitType;
+
+    @ExcelProperty("用户ID")
+    private Long userId;
+
+    @ExcelProperty("访客名称")
+    private String visitorName;
+
+    @ExcelProperty("IP地址")
+    @ColumnWidth(18)
+    private String ipAddress;
+
+    @ExcelProperty("省份")
+    private String locationProvince;
+
+    @ExcelProperty("城市")
+    private String locationCity;
+
+    @ExcelProperty("设备类型")
+    private String deviceType;
+
+    @ExcelProperty("浏览器")
+    private String browserInfo;
+
+    @ExcelProperty("停留时长（秒）")
+    private Integer duration;
+
+    public static VisitLogExportRow from(MemorialVisitLog visit) {
+        VisitLogExportRow row = new VisitLogExportRow();
+        row.setVisitTime(visit.getVisitTime());
+        row.setMemorialId(visit.getMemorialId());
+        row.setVisitType(visit.getVisitType() != null ? visit.getVisitType().getDesc() : null);
+        row.setUserId(visit.getUserId());
+        row.setVisitorName(visit.getVisitorName());
+        row.setIpAddress(visit.getIpAddress());
+        row.setLocationProvince(visit.getLocationProvince());
+        row.setLocationCity(visit.getLocationCity());
+        row.setDeviceType(visit.getDeviceType());
+        row.setBrowserInfo(visit.getBrowserInfo());
+        row.setDuration(visit.getDuration());
+        return row;
+    }
+}
@@ -3,21 +3,38 @@ package com.cemetery.service.impl;
 import cn.hutool.core.util.StrUtil;
 import com.cemetery.common.config.CacheConfig;
 import com.cemetery.service.CacheService;
+import com.cemetery.service.cache.CacheCleanupProgress;
+import com.cemetery.service.cache.CacheInvalidationListener;
+import com.cemetery.service.cache.CacheKeyCleaner;
+import com.cemetery.service.cache.CacheLoadCoordinator;
+import com.cemetery.service.cache.CacheMetrics;
+import com.cemetery.service.cache.CachePipeline;
+import com.cemetery.service.cache.CachePrefixStats;
+import com.cemetery.service.cache.CacheValueWrapper;
+import com.cemetery.service.cache.CacheWarmer;
+import com.cemetery.service.cache.CacheWarmupReport;
+import com.cemetery.service.cache.HotKeyDetector;
+import com.cemetery.service.cache.LocalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RBloomFilter;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * 缓存服务实现
+ * 启用多级缓存时，读取顺序为 本地缓存(L1) -> Redis(L2)，写入和删除会广播给其他节点失效本地副本
  */
 @Slf4j
 @Service
@@ -25,28 +42,22 @@ import java.util.stream.Collectors;
 public class CacheServiceImpl implements CacheService {
 
     private final RedisTemplate<String, Object> redisTemplate;
-    private final RedissonClient redissonClient;
     private final CacheConfig cacheConfig;
+    private final LocalCache localCache;
+    private final CacheInvalidationListener invalidationListener;
+    private final CacheMetrics cacheMetrics;
+    private final CacheLoadCoordinator loadCoordinator;
+    private final CacheKeyCleaner keyCleaner;
+    private final HotKeyDetector hotKeyDetector;
+    /**
+     * 预热器依赖各业务服务，而业务服务又依赖本服务，延迟获取以避免循环依赖
+     */
+    private final ObjectProvider<CacheWarmer> cacheWarmerProvider;
 
-    private RBloomFilter<String> bloomFilter;
-
-    @PostConstruct
-    public void init() {
-        // 初始化布隆过滤器
-        if (cacheConfig.getBloomFilterEnabled()) {
-            bloomFilter = redissonClient.getBloomFilter("memorial:bloom:filter");
-            bloomFilter.tryInit(
-                cacheConfig.getBloomFilterExpectedInsertions(),
-                cacheConfig.getBloomFilterFpp()
-            );
-            log.info("布隆过滤器初始化成功");
-        }
-
-        // 缓存预热
-        if (cacheConfig.getPreloadEnabled()) {
-            preloadCache();
-        }
-    }
+    /**
+     * 空值占位（防止缓存穿透）
+     */
+    private static final String NULL_VALUE = "@@NULL@@";
 
     @Override
     public void set(String key, Object value) {
@@ -64,16 +75,26 @@ public class CacheServiceImpl implements CacheService {
 
         try {
             String fullKey = buildFullKey(key);
-            redisTemplate.opsForValue().set(fullKey, value, timeout, unit);
-            
-            // 添加到布隆过滤器
-            if (cacheConfig.getBloomFilterEnabled() && bloomFilter != null) {
-                bloomFilter.add(fullKey);
+            // 只序列化一次，序列化结果同时用于写Redis和计算本地缓存容量；写值和登记标签索引在同一管道中完成
+            byte[] rawKey = rawKey(fullKey);
+            byte[] rawValue = rawValue(value);
+            long start = System.nanoTime();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.set(rawKey, rawValue, Expiration.from(timeout, unit), RedisStringCommands.SetOption.upsert());
+                keyCleaner.indexKey(connection, fullKey, unit.toSeconds(timeout));
+                return null;
+            });
+            cacheMetrics.recordRedisLatency(fullKey, System.nanoTime() - start);
+            cacheMetrics.recordValueSize(fullKey, rawValue.length);
+            if (localCache.isActive()) {
+                localCache.put(fullKey, value, rawValue.length, unit.toMillis(timeout));
+                invalidationListener.publishKeys(Collections.singletonList(fullKey));
             }
             
             log.debug("缓存设置成功: key={}, timeout={} {}", fullKey, timeout, unit);
         } catch (Exception e) {
             log.error("缓存设置失败: key={}", key, e);
+            cacheMetrics.recordError(key, "set");
         }
     }
 
@@ -84,78 +105,392 @@ public class CacheServiceImpl implements CacheService {
             return null;
         }
 
+        Object value = CacheValueWrapper.unwrap(getValue(key));
+        return NULL_VALUE.equals(value) ? null : (T) value;
+    }
+
+    /**
+     * 读取缓存值（空值占位原样返回），用于区分"未缓存"和"缓存了空值"
+     */
+    private Object getValue(String key) {
         try {
             String fullKey = buildFullKey(key);
-            
-            // 布隆过滤器检查
-            if (cacheConfig.getBloomFilterEnabled() && bloomFilter != null) {
-                if (!bloomFilter.contains(fullKey)) {
-                    log.debug("布隆过滤器判定不存在: key={}", fullKey);
-                    return null;
-                }
+            hotKeyDetector.record(fullKey);
+
+            // 本地缓存检查（含热点key副本）
+            Object value = localCache.get(fullKey);
+            if (value != null) {
+                cacheMetrics.recordLocalHit(fullKey);
+                return value;
             }
-            
-            return (T) redisTemplate.opsForValue().get(fullKey);
+
+            value = localCache.isEnabled() ? getAndCacheLocally(fullKey) : readRemote(fullKey);
+            if (value == null) {
+                cacheMetrics.recordMiss(fullKey);
+                return null;
+            }
+            cacheMetrics.recordRemoteHit(fullKey);
+            replicateIfHot(fullKey, value);
+            return value;
         } catch (Exception e) {
             log.error("缓存获取失败: key={}", key, e);
+            cacheMetrics.recordError(key, "get");
             return null;
         }
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T get(String key, Supplier<T> loader, long timeout, TimeUnit unit) {
         if (!cacheConfig.getEnabled()) {
             return loader.get();
         }
 
-        T value = get(key);
-        if (value != null) {
+        String fullKey = buildFullKey(key);
+        Object cached = getValue(fullKey);
+        if (cached instanceof CacheValueWrapper) {
+            CacheValueWrapper wrapper = (CacheValueWrapper) cached;
+            long now = System.currentTimeMillis();
+            if (!wrapper.isExpiredAt(now)) {
+                log.debug("缓存命中: key={}", key);
+                if (Boolean.TRUE.equals(cacheConfig.getRefreshAheadEnabled())
+                        && wrapper.shouldRefreshAt(now, cacheConfig.getRefreshAheadRatio())) {
+                    refreshAsync(fullKey, loader, timeout, unit);
+                }
+                return (T) wrapper.getValue();
+            }
+            if (Boolean.TRUE.equals(cacheConfig.getStaleWhileRevalidateEnabled())) {
+                log.debug("缓存已过期，返回旧值并后台刷新: key={}", key);
+                refreshAsync(fullKey, loader, timeout, unit);
+                return (T) wrapper.getValue();
+            }
+        } else if (cached != null) {
             log.debug("缓存命中: key={}", key);
-            return value;
+            return NULL_VALUE.equals(cached) ? null : (T) cached;
         }
 
-        // 缓存未命中，从数据库加载
+        // 缓存未命中，合并并发加载后从数据库加载
         log.debug("缓存未命中，从数据库加载: key={}", key);
-        value = loader.get();
-        
-        if (value != null) {
-            set(key, value, timeout, unit);
-        } else {
+        Object loaded = loadCoordinator.load(fullKey,
+                () -> getFreshValue(fullKey),
+                () -> loadAndCache(fullKey, loader, timeout, unit));
+        return NULL_VALUE.equals(loaded) ? null : (T) loaded;
+    }
+
+    /**
+     * 执行加载并写入缓存，值带逻辑过期时间，Redis中额外保留一段旧值时间
+     * @return 加载结果，空值返回空值占位
+     */
+    private <T> Object loadAndCache(String fullKey, Supplier<T> loader, long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            cacheMetrics.recordLoad(fullKey, System.nanoTime() - start, false);
+            throw e;
+        }
+        cacheMetrics.recordLoad(fullKey, System.nanoTime() - start, true);
+        if (value == null) {
             // 防止缓存穿透：缓存空对象（短时间）
-            set(key, new Object(), 60, TimeUnit.SECONDS);
+            set(fullKey, NULL_VALUE, 60, TimeUnit.SECONDS);
+            return NULL_VALUE;
         }
-        
+
+        long ttlMillis = unit.toMillis(timeout);
+        long staleMillis = Boolean.TRUE.equals(cacheConfig.getStaleWhileRevalidateEnabled())
+                ? TimeUnit.SECONDS.toMillis(cacheConfig.getStaleExpire()) : 0L;
+        CacheValueWrapper wrapper = new CacheValueWrapper(value, System.currentTimeMillis() + ttlMillis, ttlMillis);
+        set(fullKey, wrapper, ttlMillis + staleMillis, TimeUnit.MILLISECONDS);
         return value;
     }
 
+    /**
+     * 读取未过期的缓存值，已过期或不存在返回null（空值占位原样返回）
+     */
+    private Object getFreshValue(String fullKey) {
+        Object cached = getValue(fullKey);
+        if (cached instanceof CacheValueWrapper) {
+            CacheValueWrapper wrapper = (CacheValueWrapper) cached;
+            return wrapper.isExpiredAt(System.currentTimeMillis()) ? null : wrapper.getValue();
+        }
+        return cached;
+    }
+
+    /**
+     * 提交后台刷新，拿到刷新锁后若值已被其他节点刷新则跳过
+     */
+    private <T> void refreshAsync(String fullKey, Supplier<T> loader, long timeout, TimeUnit unit) {
+        loadCoordinator.refreshAsync(fullKey, () -> {
+            Object cached = getValue(fullKey);
+            if (!(cached instanceof CacheValueWrapper)) {
+                return cached == null;
+            }
+            CacheValueWrapper wrapper = (CacheValueWrapper) cached;
+            long now = System.currentTimeMillis();
+            return wrapper.isExpiredAt(now) || (Boolean.TRUE.equals(cacheConfig.getRefreshAheadEnabled())
+                    && wrapper.shouldRefreshAt(now, cacheConfig.getRefreshAheadRatio()));
+        }, () -> loadAndCache(fullKey, loader, timeout, unit));
+    }
+
     @Override
-    @SuppressWarnings("unchecked")
     public <T> List<T> multiGet(Collection<String> keys) {
         if (!cacheConfig.getEnabled() || keys == null || keys.isEmpty()) {
             return new ArrayList<>();
         }
 
-        try {
-            List<String> fullKeys = keys.stream()
-                    .map(this::buildFullKey)
+        List<T> values = multiGetAligned(new ArrayList<>(keys));
+        return values.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> multiGetAligned(List<String> keys) {
+        int size = keys == null ? 0 : keys.size();
+        List<T> results = new ArrayList<>(Collections.nCopies(size, null));
+        if (!cacheConfig.getEnabled() || size == 0) {
+            return results;
+        }
+
+        List<String> fullKeys = keys.stream()
+                .map(this::buildFullKey)
+                .collect(Collectors.toList());
+        Object[] values = lookupAll(fullKeys);
+        for (int i = 0; i < size; i++) {
+            Object value = CacheValueWrapper.unwrap(values[i]);
+            results.set(i, NULL_VALUE.equals(value) ? null : (T) value);
+        }
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> multiGet(List<String> keys, Function<List<String>, Map<String, T>> loader,
+                                long timeout, TimeUnit unit) {
+        if (keys == null || keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!cacheConfig.getEnabled()) {
+            Map<String, T> loaded = loader.apply(keys);
+            return keys.stream()
+                    .map(key -> loaded != null ? loaded.get(key) : null)
                     .collect(Collectors.toList());
-            
-            List<Object> values = redisTemplate.opsForValue().multiGet(fullKeys);
-            
-            if (values == null) {
-                return new ArrayList<>();
+        }
+
+        List<String> fullKeys = keys.stream()
+                .map(this::buildFullKey)
+                .collect(Collectors.toList());
+        Object[] values = lookupAll(fullKeys);
+
+        List<T> results = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        List<Integer> missIndexes = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof CacheValueWrapper) {
+                CacheValueWrapper wrapper = (CacheValueWrapper) value;
+                // 批量场景下已逻辑过期的值直接并入本次批量加载
+                if (wrapper.isExpiredAt(now)) {
+                    missIndexes.add(i);
+                } else {
+                    results.set(i, (T) wrapper.getValue());
+                }
+            } else if (value != null) {
+                results.set(i, NULL_VALUE.equals(value) ? null : (T) value);
+            } else {
+                missIndexes.add(i);
             }
-            
-            return values.stream()
-                    .filter(Objects::nonNull)
-                    .map(v -> (T) v)
+        }
+        if (missIndexes.isEmpty()) {
+            return results;
+        }
+
+        // 只加载未命中的键（去重后保持原有顺序）
+        Set<String> missedKeys = new LinkedHashSet<>();
+        for (Integer index : missIndexes) {
+            missedKeys.add(keys.get(index));
+        }
+        // 批量加载按首个未命中键的前缀计一次（同一批通常属于同一前缀）
+        String metricKey = fullKeys.get(missIndexes.get(0));
+        long start = System.nanoTime();
+        Map<String, T> loaded;
+        try {
+            loaded = loader.apply(new ArrayList<>(missedKeys));
+        } catch (RuntimeException e) {
+            cacheMetrics.recordLoad(metricKey, System.nanoTime() - start, false);
+            throw e;
+        }
+        cacheMetrics.recordLoad(metricKey, System.nanoTime() - start, true);
+        if (loaded == null) {
+            loaded = Collections.emptyMap();
+        }
+        writeBack(missedKeys, loaded, timeout, unit);
+
+        for (Integer index : missIndexes) {
+            results.set(index, loaded.get(keys.get(index)));
+        }
+        log.debug("批量获取缓存完成: total={}, missed={}", keys.size(), missedKeys.size());
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> executePipelined(Consumer<CachePipeline> operations) {
+        if (!cacheConfig.getEnabled()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            CachePipeline[] holder = new CachePipeline[1];
+            List<Object> rawResults = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                holder[0] = new CachePipeline(connection, (RedisSerializer<String>) redisTemplate.getKeySerializer(),
+                        (RedisSerializer<Object>) redisTemplate.getValueSerializer(), this::buildFullKey, keyCleaner);
+                operations.accept(holder[0]);
+                return null;
+            });
+
+            CachePipeline pipeline = holder[0];
+            if (!pipeline.getModifiedKeys().isEmpty()) {
+                List<String> modifiedKeys = new ArrayList<>(pipeline.getModifiedKeys());
+                localCache.invalidateAll(modifiedKeys);
+                invalidationListener.publishKeys(modifiedKeys);
+            }
+
+            return pipeline.collectResults(rawResults).stream()
+                    .map(result -> {
+                        Object value = CacheValueWrapper.unwrap(result);
+                        return NULL_VALUE.equals(value) ? null : value;
+                    })
                     .collect(Collectors.toList());
         } catch (Exception e) {
-            log.error("批量获取缓存失败", e);
+            log.error("管道操作失败", e);
+            cacheMetrics.recordError(null, "pipeline");
             return new ArrayList<>();
         }
     }
 
+    /**
+     * 批量读取原始缓存值（本地缓存 -> Redis，Redis部分一次往返），结果与键一一对应
+     */
+    private Object[] lookupAll(List<String> fullKeys) {
+        Object[] values = new Object[fullKeys.size()];
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < fullKeys.size(); i++) {
+            hotKeyDetector.record(fullKeys.get(i));
+            Object local = localCache.get(fullKeys.get(i));
+            if (local != null) {
+                cacheMetrics.recordLocalHit(fullKeys.get(i));
+                values[i] = local;
+            } else {
+                missIndexes.add(i);
+            }
+        }
+        if (missIndexes.isEmpty()) {
+            return values;
+        }
+
+        try {
+            boolean cacheLocally = localCache.isEnabled();
+            long start = System.nanoTime();
+            List<Object> replies;
+            if (cacheLocally) {
+                // 需要剩余过期时间写入本地缓存，每个键 GET + PTTL，仍在一个管道中完成
+                replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Integer index : missIndexes) {
+                        byte[] rawKey = rawKey(fullKeys.get(index));
+                        connection.get(rawKey);
+                        connection.pTtl(rawKey);
+                    }
+                    return null;
+                }, RedisSerializer.byteArray());
+            } else {
+                // 取原始字节以便记录值大小
+                byte[][] rawKeys = missIndexes.stream()
+                        .map(index -> rawKey(fullKeys.get(index)))
+                        .toArray(byte[][]::new);
+                List<byte[]> rawValues = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(rawKeys));
+                replies = rawValues != null ? new ArrayList<>(rawValues) : Collections.emptyList();
+            }
+            // 批量读取按首个键的前缀计一次往返（同一批通常属于同一前缀）
+            cacheMetrics.recordRedisLatency(fullKeys.get(missIndexes.get(0)), System.nanoTime() - start);
+
+            int step = cacheLocally ? 2 : 1;
+            for (int j = 0; j < missIndexes.size() && j * step < replies.size(); j++) {
+                byte[] rawValue = (byte[]) replies.get(j * step);
+                if (rawValue == null) {
+                    continue;
+                }
+                int index = missIndexes.get(j);
+                cacheMetrics.recordValueSize(fullKeys.get(index), rawValue.length);
+                Object value = redisTemplate.getValueSerializer().deserialize(rawValue);
+                if (cacheLocally) {
+                    Long ttlMillis = (Long) replies.get(j * step + 1);
+                    localCache.put(fullKeys.get(index), value, rawValue.length, ttlMillis != null ? ttlMillis : 0L);
+                }
+                values[index] = value;
+            }
+        } catch (Exception e) {
+            log.error("批量获取缓存失败", e);
+            cacheMetrics.recordError(fullKeys.get(missIndexes.get(0)), "multiGet");
+        }
+
+        for (Integer index : missIndexes) {
+            if (values[index] != null) {
+                cacheMetrics.recordRemoteHit(fullKeys.get(index));
+                replicateIfHot(fullKeys.get(index), values[index]);
+            } else {
+                cacheMetrics.recordMiss(fullKeys.get(index));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 批量加载结果在一个管道中写回（空值写入短时间的空值占位）
+     */
+    private <T> void writeBack(Collection<String> keys, Map<String, T> loaded, long timeout, TimeUnit unit) {
+        long ttlMillis = unit.toMillis(timeout);
+        long staleMillis = Boolean.TRUE.equals(cacheConfig.getStaleWhileRevalidateEnabled())
+                ? TimeUnit.SECONDS.toMillis(cacheConfig.getStaleExpire()) : 0L;
+        long expireAt = System.currentTimeMillis() + ttlMillis;
+
+        Map<String, Object> toWrite = new LinkedHashMap<>(keys.size());
+        for (String key : keys) {
+            T value = loaded.get(key);
+            toWrite.put(buildFullKey(key), value != null
+                    ? new CacheValueWrapper(value, expireAt, ttlMillis) : NULL_VALUE);
+        }
+
+        try {
+            Map<String, Integer> weights = new HashMap<>(toWrite.size());
+            long start = System.nanoTime();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                toWrite.forEach((fullKey, value) -> {
+                    byte[] rawValue = rawValue(value);
+                    long expireMillis = NULL_VALUE.equals(value) ? TimeUnit.SECONDS.toMillis(60) : ttlMillis + staleMillis;
+                    connection.set(rawKey(fullKey), rawValue, Expiration.milliseconds(expireMillis),
+                            RedisStringCommands.SetOption.upsert());
+                    keyCleaner.indexKey(connection, fullKey, TimeUnit.MILLISECONDS.toSeconds(expireMillis));
+                    weights.put(fullKey, rawValue.length);
+                    cacheMetrics.recordValueSize(fullKey, rawValue.length);
+                });
+                return null;
+            });
+            cacheMetrics.recordRedisLatency(toWrite.keySet().iterator().next(), System.nanoTime() - start);
+
+            if (localCache.isActive()) {
+                toWrite.forEach((fullKey, value) -> localCache.put(fullKey, value, weights.get(fullKey),
+                        NULL_VALUE.equals(value) ? TimeUnit.SECONDS.toMillis(60) : ttlMillis + staleMillis));
+                invalidationListener.publishKeys(new ArrayList<>(toWrite.keySet()));
+            }
+        } catch (Exception e) {
+            log.error("批量写回缓存失败: count={}", toWrite.size(), e);
+            cacheMetrics.recordError(toWrite.keySet().iterator().next(), "writeBack");
+        }
+    }
+
     @Override
     public void delete(String key) {
         if (!cacheConfig.getEnabled()) {
@@ -165,9 +500,12 @@ public class CacheServiceImpl implements CacheService {
         try {
             String fullKey = buildFullKey(key);
             redisTemplate.delete(fullKey);
+            localCache.invalidate(fullKey);
+            invalidationListener.publishKeys(Collections.singletonList(fullKey));
             log.debug("缓存删除成功: key={}", fullKey);
         } catch (Exception e) {
             log.error("缓存删除失败: key={}", key, e);
+            cacheMetrics.recordError(key, "delete");
         }
     }
 
@@ -183,9 +521,12 @@ public class CacheServiceImpl implements CacheService {
                     .collect(Collectors.toList());
             
             redisTemplate.delete(fullKeys);
+            localCache.invalidateAll(fullKeys);
+            invalidationListener.publishKeys(fullKeys);
             log.debug("批量删除缓存成功: count={}", fullKeys.size());
         } catch (Exception e) {
             log.error("批量删除缓存失败", e);
+            cacheMetrics.recordError(keys.iterator().next(), "deleteMulti");
         }
     }
 
@@ -197,14 +538,13 @@ public class CacheServiceImpl implements CacheService {
 
         try {
             String fullPattern = buildFullKey(pattern);
-            Set<String> keys = redisTemplate.keys(fullPattern);
-            
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.info("模式删除缓存成功: pattern={}, count={}", fullPattern, keys.size());
-            }
+            localCache.invalidatePattern(fullPattern);
+            invalidationListener.publishPattern(fullPattern);
+
+            keyCleaner.deleteByPattern(fullPattern);
         } catch (Exception e) {
             log.error("模式删除缓存失败: pattern={}", pattern, e);
+            cacheMetrics.recordError(pattern, "deletePattern");
         }
     }
 
@@ -219,6 +559,7 @@ public class CacheServiceImpl implements CacheService {
             return Boolean.TRUE.equals(redisTemplate.hasKey(fullKey));
         } catch (Exception e) {
             log.error("检查缓存存在性失败: key={}", key, e);
+            cacheMetrics.recordError(key, "exists");
             return false;
         }
     }
@@ -234,6 +575,7 @@ public class CacheServiceImpl implements CacheService {
             redisTemplate.expire(fullKey, timeout, unit);
         } catch (Exception e) {
             log.error("设置缓存过期时间失败: key={}", key, e);
+            cacheMetrics.recordError(key, "expire");
         }
     }
 
@@ -245,9 +587,11 @@ public class CacheServiceImpl implements CacheService {
 
         try {
             String fullKey = buildFullKey(key);
+            localCache.invalidate(fullKey);
             return redisTemplate.opsForValue().increment(fullKey, delta);
         } catch (Exception e) {
             log.error("缓存递增失败: key={}", key, e);
+            cacheMetrics.recordError(key, "increment");
             return 0L;
         }
     }
@@ -260,9 +604,11 @@ public class CacheServiceImpl implements CacheService {
 
         try {
             String fullKey = buildFullKey(key);
+            localCache.invalidate(fullKey);
             return redisTemplate.opsForValue().decrement(fullKey, delta);
         } catch (Exception e) {
             log.error("缓存递减失败: key={}", key, e);
+            cacheMetrics.recordError(key, "decrement");
             return 0L;
         }
     }
@@ -278,6 +624,7 @@ public class CacheServiceImpl implements CacheService {
             redisTemplate.opsForHash().put(fullKey, hashKey, value);
         } catch (Exception e) {
             log.error("Hash缓存设置失败: key={}, hashKey={}", key, hashKey, e);
+            cacheMetrics.recordError(key, "hSet");
         }
     }
 
@@ -293,6 +640,7 @@ public class CacheServiceImpl implements CacheService {
             return (T) redisTemplate.opsForHash().get(fullKey, hashKey);
         } catch (Exception e) {
             log.error("Hash缓存获取失败: key={}, hashKey={}", key, hashKey, e);
+            cacheMetrics.recordError(key, "hGet");
             return null;
         }
     }
@@ -308,6 +656,7 @@ public class CacheServiceImpl implements CacheService {
             redisTemplate.opsForHash().putAll(fullKey, map);
         } catch (Exception e) {
             log.error("Hash批量设置失败: key={}", key, e);
+            cacheMetrics.recordError(key, "hSetAll");
         }
     }
 
@@ -322,6 +671,7 @@ public class CacheServiceImpl implements CacheService {
             return redisTemplate.opsForHash().entries(fullKey);
         } catch (Exception e) {
             log.error("Hash获取所有失败: key={}", key, e);
+            cacheMetrics.recordError(key, "hGetAll");
             return new HashMap<>();
         }
     }
@@ -337,6 +687,7 @@ public class CacheServiceImpl implements CacheService {
             redisTemplate.opsForHash().delete(fullKey, hashKeys);
         } catch (Exception e) {
             log.error("Hash删除失败: key={}", key, e);
+            cacheMetrics.recordError(key, "hDelete");
         }
     }
 
@@ -351,6 +702,7 @@ public class CacheServiceImpl implements CacheService {
             return redisTemplate.opsForSet().add(fullKey, values);
         } catch (Exception e) {
             log.error("Set添加失败: key={}", key, e);
+            cacheMetrics.recordError(key, "sAdd");
             return 0L;
         }
     }
@@ -375,6 +727,7 @@ public class CacheServiceImpl implements CacheService {
                     .collect(Collectors.toSet());
         } catch (Exception e) {
             log.error("Set获取所有成员失败: key={}", key, e);
+            cacheMetrics.recordError(key, "sMembers");
             return new HashSet<>();
         }
     }
@@ -390,6 +743,7 @@ public class CacheServiceImpl implements CacheService {
             return redisTemplate.opsForSet().isMember(fullKey, value);
         } catch (Exception e) {
             log.error("Set判断成员失败: key={}", key, e);
+            cacheMetrics.recordError(key, "sIsMember");
             return false;
         }
     }
@@ -405,6 +759,7 @@ public class CacheServiceImpl implements CacheService {
             return redisTemplate.opsForSet().remove(fullKey, values);
         } catch (Exception e) {
             log.error("Set删除失败: key={}", key, e);
+            cacheMetrics.recordError(key, "sRemove");
             return 0L;
         }
     }
@@ -420,6 +775,7 @@ public class CacheServiceImpl implements CacheService {
             redisTemplate.opsForZSet().add(fullKey, value, score);
         } catch (Exception e) {
             log.error("ZSet添加失败: key={}", key, e);
+            cacheMetrics.recordError(key, "zAdd");
         }
     }
 
@@ -443,6 +799,7 @@ public class CacheServiceImpl implements CacheService {
                     .collect(Collectors.toCollection(LinkedHashSet::new));
         } catch (Exception e) {
             log.error("ZSet范围获取失败: key={}", key, e);
+            cacheMetrics.recordError(key, "zRange");
             return new LinkedHashSet<>();
         }
     }
@@ -467,6 +824,7 @@ public class CacheServiceImpl implements CacheService {
                     .collect(Collectors.toCollection(LinkedHashSet::new));
         } catch (Exception e) {
             log.error("ZSet按分数范围获取失败: key={}", key, e);
+            cacheMetrics.recordError(key, "zRangeByScore");
             return new LinkedHashSet<>();
         }
     }
@@ -482,6 +840,7 @@ public class CacheServiceImpl implements CacheService {
             return redisTemplate.opsForZSet().remove(fullKey, values);
         } catch (Exception e) {
             log.error("ZSet删除失败: key={}", key, e);
+            cacheMetrics.recordError(key, "zRemove");
             return 0L;
         }
     }
@@ -495,6 +854,79 @@ public class CacheServiceImpl implements CacheService {
         return cacheConfig.getKeyPrefix() + String.join(":", parts);
     }
 
+    @Override
+    public Map<String, Map<String, Long>> getCacheStatistics() {
+        return cacheMetrics.snapshot();
+    }
+
+    @Override
+    public List<CachePrefixStats> getTopPrefixes(String sort, int limit) {
+        return cacheMetrics.topPrefixes(sort, limit);
+    }
+
+    @Override
+    public List<CacheCleanupProgress> getCleanupProgress() {
+        return keyCleaner.getRecentProgress();
+    }
+
+    /**
+     * 热点key在本地保留短时副本（已启用多级缓存时读取Redis后已写入本地缓存，无需重复保存）
+     */
+    private void replicateIfHot(String fullKey, Object value) {
+        if (!localCache.isEnabled() && hotKeyDetector.isHot(fullKey)) {
+            localCache.putHot(fullKey, value);
+        }
+    }
+
+    /**
+     * 从Redis读取值和剩余过期时间（一次管道往返），并写入本地缓存
+     */
+    private Object getAndCacheLocally(String fullKey) {
+        byte[] rawKey = rawKey(fullKey);
+        long start = System.nanoTime();
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.get(rawKey);
+            connection.pTtl(rawKey);
+            return null;
+        }, RedisSerializer.byteArray());
+        cacheMetrics.recordRedisLatency(fullKey, System.nanoTime() - start);
+
+        byte[] rawValue = (byte[]) replies.get(0);
+        if (rawValue == null) {
+            return null;
+        }
+        cacheMetrics.recordValueSize(fullKey, rawValue.length);
+        Object value = redisTemplate.getValueSerializer().deserialize(rawValue);
+        Long ttlMillis = (Long) replies.get(1);
+        localCache.put(fullKey, value, rawValue.length, ttlMillis != null ? ttlMillis : 0L);
+        return value;
+    }
+
+    /**
+     * 从Redis读取原始值后反序列化，以便记录值大小
+     */
+    private Object readRemote(String fullKey) {
+        byte[] rawKey = rawKey(fullKey);
+        long start = System.nanoTime();
+        byte[] rawValue = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+        cacheMetrics.recordRedisLatency(fullKey, System.nanoTime() - start);
+        if (rawValue == null) {
+            return null;
+        }
+        cacheMetrics.recordValueSize(fullKey, rawValue.length);
+        return redisTemplate.getValueSerializer().deserialize(rawValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String fullKey) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(fullKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
     /**
      * 构建完整的缓存键
      */
@@ -513,17 +945,22 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public void preloadCache() {
-        if (!cacheConfig.getPreloadEnabled()) {
+        if (!cacheConfig.getEnabled() || !cacheConfig.getPreloadEnabled()) {
+            return;
+        }
+
+        CacheWarmer warmer = cacheWarmerProvider.getIfAvailable();
+        if (warmer == null) {
             return;
         }
 
         log.info("开始缓存预热...");
-        
+
         try {
-            // 这里可以预加载热点数据
-            // 例如：热门纪念空间、统计数据等
-            
-            log.info("缓存预热完成");
+            CacheWarmupReport report = warmer.warmUp();
+            log.info("缓存预热完成, 热点纪念空间={}, 任务数={}, 成功={}, 失败={}, 取消={}, 耗时={}ms",
+                    report.getMemorials(), report.getTotal(), report.getSucceeded(),
+                    report.getFailed(), report.getCancelled(), report.getCostMillis());
         } catch (Exception e) {
             log.error("缓存预热失败", e);
         }
@@ -536,11 +973,11 @@ public class CacheServiceImpl implements CacheService {
         }
 
         try {
-            Set<String> keys = redisTemplate.keys(cacheConfig.getKeyPrefix() + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.warn("清空所有缓存成功, count={}", keys.size());
-            }
+            localCache.clear();
+            invalidationListener.publishAll();
+
+            CacheCleanupProgress progress = keyCleaner.deleteByPattern(cacheConfig.getKeyPrefix() + "*");
+            log.warn("清空所有缓存成功, count={}", progress.getDeleted());
         } catch (Exception e) {
             log.error("清空缓存失败", e);
         }
@@ -12,6 +12,7 @@ import com.cemetery.domain.mapper.DeceasedInfoMapper;
 import com.cemetery.domain.mapper.TombLocationMapper;
 import com.cemetery.domain.vo.DeceasedInfoVO;
 import com.cemetery.service.DeceasedService;
+import com.cemetery.service.search.MemorialIndexManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -30,6 +31,7 @@ public class DeceasedServiceImpl implements DeceasedService {
 
     private final DeceasedInfoMapper deceasedInfoMapper;
     private final TombLocationMapper tombLocationMapper;
+    private final MemorialIndexManager indexManager;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -89,6 +91,8 @@ public class DeceasedServiceImpl implements DeceasedService {
         // 转换并更新
         DeceasedInfo deceasedInfo = EntityConverter.INSTANCE.toDeceasedInfo(deceasedInfoDTO);
         deceasedInfoMapper.updateById(deceasedInfo);
+        // 逝者姓名、照片是纪念空间搜索文档的字段
+        indexManager.enqueueByDeceased(deceasedInfo.getId());
         log.info("更新逝者信息成功, deceasedId={}", deceasedInfo.getId());
     }
 
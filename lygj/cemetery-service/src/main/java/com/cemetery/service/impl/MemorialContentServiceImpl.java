@@ -2,23 +2,36 @@ package com.cemetery.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.constant.Constants;
 import com.cemetery.common.exception.BusinessException;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.MemorialContentDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.entity.MemorialContent;
 import com.cemetery.domain.enums.ContentTypeEnum;
 import com.cemetery.domain.mapper.MemorialContentMapper;
+import com.cemetery.domain.vo.BatchOperationVO;
 import com.cemetery.domain.vo.MemorialContentVO;
+import com.cemetery.service.CacheService;
 import com.cemetery.service.MemorialContentService;
+import com.cemetery.service.page.CursorPageHelper;
+import com.cemetery.service.statistics.StatisticsRollupManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +42,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemorialContentServiceImpl implements MemorialContentService {
 
+    /**
+     * 精选内容缓存条数，请求数量不超过该值时从缓存截取
+     */
+    private static final int FEATURED_CACHE_SIZE = 20;
+
+    /**
+     * 按ID批量删除时IN条件的分批大小
+     */
+    private static final int ID_BATCH_SIZE = 500;
+
     private final MemorialContentMapper contentMapper;
+    private final CacheService cacheService;
+    private final CacheConfig cacheConfig;
+    private final StatisticsRollupManager rollupManager;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -49,6 +75,8 @@ public class MemorialContentServiceImpl implements MemorialContentService {
         }
 
         contentMapper.insert(content);
+        rollupManager.onContentsAdded(Collections.singletonList(content));
+        evictFeaturedCache(content.getMemorialId());
         log.info("添加纪念内容成功, contentId={}", content.getId());
         
         return content.getId();
@@ -72,6 +100,8 @@ public class MemorialContentServiceImpl implements MemorialContentService {
         BeanUtils.copyProperties(contentDTO, content);
 
         contentMapper.updateById(content);
+        rollupManager.onContentUpdated(existContent, mergeForStatistics(existContent, content));
+        evictFeaturedCache(existContent.getMemorialId());
         log.info("更新纪念内容成功, contentId={}", content.getId());
     }
 
@@ -90,6 +120,8 @@ public class MemorialContentServiceImpl implements MemorialContentService {
         }
 
         contentMapper.deleteById(id);
+        rollupManager.onContentsDeleted(Collections.singletonList(content));
+        evictFeaturedCache(content.getMemorialId());
         log.info("删除纪念内容成功, contentId={}", id);
     }
 
@@ -157,12 +189,49 @@ public class MemorialContentServiceImpl implements MemorialContentService {
         return voPage;
     }
 
+    @Override
+    public CursorPageResult<MemorialContentVO> cursorMemorialContents(Long memorialId, Integer contentType,
+                                                                       CursorQueryDTO cursorQueryDTO) {
+        if (memorialId == null) {
+            throw new BusinessException("纪念空间ID不能为空");
+        }
+
+        LambdaQueryWrapper<MemorialContent> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(MemorialContent::getMemorialId, memorialId);
+
+        if (contentType != null) {
+            wrapper.eq(MemorialContent::getContentType, contentType);
+        }
+
+        CursorPageHelper.apply(wrapper, cursorQueryDTO, MemorialContent::getCreateTime, MemorialContent::getId);
+
+        List<MemorialContent> contents = contentMapper.selectPage(CursorPageHelper.page(cursorQueryDTO), wrapper).getRecords();
+        return CursorPageHelper.result(contents, cursorQueryDTO,
+                records -> records.stream().map(this::convertToVO).collect(Collectors.toList()));
+    }
+
     @Override
     public List<MemorialContentVO> getFeaturedContents(Long memorialId, Integer limit) {
         if (memorialId == null) {
             throw new BusinessException("纪念空间ID不能为空");
         }
 
+        int size = limit != null && limit > 0 ? limit : 10;
+        if (size > FEATURED_CACHE_SIZE) {
+            return selectFeaturedContents(memorialId, size);
+        }
+
+        // 缓存固定条数的精选列表，不同limit共用同一个key，更新时只需删除一个key
+        List<MemorialContentVO> cached = cacheService.get(Constants.MEMORIAL_FEATURED_KEY + memorialId,
+                () -> selectFeaturedContents(memorialId, FEATURED_CACHE_SIZE),
+                cacheConfig.getListExpire(), TimeUnit.SECONDS);
+        if (cached == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(cached.subList(0, Math.min(size, cached.size())));
+    }
+
+    private List<MemorialContentVO> selectFeaturedContents(Long memorialId, int limit) {
         LambdaQueryWrapper<MemorialContent> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(MemorialContent::getMemorialId, memorialId);
         wrapper.eq(MemorialContent::getIsFeatured, 1);
@@ -190,6 +259,7 @@ public class MemorialContentServiceImpl implements MemorialContentService {
 
         content.setIsFeatured(1);
         contentMapper.updateById(content);
+        evictFeaturedCache(content.getMemorialId());
         
         log.info("设置精选内容成功, contentId={}", id);
     }
@@ -210,6 +280,7 @@ public class MemorialContentServiceImpl implements MemorialContentService {
 
         content.setIsFeatured(0);
         contentMapper.updateById(content);
+        evictFeaturedCache(content.getMemorialId());
         
         log.info("取消精选内容成功, contentId={}", id);
     }
@@ -230,6 +301,7 @@ public class MemorialContentServiceImpl implements MemorialContentService {
 
         content.setSortOrder(sortOrder);
         contentMapper.updateById(content);
+        evictFeaturedCache(content.getMemorialId());
         
         log.info("调整内容排序成功, contentId={}", id);
     }
@@ -271,16 +343,73 @@ public class MemorialContentServiceImpl implements MemorialContentService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void batchDeleteContents(List<Long> ids) {
+    public BatchOperationVO batchDeleteContents(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             throw new BusinessException("内容ID列表不能为空");
         }
 
-        log.info("批量删除内容, ids={}", ids);
-        
-        contentMapper.deleteBatchIds(ids);
-        
-        log.info("批量删除内容成功, count={}", ids.size());
+        log.info("批量删除内容, count={}", ids.size());
+
+        BatchOperationVO result = new BatchOperationVO();
+        List<MemorialContent> deleted = new ArrayList<>();
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + ID_BATCH_SIZE, distinctIds.size()));
+
+            // 加锁读取统计需要的字段，保证扣减的统计与实际删除的行一致
+            List<MemorialContent> contents = contentMapper.selectList(new LambdaQueryWrapper<MemorialContent>()
+                    .select(MemorialContent::getId, MemorialContent::getMemorialId, MemorialContent::getContentType,
+                            MemorialContent::getFileSize, MemorialContent::getUploadTime)
+                    .in(MemorialContent::getId, batch)
+                    .last("FOR UPDATE"));
+            Set<Long> foundIds = contents.stream().map(MemorialContent::getId).collect(Collectors.toSet());
+            for (Long id : batch) {
+                if (foundIds.contains(id)) {
+                    result.success(id);
+                } else {
+                    result.fail(id, "内容不存在");
+                }
+            }
+            if (foundIds.isEmpty()) {
+                continue;
+            }
+
+            contentMapper.deleteBatchIds(foundIds);
+            deleted.addAll(contents);
+        }
+
+        if (!deleted.isEmpty()) {
+            rollupManager.onContentsDeleted(deleted);
+            deleted.stream()
+                    .map(MemorialContent::getMemorialId)
+                    .distinct()
+                    .forEach(this::evictFeaturedCache);
+        }
+        result.setAffectedCount(deleted.size());
+
+        log.info("批量删除内容成功, success={}, failed={}", result.getSuccessCount(), result.getFailedCount());
+        return result;
+    }
+
+    /**
+     * 更新后影响统计的字段（updateById只更新非空字段）
+     */
+    private MemorialContent mergeForStatistics(MemorialContent existContent, MemorialContent update) {
+        MemorialContent merged = new MemorialContent();
+        merged.setMemorialId(update.getMemorialId() != null ? update.getMemorialId() : existContent.getMemorialId());
+        merged.setContentType(update.getContentType() != null ? update.getContentType() : existContent.getContentType());
+        merged.setFileSize(update.getFileSize() != null ? update.getFileSize() : existContent.getFileSize());
+        merged.setUploadTime(existContent.getUploadTime());
+        return merged;
+    }
+
+    /**
+     * 清除纪念空间的精选内容缓存
+     */
+    private void evictFeaturedCache(Long memorialId) {
+        if (memorialId != null) {
+            cacheService.delete(Constants.MEMORIAL_FEATURED_KEY + memorialId);
+        }
     }
 
     /**
@@ -1,16 +1,33 @@
 package com.cemetery.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.constant.Constants;
 import com.cemetery.common.exception.BusinessException;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.MemorialMessageDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.entity.MemorialMessage;
 import com.cemetery.domain.enums.AuditStatusEnum;
 import com.cemetery.domain.enums.MessageTypeEnum;
 import com.cemetery.domain.mapper.MemorialMessageMapper;
+import com.cemetery.domain.vo.BatchOperationVO;
 import com.cemetery.domain.vo.MemorialMessageVO;
+import com.cemetery.service.CacheService;
 import com.cemetery.service.MemorialMessageService;
+import com.cemetery.service.leaderboard.MemorialLeaderboardManager;
+import com.cemetery.service.like.MessageLikeManager;
+import com.cemetery.service.live.MemorialLiveFeedManager;
+import com.cemetery.service.moderation.MessageModerationManager;
+import com.cemetery.service.page.CursorPageHelper;
+import com.cemetery.service.realtime.RealTimeMetric;
+import com.cemetery.service.realtime.RealTimeStatisticsManager;
+import com.cemetery.service.statistics.StatisticsRollupManager;
+import com.cemetery.service.visit.VisitorContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -18,9 +35,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -31,7 +54,25 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemorialMessageServiceImpl implements MemorialMessageService {
 
+    /**
+     * 留言列表中每条留言内嵌的回复数量上限，完整回复通过getMessageReplies查询
+     */
+    private static final int REPLY_PREVIEW_LIMIT = 20;
+
+    /**
+     * 按ID批量查询、更新时IN条件的分批大小
+     */
+    private static final int ID_BATCH_SIZE = 500;
+
     private final MemorialMessageMapper messageMapper;
+    private final CacheService cacheService;
+    private final CacheConfig cacheConfig;
+    private final StatisticsRollupManager rollupManager;
+    private final RealTimeStatisticsManager realTimeManager;
+    private final MemorialLeaderboardManager leaderboardManager;
+    private final MessageLikeManager likeManager;
+    private final MemorialLiveFeedManager liveFeedManager;
+    private final MessageModerationManager moderationManager;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -51,9 +92,17 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
         }
         message.setLikeCount(0);
         message.setIsPinned(0);
-        message.setAuditStatus(AuditStatusEnum.APPROVED); // 默认审核通过
+        message.setAuditStatus(moderationManager.initialStatus()); // 启用自动审核时先待审核
 
         messageMapper.insert(message);
+        rollupManager.onMessagesAdded(Collections.singletonList(message));
+        leaderboardManager.onMessagesAdded(Collections.singletonList(message));
+        realTimeManager.incrementAfterCommit(RealTimeMetric.MESSAGE, 1);
+        if (message.getAuditStatus() == AuditStatusEnum.APPROVED) {
+            liveFeedManager.publishMessageAfterCommit(message.getMemorialId(), convertToVO(message));
+        } else {
+            moderationManager.submitAfterCommit(message);
+        }
         log.info("发送追思留言成功, messageId={}", message.getId());
         
         return message.getId();
@@ -85,9 +134,17 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
         }
         message.setLikeCount(0);
         message.setIsPinned(0);
-        message.setAuditStatus(AuditStatusEnum.APPROVED);
+        message.setAuditStatus(moderationManager.initialStatus());
 
         messageMapper.insert(message);
+        rollupManager.onMessagesAdded(Collections.singletonList(message));
+        leaderboardManager.onMessagesAdded(Collections.singletonList(message));
+        realTimeManager.incrementAfterCommit(RealTimeMetric.MESSAGE, 1);
+        if (message.getAuditStatus() == AuditStatusEnum.APPROVED) {
+            liveFeedManager.publishMessageAfterCommit(message.getMemorialId(), convertToVO(message));
+        } else {
+            moderationManager.submitAfterCommit(message);
+        }
         log.info("回复留言成功, messageId={}", message.getId());
         
         return message.getId();
@@ -110,10 +167,19 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
         // 删除留言及其所有回复
         messageMapper.deleteById(id);
         
-        // 删除子留言
+        // 删除子留言（先取出统计需要的字段，用于扣减汇总）
         LambdaQueryWrapper<MemorialMessage> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(MemorialMessage::getParentId, id);
+        List<MemorialMessage> deleted = new ArrayList<>();
+        deleted.add(message);
+        deleted.addAll(messageMapper.selectList(new LambdaQueryWrapper<MemorialMessage>()
+                .select(MemorialMessage::getId, MemorialMessage::getMemorialId,
+                        MemorialMessage::getMessageType, MemorialMessage::getMessageTime)
+                .eq(MemorialMessage::getParentId, id)));
         messageMapper.delete(wrapper);
+        rollupManager.onMessagesDeleted(deleted);
+        leaderboardManager.onMessagesDeleted(deleted);
+        evictPinnedCache(message.getMemorialId());
 
         log.info("删除留言成功, messageId={}", id);
     }
@@ -153,9 +219,7 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
         List<MemorialMessage> messages = messageMapper.selectList(wrapper);
         
         // 构建树形结构
-        return messages.stream()
-                .map(this::buildMessageTree)
-                .collect(Collectors.toList());
+        return buildMessageTree(messages);
     }
 
     @Override
@@ -174,7 +238,7 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
             wrapper.eq(MemorialMessage::getMessageType, messageType);
         }
         
-        wrapper.eq(MemorialMessage::getAuditStatus, 1);
+        wrapper.eq(MemorialMessage::getAuditStatus, AuditStatusEnum.APPROVED);
         wrapper.orderByDesc(MemorialMessage::getIsPinned);
         wrapper.orderByDesc(MemorialMessage::getCreateTime);
 
@@ -186,10 +250,36 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
         voPage.setRecords(messagePage.getRecords().stream()
                 .map(this::convertToVO)
                 .collect(Collectors.toList()));
+        fillLiked(voPage.getRecords());
         
         return voPage;
     }
 
+    @Override
+    public CursorPageResult<MemorialMessageVO> cursorMemorialMessages(Long memorialId, Integer messageType,
+                                                                       CursorQueryDTO cursorQueryDTO) {
+        if (memorialId == null) {
+            throw new BusinessException("纪念空间ID不能为空");
+        }
+
+        LambdaQueryWrapper<MemorialMessage> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(MemorialMessage::getMemorialId, memorialId);
+        wrapper.isNull(MemorialMessage::getParentId);
+
+        if (messageType != null) {
+            wrapper.eq(MemorialMessage::getMessageType, messageType);
+        }
+
+        wrapper.eq(MemorialMessage::getAuditStatus, AuditStatusEnum.APPROVED);
+        CursorPageHelper.apply(wrapper, cursorQueryDTO, MemorialMessage::getCreateTime, MemorialMessage::getId);
+
+        List<MemorialMessage> messages = messageMapper.selectPage(CursorPageHelper.page(cursorQueryDTO), wrapper).getRecords();
+        CursorPageResult<MemorialMessageVO> result = CursorPageHelper.result(messages, cursorQueryDTO,
+                records -> records.stream().map(this::convertToVO).collect(Collectors.toList()));
+        fillLiked(result.getRecords());
+        return result;
+    }
+
     @Override
     public List<MemorialMessageVO> getMessageReplies(Long id) {
         if (id == null) {
@@ -198,7 +288,7 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
 
         LambdaQueryWrapper<MemorialMessage> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(MemorialMessage::getParentId, id);
-        wrapper.eq(MemorialMessage::getAuditStatus, 1);
+        wrapper.eq(MemorialMessage::getAuditStatus, AuditStatusEnum.APPROVED);
         wrapper.orderByAsc(MemorialMessage::getCreateTime);
 
         List<MemorialMessage> replies = messageMapper.selectList(wrapper);
@@ -206,8 +296,7 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public void likeMessage(Long id) {
+    public Integer likeMessage(Long id) {
         if (id == null) {
             throw new BusinessException("留言ID不能为空");
         }
@@ -219,10 +308,47 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
             throw new BusinessException("留言不存在");
         }
 
-        message.setLikeCount(message.getLikeCount() + 1);
-        messageMapper.updateById(message);
+        boolean added = likeManager.like(id, VisitorContext.currentUserId(), VisitorContext.currentIp());
+        Integer likeCount = likeManager.count(id);
         
-        log.info("点赞留言成功, messageId={}", id);
+        log.info("点赞留言成功, messageId={}, added={}", id, added);
+        return likeCount != null ? likeCount : message.getLikeCount();
+    }
+
+    @Override
+    public Integer unlikeMessage(Long id) {
+        if (id == null) {
+            throw new BusinessException("留言ID不能为空");
+        }
+
+        log.info("取消点赞留言, messageId={}", id);
+
+        MemorialMessage message = messageMapper.selectById(id);
+        if (message == null) {
+            throw new BusinessException("留言不存在");
+        }
+
+        boolean removed = likeManager.unlike(id, VisitorContext.currentUserId(), VisitorContext.currentIp());
+        Integer likeCount = likeManager.count(id);
+
+        log.info("取消点赞留言成功, messageId={}, removed={}", id, removed);
+        return likeCount != null ? likeCount : message.getLikeCount();
+    }
+
+    @Override
+    public Map<Long, Boolean> getLikedStatus(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Set<Long> liked = likeManager.likedBy(ids, VisitorContext.currentUserId(), VisitorContext.currentIp());
+        Map<Long, Boolean> result = new LinkedHashMap<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id != null) {
+                result.put(id, liked.contains(id));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -241,6 +367,7 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
 
         message.setIsPinned(1);
         messageMapper.updateById(message);
+        evictPinnedCache(message.getMemorialId());
         
         log.info("置顶留言成功, messageId={}", id);
     }
@@ -261,6 +388,7 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
 
         message.setIsPinned(0);
         messageMapper.updateById(message);
+        evictPinnedCache(message.getMemorialId());
         
         log.info("取消置顶留言成功, messageId={}", id);
     }
@@ -279,17 +407,42 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
             throw new BusinessException("留言不存在");
         }
 
+        boolean approved = message.getAuditStatus() != AuditStatusEnum.APPROVED
+                && AuditStatusEnum.getByCode(status) == AuditStatusEnum.APPROVED;
         message.setAuditStatus(AuditStatusEnum.getByCode(status));
         message.setAuditRemark(remark);
         messageMapper.updateById(message);
+        evictPinnedCache(message.getMemorialId());
+        if (approved) {
+            liveFeedManager.publishMessageAfterCommit(message.getMemorialId(), convertToVO(message));
+        }
         
         log.info("审核留言成功, messageId={}", id);
     }
 
+    @Override
+    public List<MemorialMessageVO> getPinnedMessages(Long memorialId) {
+        if (memorialId == null) {
+            throw new BusinessException("纪念空间ID不能为空");
+        }
+
+        return cacheService.get(Constants.MEMORIAL_PINNED_KEY + memorialId, () -> {
+            LambdaQueryWrapper<MemorialMessage> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(MemorialMessage::getMemorialId, memorialId);
+            wrapper.isNull(MemorialMessage::getParentId);
+            wrapper.eq(MemorialMessage::getIsPinned, 1);
+            wrapper.eq(MemorialMessage::getAuditStatus, AuditStatusEnum.APPROVED);
+            wrapper.orderByDesc(MemorialMessage::getCreateTime);
+
+            List<MemorialMessage> messages = messageMapper.selectList(wrapper);
+            return messages.stream().map(this::convertToVO).collect(Collectors.toList());
+        }, cacheConfig.getListExpire(), TimeUnit.SECONDS);
+    }
+
     @Override
     public List<MemorialMessageVO> getRecentMessages(Integer limit) {
         LambdaQueryWrapper<MemorialMessage> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(MemorialMessage::getAuditStatus, 1);
+        wrapper.eq(MemorialMessage::getAuditStatus, AuditStatusEnum.APPROVED);
         wrapper.orderByDesc(MemorialMessage::getCreateTime);
         wrapper.last("LIMIT " + limit);
 
@@ -338,34 +491,172 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void batchDeleteMessages(List<Long> ids) {
+    public BatchOperationVO batchDeleteMessages(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             throw new BusinessException("留言ID列表不能为空");
         }
 
-        log.info("批量删除留言, ids={}", ids);
-        
-        for (Long id : ids) {
-            deleteMessage(id); // 级联删除
+        log.info("批量删除留言, count={}", ids.size());
+
+        BatchOperationVO result = new BatchOperationVO();
+        List<MemorialMessage> deleted = new ArrayList<>();
+        Set<Long> deletedIds = new HashSet<>();
+        List<Long> distinctIds = distinctIds(ids);
+        for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = new ArrayList<>();
+            for (Long id : distinctIds.subList(from, Math.min(from + ID_BATCH_SIZE, distinctIds.size()))) {
+                // 已作为前面批次留言的回复被级联删除
+                if (deletedIds.contains(id)) {
+                    result.success(id);
+                } else {
+                    batch.add(id);
+                }
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            // 加锁读取本批留言及其回复，保证扣减的统计与实际删除的行一致
+            List<MemorialMessage> messages = selectForDelete(MemorialMessage::getId, batch);
+            Set<Long> foundIds = messages.stream().map(MemorialMessage::getId).collect(Collectors.toSet());
+            for (Long id : batch) {
+                if (foundIds.contains(id)) {
+                    result.success(id);
+                } else {
+                    result.fail(id, "留言不存在");
+                }
+            }
+            if (foundIds.isEmpty()) {
+                continue;
+            }
+
+            List<Long> parentIds = new ArrayList<>(foundIds);
+            List<MemorialMessage> replies = selectForDelete(MemorialMessage::getParentId, parentIds);
+            messageMapper.deleteBatchIds(parentIds);
+            if (!replies.isEmpty()) {
+                messageMapper.delete(new LambdaQueryWrapper<MemorialMessage>()
+                        .in(MemorialMessage::getParentId, parentIds));
+            }
+
+            for (MemorialMessage message : messages) {
+                if (deletedIds.add(message.getId())) {
+                    deleted.add(message);
+                }
+            }
+            for (MemorialMessage reply : replies) {
+                if (deletedIds.add(reply.getId())) {
+                    deleted.add(reply);
+                }
+            }
         }
-        
-        log.info("批量删除留言成功, count={}", ids.size());
+
+        if (!deleted.isEmpty()) {
+            // 汇总与排行榜增量按纪念空间聚合，提交后统一扣减
+            rollupManager.onMessagesDeleted(deleted);
+            leaderboardManager.onMessagesDeleted(deleted);
+            deleted.stream()
+                    .map(MemorialMessage::getMemorialId)
+                    .distinct()
+                    .forEach(this::evictPinnedCache);
+        }
+        result.setAffectedCount(deleted.size());
+
+        log.info("批量删除留言成功, success={}, failed={}, affected={}",
+                result.getSuccessCount(), result.getFailedCount(), result.getAffectedCount());
+        return result;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void batchAuditMessages(List<Long> ids, Integer status) {
+    public BatchOperationVO batchAuditMessages(List<Long> ids, Integer status, String remark) {
         if (ids == null || ids.isEmpty()) {
             throw new BusinessException("留言ID列表不能为空");
         }
+        AuditStatusEnum auditStatus = AuditStatusEnum.getByCode(status);
+        if (auditStatus == null) {
+            throw new BusinessException("审核状态不正确");
+        }
 
-        log.info("批量审核留言, ids={}, status={}", ids, status);
-        
-        for (Long id : ids) {
-            auditMessage(id, status, null);
+        log.info("批量审核留言, count={}, status={}, remark={}", ids.size(), status, remark);
+
+        BatchOperationVO result = new BatchOperationVO();
+        Set<Long> memorialIds = new HashSet<>();
+        List<Long> distinctIds = distinctIds(ids);
+        for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + ID_BATCH_SIZE, distinctIds.size()));
+
+            List<MemorialMessage> messages = messageMapper.selectList(new LambdaQueryWrapper<MemorialMessage>()
+                    .select(MemorialMessage::getId, MemorialMessage::getMemorialId)
+                    .in(MemorialMessage::getId, batch));
+            Set<Long> foundIds = new HashSet<>();
+            for (MemorialMessage message : messages) {
+                foundIds.add(message.getId());
+                memorialIds.add(message.getMemorialId());
+            }
+            for (Long id : batch) {
+                if (foundIds.contains(id)) {
+                    result.success(id);
+                } else {
+                    result.fail(id, "留言不存在");
+                }
+            }
+            if (foundIds.isEmpty()) {
+                continue;
+            }
+
+            // 本次由未通过变为通过的留言需要推送，加锁读取，避免与自动审核重复推送
+            List<MemorialMessage> newlyApproved = auditStatus != AuditStatusEnum.APPROVED
+                    ? Collections.emptyList()
+                    : messageMapper.selectList(new LambdaQueryWrapper<MemorialMessage>()
+                            .in(MemorialMessage::getId, foundIds)
+                            .ne(MemorialMessage::getAuditStatus, AuditStatusEnum.APPROVED)
+                            .last("FOR UPDATE"));
+
+            // 审核备注与状态在同一条UPDATE中写入，未填写时清空（覆盖自动审核留下的命中记录）
+            MemorialMessage update = new MemorialMessage();
+            update.setAuditStatus(auditStatus);
+            int affected = messageMapper.update(update, new LambdaUpdateWrapper<MemorialMessage>()
+                    .set(MemorialMessage::getAuditRemark, remark)
+                    .in(MemorialMessage::getId, foundIds));
+            result.setAffectedCount(result.getAffectedCount() + affected);
+
+            for (MemorialMessage message : newlyApproved) {
+                message.setAuditStatus(AuditStatusEnum.APPROVED);
+                message.setAuditRemark(remark);
+                liveFeedManager.publishMessageAfterCommit(message.getMemorialId(), convertToVO(message));
+            }
+        }
+        memorialIds.forEach(this::evictPinnedCache);
+
+        log.info("批量审核留言成功, success={}, failed={}", result.getSuccessCount(), result.getFailedCount());
+        return result;
+    }
+
+    /**
+     * 加锁读取待删除留言中统计需要的字段
+     */
+    private List<MemorialMessage> selectForDelete(SFunction<MemorialMessage, Long> column, List<Long> ids) {
+        return messageMapper.selectList(new LambdaQueryWrapper<MemorialMessage>()
+                .select(MemorialMessage::getId, MemorialMessage::getMemorialId, MemorialMessage::getParentId,
+                        MemorialMessage::getMessageType, MemorialMessage::getMessageTime)
+                .in(column, ids)
+                .last("FOR UPDATE"));
+    }
+
+    /**
+     * 去除空值和重复ID，保持原有顺序
+     */
+    private static List<Long> distinctIds(List<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * 清除纪念空间的置顶留言缓存
+     */
+    private void evictPinnedCache(Long memorialId) {
+        if (memorialId != null) {
+            cacheService.delete(Constants.MEMORIAL_PINNED_KEY + memorialId);
         }
-        
-        log.info("批量审核留言成功, count={}", ids.size());
     }
 
     /**
@@ -379,14 +670,57 @@ public class MemorialMessageServiceImpl implements MemorialMessageService {
 
     /**
      * 构建留言树形结构
+     * 回复和回复数按父留言ID批量查询后在内存中挂载，避免逐条留言查询回复
      */
-    private MemorialMessageVO buildMessageTree(MemorialMessage message) {
-        MemorialMessageVO vo = convertToVO(message);
-        
-        // 查询回复
-        List<MemorialMessageVO> replies = getMessageReplies(message.getId());
-        vo.setReplies(replies);
-        
-        return vo;
+    private List<MemorialMessageVO> buildMessageTree(List<MemorialMessage> messages) {
+        if (messages.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, MemorialMessageVO> voMap = new LinkedHashMap<>(messages.size() * 2);
+        for (MemorialMessage message : messages) {
+            MemorialMessageVO vo = convertToVO(message);
+            vo.setReplies(new ArrayList<>());
+            vo.setReplyCount(0);
+            voMap.put(message.getId(), vo);
+        }
+
+        List<Long> parentIds = new ArrayList<>(voMap.keySet());
+        for (int from = 0; from < parentIds.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = parentIds.subList(from, Math.min(from + ID_BATCH_SIZE, parentIds.size()));
+
+            List<MemorialMessage> replies = messageMapper.selectRepliesByParentIds(
+                    batch, AuditStatusEnum.APPROVED, REPLY_PREVIEW_LIMIT);
+            for (MemorialMessage reply : replies) {
+                MemorialMessageVO parent = voMap.get(reply.getParentId());
+                if (parent != null) {
+                    parent.getReplies().add(convertToVO(reply));
+                }
+            }
+
+            for (Map<String, Object> row : messageMapper.countRepliesByParentIds(batch, AuditStatusEnum.APPROVED)) {
+                MemorialMessageVO parent = voMap.get(((Number) row.get("parent_id")).longValue());
+                if (parent != null) {
+                    parent.setReplyCount(((Number) row.get("reply_count")).intValue());
+                }
+            }
+        }
+        List<MemorialMessageVO> tree = new ArrayList<>(voMap.values());
+        List<MemorialMessageVO> all = new ArrayList<>(tree);
+        tree.forEach(vo -> all.addAll(vo.getReplies()));
+        fillLiked(all);
+        return tree;
+    }
+
+    /**
+     * 标记当前访客是否点赞过（一次批量查询）
+     */
+    private void fillLiked(List<MemorialMessageVO> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        List<Long> ids = messages.stream().map(MemorialMessageVO::getId).collect(Collectors.toList());
+        Set<Long> liked = likeManager.likedBy(ids, VisitorContext.currentUserId(), VisitorContext.currentIp());
+        messages.forEach(vo -> vo.setIsLiked(liked.contains(vo.getId())));
     }
 }
@@ -5,6 +5,9 @@ import com.cemetery.domain.document.MemorialDocument;
 import com.cemetery.domain.dto.MemorialSearchDTO;
 import com.cemetery.domain.repository.MemorialSearchRepository;
 import com.cemetery.service.MemorialSearchService;
+import com.cemetery.service.search.EmbeddedMemorialIndex;
+import com.cemetery.service.search.MemorialIndexManager;
+import com.cemetery.service.search.MemorialIndexRebuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -14,6 +17,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.stereotype.Service;
@@ -23,6 +27,7 @@ import java.util.stream.Collectors;
 
 /**
  * 纪念空间搜索服务实现类
+ * 启用嵌入式搜索时查询本机Lucene索引，否则查询Elasticsearch
  */
 @Slf4j
 @Service
@@ -34,11 +39,24 @@ public class MemorialSearchServiceImpl implements MemorialSearchService {
     @Autowired(required = false)
     private ElasticsearchRestTemplate elasticsearchTemplate;
 
+    @Autowired
+    private MemorialIndexManager indexManager;
+
+    @Autowired
+    private MemorialIndexRebuilder indexRebuilder;
+
+    @Autowired
+    private EmbeddedMemorialIndex embeddedIndex;
+
     @Override
     public Object search(MemorialSearchDTO searchDTO) {
         log.info("执行全文搜索, keyword={}, searchType={}", 
                 searchDTO.getKeyword(), searchDTO.getSearchType());
 
+        if (embeddedIndex.isEnabled()) {
+            return embeddedIndex.search(searchDTO);
+        }
+
         if (elasticsearchTemplate == null) {
             log.warn("Elasticsearch未配置，返回空结果");
             Map<String, Object> result = new HashMap<>();
@@ -90,6 +108,10 @@ public class MemorialSearchServiceImpl implements MemorialSearchService {
     public Object searchMemorial(String keyword, Integer page, Integer pageSize, Boolean highlight) {
         log.info("搜索纪念空间, keyword={}", keyword);
 
+        if (embeddedIndex.isEnabled()) {
+            return embeddedIndex.searchMemorial(keyword, page, pageSize);
+        }
+
         if (elasticsearchTemplate == null) {
             log.warn("Elasticsearch未配置，返回空结果");
             Map<String, Object> result = new HashMap<>();
@@ -124,6 +146,10 @@ public class MemorialSearchServiceImpl implements MemorialSearchService {
     public Object searchDeceased(String name, Integer page, Integer pageSize) {
         log.info("搜索逝者, name={}", name);
 
+        if (embeddedIndex.isEnabled()) {
+            return embeddedIndex.searchDeceased(name, page, pageSize);
+        }
+
         if (elasticsearchTemplate == null) {
             log.warn("Elasticsearch未配置，返回空结果");
             Map<String, Object> result = new HashMap<>();
@@ -195,36 +221,39 @@ public class MemorialSearchServiceImpl implements MemorialSearchService {
     public void indexMemorial(Long id) {
         log.info("索引纪念空间, memorialId={}", id);
 
-        if (searchRepository == null) {
+        if (embeddedIndex.isEnabled()) {
+            embeddedIndex.sync(id);
+            return;
+        }
+
+        if (elasticsearchTemplate == null) {
             log.warn("Elasticsearch未配置，跳过索引操作");
             return;
         }
 
-        try {
-            // 创建文档并保存到ES
-            MemorialDocument document = new MemorialDocument();
-            document.setId(id);
-            // 这里需要从数据库查询并设置其他字段
-            
-            searchRepository.save(document);
-            log.info("索引纪念空间成功, memorialId={}", id);
-        } catch (Exception e) {
-            log.error("索引纪念空间失败", e);
+        // 从数据库联表读取完整文档后写入，纪念空间已删除时从索引删除
+        if (indexManager.sync(Collections.singletonList(id)) == 0) {
             throw new BusinessException("索引失败");
         }
+        log.info("索引纪念空间成功, memorialId={}", id);
     }
 
     @Override
     public void deleteMemorialIndex(Long id) {
         log.info("删除索引, memorialId={}", id);
 
-        if (searchRepository == null) {
+        if (embeddedIndex.isEnabled()) {
+            embeddedIndex.delete(id);
+            return;
+        }
+
+        if (elasticsearchTemplate == null) {
             log.warn("Elasticsearch未配置，跳过索引操作");
             return;
         }
 
         try {
-            searchRepository.deleteById(id);
+            elasticsearchTemplate.delete(String.valueOf(id), IndexCoordinates.of(indexManager.getIndexName()));
             log.info("删除索引成功, memorialId={}", id);
         } catch (Exception e) {
             log.error("删除索引失败", e);
@@ -233,26 +262,20 @@ public class MemorialSearchServiceImpl implements MemorialSearchService {
     }
 
     @Override
-    public void rebuildIndex() {
-        log.info("开始重建搜索索引");
-
-        if (searchRepository == null) {
-            log.warn("Elasticsearch未配置，跳过索引操作");
-            return;
+    public Map<String, Object> rebuildIndex() {
+        log.info("提交重建搜索索引");
+        if (embeddedIndex.isEnabled()) {
+            return embeddedIndex.submitRebuild();
         }
+        return indexRebuilder.submit();
+    }
 
-        try {
-            // 删除所有索引
-            searchRepository.deleteAll();
-            
-            // 重新索引所有纪念空间
-            // 这里需要从数据库查询所有纪念空间并索引
-            
-            log.info("重建搜索索引成功");
-        } catch (Exception e) {
-            log.error("重建搜索索引失败", e);
-            throw new BusinessException("重建索引失败");
+    @Override
+    public Map<String, Object> getRebuildProgress() {
+        if (embeddedIndex.isEnabled()) {
+            return embeddedIndex.getProgress();
         }
+        return indexRebuilder.getProgress();
     }
 
     @Override
@@ -261,6 +284,10 @@ public class MemorialSearchServiceImpl implements MemorialSearchService {
                                 Integer accessPermission, Integer page, Integer pageSize) {
         log.info("执行高级搜索, deceasedName={}, spaceName={}", deceasedName, spaceName);
 
+        if (embeddedIndex.isEnabled()) {
+            return embeddedIndex.advancedSearch(deceasedName, spaceName, accessPermission, page, pageSize);
+        }
+
         if (elasticsearchTemplate == null) {
             log.warn("Elasticsearch未配置，返回空结果");
             Map<String, Object> result = new HashMap<>();
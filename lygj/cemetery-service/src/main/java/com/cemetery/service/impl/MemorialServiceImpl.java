@@ -3,6 +3,8 @@ package com.cemetery.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.constant.Constants;
 import com.cemetery.common.exception.BusinessException;
 import com.cemetery.domain.dto.DigitalMemorialDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
@@ -10,11 +12,25 @@ import com.cemetery.domain.entity.DeceasedInfo;
 import com.cemetery.domain.entity.DigitalMemorial;
 import com.cemetery.domain.entity.TombLocation;
 import com.cemetery.domain.enums.AccessPermissionEnum;
+import com.cemetery.domain.enums.VisitTypeEnum;
 import com.cemetery.domain.mapper.DeceasedInfoMapper;
 import com.cemetery.domain.mapper.DigitalMemorialMapper;
 import com.cemetery.domain.mapper.TombLocationMapper;
 import com.cemetery.domain.vo.DigitalMemorialVO;
+import com.cemetery.service.CacheService;
 import com.cemetery.service.MemorialService;
+import com.cemetery.service.cache.BloomFilterManager;
+import com.cemetery.service.counter.MemorialCounterManager;
+import com.cemetery.service.counter.MemorialCounterType;
+import com.cemetery.service.leaderboard.LeaderboardMetric;
+import com.cemetery.service.leaderboard.MemorialLeaderboardManager;
+import com.cemetery.service.live.MemorialLiveFeedManager;
+import com.cemetery.service.realtime.RealTimeMetric;
+import com.cemetery.service.search.MemorialIndexManager;
+import com.cemetery.service.realtime.RealTimeStatisticsManager;
+import com.cemetery.service.statistics.StatisticsRollupManager;
+import com.cemetery.service.visit.MemorialVisitLogManager;
+import com.cemetery.service.visit.VisitorContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -22,11 +38,14 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -37,10 +56,25 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemorialServiceImpl implements MemorialService {
 
+    /**
+     * 热门列表从排行榜补足数量时最多翻页次数
+     */
+    private static final int POPULAR_MAX_ROUNDS = 3;
+
     private final DigitalMemorialMapper memorialMapper;
     private final TombLocationMapper tombLocationMapper;
     private final DeceasedInfoMapper deceasedInfoMapper;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final MemorialCounterManager counterManager;
+    private final CacheService cacheService;
+    private final CacheConfig cacheConfig;
+    private final BloomFilterManager bloomFilterManager;
+    private final StatisticsRollupManager rollupManager;
+    private final MemorialVisitLogManager visitLogManager;
+    private final RealTimeStatisticsManager realTimeManager;
+    private final MemorialLeaderboardManager leaderboardManager;
+    private final MemorialLiveFeedManager liveFeedManager;
+    private final MemorialIndexManager indexManager;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -111,6 +145,9 @@ public class MemorialServiceImpl implements MemorialService {
             log.debug("准备插入数据库, createTime={}", memorial.getCreateTime());
 
             memorialMapper.insert(memorial);
+            bloomFilterManager.add(BloomFilterManager.MEMORIAL, memorial.getId());
+            rollupManager.onMemorialCreated(memorial);
+            indexManager.enqueue(memorial.getId(), MemorialIndexManager.OPERATION_UPSERT);
             log.info("创建纪念空间成功, memorialId={}, spaceNo={}", memorial.getId(), spaceNo);
 
             return memorial.getId();
@@ -154,6 +191,8 @@ public class MemorialServiceImpl implements MemorialService {
         }
 
         memorialMapper.updateById(memorial);
+        indexManager.enqueue(memorial.getId(), MemorialIndexManager.OPERATION_UPSERT);
+        evictMemorialCache(memorial.getId());
         log.info("更新纪念空间成功, memorialId={}", memorial.getId());
     }
 
@@ -162,13 +201,20 @@ public class MemorialServiceImpl implements MemorialService {
         if (memorialId == null) {
             throw new BusinessException("纪念空间ID不能为空");
         }
+        checkMemorialExists(memorialId);
 
-        DigitalMemorial memorial = memorialMapper.selectMemorialWithDetails(memorialId);
-        if (memorial == null) {
+        DigitalMemorialVO cached = cacheService.get(Constants.MEMORIAL_DETAIL_KEY + memorialId,
+                () -> convertToVO(memorialMapper.selectMemorialWithDetails(memorialId)),
+                cacheConfig.getDetailExpire(), TimeUnit.SECONDS);
+        if (cached == null) {
             throw new BusinessException("纪念空间不存在");
         }
 
-        return convertToVO(memorial);
+        // 缓存中的对象可能被多个请求共享，复制后再合并计数
+        DigitalMemorialVO vo = new DigitalMemorialVO();
+        BeanUtils.copyProperties(cached, vo);
+        mergePendingCounters(vo);
+        return vo;
     }
 
     @Override
@@ -187,6 +233,10 @@ public class MemorialServiceImpl implements MemorialService {
 
         // 逻辑删除
         memorialMapper.deleteById(memorialId);
+        rollupManager.onMemorialDeleted(memorial);
+        leaderboardManager.onMemorialDeleted(memorialId);
+        indexManager.enqueue(memorialId, MemorialIndexManager.OPERATION_DELETE);
+        evictMemorialCache(memorialId);
         log.info("删除纪念空间成功, memorialId={}", memorialId);
     }
 
@@ -249,9 +299,13 @@ public class MemorialServiceImpl implements MemorialService {
             throw new BusinessException("纪念空间不存在");
         }
 
+        boolean wasPublished = Integer.valueOf(1).equals(memorial.getIsPublished());
         memorial.setIsPublished(1);
         memorial.setPublishTime(new Date());
         memorialMapper.updateById(memorial);
+        rollupManager.onMemorialPublishChanged(wasPublished, true);
+        indexManager.enqueue(memorialId, MemorialIndexManager.OPERATION_UPSERT);
+        evictMemorialCache(memorialId);
 
         log.info("发布纪念空间成功, memorialId={}", memorialId);
     }
@@ -270,40 +324,117 @@ public class MemorialServiceImpl implements MemorialService {
             throw new BusinessException("纪念空间不存在");
         }
 
+        boolean wasPublished = Integer.valueOf(1).equals(memorial.getIsPublished());
         memorial.setIsPublished(0);
         memorialMapper.updateById(memorial);
+        rollupManager.onMemorialPublishChanged(wasPublished, false);
+        indexManager.enqueue(memorialId, MemorialIndexManager.OPERATION_UPSERT);
+        evictMemorialCache(memorialId);
 
         log.info("取消发布纪念空间成功, memorialId={}", memorialId);
     }
 
     @Override
     public void incrementVisitCount(Long memorialId) {
-        memorialMapper.incrementVisitCount(memorialId);
+        checkMemorialExists(memorialId);
+        counterManager.increment(memorialId, MemorialCounterType.VISIT);
+        visitLogManager.record(memorialId, VisitTypeEnum.VIEW);
+        recordRealTime(RealTimeMetric.VISIT);
     }
 
     @Override
     public void incrementCandleCount(Long memorialId) {
-        memorialMapper.incrementCandleCount(memorialId);
+        checkMemorialExists(memorialId);
+        counterManager.increment(memorialId, MemorialCounterType.CANDLE);
+        visitLogManager.record(memorialId, VisitTypeEnum.CANDLE);
+        recordRealTime(RealTimeMetric.INTERACTION);
+        liveFeedManager.recordInteraction(memorialId, MemorialCounterType.CANDLE);
     }
 
     @Override
     public void incrementFlowerCount(Long memorialId) {
-        memorialMapper.incrementFlowerCount(memorialId);
+        checkMemorialExists(memorialId);
+        counterManager.increment(memorialId, MemorialCounterType.FLOWER);
+        visitLogManager.record(memorialId, VisitTypeEnum.FLOWER);
+        recordRealTime(RealTimeMetric.INTERACTION);
+        liveFeedManager.recordInteraction(memorialId, MemorialCounterType.FLOWER);
     }
 
     @Override
     public void incrementIncenseCount(Long memorialId) {
-        memorialMapper.incrementIncenseCount(memorialId);
+        checkMemorialExists(memorialId);
+        counterManager.increment(memorialId, MemorialCounterType.INCENSE);
+        visitLogManager.record(memorialId, VisitTypeEnum.INCENSE);
+        recordRealTime(RealTimeMetric.INTERACTION);
+        liveFeedManager.recordInteraction(memorialId, MemorialCounterType.INCENSE);
+    }
+
+    @Override
+    public SseEmitter subscribeLiveFeed(Long memorialId, Long lastEventId) {
+        checkMemorialExists(memorialId);
+        return liveFeedManager.subscribe(memorialId, lastEventId);
+    }
+
+    /**
+     * 实时统计计数并标记当前访客在线（只写内存）
+     */
+    private void recordRealTime(RealTimeMetric metric) {
+        realTimeManager.increment(metric, 1);
+        realTimeManager.touchVisitor(VisitorContext.visitorId(VisitorContext.currentUserId(), VisitorContext.currentIp()));
     }
 
     @Override
     public List<DigitalMemorialVO> getPopularMemorials(Integer limit) {
-        Page<DigitalMemorial> page = new Page<>(1, limit != null ? limit : 10);
-        IPage<DigitalMemorial> memorialPage = memorialMapper.selectPopularMemorials(page, limit);
+        int size = limit != null ? limit : 10;
+        return cacheService.get(Constants.MEMORIAL_POPULAR_KEY + size, () -> {
+            List<DigitalMemorial> memorials = loadPopularFromLeaderboard(size);
+            if (memorials == null) {
+                Page<DigitalMemorial> page = new Page<>(1, size);
+                memorials = memorialMapper.selectPopularMemorials(page, size).getRecords();
+            }
+            return memorials.stream()
+                    .map(this::convertToVO)
+                    .collect(Collectors.toList());
+        }, cacheConfig.getListExpire(), TimeUnit.SECONDS);
+    }
 
-        return memorialPage.getRecords().stream()
-                .map(this::convertToVO)
-                .collect(Collectors.toList());
+    /**
+     * 按访问量总榜取热门纪念空间，一次批量查询补全详情，跳过未发布和已删除的
+     * @return 排行榜未启用或尚未建立时返回null
+     */
+    private List<DigitalMemorial> loadPopularFromLeaderboard(int size) {
+        List<DigitalMemorial> result = new ArrayList<>(size);
+        long offset = 0;
+        // 多取一些以补足被过滤掉的，最多翻几页
+        long pageSize = size * 2L;
+        for (int round = 0; round < POPULAR_MAX_ROUNDS && result.size() < size; round++) {
+            Map<Long, Double> ranked;
+            try {
+                ranked = leaderboardManager.top(LeaderboardMetric.VISIT, null, null, offset, pageSize);
+            } catch (Exception e) {
+                log.error("读取热门排行榜失败，改为查询数据库", e);
+                return null;
+            }
+            if (ranked == null) {
+                return round == 0 ? null : result;
+            }
+            if (ranked.isEmpty()) {
+                break;
+            }
+            Map<Long, DigitalMemorial> memorials = memorialMapper.selectBatchIds(ranked.keySet()).stream()
+                    .collect(Collectors.toMap(DigitalMemorial::getId, m -> m));
+            for (Long id : ranked.keySet()) {
+                DigitalMemorial memorial = memorials.get(id);
+                if (memorial != null && Integer.valueOf(1).equals(memorial.getIsPublished()) && result.size() < size) {
+                    result.add(memorial);
+                }
+            }
+            if (ranked.size() < pageSize) {
+                break;
+            }
+            offset += pageSize;
+        }
+        return result;
     }
 
     @Override
@@ -385,6 +516,38 @@ public class MemorialServiceImpl implements MemorialService {
         return prefix + String.format("%04d", nextSeq);
     }
 
+    /**
+     * 布隆过滤器判定不存在的ID直接拒绝，不再查询缓存和数据库
+     */
+    private void checkMemorialExists(Long memorialId) {
+        if (!bloomFilterManager.mightContain(BloomFilterManager.MEMORIAL, memorialId)) {
+            throw new BusinessException("纪念空间不存在");
+        }
+    }
+
+    /**
+     * 清除纪念空间详情及热门列表缓存
+     */
+    private void evictMemorialCache(Long memorialId) {
+        cacheService.delete(Constants.MEMORIAL_DETAIL_KEY + memorialId);
+        cacheService.deletePattern(Constants.MEMORIAL_POPULAR_KEY + "*");
+    }
+
+    /**
+     * 合并尚未回写数据库的互动计数
+     */
+    private void mergePendingCounters(DigitalMemorialVO vo) {
+        long[] pending = counterManager.getPendingDeltas(vo.getId());
+        vo.setVisitCount(addDelta(vo.getVisitCount(), pending[MemorialCounterType.VISIT.ordinal()]));
+        vo.setCandleCount(addDelta(vo.getCandleCount(), pending[MemorialCounterType.CANDLE.ordinal()]));
+        vo.setFlowerCount(addDelta(vo.getFlowerCount(), pending[MemorialCounterType.FLOWER.ordinal()]));
+        vo.setIncenseCount(addDelta(vo.getIncenseCount(), pending[MemorialCounterType.INCENSE.ordinal()]));
+    }
+
+    private Integer addDelta(Integer count, long delta) {
+        return (int) ((count != null ? count : 0) + delta);
+    }
+
     /**
      * 转换为VO
      */
@@ -1,74 +1,107 @@
 package com.cemetery.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.constant.Constants;
 import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.dto.VisitStatBucketDTO;
 import com.cemetery.domain.entity.DigitalMemorial;
-import com.cemetery.domain.entity.MemorialContent;
-import com.cemetery.domain.entity.MemorialMessage;
+import com.cemetery.domain.entity.User;
 import com.cemetery.domain.enums.ContentTypeEnum;
 import com.cemetery.domain.enums.MessageTypeEnum;
+import com.cemetery.domain.enums.VisitTypeEnum;
 import com.cemetery.domain.mapper.DigitalMemorialMapper;
-import com.cemetery.domain.mapper.MemorialContentMapper;
-import com.cemetery.domain.mapper.MemorialMessageMapper;
+import com.cemetery.domain.mapper.MemorialVisitLogMapper;
+import com.cemetery.domain.mapper.UserMapper;
+import com.cemetery.service.CacheService;
 import com.cemetery.service.MemorialStatisticsService;
+import com.cemetery.service.export.StatisticsExportManager;
+import com.cemetery.service.leaderboard.LeaderboardMetric;
+import com.cemetery.service.leaderboard.MemorialLeaderboardManager;
+import com.cemetery.service.realtime.RealTimeStatisticsManager;
+import com.cemetery.service.statistics.StatisticsMetric;
+import com.cemetery.service.statistics.StatisticsRollupManager;
+import com.cemetery.service.visit.MemorialVisitLogWriter;
+import com.cemetery.service.visit.UniqueVisitorManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * 统计报表服务实现类
+ * 数量、分布、存储等统计读取增量维护的汇总表，不再扫描内容和留言表；
+ * 访问和互动趋势读取访问记录的按小时/按天分桶表，独立访客读取Redis HyperLogLog；
+ * 实时统计读取内存滑动窗口的汇总快照
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MemorialStatisticsServiceImpl implements MemorialStatisticsService {
 
+    /**
+     * 用户活跃度统计的最大日期跨度（天）
+     */
+    private static final int MAX_ACTIVITY_DAYS = 366;
+
+    /**
+     * 访问、互动趋势的最大日期跨度（天），按天补齐时间点，跨度决定返回的点数
+     */
+    private static final int MAX_TREND_DAYS = 366;
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+
     private final DigitalMemorialMapper memorialMapper;
-    private final MemorialContentMapper contentMapper;
-    private final MemorialMessageMapper messageMapper;
+    private final CacheService cacheService;
+    private final CacheConfig cacheConfig;
+    private final StatisticsRollupManager rollupManager;
+    private final MemorialVisitLogMapper visitLogMapper;
+    private final UniqueVisitorManager uniqueVisitorManager;
+    private final UserMapper userMapper;
+    private final RealTimeStatisticsManager realTimeManager;
+    private final StatisticsExportManager exportManager;
+    private final MemorialLeaderboardManager leaderboardManager;
 
     @Override
     public Map<String, Object> getOverview() {
         log.info("获取整体概况统计");
 
+        // 概况统计读取全站汇总，按统计数据过期时间缓存
+        return cacheService.get(Constants.STATISTICS_OVERVIEW_KEY, this::buildOverview,
+                cacheConfig.getStatisticsExpire(), TimeUnit.SECONDS);
+    }
+
+    private Map<String, Object> buildOverview() {
+        Map<String, Long> summary = rollupManager.getGlobal();
         Map<String, Object> overview = new HashMap<>();
 
         // 总纪念空间数
-        long totalMemorials = memorialMapper.selectCount(null);
-        overview.put("totalMemorials", totalMemorials);
+        overview.put("totalMemorials", metric(summary, StatisticsMetric.MEMORIAL_TOTAL));
 
         // 已发布数量
-        LambdaQueryWrapper<DigitalMemorial> publishedWrapper = new LambdaQueryWrapper<>();
-        publishedWrapper.eq(DigitalMemorial::getIsPublished, 1);
-        long publishedMemorials = memorialMapper.selectCount(publishedWrapper);
-        overview.put("publishedMemorials", publishedMemorials);
+        overview.put("publishedMemorials", metric(summary, StatisticsMetric.MEMORIAL_PUBLISHED));
 
         // 总访问量
-        List<DigitalMemorial> memorials = memorialMapper.selectList(null);
-        int totalVisits = memorials.stream()
-                .mapToInt(m -> m.getVisitCount() != null ? m.getVisitCount() : 0)
-                .sum();
-        overview.put("totalVisits", totalVisits);
+        overview.put("totalVisits", metric(summary, StatisticsMetric.VISIT));
 
         // 总留言数
-        long totalMessages = messageMapper.selectCount(null);
-        overview.put("totalMessages", totalMessages);
+        overview.put("totalMessages", metric(summary, StatisticsMetric.MESSAGE_TOTAL));
 
         // 总内容数
-        long totalContents = contentMapper.selectCount(null);
-        overview.put("totalContents", totalContents);
+        overview.put("totalContents", metric(summary, StatisticsMetric.CONTENT_TOTAL));
 
         // 总互动数（蜡烛+鲜花+香）
-        int totalInteractions = memorials.stream()
-                .mapToInt(m -> (m.getCandleCount() != null ? m.getCandleCount() : 0)
-                        + (m.getFlowerCount() != null ? m.getFlowerCount() : 0)
-                        + (m.getIncenseCount() != null ? m.getIncenseCount() : 0))
-                .sum();
-        overview.put("totalInteractions", totalInteractions);
+        overview.put("totalInteractions", metric(summary, StatisticsMetric.CANDLE)
+                + metric(summary, StatisticsMetric.FLOWER)
+                + metric(summary, StatisticsMetric.INCENSE));
 
         return overview;
     }
@@ -89,17 +122,17 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
         statistics.put("incenseCount", memorial.getIncenseCount());
         statistics.put("messageCount", memorial.getMessageCount());
 
+        Map<String, Long> summary = rollupManager.getMemorial(memorialId);
+
         // 内容统计
-        LambdaQueryWrapper<MemorialContent> contentWrapper = new LambdaQueryWrapper<>();
-        contentWrapper.eq(MemorialContent::getMemorialId, memorialId);
-        long contentCount = contentMapper.selectCount(contentWrapper);
-        statistics.put("contentCount", contentCount);
+        statistics.put("contentCount", metric(summary, StatisticsMetric.CONTENT_TOTAL));
 
         // 留言统计
-        LambdaQueryWrapper<MemorialMessage> messageWrapper = new LambdaQueryWrapper<>();
-        messageWrapper.eq(MemorialMessage::getMemorialId, memorialId);
-        long actualMessageCount = messageMapper.selectCount(messageWrapper);
-        statistics.put("actualMessageCount", actualMessageCount);
+        statistics.put("actualMessageCount", metric(summary, StatisticsMetric.MESSAGE_TOTAL));
+
+        // 独立访客（HyperLogLog估算）
+        statistics.put("uniqueVisitors", uniqueVisitorManager.countMemorialTotal(memorialId));
+        statistics.put("todayUniqueVisitors", uniqueVisitorManager.countMemorialDay(memorialId, LocalDate.now()));
 
         return statistics;
     }
@@ -109,18 +142,13 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
         log.info("获取访问趋势统计, startDate={}, endDate={}, memorialId={}", 
                 startDate, endDate, memorialId);
 
-        // 暂时返回模拟数据
         List<Map<String, Object>> trend = new ArrayList<>();
-        LocalDate current = startDate;
-        
-        while (!current.isAfter(endDate)) {
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", current.toString());
-            dayData.put("visitCount", new Random().nextInt(100));
-            trend.add(dayData);
-            
-            current = current.plusDays(1);
-        }
+        loadTrendBuckets(startDate, endDate, memorialId).forEach((label, counts) -> {
+            Map<String, Object> point = new HashMap<>();
+            point.put("date", label);
+            point.put("visitCount", counts[VisitTypeEnum.VIEW.ordinal()]);
+            trend.add(point);
+        });
 
         return trend;
     }
@@ -130,20 +158,15 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
         log.info("获取互动趋势统计, startDate={}, endDate={}, memorialId={}", 
                 startDate, endDate, memorialId);
 
-        // 暂时返回模拟数据
         List<Map<String, Object>> trend = new ArrayList<>();
-        LocalDate current = startDate;
-        
-        while (!current.isAfter(endDate)) {
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", current.toString());
-            dayData.put("candleCount", new Random().nextInt(50));
-            dayData.put("flowerCount", new Random().nextInt(30));
-            dayData.put("incenseCount", new Random().nextInt(20));
-            trend.add(dayData);
-            
-            current = current.plusDays(1);
-        }
+        loadTrendBuckets(startDate, endDate, memorialId).forEach((label, counts) -> {
+            Map<String, Object> point = new HashMap<>();
+            point.put("date", label);
+            point.put("candleCount", counts[VisitTypeEnum.CANDLE.ordinal()]);
+            point.put("flowerCount", counts[VisitTypeEnum.FLOWER.ordinal()]);
+            point.put("incenseCount", counts[VisitTypeEnum.INCENSE.ordinal()]);
+            trend.add(point);
+        });
 
         return trend;
     }
@@ -152,24 +175,24 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
     public List<Map<String, Object>> getContentTypeDistribution(Long memorialId) {
         log.info("获取内容类型分布统计, memorialId={}", memorialId);
 
-        LambdaQueryWrapper<MemorialContent> wrapper = new LambdaQueryWrapper<>();
-        if (memorialId != null) {
-            wrapper.eq(MemorialContent::getMemorialId, memorialId);
+        Map<String, Long> summary = summaryOf(memorialId);
+        long total = 0;
+        for (ContentTypeEnum type : ContentTypeEnum.values()) {
+            total += metric(summary, StatisticsMetric.contentType(type));
         }
 
-        List<MemorialContent> contents = contentMapper.selectList(wrapper);
-        
-        Map<ContentTypeEnum, Long> typeCountMap = contents.stream()
-                .collect(Collectors.groupingBy(MemorialContent::getContentType, Collectors.counting()));
-
         List<Map<String, Object>> distribution = new ArrayList<>();
-        
-        for (Map.Entry<ContentTypeEnum, Long> entry : typeCountMap.entrySet()) {
+
+        for (ContentTypeEnum type : ContentTypeEnum.values()) {
+            long count = metric(summary, StatisticsMetric.contentType(type));
+            if (count <= 0) {
+                continue;
+            }
             Map<String, Object> item = new HashMap<>();
-            item.put("contentType", entry.getKey().getCode());
-            item.put("typeName", entry.getKey().getDesc());
-            item.put("count", entry.getValue());
-            item.put("percentage", entry.getValue() * 100.0 / contents.size());
+            item.put("contentType", type.getCode());
+            item.put("typeName", type.getDesc());
+            item.put("count", count);
+            item.put("percentage", count * 100.0 / total);
             distribution.add(item);
         }
 
@@ -181,24 +204,21 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
         log.info("获取留言统计, startDate={}, endDate={}, memorialId={}", 
                 startDate, endDate, memorialId);
 
-        LambdaQueryWrapper<MemorialMessage> wrapper = new LambdaQueryWrapper<>();
-        if (memorialId != null) {
-            wrapper.eq(MemorialMessage::getMemorialId, memorialId);
-        }
-
-        List<MemorialMessage> messages = messageMapper.selectList(wrapper);
+        // 指定日期范围时合计按天汇总，否则读取累计汇总
+        Map<String, Long> summary = startDate != null && endDate != null
+                ? rollupManager.sumDaily(memorialId, startDate, endDate)
+                : summaryOf(memorialId);
 
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalCount", messages.size());
+        statistics.put("totalCount", metric(summary, StatisticsMetric.MESSAGE_TOTAL));
 
         // 按类型统计
-        Map<MessageTypeEnum, Long> typeCount = messages.stream()
-                .collect(Collectors.groupingBy(MemorialMessage::getMessageType, Collectors.counting()));
-        
-        // 转换为Integer的Map
         Map<Integer, Long> typeCountMap = new HashMap<>();
-        for (Map.Entry<MessageTypeEnum, Long> entry : typeCount.entrySet()) {
-            typeCountMap.put(entry.getKey().getCode(), entry.getValue());
+        for (MessageTypeEnum type : MessageTypeEnum.values()) {
+            long count = metric(summary, StatisticsMetric.messageType(type));
+            if (count > 0) {
+                typeCountMap.put(type.getCode(), count);
+            }
         }
         statistics.put("typeCount", typeCountMap);
 
@@ -210,56 +230,83 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
                                                      LocalDate startDate, LocalDate endDate) {
         log.info("获取热门纪念空间排行, orderBy={}, limit={}", orderBy, limit);
 
-        List<DigitalMemorial> memorials = memorialMapper.selectList(null);
-
-        // 根据排序字段排序
-        Comparator<DigitalMemorial> comparator;
-        switch (orderBy) {
-            case "interactionCount":
-                comparator = Comparator.comparing(m -> 
-                    (m.getCandleCount() != null ? m.getCandleCount() : 0) +
-                    (m.getFlowerCount() != null ? m.getFlowerCount() : 0) +
-                    (m.getIncenseCount() != null ? m.getIncenseCount() : 0), 
-                    Comparator.reverseOrder());
-                break;
-            case "messageCount":
-                comparator = Comparator.comparing(m -> 
-                    m.getMessageCount() != null ? m.getMessageCount() : 0, 
-                    Comparator.reverseOrder());
-                break;
-            default: // visitCount
-                comparator = Comparator.comparing(m -> 
-                    m.getVisitCount() != null ? m.getVisitCount() : 0, 
-                    Comparator.reverseOrder());
+        int size = limit != null && limit > 0 ? limit : 10;
+        LeaderboardMetric metric = LeaderboardMetric.getByOrderBy(orderBy);
+        Map<Long, Double> ranked = null;
+        try {
+            ranked = leaderboardManager.top(metric, startDate, endDate, 0, size);
+        } catch (Exception e) {
+            log.error("读取排行榜失败，改为查询数据库, orderBy={}", orderBy, e);
+        }
+        if (ranked == null) {
+            return memorialMapper.selectTopMemorials(metric.getOrderBy(), size).stream()
+                    .map(m -> toTopItem(m, null))
+                    .collect(Collectors.toList());
         }
+        if (ranked.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 按名次批量补全纪念空间信息（一次查询），已删除的跳过
+        Map<Long, DigitalMemorial> memorials = memorialMapper.selectBatchIds(ranked.keySet()).stream()
+                .collect(Collectors.toMap(DigitalMemorial::getId, m -> m));
+        List<Map<String, Object>> result = new ArrayList<>(ranked.size());
+        ranked.forEach((id, score) -> {
+            DigitalMemorial memorial = memorials.get(id);
+            if (memorial != null) {
+                result.add(toTopItem(memorial, score.longValue()));
+            }
+        });
+        return result;
+    }
 
-        return memorials.stream()
-                .sorted(comparator)
-                .limit(limit)
-                .map(m -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("id", m.getId());
-                    item.put("spaceName", m.getSpaceName());
-                    item.put("visitCount", m.getVisitCount());
-                    item.put("messageCount", m.getMessageCount());
-                    item.put("interactionCount", 
-                        (m.getCandleCount() != null ? m.getCandleCount() : 0) +
-                        (m.getFlowerCount() != null ? m.getFlowerCount() : 0) +
-                        (m.getIncenseCount() != null ? m.getIncenseCount() : 0));
-                    return item;
-                })
-                .collect(Collectors.toList());
+    private static Map<String, Object> toTopItem(DigitalMemorial m, Long score) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", m.getId());
+        item.put("spaceName", m.getSpaceName());
+        item.put("visitCount", m.getVisitCount());
+        item.put("messageCount", m.getMessageCount());
+        item.put("interactionCount",
+            (m.getCandleCount() != null ? m.getCandleCount() : 0) +
+            (m.getFlowerCount() != null ? m.getFlowerCount() : 0) +
+            (m.getIncenseCount() != null ? m.getIncenseCount() : 0));
+        if (score != null) {
+            // 所选日期范围（未指定时为累计）内的排行分数
+            item.put("score", score);
+        }
+        return item;
     }
 
     @Override
     public Map<String, Object> getUserActivity(LocalDate startDate, LocalDate endDate) {
         log.info("获取用户活跃度统计, startDate={}, endDate={}", startDate, endDate);
 
-        // 暂时返回模拟数据
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessException("统计日期范围不正确");
+        }
+        if (startDate.plusDays(MAX_ACTIVITY_DAYS).isBefore(endDate)) {
+            throw new BusinessException("统计日期跨度不能超过" + MAX_ACTIVITY_DAYS + "天");
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        Date startTime = Date.from(startDate.atStartOfDay(zone).toInstant());
+        Date endTime = Date.from(endDate.plusDays(1).atStartOfDay(zone).toInstant());
+
         Map<String, Object> activity = new HashMap<>();
-        activity.put("activeUsers", 1000);
-        activity.put("newUsers", 150);
-        activity.put("totalActions", 5000);
+
+        // 活跃用户：范围内按用户ID/IP去重的访客数
+        activity.put("activeUsers", uniqueVisitorManager.countRange(startDate, endDate));
+
+        // 新注册用户
+        LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
+        userWrapper.ge(User::getCreateTime, startTime).lt(User::getCreateTime, endTime);
+        activity.put("newUsers", userMapper.selectCount(userWrapper));
+
+        // 访问和互动总次数
+        long totalActions = visitLogMapper.selectDailyBuckets(MemorialVisitLogWriter.GLOBAL_SCOPE, startTime,
+                        Date.from(endDate.atStartOfDay(zone).toInstant())).stream()
+                .mapToLong(bucket -> bucket.getVisitCount() != null ? bucket.getVisitCount() : 0L)
+                .sum();
+        activity.put("totalActions", totalActions);
 
         return activity;
     }
@@ -268,32 +315,21 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
     public Map<String, Object> getStorageUsage(Long memorialId) {
         log.info("获取存储空间使用统计, memorialId={}", memorialId);
 
-        LambdaQueryWrapper<MemorialContent> wrapper = new LambdaQueryWrapper<>();
-        if (memorialId != null) {
-            wrapper.eq(MemorialContent::getMemorialId, memorialId);
-        }
-
-        List<MemorialContent> contents = contentMapper.selectList(wrapper);
+        Map<String, Long> summary = summaryOf(memorialId);
 
         Map<String, Object> usage = new HashMap<>();
-        
-        long totalSize = contents.stream()
-                .filter(c -> c.getFileSize() != null)
-                .mapToLong(MemorialContent::getFileSize)
-                .sum();
+
+        long totalSize = 0;
+        for (ContentTypeEnum type : ContentTypeEnum.values()) {
+            totalSize += metric(summary, StatisticsMetric.contentSize(type));
+        }
         usage.put("totalSize", totalSize);
 
         // 按类型统计大小
-        Map<ContentTypeEnum, Long> typeSizeMap = contents.stream()
-                .filter(c -> c.getFileSize() != null)
-                .collect(Collectors.groupingBy(
-                    MemorialContent::getContentType, 
-                    Collectors.summingLong(MemorialContent::getFileSize)));
-        
-        usage.put("imageSize", typeSizeMap.getOrDefault(ContentTypeEnum.IMAGE, 0L));
-        usage.put("videoSize", typeSizeMap.getOrDefault(ContentTypeEnum.VIDEO, 0L));
-        usage.put("audioSize", typeSizeMap.getOrDefault(ContentTypeEnum.AUDIO, 0L));
-        usage.put("documentSize", typeSizeMap.getOrDefault(ContentTypeEnum.DOCUMENT, 0L));
+        usage.put("imageSize", metric(summary, StatisticsMetric.contentSize(ContentTypeEnum.IMAGE)));
+        usage.put("videoSize", metric(summary, StatisticsMetric.contentSize(ContentTypeEnum.VIDEO)));
+        usage.put("audioSize", metric(summary, StatisticsMetric.contentSize(ContentTypeEnum.AUDIO)));
+        usage.put("documentSize", metric(summary, StatisticsMetric.contentSize(ContentTypeEnum.DOCUMENT)));
 
         return usage;
     }
@@ -303,20 +339,23 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
         log.info("导出统计报表, reportType={}, startDate={}, endDate={}", 
                 reportType, startDate, endDate);
 
-        // 暂时返回模拟URL
-        return "http://example.com/export/" + reportType + ".xlsx";
+        return exportManager.submit(reportType, startDate, endDate, memorialId);
     }
 
     @Override
-    public Map<String, Object> getRealTimeStatistics() {
-        log.info("获取实时统计数据");
+    public Map<String, Object> getExportTask(String taskId) {
+        return exportManager.getTask(taskId);
+    }
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("onlineUsers", new Random().nextInt(100));
-        stats.put("todayVisits", new Random().nextInt(1000));
-        stats.put("todayMessages", new Random().nextInt(50));
+    @Override
+    public Resource getExportFile(String taskId) {
+        return exportManager.getExportFile(taskId);
+    }
 
-        return stats;
+    @Override
+    public Map<String, Object> getRealTimeStatistics() {
+        // 读取内存快照（后台每隔几秒汇总各节点），不访问数据库
+        return realTimeManager.getSnapshot();
     }
 
     @Override
@@ -343,4 +382,62 @@ public class MemorialStatisticsServiceImpl implements MemorialStatisticsService
 
         return report;
     }
+
+    /**
+     * 读取趋势分桶：起止为同一天时按小时，否则按天；没有数据的时间点补0
+     * @return 时间点 -> 按VisitTypeEnum顺序排列的次数
+     */
+    private Map<String, long[]> loadTrendBuckets(LocalDate startDate, LocalDate endDate, Long memorialId) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessException("统计日期范围不正确");
+        }
+        if (startDate.plusDays(MAX_TREND_DAYS).isBefore(endDate)) {
+            throw new BusinessException("统计日期跨度不能超过" + MAX_TREND_DAYS + "天");
+        }
+        Long scope = memorialId != null ? memorialId : MemorialVisitLogWriter.GLOBAL_SCOPE;
+        ZoneId zone = ZoneId.systemDefault();
+        Map<String, long[]> points = new LinkedHashMap<>();
+        List<VisitStatBucketDTO> buckets;
+        boolean hourly = startDate.equals(endDate);
+
+        if (hourly) {
+            LocalDateTime start = startDate.atStartOfDay();
+            for (int hour = 0; hour < 24; hour++) {
+                points.put(start.plusHours(hour).format(HOUR_FORMATTER), new long[VisitTypeEnum.values().length]);
+            }
+            buckets = visitLogMapper.selectHourlyBuckets(scope, Date.from(start.atZone(zone).toInstant()),
+                    Date.from(start.plusDays(1).atZone(zone).toInstant()));
+        } else {
+            for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                points.put(day.toString(), new long[VisitTypeEnum.values().length]);
+            }
+            buckets = visitLogMapper.selectDailyBuckets(scope, Date.from(startDate.atStartOfDay(zone).toInstant()),
+                    Date.from(endDate.atStartOfDay(zone).toInstant()));
+        }
+
+        for (VisitStatBucketDTO bucket : buckets) {
+            VisitTypeEnum type = VisitTypeEnum.getByCode(bucket.getVisitType());
+            if (type == null || bucket.getBucketTime() == null) {
+                continue;
+            }
+            LocalDateTime time = LocalDateTime.ofInstant(bucket.getBucketTime().toInstant(), zone);
+            String label = hourly ? time.format(HOUR_FORMATTER) : time.toLocalDate().toString();
+            long[] counts = points.get(label);
+            if (counts != null) {
+                counts[type.ordinal()] += bucket.getVisitCount() != null ? bucket.getVisitCount() : 0L;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 纪念空间汇总，未指定纪念空间时为全站汇总
+     */
+    private Map<String, Long> summaryOf(Long memorialId) {
+        return memorialId != null ? rollupManager.getMemorial(memorialId) : rollupManager.getGlobal();
+    }
+
+    private static long metric(Map<String, Long> summary, String metric) {
+        return summary.getOrDefault(metric, 0L);
+    }
 }
@@ -4,7 +4,9 @@ import cn.hutool.core.util.IdUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cemetery.common.exception.BusinessException;
+import com.cemetery.common.result.CursorPageResult;
 import com.cemetery.domain.converter.EntityConverter;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.dto.ServiceOrderDTO;
 import com.cemetery.domain.entity.ServiceOrder;
@@ -12,6 +14,7 @@ import com.cemetery.domain.enums.OrderStatusEnum;
 import com.cemetery.domain.mapper.ServiceOrderMapper;
 import com.cemetery.domain.vo.ServiceOrderVO;
 import com.cemetery.service.OrderService;
+import com.cemetery.service.page.CursorPageHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -161,6 +164,15 @@ public class OrderServiceImpl implements OrderService {
         return voPage;
     }
 
+    @Override
+    public CursorPageResult<ServiceOrderVO> cursorOrders(CursorQueryDTO cursorQueryDTO) {
+        LambdaQueryWrapper<ServiceOrder> wrapper = new LambdaQueryWrapper<>();
+        CursorPageHelper.apply(wrapper, cursorQueryDTO, ServiceOrder::getCreateTime, ServiceOrder::getId);
+
+        List<ServiceOrder> orders = serviceOrderMapper.selectPage(CursorPageHelper.page(cursorQueryDTO), wrapper).getRecords();
+        return CursorPageHelper.result(orders, cursorQueryDTO, EntityConverter.INSTANCE::toServiceOrderVOList);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void changeOrderStatus(Long orderId, OrderStatusEnum status) {
@@ -4,7 +4,9 @@ import cn.hutool.core.util.IdUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cemetery.common.exception.BusinessException;
+import com.cemetery.common.result.CursorPageResult;
 import com.cemetery.domain.converter.EntityConverter;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.dto.PaymentRecordDTO;
 import com.cemetery.domain.entity.PaymentRecord;
@@ -15,9 +17,12 @@ import com.cemetery.domain.mapper.PaymentRecordMapper;
 import com.cemetery.domain.mapper.ServiceOrderMapper;
 import com.cemetery.domain.vo.PaymentRecordVO;
 import com.cemetery.service.PaymentService;
+import com.cemetery.service.page.CursorPageHelper;
 import com.cemetery.service.payment.PaymentContext;
 import com.cemetery.service.payment.PaymentProcessor;
 import com.cemetery.service.payment.PaymentStateFactory;
+import com.cemetery.service.realtime.RealTimeMetric;
+import com.cemetery.service.realtime.RealTimeStatisticsManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -26,6 +31,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
@@ -42,6 +48,7 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRecordMapper paymentRecordMapper;
     private final ServiceOrderMapper serviceOrderMapper;
     private final PaymentProcessor paymentProcessor;
+    private final RealTimeStatisticsManager realTimeManager;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -84,6 +91,8 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BusinessException("支付记录不存在");
         }
 
+        boolean alreadySuccess = paymentRecord.getPaymentStatus() == PaymentStatusEnum.SUCCESS;
+
         // 更新支付记录
         paymentRecord.setPaymentStatus(PaymentStatusEnum.SUCCESS);
         paymentRecord.setTransactionId(transactionId);
@@ -97,6 +106,11 @@ public class PaymentServiceImpl implements PaymentService {
             serviceOrderMapper.updateById(serviceOrder);
         }
 
+        // 重复通知不重复计入实时统计
+        if (!alreadySuccess) {
+            recordPaymentSuccess(paymentRecord);
+        }
+
         log.info("处理支付成功, paymentNo={}, transactionId={}", paymentNo, transactionId);
     }
 
@@ -227,6 +241,15 @@ public class PaymentServiceImpl implements PaymentService {
         return voPage;
     }
 
+    @Override
+    public CursorPageResult<PaymentRecordVO> cursorPayments(CursorQueryDTO cursorQueryDTO) {
+        LambdaQueryWrapper<PaymentRecord> wrapper = new LambdaQueryWrapper<>();
+        CursorPageHelper.apply(wrapper, cursorQueryDTO, PaymentRecord::getCreateTime, PaymentRecord::getId);
+
+        List<PaymentRecord> payments = paymentRecordMapper.selectPage(CursorPageHelper.page(cursorQueryDTO), wrapper).getRecords();
+        return CursorPageHelper.result(payments, cursorQueryDTO, EntityConverter.INSTANCE::toPaymentRecordVOList);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void changePaymentStatus(String paymentNo, PaymentStatusEnum status) {
@@ -310,6 +333,8 @@ public class PaymentServiceImpl implements PaymentService {
             return;
         }
         
+        PaymentStatusEnum previousStatus = paymentRecord.getPaymentStatus();
+
         // 创建支付上下文
         PaymentContext context = new PaymentContext(paymentRecord);
         
@@ -328,6 +353,10 @@ public class PaymentServiceImpl implements PaymentService {
         // 更新数据库
         paymentRecord.setPaymentStatus(context.getCurrentStatus());
         paymentRecordMapper.updateById(paymentRecord);
+
+        if (previousStatus != PaymentStatusEnum.SUCCESS && context.getCurrentStatus() == PaymentStatusEnum.SUCCESS) {
+            recordPaymentSuccess(paymentRecord);
+        }
         
         log.info("支付回调处理完成, paymentNo={}, finalStatus={}", 
             paymentNo, context.getCurrentStatus().getDescription());
@@ -387,6 +416,18 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    /**
+     * 支付成功计入实时统计（事务提交后生效，金额按分累计）
+     */
+    private void recordPaymentSuccess(PaymentRecord paymentRecord) {
+        realTimeManager.incrementAfterCommit(RealTimeMetric.PAYMENT, 1);
+        BigDecimal amount = paymentRecord.getPaymentAmount();
+        if (amount != null) {
+            realTimeManager.incrementAfterCommit(RealTimeMetric.PAYMENT_AMOUNT,
+                    amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue());
+        }
+    }
+
     /**
      * 生成支付流水号
      * 格式：PAY + yyyyMMddHHmmss + 6位随机数
@@ -12,6 +12,7 @@ import com.cemetery.domain.enums.TombTypeEnum;
 import com.cemetery.domain.mapper.TombLocationMapper;
 import com.cemetery.domain.vo.TombLocationVO;
 import com.cemetery.service.TombService;
+import com.cemetery.service.search.MemorialIndexManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +30,7 @@ import java.util.List;
 public class TombServiceImpl implements TombService {
 
     private final TombLocationMapper tombLocationMapper;
+    private final MemorialIndexManager indexManager;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -72,6 +74,8 @@ public class TombServiceImpl implements TombService {
         // 转换并更新
         TombLocation tombLocation = EntityConverter.INSTANCE.toTombLocation(tombLocationDTO);
         tombLocationMapper.updateById(tombLocation);
+        // 墓位编号是纪念空间搜索文档的字段
+        indexManager.enqueueByTomb(tombLocation.getId());
         log.info("更新墓位成功, tombId={}", tombLocation.getId());
     }
 
@@ -0,0 +1,40 @@
+package com.cemetery.service.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 排行榜指标
+ */
+@Getter
+@AllArgsConstructor
+public enum LeaderboardMetric {
+
+    VISIT("visit", "visitCount", "访问量"),
+    INTERACTION("interaction", "interactionCount", "互动数（点烛、献花、上香）"),
+    MESSAGE("message", "messageCount", "留言数");
+
+    /**
+     * Redis键中的指标名
+     */
+    private final String code;
+
+    /**
+     * 排行接口的排序字段
+     */
+    private final String orderBy;
+
+    private final String desc;
+
+    /**
+     * 根据排序字段获取指标，未知字段按访问量排行
+     */
+    public static LeaderboardMetric getByOrderBy(String orderBy) {
+        for (LeaderboardMetric metric : values()) {
+            if (metric.getOrderBy().equals(orderBy)) {
+                return metric;
+            }
+        }
+        return VISIT;
+    }
+}
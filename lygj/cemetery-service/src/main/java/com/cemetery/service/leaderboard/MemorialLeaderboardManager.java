@@ -0,0 +1,438 @@
+package com.cemetery.service.leaderboard;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.MemorialLeaderboardConfig;
+import com.cemetery.domain.entity.DigitalMemorial;
+import com.cemetery.domain.entity.MemorialMessage;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.service.counter.MemorialCounterManager;
+import com.cemetery.service.counter.MemorialCounterType;
+import com.cemetery.service.statistics.StatisticsMetric;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 纪念空间排行榜（Redis有序集合）
+ * 每个指标维护总榜、每日榜、每周榜；每日/每周榜按自然日、ISO周分键，到期自动淘汰，新周期从零开始。
+ * 访问和互动增量随计数同步（每秒一次）以管道ZINCRBY写入，留言在事务提交后写入；
+ * 总榜每晚按数据库计数重建一次，修正删除、回滚等造成的偏差；重建期间的总榜增量另记一份，重建结果与之合并后替换总榜。
+ * 查询为ZREVRANGE（O(log N + M)），日期范围跨多天时合并每日榜并短时缓存合并结果。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialLeaderboardManager {
+
+    private static final String BOARD_KEY = "leaderboard:";
+    private static final String REBUILD_LOCK_KEY = "leaderboard:rebuild:lock";
+    private static final String REBUILD_CURSOR_KEY = "leaderboard:rebuild:cursor";
+
+    /**
+     * 总榜累加，重建进行中时同时记入增量键：KEYS[1]总榜 KEYS[2]重建游标 KEYS[3]增量键；
+     * ARGV[1]增量 ARGV[2]成员 ARGV[3]为1时无条件记录，否则只记录游标之前（已读出）的纪念空间
+     */
+    private static final String INCREMENT_SCRIPT =
+            "redis.call('ZINCRBY', KEYS[1], ARGV[1], ARGV[2]) "
+            + "local cursor = redis.call('GET', KEYS[2]) "
+            + "if cursor and (ARGV[3] == '1' or tonumber(ARGV[2]) <= tonumber(cursor)) then "
+            + "redis.call('ZINCRBY', KEYS[3], ARGV[1], ARGV[2]) end "
+            + "return 1";
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+    private final DigitalMemorialMapper memorialMapper;
+    private final MemorialLeaderboardConfig leaderboardConfig;
+    private final CacheConfig cacheConfig;
+    private final ObjectProvider<MemorialCounterManager> counterManagerProvider;
+
+    /**
+     * 累加直接写库的访问、互动增量（未启用计数写回时调用，一次管道往返）
+     * @param deltas 纪念空间ID -> 按MemorialCounterType顺序排列的增量
+     */
+    public void recordCounters(Map<Long, long[]> deltas) {
+        if (!isEnabled() || deltas.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            appendCounters((StringRedisConnection) connection, deltas, false);
+            return null;
+        });
+    }
+
+    /**
+     * 在计数同步的事务中追加访问、互动增量，与待回写Hash的累加一起生效，
+     * 重建时回写交接点两侧不会拆开：交接前的增量进入数据库，交接后的增量全部记入重建增量键
+     * @param deltas 纪念空间ID -> 按MemorialCounterType顺序排列的增量
+     */
+    public void appendBufferedCounters(StringRedisConnection conn, Map<Long, long[]> deltas) {
+        if (!isEnabled() || deltas.isEmpty()) {
+            return;
+        }
+        appendCounters(conn, deltas, true);
+    }
+
+    /**
+     * 新增留言计入排行（事务提交后写入）
+     */
+    public void onMessagesAdded(List<MemorialMessage> messages) {
+        if (!isEnabled() || messages.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = countByMemorial(messages);
+        afterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                counts.forEach((memorialId, count) ->
+                        incrementAll(conn, LeaderboardMetric.MESSAGE, memorialId, count, today, false));
+                expirePeriodKeys(conn, today);
+                return null;
+            });
+        });
+    }
+
+    /**
+     * 删除留言从总榜扣减（每日/每周榜反映当期新增，不扣减）
+     */
+    public void onMessagesDeleted(List<MemorialMessage> messages) {
+        if (!isEnabled() || messages.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = countByMemorial(messages);
+        afterCommit(() -> {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                counts.forEach((memorialId, count) -> incrementAllKey(conn, LeaderboardMetric.MESSAGE,
+                        String.valueOf(memorialId), -count, false));
+                return null;
+            });
+        });
+    }
+
+    /**
+     * 删除纪念空间后从总榜和当期榜移除（事务提交后执行）
+     */
+    public void onMemorialDeleted(Long memorialId) {
+        if (!isEnabled() || memorialId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            String member = String.valueOf(memorialId);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                    conn.zRem(allKey(metric), member);
+                    conn.zRem(dayKey(metric, today), member);
+                    conn.zRem(weekKey(metric, today), member);
+                }
+                return null;
+            });
+        });
+    }
+
+    /**
+     * 查询排行（按分数从高到低）
+     * @param startDate 开始日期，与结束日期都为空时查询总榜
+     * @param endDate 结束日期
+     * @param offset 起始名次（从0开始）
+     * @param count 数量
+     * @return 纪念空间ID -> 分数（按名次排序）；总榜尚未建立时返回null
+     */
+    public LinkedHashMap<Long, Double> top(LeaderboardMetric metric, LocalDate startDate, LocalDate endDate,
+                                           long offset, long count) {
+        String key = resolveKey(metric, startDate, endDate);
+        if (key.equals(allKey(metric)) && !Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return null;
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                stringRedisTemplate.opsForZSet().reverseRangeWithScores(key, offset, offset + count - 1);
+        LinkedHashMap<Long, Double> result = new LinkedHashMap<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null && tuple.getScore() > 0) {
+                    result.put(Long.valueOf(tuple.getValue()), tuple.getScore());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按数据库计数重建总榜（先写临时键，再与重建期间的增量合并替换总榜，集群内同一时刻只有一个节点执行）
+     * @return 写入的纪念空间数量，未拿到锁时返回-1
+     */
+    public int rebuild() {
+        RLock lock = redissonClient.getLock(key(REBUILD_LOCK_KEY));
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(0, leaderboardConfig.getLockLeaseSeconds(), TimeUnit.SECONDS);
+            if (!locked) {
+                return -1;
+            }
+            return doRebuild();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 启动后总榜不存在时（首次上线或Redis数据丢失）从数据库建立
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(allKey(metric)))) {
+                    log.info("排行榜总榜不存在，开始从数据库建立, metric={}", metric.getCode());
+                    rebuild();
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("启动时建立排行榜失败", e);
+        }
+    }
+
+    /**
+     * 先让计数管理器回写全部计数并暂停回写，同时写入重建游标，之后的总榜累加同时记入增量键：
+     * 经待回写Hash的访问、互动增量不会进入本次读出的数据库计数，全部记录；
+     * 留言和直接写库的计数只记录游标之前（已读出）的纪念空间，之后的纪念空间读出时已包含
+     */
+    private int doRebuild() throws InterruptedException {
+        Map<LeaderboardMetric, String> tempKeys = new EnumMap<>(LeaderboardMetric.class);
+        Map<LeaderboardMetric, String> deltaKeys = new EnumMap<>(LeaderboardMetric.class);
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            tempKeys.put(metric, allKey(metric) + ":rebuild");
+            deltaKeys.put(metric, deltaKey(metric));
+        }
+        String cursorKey = key(REBUILD_CURSOR_KEY);
+        List<String> workKeys = new ArrayList<>(tempKeys.values());
+        workKeys.addAll(deltaKeys.values());
+        workKeys.add(cursorKey);
+        stringRedisTemplate.delete(workKeys);
+
+        try {
+            Integer total = counterManagerProvider.getObject().flushAndPause(cursorKey,
+                    leaderboardConfig.getLockLeaseSeconds(), () -> buildAndMerge(tempKeys, deltaKeys, cursorKey));
+            if (total == null) {
+                return -1;
+            }
+            log.info("排行榜总榜重建完成, memorials={}", total);
+            return total;
+        } finally {
+            stringRedisTemplate.delete(workKeys);
+        }
+    }
+
+    private int buildAndMerge(Map<LeaderboardMetric, String> tempKeys, Map<LeaderboardMetric, String> deltaKeys,
+                              String cursorKey) {
+        int batchSize = leaderboardConfig.getRebuildBatchSize();
+        long lastId = 0L;
+        int total = 0;
+        while (true) {
+            List<DigitalMemorial> memorials = memorialMapper.selectCountersAfter(lastId, batchSize,
+                    StatisticsMetric.MESSAGE_TOTAL);
+            if (memorials.isEmpty()) {
+                break;
+            }
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (DigitalMemorial memorial : memorials) {
+                    String member = String.valueOf(memorial.getId());
+                    conn.zAdd(tempKeys.get(LeaderboardMetric.VISIT), nvl(memorial.getVisitCount()), member);
+                    conn.zAdd(tempKeys.get(LeaderboardMetric.INTERACTION), nvl(memorial.getCandleCount())
+                            + nvl(memorial.getFlowerCount()) + nvl(memorial.getIncenseCount()), member);
+                    conn.zAdd(tempKeys.get(LeaderboardMetric.MESSAGE), nvl(memorial.getMessageCount()), member);
+                }
+                return null;
+            });
+            total += memorials.size();
+            lastId = memorials.get(memorials.size() - 1).getId();
+            stringRedisTemplate.opsForValue().set(cursorKey, String.valueOf(lastId),
+                    leaderboardConfig.getLockLeaseSeconds(), TimeUnit.SECONDS);
+            if (memorials.size() < batchSize) {
+                break;
+            }
+        }
+
+        // 临时键与增量键求和后覆盖总榜，两者都为空时总榜被删除
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            stringRedisTemplate.opsForZSet().unionAndStore(tempKeys.get(metric), deltaKeys.get(metric), allKey(metric));
+        }
+        return total;
+    }
+
+    private void appendCounters(StringRedisConnection conn, Map<Long, long[]> deltas, boolean buffered) {
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            long[] counts = entry.getValue();
+            long visits = counts[MemorialCounterType.VISIT.ordinal()];
+            long interactions = counts[MemorialCounterType.CANDLE.ordinal()]
+                    + counts[MemorialCounterType.FLOWER.ordinal()]
+                    + counts[MemorialCounterType.INCENSE.ordinal()];
+            incrementAll(conn, LeaderboardMetric.VISIT, entry.getKey(), visits, today, buffered);
+            incrementAll(conn, LeaderboardMetric.INTERACTION, entry.getKey(), interactions, today, buffered);
+        }
+        expirePeriodKeys(conn, today);
+    }
+
+    /**
+     * 选择日期范围对应的榜单：单日用每日榜，整周（或本周至今）用每周榜，
+     * 保留期内的其他范围合并每日榜，超出保留期的范围退回总榜
+     */
+    private String resolveKey(LeaderboardMetric metric, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return allKey(metric);
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate end = endDate.isAfter(today) ? today : endDate;
+        if (startDate.isAfter(end)) {
+            return allKey(metric);
+        }
+        if (startDate.equals(end)) {
+            return dayKey(metric, startDate);
+        }
+        if (startDate.getDayOfWeek() == DayOfWeek.MONDAY
+                && (end.equals(startDate.plusDays(6)) || end.equals(today) && !today.isAfter(startDate.plusDays(6)))
+                && !startDate.isBefore(today.minusWeeks(leaderboardConfig.getWeekRetainWeeks()))) {
+            return weekKey(metric, startDate);
+        }
+        if (startDate.isBefore(today.minusDays(leaderboardConfig.getDayRetainDays() - 1))) {
+            return allKey(metric);
+        }
+
+        String rangeKey = key(BOARD_KEY + metric.getCode() + ":range:"
+                + startDate.format(DAY_FORMATTER) + ":" + end.format(DAY_FORMATTER));
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(rangeKey))) {
+            List<String> dayKeys = new ArrayList<>();
+            for (LocalDate day = startDate; !day.isAfter(end); day = day.plusDays(1)) {
+                dayKeys.add(dayKey(metric, day));
+            }
+            stringRedisTemplate.opsForZSet().unionAndStore(dayKeys.get(0), dayKeys.subList(1, dayKeys.size()), rangeKey);
+            stringRedisTemplate.expire(rangeKey, leaderboardConfig.getRangeCacheSeconds(), TimeUnit.SECONDS);
+        }
+        return rangeKey;
+    }
+
+    private void incrementAll(StringRedisConnection conn, LeaderboardMetric metric, Long memorialId,
+                              long delta, LocalDate today, boolean buffered) {
+        if (delta == 0) {
+            return;
+        }
+        String member = String.valueOf(memorialId);
+        incrementAllKey(conn, metric, member, delta, buffered);
+        conn.zIncrBy(dayKey(metric, today), delta, member);
+        conn.zIncrBy(weekKey(metric, today), delta, member);
+    }
+
+    /**
+     * 累加总榜，重建进行中时同时记入增量键（buffered为false时只记录游标之前的纪念空间）
+     */
+    private void incrementAllKey(StringRedisConnection conn, LeaderboardMetric metric, String member,
+                                 long delta, boolean buffered) {
+        conn.eval(INCREMENT_SCRIPT, ReturnType.INTEGER, 3, allKey(metric), key(REBUILD_CURSOR_KEY),
+                deltaKey(metric), String.valueOf(delta), member, buffered ? "1" : "0");
+    }
+
+    private void expirePeriodKeys(StringRedisConnection conn, LocalDate today) {
+        long dayTtl = leaderboardConfig.getDayRetainDays() * 86400L;
+        long weekTtl = (leaderboardConfig.getWeekRetainWeeks() + 1) * 7 * 86400L;
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            conn.expire(dayKey(metric, today), dayTtl);
+            conn.expire(weekKey(metric, today), weekTtl);
+        }
+    }
+
+    private static Map<Long, Long> countByMemorial(List<MemorialMessage> messages) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (MemorialMessage message : messages) {
+            if (message.getMemorialId() != null) {
+                counts.merge(message.getMemorialId(), 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 事务提交后执行，不在事务中时立即执行；排行榜写入失败只记录日志
+     */
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.error("排行榜更新失败", e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(leaderboardConfig.getEnabled());
+    }
+
+    private static double nvl(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private String allKey(LeaderboardMetric metric) {
+        return key(BOARD_KEY + metric.getCode() + ":all");
+    }
+
+    private String deltaKey(LeaderboardMetric metric) {
+        return key(BOARD_KEY + metric.getCode() + ":rebuild:delta");
+    }
+
+    private String dayKey(LeaderboardMetric metric, LocalDate day) {
+        return key(BOARD_KEY + metric.getCode() + ":day:" + day.format(DAY_FORMATTER));
+    }
+
+    private String weekKey(LeaderboardMetric metric, LocalDate day) {
+        return key(BOARD_KEY + metric.getCode() + ":week:" + day.get(IsoFields.WEEK_BASED_YEAR) + "W"
+                + String.format("%02d", day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)));
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
@@ -0,0 +1,300 @@
+package com.cemetery.service.like;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.MessageLikeConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.entity.MemorialMessageLike;
+import com.cemetery.domain.mapper.MemorialMessageLikeMapper;
+import com.cemetery.domain.mapper.MemorialMessageMapper;
+import com.cemetery.service.visit.VisitorContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 留言点赞管理器
+ * 去重：每条留言一个Redis集合保存点赞访客（u:用户ID / ip:IP），以SADD/SREM的返回值判断是否为新点赞或有效取消，
+ * 集合不存在时按点赞记录表加载；点赞记录同步写入memorial_message_like，是点赞关系的最终依据。
+ * 计数：点赞数增量在本地按留言累加，定时以单条UPDATE ... CASE原子累加到memorial_message.like_count，
+ * 不再读出整行加一后写回。Redis不可用时按点赞记录表去重并直接累加数据库。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageLikeManager {
+
+    private static final String LIKE_SET_KEY = "like:message:";
+
+    /**
+     * 集合已加载标记成员，没有点赞的留言也不会每次回源
+     */
+    private static final String LOADED_MEMBER = "-";
+
+    /**
+     * 回源查询点赞记录时IN条件的分批大小
+     */
+    private static final int QUERY_BATCH_SIZE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MemorialMessageMapper messageMapper;
+    private final MemorialMessageLikeMapper likeMapper;
+    private final MessageLikeConfig likeConfig;
+    private final CacheConfig cacheConfig;
+
+    private final ConcurrentHashMap<Long, Long> pendingDeltas = new ConcurrentHashMap<>();
+
+    /**
+     * 点赞，同一访客重复点赞不重复计数
+     * @return true-新增点赞，false-已点赞过
+     */
+    public boolean like(Long messageId, Long userId, String ip) {
+        String visitor = requireVisitor(userId, ip);
+        String key;
+        Long added;
+        try {
+            key = ensureLoaded(messageId);
+            added = stringRedisTemplate.opsForSet().add(key, visitor);
+        } catch (Exception e) {
+            log.error("点赞去重集合不可用，按点赞记录表去重, messageId={}", messageId, e);
+            return likeDirect(messageId, userId, ip);
+        }
+        if (added == null || added == 0) {
+            return false;
+        }
+
+        try {
+            insertLike(messageId, userId, ip);
+        } catch (RuntimeException e) {
+            stringRedisTemplate.opsForSet().remove(key, visitor);
+            throw e;
+        }
+        addDelta(messageId, 1L);
+        return true;
+    }
+
+    /**
+     * 取消点赞，未点赞过时不扣减
+     * @return true-取消成功，false-未点赞过
+     */
+    public boolean unlike(Long messageId, Long userId, String ip) {
+        String visitor = requireVisitor(userId, ip);
+        String key;
+        Long removed;
+        try {
+            key = ensureLoaded(messageId);
+            removed = stringRedisTemplate.opsForSet().remove(key, visitor);
+        } catch (Exception e) {
+            log.error("点赞去重集合不可用，按点赞记录表取消, messageId={}", messageId, e);
+            return unlikeDirect(messageId, userId, ip);
+        }
+        if (removed == null || removed == 0) {
+            return false;
+        }
+
+        try {
+            likeMapper.deleteByVisitor(messageId, userId, ip);
+        } catch (RuntimeException e) {
+            stringRedisTemplate.opsForSet().add(key, visitor);
+            throw e;
+        }
+        addDelta(messageId, -1L);
+        return true;
+    }
+
+    /**
+     * 当前点赞数（去重集合的成员数，包含尚未回写数据库的点赞）
+     * @return 点赞数，Redis不可用时返回null
+     */
+    public Integer count(Long messageId) {
+        try {
+            Long size = stringRedisTemplate.opsForSet().size(ensureLoaded(messageId));
+            return size != null ? (int) Math.max(size - 1, 0) : null;
+        } catch (Exception e) {
+            log.error("读取点赞数失败, messageId={}", messageId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量查询访客点赞过的留言（单次管道往返，集合不存在的留言合并回源一次）
+     * @return 已点赞的留言ID
+     */
+    public Set<Long> likedBy(Collection<Long> messageIds, Long userId, String ip) {
+        String visitor = VisitorContext.visitorId(userId, ip);
+        if (visitor == null || messageIds == null || messageIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Long> ids = new ArrayList<>(new HashSet<>(messageIds));
+        Set<Long> liked = new HashSet<>();
+        List<Long> missing = new ArrayList<>();
+
+        try {
+            List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (Long id : ids) {
+                    String key = key(LIKE_SET_KEY + id);
+                    conn.exists(key);
+                    conn.sIsMember(key, visitor);
+                }
+                return null;
+            });
+            for (int i = 0; i < ids.size(); i++) {
+                if (!Boolean.TRUE.equals(replies.get(i * 2))) {
+                    missing.add(ids.get(i));
+                } else if (Boolean.TRUE.equals(replies.get(i * 2 + 1))) {
+                    liked.add(ids.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量查询点赞状态失败，按点赞记录表查询, messages={}", ids.size(), e);
+            missing = ids;
+        }
+
+        for (int from = 0; from < missing.size(); from += QUERY_BATCH_SIZE) {
+            List<Long> batch = missing.subList(from, Math.min(from + QUERY_BATCH_SIZE, missing.size()));
+            liked.addAll(likeMapper.selectLikedMessageIds(batch, userId, ip));
+        }
+        return liked;
+    }
+
+    /**
+     * 将本地点赞数增量原子累加到数据库，失败的批次放回本地缓冲等待下次重试
+     */
+    public void flush() {
+        if (pendingDeltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Long messageId : pendingDeltas.keySet()) {
+            Long delta = pendingDeltas.remove(messageId);
+            if (delta != null && delta != 0) {
+                deltas.put(messageId, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Math.max(likeConfig.getBatchSize(), 1);
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        int rows = 0;
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= batchSize) {
+                rows += applyBatch(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            rows += applyBatch(batch);
+        }
+        log.debug("点赞数回写完成, messages={}, rows={}", deltas.size(), rows);
+    }
+
+    /**
+     * 停机前回写剩余点赞数
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用停止，回写剩余点赞数, messages={}", pendingDeltas.size());
+        flush();
+    }
+
+    private int applyBatch(Map<Long, Long> batch) {
+        try {
+            return messageMapper.batchIncrementLikeCount(batch);
+        } catch (Exception e) {
+            log.error("点赞数回写失败，放回本地缓冲, messages={}", batch.size(), e);
+            batch.forEach((messageId, delta) -> pendingDeltas.merge(messageId, delta, Long::sum));
+            return 0;
+        }
+    }
+
+    private void addDelta(Long messageId, long delta) {
+        if (!Boolean.TRUE.equals(likeConfig.getEnabled())) {
+            messageMapper.batchIncrementLikeCount(Collections.singletonMap(messageId, delta));
+            return;
+        }
+        pendingDeltas.merge(messageId, delta, Long::sum);
+    }
+
+    /**
+     * 确保留言的点赞访客集合已加载，并刷新过期时间
+     */
+    private String ensureLoaded(Long messageId) {
+        String key = key(LIKE_SET_KEY + messageId);
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            List<MemorialMessageLike> likes = likeMapper.selectList(new LambdaQueryWrapper<MemorialMessageLike>()
+                    .select(MemorialMessageLike::getUserId, MemorialMessageLike::getIpAddress)
+                    .eq(MemorialMessageLike::getMessageId, messageId));
+            List<String> members = new ArrayList<>(likes.size() + 1);
+            members.add(LOADED_MEMBER);
+            for (MemorialMessageLike like : likes) {
+                String visitor = VisitorContext.visitorId(like.getUserId(), like.getIpAddress());
+                if (visitor != null) {
+                    members.add(visitor);
+                }
+            }
+            stringRedisTemplate.opsForSet().add(key, members.toArray(new String[0]));
+        }
+        stringRedisTemplate.expire(key, likeConfig.getSetExpireDays(), TimeUnit.DAYS);
+        return key;
+    }
+
+    private boolean likeDirect(Long messageId, Long userId, String ip) {
+        if (!likeMapper.selectLikedMessageIds(Collections.singletonList(messageId), userId, ip).isEmpty()) {
+            return false;
+        }
+        insertLike(messageId, userId, ip);
+        messageMapper.batchIncrementLikeCount(Collections.singletonMap(messageId, 1L));
+        return true;
+    }
+
+    private boolean unlikeDirect(Long messageId, Long userId, String ip) {
+        int rows = likeMapper.deleteByVisitor(messageId, userId, ip);
+        if (rows == 0) {
+            return false;
+        }
+        messageMapper.batchIncrementLikeCount(Collections.singletonMap(messageId, (long) -rows));
+        return true;
+    }
+
+    private void insertLike(Long messageId, Long userId, String ip) {
+        MemorialMessageLike like = new MemorialMessageLike();
+        like.setMessageId(messageId);
+        like.setUserId(userId);
+        like.setIpAddress(ip);
+        like.setCreateTime(new Date());
+        likeMapper.insert(like);
+    }
+
+    private static String requireVisitor(Long userId, String ip) {
+        String visitor = VisitorContext.visitorId(userId, ip);
+        if (visitor == null) {
+            throw new BusinessException("无法识别点赞用户");
+        }
+        return visitor;
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
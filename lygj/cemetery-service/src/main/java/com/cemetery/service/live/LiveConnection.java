@@ -0,0 +1,123 @@
+package com.cemetery.service.live;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单个SSE连接
+ * 事件先进入有界队列，由发送线程串行写出，慢客户端不会阻塞Redis订阅线程；
+ * 已发送的最大事件ID用于丢弃补发与实时推送重叠的事件。
+ */
+class LiveConnection {
+
+    /**
+     * 心跳占位事件
+     */
+    static final LiveEvent HEARTBEAT = new LiveEvent();
+
+    private final Long memorialId;
+
+    private final SseEmitter emitter;
+
+    private final LinkedBlockingDeque<LiveEvent> queue;
+
+    /**
+     * 是否已有发送任务在执行或排队
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * 补发完成前不发送，保证补发事件排在实时事件之前
+     */
+    private volatile boolean ready;
+
+    private long lastSentId;
+
+    LiveConnection(Long memorialId, SseEmitter emitter, int bufferSize) {
+        this.memorialId = memorialId;
+        this.emitter = emitter;
+        this.queue = new LinkedBlockingDeque<>(Math.max(bufferSize, 1));
+    }
+
+    Long getMemorialId() {
+        return memorialId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * 追加实时事件
+     * @return 队列已满时返回false
+     */
+    boolean offer(LiveEvent event) {
+        return queue.offerLast(event);
+    }
+
+    /**
+     * 补发事件插到队首（调用方按从新到旧的顺序插入）
+     */
+    boolean offerFirst(LiveEvent event) {
+        return queue.offerFirst(event);
+    }
+
+    boolean hasPending() {
+        return !queue.isEmpty();
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    boolean trySchedule() {
+        return ready && !closed.get() && scheduled.compareAndSet(false, true);
+    }
+
+    void unschedule() {
+        scheduled.set(false);
+    }
+
+    /**
+     * 标记关闭
+     * @return 首次关闭时返回true
+     */
+    boolean markClosed() {
+        return closed.compareAndSet(false, true);
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * 写出队列中的全部事件（只在发送线程中调用）
+     */
+    void drain() throws IOException {
+        LiveEvent event;
+        while (!closed.get() && (event = queue.pollFirst()) != null) {
+            if (event == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+                continue;
+            }
+            if (event.getId() <= lastSentId) {
+                continue;
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name(event.getType())
+                    .data(event.getData(), MediaType.APPLICATION_JSON));
+            lastSentId = event.getId();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cemetery.service.live;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 实时推送事件（Redis频道和最近事件列表中的格式）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 纪念空间ID
+     */
+    private Long memorialId;
+
+    /**
+     * 事件ID（同一纪念空间内递增，作为SSE的id用于断线重连）
+     */
+    private Long id;
+
+    /**
+     * 事件类型
+     */
+    private String type;
+
+    /**
+     * 事件内容（JSON）
+     */
+    private String data;
+}
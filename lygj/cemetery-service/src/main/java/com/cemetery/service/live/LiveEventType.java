@@ -0,0 +1,19 @@
+package com.cemetery.service.live;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 实时推送事件类型（即SSE事件名）
+ */
+@Getter
+@AllArgsConstructor
+public enum LiveEventType {
+
+    MESSAGE("message", "新留言"),
+    INTERACTION("interaction", "点烛、献花、上香");
+
+    private final String code;
+
+    private final String desc;
+}
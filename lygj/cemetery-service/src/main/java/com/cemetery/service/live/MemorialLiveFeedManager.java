@@ -0,0 +1,343 @@
+package com.cemetery.service.live;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.LiveFeedConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.service.counter.MemorialCounterType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 纪念空间实时推送管理器（SSE）
+ * 发布：新留言提交后立即发布；点烛、献花、上香先在本地按纪念空间合并，定时发布一条汇总事件。
+ * 每个事件按纪念空间分配递增ID，写入最近事件列表后通过Redis频道广播，各节点只推送给本节点的连接。
+ * 连接：每个连接一个有界队列，由发送线程池串行写出；队列写满即断开，客户端携带Last-Event-ID重连后从最近事件列表补发。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialLiveFeedManager implements MessageListener {
+
+    private static final String SEQ_KEY = "live:seq:";
+    private static final String HISTORY_KEY = "live:history:";
+
+    /**
+     * 参与合并推送的互动类型
+     */
+    private static final MemorialCounterType[] INTERACTION_TYPES = {
+            MemorialCounterType.CANDLE, MemorialCounterType.FLOWER, MemorialCounterType.INCENSE};
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LiveFeedConfig liveConfig;
+    private final CacheConfig cacheConfig;
+
+    private final ConcurrentHashMap<Long, Set<LiveConnection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    /**
+     * 待合并发布的互动次数：纪念空间ID -> 按MemorialCounterType顺序排列的次数
+     */
+    private final ConcurrentHashMap<Long, long[]> pendingInteractions = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        sender = new ThreadPoolExecutor(
+                liveConfig.getSenderThreads(), liveConfig.getSenderThreads(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(liveConfig.getMaxConnections(), 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "live-feed-sender-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        connections.values().forEach(set -> set.forEach(this::close));
+        sender.shutdownNow();
+    }
+
+    /**
+     * 广播频道
+     */
+    public String getChannel() {
+        return cacheConfig.getKeyPrefix() + liveConfig.getChannel();
+    }
+
+    /**
+     * 建立推送连接
+     * @param lastEventId 客户端最后收到的事件ID，不为空时先补发之后的事件
+     */
+    public SseEmitter subscribe(Long memorialId, Long lastEventId) {
+        if (!Boolean.TRUE.equals(liveConfig.getEnabled())) {
+            throw new BusinessException("实时推送未开启");
+        }
+        if (connectionCount.incrementAndGet() > liveConfig.getMaxConnections()) {
+            connectionCount.decrementAndGet();
+            throw new BusinessException("当前在线人数过多，请稍后再试");
+        }
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(liveConfig.getEmitterTimeoutMinutes()));
+        LiveConnection connection = new LiveConnection(memorialId, emitter, liveConfig.getBufferSize());
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> close(connection));
+
+        // 先注册再补发：补发期间到达的实时事件留在队列中，补发事件插到队首，重叠部分按事件ID丢弃
+        connections.compute(memorialId, (id, set) -> {
+            Set<LiveConnection> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(connection);
+            return result;
+        });
+        if (lastEventId != null) {
+            replay(connection, lastEventId);
+        }
+        connection.offer(LiveConnection.HEARTBEAT);
+        connection.markReady();
+        dispatch(connection);
+
+        log.debug("建立实时推送连接, memorialId={}, lastEventId={}, connections={}",
+                memorialId, lastEventId, connectionCount.get());
+        return emitter;
+    }
+
+    /**
+     * 事务提交后发布新留言
+     */
+    public void publishMessageAfterCommit(Long memorialId, Object message) {
+        if (memorialId == null || !Boolean.TRUE.equals(liveConfig.getEnabled())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(memorialId, LiveEventType.MESSAGE, message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(memorialId, LiveEventType.MESSAGE, message);
+            }
+        });
+    }
+
+    /**
+     * 记录一次互动（只写本地Map，由定时任务合并发布）
+     */
+    public void recordInteraction(Long memorialId, MemorialCounterType type) {
+        if (memorialId == null || !Boolean.TRUE.equals(liveConfig.getEnabled())) {
+            return;
+        }
+        pendingInteractions.compute(memorialId, (id, counts) -> {
+            if (counts == null) {
+                counts = new long[MemorialCounterType.values().length];
+            }
+            counts[type.ordinal()]++;
+            return counts;
+        });
+    }
+
+    /**
+     * 发布合并后的互动事件
+     */
+    public void flushInteractions() {
+        for (Long memorialId : pendingInteractions.keySet()) {
+            long[] counts = pendingInteractions.remove(memorialId);
+            if (counts == null) {
+                continue;
+            }
+            Map<String, Long> data = new LinkedHashMap<>();
+            for (MemorialCounterType type : INTERACTION_TYPES) {
+                data.put(type.name().toLowerCase(Locale.ROOT), counts[type.ordinal()]);
+            }
+            publish(memorialId, LiveEventType.INTERACTION, data);
+        }
+    }
+
+    /**
+     * 向本节点全部连接发送心跳
+     */
+    public void heartbeat() {
+        for (Set<LiveConnection> set : connections.values()) {
+            for (LiveConnection connection : set) {
+                deliver(connection, LiveConnection.HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * 本节点当前连接数
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        LiveEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), LiveEvent.class);
+        } catch (Exception e) {
+            log.warn("实时推送事件解析失败", e);
+            return;
+        }
+        Set<LiveConnection> set = connections.get(event.getMemorialId());
+        if (set == null) {
+            return;
+        }
+        for (LiveConnection connection : set) {
+            deliver(connection, event);
+        }
+    }
+
+    private void publish(Long memorialId, LiveEventType type, Object data) {
+        try {
+            Long id = stringRedisTemplate.opsForValue().increment(key(SEQ_KEY + memorialId));
+            LiveEvent event = new LiveEvent(memorialId, id, type.getCode(), objectMapper.writeValueAsString(data));
+            String json = objectMapper.writeValueAsString(event);
+            String historyKey = key(HISTORY_KEY + memorialId);
+            String channel = getChannel();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.lPush(historyKey, json);
+                conn.lTrim(historyKey, 0, liveConfig.getHistorySize() - 1);
+                conn.expire(historyKey, TimeUnit.HOURS.toSeconds(liveConfig.getHistoryExpireHours()));
+                conn.publish(channel, json);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("发布实时推送事件失败, memorialId={}, type={}", memorialId, type.getCode(), e);
+        }
+    }
+
+    /**
+     * 从最近事件列表补发lastEventId之后的事件
+     */
+    private void replay(LiveConnection connection, long lastEventId) {
+        List<String> history;
+        try {
+            history = stringRedisTemplate.opsForList().range(key(HISTORY_KEY + connection.getMemorialId()), 0, -1);
+        } catch (Exception e) {
+            log.error("读取最近事件失败，跳过补发, memorialId={}", connection.getMemorialId(), e);
+            return;
+        }
+        if (history == null) {
+            return;
+        }
+
+        // 列表从新到旧排列，逐个插到队首后队列中为从旧到新
+        List<LiveEvent> events = new ArrayList<>();
+        for (String json : history) {
+            try {
+                LiveEvent event = objectMapper.readValue(json, LiveEvent.class);
+                if (event.getId() > lastEventId) {
+                    events.add(event);
+                }
+            } catch (Exception e) {
+                log.warn("最近事件解析失败, memorialId={}", connection.getMemorialId(), e);
+            }
+        }
+        for (LiveEvent event : events) {
+            if (!connection.offerFirst(event)) {
+                break;
+            }
+        }
+    }
+
+    private void deliver(LiveConnection connection, LiveEvent event) {
+        if (connection.isClosed()) {
+            return;
+        }
+        if (!connection.offer(event)) {
+            log.warn("实时推送连接发送过慢，断开等待重连, memorialId={}", connection.getMemorialId());
+            close(connection);
+            return;
+        }
+        dispatch(connection);
+    }
+
+    private void dispatch(LiveConnection connection) {
+        if (!connection.trySchedule()) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(connection));
+        } catch (RejectedExecutionException e) {
+            connection.unschedule();
+            close(connection);
+        }
+    }
+
+    private void send(LiveConnection connection) {
+        try {
+            connection.drain();
+        } catch (Exception e) {
+            log.debug("实时推送写出失败, memorialId={}", connection.getMemorialId(), e);
+            connection.unschedule();
+            close(connection);
+            return;
+        }
+        connection.unschedule();
+        // 释放发送标记前新到的事件需要重新调度
+        if (connection.hasPending()) {
+            dispatch(connection);
+        }
+    }
+
+    private void close(LiveConnection connection) {
+        if (!connection.markClosed()) {
+            return;
+        }
+        unregister(connection);
+        try {
+            connection.getEmitter().complete();
+        } catch (Exception e) {
+            log.debug("关闭实时推送连接失败, memorialId={}", connection.getMemorialId(), e);
+        }
+    }
+
+    private void unregister(LiveConnection connection) {
+        connection.markClosed();
+        // 在同一个键的compute内移除，避免与新连接注册交错时把刚加入的连接一起删掉
+        connections.computeIfPresent(connection.getMemorialId(), (id, set) -> {
+            if (set.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
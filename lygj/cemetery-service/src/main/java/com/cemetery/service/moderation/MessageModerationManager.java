@@ -0,0 +1,257 @@
+package com.cemetery.service.moderation;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.cemetery.common.config.MessageModerationConfig;
+import com.cemetery.domain.entity.MemorialMessage;
+import com.cemetery.domain.enums.AuditStatusEnum;
+import com.cemetery.domain.mapper.MemorialMessageMapper;
+import com.cemetery.domain.vo.MemorialMessageVO;
+import com.cemetery.service.live.MemorialLiveFeedManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 留言自动审核管理器
+ * 新留言以待审核状态入库，事务提交后交给审核线程池用敏感词自动机匹配：未命中的自动审核通过并推送，
+ * 命中的保持待审核并在审核备注中记录命中词，等待人工审核。发送接口不等待审核结果。
+ * 自动审核只更新仍为待审核且没有审核备注的留言，人工审核结果不会被覆盖；
+ * 队列写满或停机丢失的留言由补审任务按"待审核且无备注"重新提交。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageModerationManager {
+
+    private static final String AUTO_APPROVED_REMARK = "自动审核通过";
+
+    private static final String HIT_REMARK_PREFIX = "命中敏感词：";
+
+    /**
+     * audit_remark列长度
+     */
+    private static final int REMARK_MAX_LENGTH = 500;
+
+    private final MemorialMessageMapper messageMapper;
+    private final MemorialLiveFeedManager liveFeedManager;
+    private final MessageModerationConfig moderationConfig;
+    private final ResourceLoader resourceLoader;
+
+    private volatile SensitiveWordMatcher matcher = SensitiveWordMatcher.EMPTY;
+
+    /**
+     * 当前词表的修改时间和长度，未变化时不重新编译
+     */
+    private volatile String loadedSignature;
+
+    private ThreadPoolExecutor worker;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        worker = new ThreadPoolExecutor(
+                moderationConfig.getWorkerThreads(), moderationConfig.getWorkerThreads(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(moderationConfig.getQueueCapacity(), 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "message-moderation-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        if (isEnabled()) {
+            reloadWords();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 未处理的留言仍为待审核且无备注，重启后由补审任务重新提交
+        List<Runnable> dropped = worker.shutdownNow();
+        if (!dropped.isEmpty()) {
+            log.info("应用停止，未完成自动审核的留言等待补审, count={}", dropped.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(moderationConfig.getEnabled());
+    }
+
+    /**
+     * 新留言的初始审核状态：启用自动审核时为待审核，否则直接通过
+     */
+    public AuditStatusEnum initialStatus() {
+        return isEnabled() ? AuditStatusEnum.PENDING : AuditStatusEnum.APPROVED;
+    }
+
+    /**
+     * 事务提交后提交自动审核
+     */
+    public void submitAfterCommit(MemorialMessage message) {
+        if (!isEnabled() || message == null || message.getId() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(message);
+            }
+        });
+    }
+
+    /**
+     * 重新提交超时仍未自动审核的留言
+     * @return 提交数量
+     */
+    public int retryStale() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        int capacity = worker.getQueue().remainingCapacity();
+        int limit = Math.min(moderationConfig.getRetryBatchSize(), capacity);
+        if (limit <= 0) {
+            return 0;
+        }
+        Date before = new Date(System.currentTimeMillis()
+                - TimeUnit.SECONDS.toMillis(moderationConfig.getRetryDelaySeconds()));
+        List<MemorialMessage> messages = messageMapper.selectList(new LambdaQueryWrapper<MemorialMessage>()
+                .eq(MemorialMessage::getAuditStatus, AuditStatusEnum.PENDING)
+                .isNull(MemorialMessage::getAuditRemark)
+                .le(MemorialMessage::getCreateTime, before)
+                .orderByAsc(MemorialMessage::getCreateTime)
+                .last("LIMIT " + limit));
+        int submitted = 0;
+        for (MemorialMessage message : messages) {
+            if (!submit(message)) {
+                break;
+            }
+            submitted++;
+        }
+        if (submitted > 0) {
+            log.info("重新提交自动审核, count={}", submitted);
+        }
+        return submitted;
+    }
+
+    /**
+     * 词表有变化时重新编译自动机并整体替换，编译失败时继续使用旧自动机
+     * @return 是否重新编译
+     */
+    public boolean reloadWords() {
+        String location = moderationConfig.getWordListLocation();
+        Resource resource = resourceLoader.getResource(location);
+        try {
+            if (!resource.exists()) {
+                log.warn("敏感词表不存在，自动审核将全部通过, location={}", location);
+                return false;
+            }
+            String signature = location + ":" + resource.lastModified() + ":" + resource.contentLength();
+            if (signature.equals(loadedSignature)) {
+                return false;
+            }
+
+            Set<String> words = new LinkedHashSet<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String word = line.trim();
+                    if (!word.isEmpty() && !word.startsWith("#")) {
+                        words.add(word);
+                    }
+                }
+            }
+
+            long start = System.currentTimeMillis();
+            SensitiveWordMatcher compiled = SensitiveWordMatcher.compile(words);
+            matcher = compiled;
+            loadedSignature = signature;
+            log.info("敏感词表加载完成, location={}, words={}, nodes={}, cost={}ms",
+                    location, compiled.wordCount(), compiled.nodeCount(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.error("敏感词表加载失败，继续使用当前词表, location={}", location, e);
+            return false;
+        }
+    }
+
+    private boolean submit(MemorialMessage message) {
+        try {
+            worker.execute(() -> moderate(message));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("自动审核队列已满，留言等待补审, messageId={}", message.getId());
+            return false;
+        }
+    }
+
+    private void moderate(MemorialMessage message) {
+        try {
+            int maxHits = Math.max(moderationConfig.getMaxRecordedHits(), 1);
+            SensitiveWordMatcher current = matcher;
+            Set<String> hits = new LinkedHashSet<>(current.match(message.getMessageContent(), maxHits));
+            if (hits.size() < maxHits) {
+                hits.addAll(current.match(message.getAuthorName(), maxHits - hits.size()));
+            }
+
+            MemorialMessage update = new MemorialMessage();
+            if (hits.isEmpty()) {
+                update.setAuditStatus(AuditStatusEnum.APPROVED);
+                update.setAuditRemark(AUTO_APPROVED_REMARK);
+                update.setAuditTime(new Date());
+            } else {
+                update.setAuditRemark(truncate(HIT_REMARK_PREFIX + String.join("、", hits)));
+            }
+            int rows = messageMapper.update(update, new LambdaQueryWrapper<MemorialMessage>()
+                    .eq(MemorialMessage::getId, message.getId())
+                    .eq(MemorialMessage::getAuditStatus, AuditStatusEnum.PENDING)
+                    .isNull(MemorialMessage::getAuditRemark));
+            if (rows == 0) {
+                // 已被人工审核、删除或由其他节点处理
+                return;
+            }
+
+            if (hits.isEmpty()) {
+                message.setAuditStatus(AuditStatusEnum.APPROVED);
+                message.setAuditRemark(AUTO_APPROVED_REMARK);
+                message.setAuditTime(update.getAuditTime());
+                MemorialMessageVO vo = new MemorialMessageVO();
+                BeanUtils.copyProperties(message, vo);
+                liveFeedManager.publishMessageAfterCommit(message.getMemorialId(), vo);
+            } else {
+                log.info("留言命中敏感词，转人工审核, messageId={}, hits={}", message.getId(), new ArrayList<>(hits));
+            }
+        } catch (Exception e) {
+            log.error("自动审核失败，留言等待补审, messageId={}", message.getId(), e);
+        }
+    }
+
+    private static String truncate(String remark) {
+        return remark.length() <= REMARK_MAX_LENGTH ? remark : remark.substring(0, REMARK_MAX_LENGTH);
+    }
+}
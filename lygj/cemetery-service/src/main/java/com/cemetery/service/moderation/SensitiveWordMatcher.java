@@ -0,0 +1,235 @@
+package com.cemetery.service.moderation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 敏感词匹配器（Aho-Corasick自动机）
+ * 编译后不可变，可被多个审核线程共享；词表更新时整体替换实例。
+ * 每个节点的子节点按字符排序存放在数组中二分查找，匹配一条留言只需顺序扫描一遍，耗时与词表大小无关。
+ * 匹配前统一转小写、全角转半角，并跳过非字母数字字符，"博 彩"、"博*彩"同样能命中。
+ */
+final class SensitiveWordMatcher {
+
+    private static final int ROOT = 0;
+
+    private static final int NO_WORD = -1;
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    static final SensitiveWordMatcher EMPTY = compile(Collections.emptyList());
+
+    private final String[] words;
+
+    /**
+     * 每个节点的子节点字符（升序）及对应的子节点编号
+     */
+    private final char[][] keys;
+    private final int[][] targets;
+
+    /**
+     * 失配指针
+     */
+    private final int[] fail;
+
+    /**
+     * 在该节点结束的词序号，没有则为NO_WORD
+     */
+    private final int[] wordAt;
+
+    /**
+     * 沿失配链向上最近一个有词结束的节点，没有则为ROOT
+     */
+    private final int[] outputLink;
+
+    private SensitiveWordMatcher(String[] words, char[][] keys, int[][] targets,
+                                 int[] fail, int[] wordAt, int[] outputLink) {
+        this.words = words;
+        this.keys = keys;
+        this.targets = targets;
+        this.fail = fail;
+        this.wordAt = wordAt;
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * 编译词表，空行和归一化后为空的词忽略，重复词只保留一个
+     */
+    static SensitiveWordMatcher compile(Collection<String> dictionary) {
+        List<String> words = new ArrayList<>();
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> wordAt = new ArrayList<>();
+        children.add(new HashMap<>());
+        wordAt.add(NO_WORD);
+
+        for (String raw : dictionary) {
+            String word = normalize(raw);
+            if (word.isEmpty()) {
+                continue;
+            }
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                Character ch = word.charAt(i);
+                Integer next = children.get(node).get(ch);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(ch, next);
+                    children.add(new HashMap<>());
+                    wordAt.add(NO_WORD);
+                }
+                node = next;
+            }
+            if (wordAt.get(node) == NO_WORD) {
+                wordAt.set(node, words.size());
+                words.add(raw.trim());
+            }
+        }
+
+        int size = children.size();
+        char[][] keys = new char[size][];
+        int[][] targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> map = children.get(node);
+            if (map.isEmpty()) {
+                keys[node] = NO_KEYS;
+                targets[node] = NO_TARGETS;
+                continue;
+            }
+            char[] nodeKeys = new char[map.size()];
+            int index = 0;
+            for (Character ch : map.keySet()) {
+                nodeKeys[index++] = ch;
+            }
+            Arrays.sort(nodeKeys);
+            int[] nodeTargets = new int[nodeKeys.length];
+            for (int i = 0; i < nodeKeys.length; i++) {
+                nodeTargets[i] = map.get(nodeKeys[i]);
+            }
+            keys[node] = nodeKeys;
+            targets[node] = nodeTargets;
+        }
+
+        int[] wordIndex = new int[size];
+        for (int node = 0; node < size; node++) {
+            wordIndex[node] = wordAt.get(node);
+        }
+
+        // 按层次遍历计算失配指针，父节点的失配指针总是先于子节点算出
+        int[] fail = new int[size];
+        int[] outputLink = new int[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < keys[node].length; i++) {
+                char ch = keys[node][i];
+                int child = targets[node][i];
+                int state = fail[node];
+                int next = child(keys, targets, state, ch);
+                while (next < 0 && state != ROOT) {
+                    state = fail[state];
+                    next = child(keys, targets, state, ch);
+                }
+                fail[child] = next < 0 ? ROOT : next;
+                outputLink[child] = wordIndex[fail[child]] != NO_WORD ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        return new SensitiveWordMatcher(words.toArray(new String[0]), keys, targets, fail, wordIndex, outputLink);
+    }
+
+    /**
+     * 查找文本中出现的敏感词
+     * @param maxHits 找到指定数量的不同词后提前结束
+     * @return 按出现顺序排列的命中词，未命中返回空列表
+     */
+    List<String> match(String text, int maxHits) {
+        if (text == null || text.isEmpty() || words.length == 0) {
+            return Collections.emptyList();
+        }
+        Set<String> hits = null;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = normalize(text.charAt(i));
+            if (ch == 0) {
+                continue;
+            }
+            int next = child(keys, targets, state, ch);
+            while (next < 0 && state != ROOT) {
+                state = fail[state];
+                next = child(keys, targets, state, ch);
+            }
+            state = next < 0 ? ROOT : next;
+
+            int output = wordAt[state] != NO_WORD ? state : outputLink[state];
+            while (output != ROOT) {
+                if (hits == null) {
+                    hits = new LinkedHashSet<>();
+                }
+                hits.add(words[wordAt[output]]);
+                if (hits.size() >= maxHits) {
+                    return new ArrayList<>(hits);
+                }
+                output = outputLink[output];
+            }
+        }
+        return hits == null ? Collections.emptyList() : new ArrayList<>(hits);
+    }
+
+    int wordCount() {
+        return words.length;
+    }
+
+    int nodeCount() {
+        return fail.length;
+    }
+
+    private static int child(char[][] keys, int[][] targets, int node, char ch) {
+        int index = Arrays.binarySearch(keys[node], ch);
+        return index < 0 ? -1 : targets[node][index];
+    }
+
+    private static String normalize(String word) {
+        if (word == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char ch = normalize(word.charAt(i));
+            if (ch != 0) {
+                builder.append(ch);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 字符归一化：全角转半角、转小写，非字母数字返回0表示跳过
+     */
+    private static char normalize(char ch) {
+        if (ch == '　') {
+            return 0;
+        }
+        if (ch >= '！' && ch <= '～') {
+            ch = (char) (ch - 0xFEE0);
+        }
+        if (!Character.isLetterOrDigit(ch)) {
+            return 0;
+        }
+        return Character.toLowerCase(ch);
+    }
+}
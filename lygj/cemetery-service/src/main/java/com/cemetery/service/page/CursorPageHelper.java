@@ -0,0 +1,97 @@
+package com.cemetery.service.page;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.common.result.CursorPageResult;
+import com.cemetery.domain.dto.CursorQueryDTO;
+import com.cemetery.domain.entity.BaseEntity;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标（keyset）分页工具
+ * 按 (create_time, id) 倒序翻页：下一页条件为 create_time < t OR (create_time = t AND id < i)，
+ * 每页多取一条判断是否还有数据，不执行COUNT查询，深翻页与首页耗时相同。
+ * 游标为 "创建时间毫秒_ID" 的URL安全Base64编码，对调用方不透明。
+ */
+public final class CursorPageHelper {
+
+    /**
+     * 每页条数上限
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "_";
+
+    private CursorPageHelper() {
+    }
+
+    /**
+     * 构造只取 pageSize + 1 条、不查总数的分页参数
+     */
+    public static <T> Page<T> page(CursorQueryDTO query) {
+        return new Page<>(1, pageSize(query) + 1L, false);
+    }
+
+    /**
+     * 追加游标定位条件和 (create_time, id) 倒序排序
+     */
+    public static <T> void apply(LambdaQueryWrapper<T> wrapper, CursorQueryDTO query,
+                                 SFunction<T, Date> createTimeColumn, SFunction<T, Long> idColumn) {
+        if (StringUtils.isNotBlank(query.getCursor())) {
+            long[] position = decode(query.getCursor());
+            Date createTime = new Date(position[0]);
+            Long id = position[1];
+            wrapper.and(w -> w.lt(createTimeColumn, createTime)
+                    .or(o -> o.eq(createTimeColumn, createTime).lt(idColumn, id)));
+        }
+        wrapper.orderByDesc(createTimeColumn);
+        wrapper.orderByDesc(idColumn);
+    }
+
+    /**
+     * 截取本页数据并生成下一页游标
+     */
+    public static <T extends BaseEntity, V> CursorPageResult<V> result(List<T> rows, CursorQueryDTO query,
+                                                                     Function<List<T>, List<V>> converter) {
+        int pageSize = pageSize(query);
+        if (rows.size() <= pageSize) {
+            return CursorPageResult.build(converter.apply(rows), null);
+        }
+        List<T> records = rows.subList(0, pageSize);
+        T last = records.get(pageSize - 1);
+        return CursorPageResult.build(converter.apply(records), encode(last.getCreateTime(), last.getId()));
+    }
+
+    private static int pageSize(CursorQueryDTO query) {
+        Integer pageSize = query.getPageSize();
+        if (pageSize == null || pageSize < 1) {
+            return 10;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    private static String encode(Date createTime, Long id) {
+        String raw = createTime.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length == 2) {
+                return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+            }
+        } catch (IllegalArgumentException e) {
+            // Base64或数字格式错误，按无效游标处理
+        }
+        throw new BusinessException("分页游标无效");
+    }
+}
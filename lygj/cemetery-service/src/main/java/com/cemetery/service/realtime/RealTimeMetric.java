@@ -0,0 +1,25 @@
+package com.cemetery.service.realtime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 实时统计指标
+ */
+@Getter
+@AllArgsConstructor
+public enum RealTimeMetric {
+
+    VISIT("visits", "访问"),
+    INTERACTION("interactions", "互动（点烛、献花、上香）"),
+    MESSAGE("messages", "留言"),
+    PAYMENT("payments", "支付成功笔数"),
+    PAYMENT_AMOUNT("paymentAmount", "支付成功金额（分）");
+
+    /**
+     * Redis Hash字段名及返回结果中的名称
+     */
+    private final String field;
+
+    private final String desc;
+}
@@ -0,0 +1,372 @@
+package com.cemetery.service.realtime;
+
+import cn.hutool.core.util.IdUtil;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.RealTimeStatisticsConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实时统计管理器
+ * 请求线程只在内存滑动窗口中累加计数（无锁、不访问Redis和数据库）；
+ * 后台任务每隔几秒将本节点的窗口快照、今日增量和在线访客同步到Redis，并汇总全部存活节点的结果。
+ * 查询只返回最近一次汇总的快照，不访问数据库和Redis；Redis不可用时退化为本节点数据。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealTimeStatisticsManager {
+
+    private static final String NODES_KEY = "realtime:nodes";
+    private static final String NODE_KEY = "realtime:node:";
+    private static final String TODAY_KEY = "realtime:today:";
+    private static final String ONLINE_KEY = "realtime:online";
+    private static final String PUSHED_KEY = "realtime:pushed:";
+
+    /**
+     * 统计窗口：1分钟、5分钟、60分钟
+     */
+    private static final int[] WINDOWS = {60, 300, 3600};
+    private static final String[] WINDOW_NAMES = {"1m", "5m", "60m"};
+
+    private static final long TODAY_TTL_SECONDS = 2 * 86400L;
+
+    /**
+     * 同步批次标记的保留时间（秒），结果未知的批次须在此期间内确认
+     */
+    private static final long PUSHED_MARK_SECONDS = 3600L;
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RealTimeStatisticsConfig realTimeConfig;
+    private final CacheConfig cacheConfig;
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    private final Map<RealTimeMetric, SlidingWindowCounter> windows = new EnumMap<>(RealTimeMetric.class);
+    private final Map<RealTimeMetric, LongAdder> unsynced = new EnumMap<>(RealTimeMetric.class);
+
+    /**
+     * 上次同步后出现的访客及最后访问时间（秒）
+     */
+    private final ConcurrentHashMap<String, Long> recentVisitors = new ConcurrentHashMap<>();
+
+    /**
+     * 已发出但结果未知的今日增量批次：批次号 -> 增量
+     */
+    private final Map<String, Map<RealTimeMetric, Long>> unresolved = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Object> snapshot = Collections.emptyMap();
+
+    /**
+     * 最近一次成功汇总的今日累计及其日期键（Redis不可用时作为基数）
+     */
+    private volatile Map<RealTimeMetric, Long> lastToday = Collections.emptyMap();
+    private volatile String lastTodayKey;
+
+    @PostConstruct
+    public void init() {
+        int windowSeconds = WINDOWS[WINDOWS.length - 1];
+        for (RealTimeMetric metric : RealTimeMetric.values()) {
+            windows.put(metric, new SlidingWindowCounter(windowSeconds, realTimeConfig.getStripes()));
+            unsynced.put(metric, new LongAdder());
+        }
+        snapshot = buildSnapshot(localWindowSums(nowSecond()), new EnumMap<>(RealTimeMetric.class), 0L, 1, true);
+        log.info("实时统计初始化完成, nodeId={}, enabled={}", nodeId, realTimeConfig.getEnabled());
+    }
+
+    /**
+     * 累加计数（在请求线程调用）
+     */
+    public void increment(RealTimeMetric metric, long delta) {
+        if (delta <= 0 || !Boolean.TRUE.equals(realTimeConfig.getEnabled())) {
+            return;
+        }
+        windows.get(metric).add(nowSecond(), delta);
+        unsynced.get(metric).add(delta);
+    }
+
+    /**
+     * 事务提交后累加计数，回滚时不计入；不在事务中时立即累加
+     */
+    public void incrementAfterCommit(RealTimeMetric metric, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(metric, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(metric, delta);
+            }
+        });
+    }
+
+    /**
+     * 记录在线访客（在请求线程调用，只写本地Map）
+     */
+    public void touchVisitor(String visitorId) {
+        if (visitorId == null || !Boolean.TRUE.equals(realTimeConfig.getEnabled())) {
+            return;
+        }
+        recentVisitors.put(visitorId, nowSecond());
+    }
+
+    /**
+     * 最近一次汇总的实时统计（只读内存快照）
+     */
+    public Map<String, Object> getSnapshot() {
+        return new LinkedHashMap<>(snapshot);
+    }
+
+    /**
+     * 同步本节点数据到Redis并汇总全部节点（由定时任务调用）
+     * 今日增量与批次标记在同一事务中写入：未连上Redis时放回本地下次重试；已发出命令但结果未知时按批次标记确认，
+     * 标记存在说明已生效，不存在再放回本地重新同步，避免重复累加今日计数
+     */
+    public void sync() {
+        confirmUnresolved();
+        long now = nowSecond();
+        Map<String, long[]> localSums = localWindowSums(now);
+
+        Map<RealTimeMetric, Long> deltas = new EnumMap<>(RealTimeMetric.class);
+        for (RealTimeMetric metric : RealTimeMetric.values()) {
+            long delta = unsynced.get(metric).sumThenReset();
+            if (delta != 0) {
+                deltas.put(metric, delta);
+            }
+        }
+        Map<String, Long> visitors = drainVisitors();
+
+        String batchNo = IdUtil.fastSimpleUUID();
+        boolean[] sent = new boolean[1];
+        try {
+            pushNode(now, localSums, deltas, visitors, batchNo, sent);
+        } catch (Exception e) {
+            if (sent[0] && !deltas.isEmpty()) {
+                // 结果未知的今日增量按批次标记确认后再决定是否重试
+                unresolved.put(batchNo, deltas);
+                confirmUnresolved();
+            } else {
+                deltas.forEach((metric, delta) -> unsynced.get(metric).add(delta));
+            }
+            // 访客写入是幂等的，直接放回下次重试
+            visitors.forEach((visitor, seen) -> recentVisitors.merge(visitor, seen, Math::max));
+            snapshot = buildSnapshot(localSums, localToday(), localOnline(now), 1, true);
+            log.error("实时统计同步Redis失败，使用本节点数据", e);
+            return;
+        }
+        try {
+            snapshot = mergeNodes(now);
+        } catch (Exception e) {
+            snapshot = buildSnapshot(localSums, localToday(), localOnline(now), 1, true);
+            log.error("实时统计汇总节点数据失败，使用本节点数据", e);
+        }
+    }
+
+    /**
+     * 写入本节点窗口快照、今日增量和在线访客，并刷新节点心跳（单次管道往返、同一事务）
+     * @param sent 命令开始发出时置为true
+     */
+    private void pushNode(long now, Map<String, long[]> localSums, Map<RealTimeMetric, Long> deltas,
+                          Map<String, Long> visitors, String batchNo, boolean[] sent) {
+        String nodeKey = key(NODE_KEY + nodeId);
+        String todayKey = todayKey();
+        String onlineKey = key(ONLINE_KEY);
+        Map<String, String> nodeFields = new HashMap<>();
+        localSums.forEach((field, sums) -> {
+            for (int i = 0; i < WINDOWS.length; i++) {
+                nodeFields.put(field + ":" + WINDOW_NAMES[i], String.valueOf(sums[i]));
+            }
+        });
+        long nodeExpire = realTimeConfig.getNodeExpireSeconds();
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            sent[0] = true;
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.multi();
+            conn.hMSet(nodeKey, nodeFields);
+            conn.expire(nodeKey, nodeExpire);
+            conn.zAdd(key(NODES_KEY), now, nodeId);
+            if (!deltas.isEmpty()) {
+                deltas.forEach((metric, delta) -> conn.hIncrBy(todayKey, metric.getField(), delta));
+                conn.expire(todayKey, TODAY_TTL_SECONDS);
+                conn.setEx(key(PUSHED_KEY + batchNo), PUSHED_MARK_SECONDS, "1");
+            }
+            visitors.forEach((visitor, seen) -> conn.zAdd(onlineKey, seen, visitor));
+            conn.zRemRangeByScore(onlineKey, 0, now - realTimeConfig.getOnlineWindowSeconds());
+            conn.expire(onlineKey, realTimeConfig.getOnlineWindowSeconds() * 2L);
+            conn.exec();
+            return null;
+        });
+    }
+
+    /**
+     * 汇总存活节点的窗口数据，读取今日累计和在线人数
+     */
+    private Map<String, Object> mergeNodes(long now) {
+        String nodesKey = key(NODES_KEY);
+        stringRedisTemplate.opsForZSet().removeRangeByScore(nodesKey, 0, now - realTimeConfig.getNodeExpireSeconds());
+        Set<String> nodes = stringRedisTemplate.opsForZSet().range(nodesKey, 0, -1);
+        List<String> nodeIds = nodes != null ? new ArrayList<>(nodes) : Collections.emptyList();
+
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String id : nodeIds) {
+                conn.hGetAll(key(NODE_KEY + id));
+            }
+            conn.hGetAll(todayKey());
+            conn.zCard(key(ONLINE_KEY));
+            return null;
+        });
+
+        Map<String, long[]> merged = new HashMap<>();
+        for (int i = 0; i < nodeIds.size(); i++) {
+            Map<?, ?> fields = (Map<?, ?>) results.get(i);
+            for (RealTimeMetric metric : RealTimeMetric.values()) {
+                long[] sums = merged.computeIfAbsent(metric.getField(), f -> new long[WINDOWS.length]);
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    sums[w] += parseLong(fields.get(metric.getField() + ":" + WINDOW_NAMES[w]));
+                }
+            }
+        }
+
+        Map<?, ?> todayFields = (Map<?, ?>) results.get(nodeIds.size());
+        Map<RealTimeMetric, Long> today = new EnumMap<>(RealTimeMetric.class);
+        for (RealTimeMetric metric : RealTimeMetric.values()) {
+            today.put(metric, parseLong(todayFields.get(metric.getField())));
+        }
+        Object online = results.get(nodeIds.size() + 1);
+        long onlineUsers = online != null ? ((Number) online).longValue() : 0L;
+        lastToday = today;
+        lastTodayKey = todayKey();
+
+        return buildSnapshot(merged, today, onlineUsers, nodeIds.size(), false);
+    }
+
+    private Map<String, Object> buildSnapshot(Map<String, long[]> windowSums, Map<RealTimeMetric, Long> today,
+                                              long onlineUsers, int nodeCount, boolean localOnly) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("onlineUsers", onlineUsers);
+        stats.put("todayVisits", today.getOrDefault(RealTimeMetric.VISIT, 0L));
+        stats.put("todayMessages", today.getOrDefault(RealTimeMetric.MESSAGE, 0L));
+        stats.put("todayInteractions", today.getOrDefault(RealTimeMetric.INTERACTION, 0L));
+        stats.put("todayPayments", today.getOrDefault(RealTimeMetric.PAYMENT, 0L));
+        stats.put("todayPaymentAmount", centsToYuan(today.getOrDefault(RealTimeMetric.PAYMENT_AMOUNT, 0L)));
+
+        Map<String, Object> windowStats = new LinkedHashMap<>();
+        for (RealTimeMetric metric : RealTimeMetric.values()) {
+            long[] sums = windowSums.getOrDefault(metric.getField(), new long[WINDOWS.length]);
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < WINDOWS.length; i++) {
+                values.put(WINDOW_NAMES[i], metric == RealTimeMetric.PAYMENT_AMOUNT ? centsToYuan(sums[i]) : sums[i]);
+            }
+            windowStats.put(metric.getField(), values);
+        }
+        stats.put("windows", windowStats);
+        stats.put("nodes", nodeCount);
+        stats.put("localOnly", localOnly);
+        stats.put("updateTime", System.currentTimeMillis());
+        return stats;
+    }
+
+    private Map<String, long[]> localWindowSums(long now) {
+        Map<String, long[]> sums = new HashMap<>();
+        windows.forEach((metric, counter) -> {
+            long[] values = new long[WINDOWS.length];
+            for (int i = 0; i < WINDOWS.length; i++) {
+                // 不含当前秒，避免各节点同步时刻不同导致同一秒只统计了一部分
+                values[i] = counter.sum(now - 1, WINDOWS[i]);
+            }
+            sums.put(metric.getField(), values);
+        });
+        return sums;
+    }
+
+    /**
+     * Redis不可用时的今日数据：最近一次汇总值加本节点未同步增量
+     */
+    private Map<RealTimeMetric, Long> localToday() {
+        Map<RealTimeMetric, Long> base = todayKey().equals(lastTodayKey) ? lastToday : Collections.emptyMap();
+        Map<RealTimeMetric, Long> today = new EnumMap<>(RealTimeMetric.class);
+        for (RealTimeMetric metric : RealTimeMetric.values()) {
+            today.put(metric, base.getOrDefault(metric, 0L) + unsynced.get(metric).sum());
+        }
+        return today;
+    }
+
+    private long localOnline(long now) {
+        long from = now - realTimeConfig.getOnlineWindowSeconds();
+        return recentVisitors.values().stream().filter(seen -> seen > from).count();
+    }
+
+    /**
+     * 确认结果未知的今日增量批次：有批次标记的已生效直接丢弃，没有的放回本地重新同步
+     */
+    private void confirmUnresolved() {
+        for (String batchNo : new ArrayList<>(unresolved.keySet())) {
+            Boolean applied;
+            try {
+                applied = stringRedisTemplate.hasKey(key(PUSHED_KEY + batchNo));
+            } catch (Exception e) {
+                log.warn("确认实时统计同步批次失败，下次重试, unresolved={}", unresolved.size(), e);
+                return;
+            }
+            Map<RealTimeMetric, Long> deltas = unresolved.remove(batchNo);
+            if (deltas == null) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(applied)) {
+                log.info("实时统计同步批次已生效, batchNo={}", batchNo);
+            } else {
+                log.info("实时统计同步批次未生效，放回本地增量, batchNo={}", batchNo);
+                deltas.forEach((metric, delta) -> unsynced.get(metric).add(delta));
+            }
+        }
+    }
+
+    private Map<String, Long> drainVisitors() {
+        Map<String, Long> drained = new HashMap<>();
+        for (String visitor : recentVisitors.keySet()) {
+            Long seen = recentVisitors.remove(visitor);
+            if (seen != null) {
+                drained.put(visitor, seen);
+            }
+        }
+        return drained;
+    }
+
+    private String todayKey() {
+        return key(TODAY_KEY + LocalDate.now().format(DAY_FORMATTER));
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+
+    private static long nowSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static long parseLong(Object value) {
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private static double centsToYuan(long cents) {
+        return cents / 100.0;
+    }
+}
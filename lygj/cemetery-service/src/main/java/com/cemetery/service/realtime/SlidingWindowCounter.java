@@ -0,0 +1,99 @@
+package com.cemetery.service.realtime;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按秒分桶的滑动窗口计数器
+ * 每秒一个桶、按窗口秒数循环复用，每个桶再按线程分段；每个格子记录所属秒和64位计数，
+ * 过期格子用一次CAS整体换成新秒的格子，写入无锁且不丢计数，读取时只累加秒数在窗口内的格子。
+ * 计数为long，按分计的支付金额在任何窗口内都不会溢出。
+ */
+public class SlidingWindowCounter {
+
+    private final int slots;
+
+    private final int stripes;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<Cell> cells;
+
+    public SlidingWindowCounter(int windowSeconds, int stripeCount) {
+        int size = 1;
+        while (size < Math.max(stripeCount, 1)) {
+            size <<= 1;
+        }
+        this.slots = windowSeconds;
+        this.stripes = size;
+        this.mask = size - 1;
+        this.cells = new AtomicReferenceArray<>(windowSeconds * size);
+    }
+
+    /**
+     * 在指定秒累加计数
+     */
+    public void add(long epochSecond, long delta) {
+        if (delta <= 0) {
+            return;
+        }
+        int index = (int) (epochSecond % slots) * stripes + currentStripe();
+        while (true) {
+            Cell current = cells.get(index);
+            if (current != null && current.second == epochSecond) {
+                current.count.addAndGet(delta);
+                return;
+            }
+            if (cells.compareAndSet(index, current, new Cell(epochSecond, delta))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 截至指定秒（含）最近若干秒的计数之和
+     */
+    public long sum(long nowSecond, int seconds) {
+        int window = Math.min(seconds, slots);
+        long total = 0;
+        for (long second = nowSecond - window + 1; second <= nowSecond; second++) {
+            int base = (int) (second % slots) * stripes;
+            for (int i = 0; i < stripes; i++) {
+                Cell cell = cells.get(base + i);
+                if (cell != null && cell.second == second) {
+                    total += cell.count.get();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 窗口覆盖的秒数
+     */
+    public int getWindowSeconds() {
+        return slots;
+    }
+
+    private int currentStripe() {
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32));
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+
+    /**
+     * 一个格子：所属秒和该秒内的计数
+     */
+    private static final class Cell {
+
+        private final long second;
+
+        private final AtomicLong count;
+
+        private Cell(long second, long count) {
+            this.second = second;
+            this.count = new AtomicLong(count);
+        }
+    }
+}
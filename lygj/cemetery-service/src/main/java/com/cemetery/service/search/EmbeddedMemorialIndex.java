@@ -0,0 +1,807 @@
+package com.cemetery.service.search;
+
+import com.cemetery.common.config.EmbeddedSearchConfig;
+import com.cemetery.common.config.SearchIndexConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.document.MemorialDocument;
+import com.cemetery.domain.dto.MemorialSearchDTO;
+import com.cemetery.domain.entity.DigitalMemorial;
+import com.cemetery.domain.entity.MemorialIndexOutbox;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.domain.mapper.MemorialIndexOutboxMapper;
+import com.cemetery.service.statistics.StatisticsMetric;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 嵌入式纪念空间搜索索引（本机Lucene，未部署Elasticsearch的单机站点使用）
+ * 索引放在本机磁盘以内存映射方式读取，文本字段用SmartChineseAnalyzer中文分词，查询语义与Elasticsearch实现一致。
+ * 变更：不经过分布式锁，每个节点按ID顺序追踪发件箱，读取数据库当前状态写入本机索引，已处理到的发件箱位置随索引一起提交，
+ * 重启后从上次提交的位置继续。自增ID按分配顺序而非提交顺序可见，越过的空缺ID记为待补，之后每次追踪都按主键回查，
+ * 晚提交的记录补写入索引，超时仍不存在的视为事务回滚放弃；索引为空、全量导入未完成或停机期间的发件箱记录已被清理时自动全量导入。
+ * 全量导入期间旧文档仍可搜索：导入的文档带新的批次号，完成后删除批次号不同的文档。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddedMemorialIndex {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_GENERATION = "generation";
+    private static final String FIELD_SPACE_NO = "spaceNo";
+    private static final String FIELD_SPACE_NAME = "spaceName";
+    private static final String FIELD_DECEASED_NAME = "deceasedName";
+    private static final String FIELD_BIOGRAPHY = "biography";
+    private static final String FIELD_LIFE_ACHIEVEMENTS = "lifeAchievements";
+    private static final String FIELD_FAMILY_WORDS = "familyWords";
+    private static final String FIELD_ACCESS_PERMISSION = "accessPermission";
+    private static final String FIELD_BACKGROUND_THEME = "backgroundTheme";
+    private static final String FIELD_VISIT_COUNT = "visitCount";
+    private static final String FIELD_CANDLE_COUNT = "candleCount";
+    private static final String FIELD_FLOWER_COUNT = "flowerCount";
+    private static final String FIELD_INCENSE_COUNT = "incenseCount";
+    private static final String FIELD_MESSAGE_COUNT = "messageCount";
+    private static final String FIELD_IS_PUBLISHED = "isPublished";
+    private static final String FIELD_PUBLISH_TIME = "publishTime";
+    private static final String FIELD_CREATE_TIME = "createTime";
+    private static final String FIELD_TOMB_NO = "tombNo";
+    private static final String FIELD_DECEASED_PHOTO = "deceasedPhoto";
+    private static final String FIELD_SCORE = "score";
+
+    /**
+     * 提交数据中的发件箱位置、全量导入批次号（导入未完成时不写）和提交时间
+     */
+    private static final String COMMIT_POSITION = "outboxPosition";
+    private static final String COMMIT_GENERATION = "generation";
+    private static final String COMMIT_TIME = "commitTime";
+    private static final String COMMIT_OPEN_GAPS = "openGaps";
+
+    /**
+     * 回查空缺ID时每条SQL的ID数量
+     */
+    private static final int GAP_QUERY_BATCH_SIZE = 500;
+
+    private final DigitalMemorialMapper memorialMapper;
+    private final MemorialIndexOutboxMapper outboxMapper;
+    private final EmbeddedSearchConfig embeddedConfig;
+    private final SearchIndexConfig indexConfig;
+
+    private final Analyzer analyzer = new SmartChineseAnalyzer();
+
+    /**
+     * 保护发件箱位置和提交，全量导入只在开始和追平时短暂持有
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Map<String, Object> progress = new ConcurrentHashMap<>();
+
+    /**
+     * 越过但尚未读到的发件箱ID -> 首次发现时间（按发现顺序，受writeLock保护）
+     */
+    private final Map<Long, Long> openGaps = new LinkedHashMap<>();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ThreadPoolExecutor loader;
+
+    private volatile boolean open;
+
+    /**
+     * 已写入索引的发件箱位置
+     */
+    private volatile long position;
+
+    /**
+     * 新写入文档使用的批次号，全量导入开始时切换
+     */
+    private volatile String generation;
+
+    /**
+     * 最近一次全量导入是否完成，未完成时提交数据不写批次号，重启后重新导入
+     */
+    private volatile boolean loaded;
+
+    private volatile boolean dirty;
+    private volatile long lastCommitTime;
+
+    @PostConstruct
+    public void init() {
+        loader = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "embedded-search-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            Path path = Paths.get(embeddedConfig.getIndexDirectory());
+            Files.createDirectories(path);
+            directory = new MMapDirectory(path);
+            Map<String, String> commitData = DirectoryReader.indexExists(directory)
+                    ? SegmentInfos.readLatestCommit(directory).getUserData() : Collections.emptyMap();
+
+            IndexWriterConfig writerConfig = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                    .setRAMBufferSizeMB(embeddedConfig.getRamBufferMb());
+            writer = new IndexWriter(directory, writerConfig);
+            searcherManager = new SearcherManager(writer, null);
+
+            position = parseLong(commitData.get(COMMIT_POSITION));
+            generation = commitData.get(COMMIT_GENERATION);
+            loaded = generation != null;
+            lastCommitTime = parseLong(commitData.get(COMMIT_TIME));
+            long now = System.currentTimeMillis();
+            for (String gap : StringUtils.split(StringUtils.defaultString(commitData.get(COMMIT_OPEN_GAPS)), ',')) {
+                openGaps.put(Long.valueOf(gap), now);
+            }
+            open = true;
+            log.info("嵌入式搜索索引已打开, directory={}, docs={}, outboxPosition={}, generation={}",
+                    path, writer.getDocStats().numDocs, position, generation);
+        } catch (Exception e) {
+            log.error("嵌入式搜索索引打开失败，搜索不可用, directory={}", embeddedConfig.getIndexDirectory(), e);
+            return;
+        }
+
+        String reason = rebuildReason();
+        if (reason != null) {
+            log.info("嵌入式搜索索引需要全量导入, reason={}", reason);
+            submitRebuild();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loader.shutdownNow();
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            if (writeLock.tryLock(30, TimeUnit.SECONDS)) {
+                try {
+                    commit();
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (Exception e) {
+            log.error("关闭嵌入式搜索索引失败", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(embeddedConfig.getEnabled());
+    }
+
+    /**
+     * 按发件箱追踪变更写入本机索引，刷新可见性并按间隔提交
+     * @return 写入或删除的纪念空间数量
+     */
+    public int tail() {
+        if (!open || !writeLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int total = resolveGaps();
+            int batchSize = Math.max(embeddedConfig.getTailBatchSize(), 1);
+            for (int round = 0; round < indexConfig.getMaxBatchesPerRun(); round++) {
+                List<MemorialIndexOutbox> rows = outboxMapper.selectAfter(position, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                Set<Long> memorialIds = new LinkedHashSet<>();
+                List<Long> missing = new ArrayList<>();
+                long expected = position + 1;
+                for (MemorialIndexOutbox row : rows) {
+                    collectMissing(expected, row.getId(), missing);
+                    memorialIds.add(row.getMemorialId());
+                    expected = row.getId() + 1;
+                }
+                apply(memorialIds);
+                position = rows.get(rows.size() - 1).getId();
+                addGaps(missing);
+                total += memorialIds.size();
+                if (rows.size() < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0 || dirty) {
+                searcherManager.maybeRefresh();
+            }
+            if (dirty && System.currentTimeMillis() - lastCommitTime >= embeddedConfig.getCommitIntervalMs()) {
+                commit();
+            }
+            return total;
+        } catch (Exception e) {
+            log.error("嵌入式搜索索引追踪变更失败，下次重试, outboxPosition={}", position, e);
+            return 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 回查空缺ID：已提交的记录补写入索引，超过等待时间仍不存在的放弃（事务回滚或自增ID跳号）
+     * @return 补写的纪念空间数量
+     */
+    private int resolveGaps() throws IOException {
+        if (openGaps.isEmpty()) {
+            return 0;
+        }
+        List<Long> gapIds = new ArrayList<>(openGaps.keySet());
+        List<MemorialIndexOutbox> found = new ArrayList<>();
+        for (int from = 0; from < gapIds.size(); from += GAP_QUERY_BATCH_SIZE) {
+            found.addAll(outboxMapper.selectBatchIds(
+                    gapIds.subList(from, Math.min(from + GAP_QUERY_BATCH_SIZE, gapIds.size()))));
+        }
+        Set<Long> memorialIds = new LinkedHashSet<>();
+        for (MemorialIndexOutbox row : found) {
+            memorialIds.add(row.getMemorialId());
+        }
+        if (!memorialIds.isEmpty()) {
+            apply(memorialIds);
+            for (MemorialIndexOutbox row : found) {
+                openGaps.remove(row.getId());
+            }
+            log.info("补写晚提交的发件箱记录, rows={}, memorials={}", found.size(), memorialIds.size());
+        }
+        long expireBefore = System.currentTimeMillis()
+                - TimeUnit.SECONDS.toMillis(embeddedConfig.getGapTimeoutSeconds());
+        if (openGaps.values().removeIf(firstSeen -> firstSeen < expireBefore)) {
+            dirty = true;
+        }
+        return memorialIds.size();
+    }
+
+    /**
+     * 收集[from, to)中的空缺ID，跨度超过上限时视为整段跳号（如发件箱已清理）不跟踪
+     */
+    private void collectMissing(long from, long to, List<Long> missing) {
+        if (to <= from) {
+            return;
+        }
+        if (to - from > embeddedConfig.getMaxOpenGaps()) {
+            log.warn("发件箱ID跳跃过大，不跟踪空缺, from={}, to={}", from, to - 1);
+            return;
+        }
+        for (long id = from; id < to; id++) {
+            missing.add(id);
+        }
+    }
+
+    private void addGaps(List<Long> missing) {
+        if (missing.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Long id : missing) {
+            openGaps.putIfAbsent(id, now);
+        }
+        int overflow = openGaps.size() - embeddedConfig.getMaxOpenGaps();
+        if (overflow > 0) {
+            log.warn("待补发件箱ID过多，放弃最早的空缺, dropped={}", overflow);
+            Iterator<Long> iterator = openGaps.keySet().iterator();
+            for (int i = 0; i < overflow; i++) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * 立即同步指定纪念空间并刷新可见性（手动索引）
+     */
+    public void sync(Long memorialId) {
+        ensureOpen();
+        try {
+            apply(Collections.singletonList(memorialId));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            log.error("嵌入式搜索索引写入失败, memorialId={}", memorialId, e);
+            throw new BusinessException("索引失败");
+        }
+    }
+
+    /**
+     * 从本机索引删除指定纪念空间
+     */
+    public void delete(Long memorialId) {
+        ensureOpen();
+        try {
+            writer.deleteDocuments(new Term(FIELD_ID, String.valueOf(memorialId)));
+            dirty = true;
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            log.error("嵌入式搜索索引删除失败, memorialId={}", memorialId, e);
+            throw new BusinessException("删除索引失败");
+        }
+    }
+
+    /**
+     * 提交全量导入，后台执行，导入期间旧文档仍可搜索
+     * @return 提交时的进度
+     */
+    public Map<String, Object> submitRebuild() {
+        ensureOpen();
+        Map<String, Object> pending = new HashMap<>();
+        pending.put("status", IndexRebuildStatus.PENDING.name());
+        pending.put("indexed", 0L);
+        pending.put("createTime", System.currentTimeMillis());
+        Map<String, Object> previous = new HashMap<>(progress);
+        progress.clear();
+        progress.putAll(pending);
+        try {
+            loader.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            progress.clear();
+            progress.putAll(previous);
+            throw new BusinessException("索引重建正在进行中");
+        }
+        return getProgress();
+    }
+
+    /**
+     * 查询本节点最近一次全量导入的进度
+     */
+    public Map<String, Object> getProgress() {
+        if (progress.isEmpty()) {
+            throw new BusinessException("没有索引重建记录");
+        }
+        Map<String, Object> result = new LinkedHashMap<>(progress);
+        IndexRebuildStatus status = IndexRebuildStatus.valueOf(result.get("status").toString());
+        result.put("statusDesc", status.getDesc());
+        if (open) {
+            result.put("docCount", writer.getDocStats().numDocs);
+        }
+        return result;
+    }
+
+    /**
+     * 全文搜索：关键词匹配空间名称、逝者姓名、生平介绍任一字段，可按访问权限和发布状态过滤
+     */
+    public Map<String, Object> search(MemorialSearchDTO searchDTO) {
+        BooleanQuery.Builder keyword = new BooleanQuery.Builder();
+        keyword.add(match(FIELD_SPACE_NAME, searchDTO.getKeyword()), BooleanClause.Occur.SHOULD);
+        keyword.add(match(FIELD_DECEASED_NAME, searchDTO.getKeyword()), BooleanClause.Occur.SHOULD);
+        keyword.add(match(FIELD_BIOGRAPHY, searchDTO.getKeyword()), BooleanClause.Occur.SHOULD);
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        query.add(keyword.build(), BooleanClause.Occur.MUST);
+        if (searchDTO.getAccessPermission() != null) {
+            query.add(IntPoint.newExactQuery(FIELD_ACCESS_PERMISSION, searchDTO.getAccessPermission()),
+                    BooleanClause.Occur.FILTER);
+        }
+        if (Boolean.TRUE.equals(searchDTO.getOnlyPublished())) {
+            query.add(IntPoint.newExactQuery(FIELD_IS_PUBLISHED, 1), BooleanClause.Occur.FILTER);
+        }
+        return execute(query.build(), searchDTO.getPage(), searchDTO.getPageSize());
+    }
+
+    /**
+     * 搜索纪念空间：取空间名称、逝者姓名、生平介绍中得分最高的字段（同multi_match的best_fields）
+     */
+    public Map<String, Object> searchMemorial(String keyword, Integer page, Integer pageSize) {
+        Query query = new DisjunctionMaxQuery(Arrays.asList(
+                match(FIELD_SPACE_NAME, keyword),
+                match(FIELD_DECEASED_NAME, keyword),
+                match(FIELD_BIOGRAPHY, keyword)), 0f);
+        return execute(query, page, pageSize);
+    }
+
+    /**
+     * 按姓名搜索逝者
+     */
+    public Map<String, Object> searchDeceased(String name, Integer page, Integer pageSize) {
+        return execute(match(FIELD_DECEASED_NAME, name), page, pageSize);
+    }
+
+    /**
+     * 高级搜索：逝者姓名、空间名称同时匹配，可按访问权限过滤
+     */
+    public Map<String, Object> advancedSearch(String deceasedName, String spaceName, Integer accessPermission,
+                                              Integer page, Integer pageSize) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean hasCondition = false;
+        if (StringUtils.isNotEmpty(deceasedName)) {
+            query.add(match(FIELD_DECEASED_NAME, deceasedName), BooleanClause.Occur.MUST);
+            hasCondition = true;
+        }
+        if (StringUtils.isNotEmpty(spaceName)) {
+            query.add(match(FIELD_SPACE_NAME, spaceName), BooleanClause.Occur.MUST);
+            hasCondition = true;
+        }
+        if (!hasCondition) {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (accessPermission != null) {
+            query.add(IntPoint.newExactQuery(FIELD_ACCESS_PERMISSION, accessPermission), BooleanClause.Occur.FILTER);
+        }
+        return execute(query.build(), page, pageSize);
+    }
+
+    private Map<String, Object> execute(Query query, Integer page, Integer pageSize) {
+        ensureOpen();
+        int size = Math.max(pageSize != null ? pageSize : 10, 1);
+        int from = (Math.max(page != null ? page : 1, 1) - 1) * size;
+        if (from + size > embeddedConfig.getMaxResultWindow()) {
+            throw new BusinessException("最多只能查看前" + embeddedConfig.getMaxResultWindow() + "条结果");
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopScoreDocCollector collector = TopScoreDocCollector.create(from + size, Integer.MAX_VALUE);
+            searcher.search(query, collector);
+            List<MemorialDocument> data = new ArrayList<>();
+            for (ScoreDoc scoreDoc : collector.topDocs(from, size).scoreDocs) {
+                data.add(toMemorialDocument(searcher.doc(scoreDoc.doc)));
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("total", (long) collector.getTotalHits());
+            result.put("data", data);
+            return result;
+        } catch (IOException e) {
+            log.error("嵌入式搜索失败, query={}", query, e);
+            throw new BusinessException("搜索失败");
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    log.warn("释放搜索器失败", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 分词后任一词命中即匹配（同Elasticsearch的match查询），关键词为空或全是停用词时不匹配任何文档
+     */
+    private Query match(String field, String text) {
+        if (StringUtils.isBlank(text)) {
+            return new MatchNoDocsQuery();
+        }
+        Query query = new QueryBuilder(analyzer).createBooleanQuery(field, text);
+        return query != null ? query : new MatchNoDocsQuery();
+    }
+
+    private void rebuild() {
+        long startTime = System.currentTimeMillis();
+        String newGeneration = String.valueOf(startTime);
+        long catchUpFrom;
+        writeLock.lock();
+        try {
+            // 全量导入覆盖此前的全部变更，追踪位置直接跳到当前最大ID；
+            // 最大ID之前最近一批中的空缺可能是未提交的事务，记为待补，并在追平时一起重写
+            long maxId = nullToZero(outboxMapper.selectMaxId());
+            catchUpFrom = position;
+            if (maxId > position) {
+                catchUpFrom = Math.max(position, maxId - Math.max(embeddedConfig.getTailBatchSize(), 1));
+                List<Long> missing = new ArrayList<>();
+                long expected = catchUpFrom + 1;
+                for (MemorialIndexOutbox row : outboxMapper.selectAfter(catchUpFrom, (int) (maxId - catchUpFrom))) {
+                    if (row.getId() > maxId) {
+                        break;
+                    }
+                    collectMissing(expected, row.getId(), missing);
+                    expected = row.getId() + 1;
+                }
+                collectMissing(expected, maxId + 1, missing);
+                addGaps(missing);
+                position = maxId;
+            }
+            generation = newGeneration;
+            loaded = false;
+        } finally {
+            writeLock.unlock();
+        }
+        progress.put("status", IndexRebuildStatus.LOADING.name());
+        progress.put("startTime", startTime);
+
+        try {
+            long total = nullToZero(memorialMapper.countMemorials(null));
+            progress.put("total", total);
+            int batchSize = Math.max(embeddedConfig.getRebuildBatchSize(), 1);
+            long lastId = 0L;
+            long indexed = 0L;
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("应用停止");
+                }
+                List<DigitalMemorial> memorials = memorialMapper.selectForSearchIndexAfter(lastId, Long.MAX_VALUE,
+                        batchSize, StatisticsMetric.MESSAGE_TOTAL);
+                if (memorials.isEmpty()) {
+                    break;
+                }
+                for (DigitalMemorial memorial : memorials) {
+                    writer.updateDocument(new Term(FIELD_ID, String.valueOf(memorial.getId())),
+                            toLuceneDocument(MemorialIndexManager.toDocument(memorial), newGeneration));
+                }
+                indexed += memorials.size();
+                lastId = memorials.get(memorials.size() - 1).getId();
+
+                long elapsed = Math.max(System.currentTimeMillis() - startTime, 1);
+                progress.put("indexed", indexed);
+                progress.put("docsPerSecond", indexed * 1000 / elapsed);
+                progress.put("percent", total > 0 ? Math.min(indexed * 100 / total, 100) : 100);
+                if (memorials.size() < batchSize) {
+                    break;
+                }
+            }
+
+            progress.put("status", IndexRebuildStatus.CATCHING_UP.name());
+            writeLock.lock();
+            try {
+                // 导入期间追踪写入的纪念空间可能被导入线程读到的旧数据覆盖，按当前数据库状态再写一次
+                List<Long> changedIds = outboxMapper.selectMemorialIdsBetween(catchUpFrom, position);
+                for (int from = 0; from < changedIds.size(); from += batchSize) {
+                    apply(changedIds.subList(from, Math.min(from + batchSize, changedIds.size())));
+                }
+                BooleanQuery stale = new BooleanQuery.Builder()
+                        .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                        .add(new TermQuery(new Term(FIELD_GENERATION, newGeneration)), BooleanClause.Occur.MUST_NOT)
+                        .build();
+                writer.deleteDocuments(stale);
+                loaded = true;
+                commit();
+            } finally {
+                writeLock.unlock();
+            }
+            searcherManager.maybeRefreshBlocking();
+
+            long cost = System.currentTimeMillis() - startTime;
+            progress.put("status", IndexRebuildStatus.SUCCESS.name());
+            progress.put("costMs", cost);
+            progress.put("finishTime", System.currentTimeMillis());
+            log.info("嵌入式搜索索引全量导入完成, indexed={}, docs={}, cost={}ms",
+                    indexed, writer.getDocStats().numDocs, cost);
+        } catch (Exception e) {
+            // 批次号未提交，重启后重新导入；旧文档保留，搜索不受影响
+            log.error("嵌入式搜索索引全量导入失败", e);
+            progress.put("status", IndexRebuildStatus.FAILED.name());
+            progress.put("message", StringUtils.defaultString(StringUtils.left(e.getMessage(), 200), "重建失败"));
+            progress.put("finishTime", System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 判断启动时是否需要全量导入
+     * @return 原因，不需要时返回null
+     */
+    private String rebuildReason() {
+        if (!loaded) {
+            return "索引为空或上次全量导入未完成";
+        }
+        Long minId = outboxMapper.selectMinId();
+        if (minId != null && minId > position + 1) {
+            return "停机期间的发件箱记录已被清理";
+        }
+        long retainMillis = TimeUnit.DAYS.toMillis(indexConfig.getRetainDays());
+        if (minId == null && System.currentTimeMillis() - lastCommitTime > retainMillis) {
+            return "索引超过发件箱保留时间未更新";
+        }
+        return null;
+    }
+
+    /**
+     * 按数据库当前状态写入：存在的纪念空间覆盖写入，已删除或不存在的从索引删除
+     */
+    private void apply(Collection<Long> memorialIds) throws IOException {
+        if (memorialIds.isEmpty()) {
+            return;
+        }
+        List<DigitalMemorial> memorials = memorialMapper.selectForSearchIndex(memorialIds,
+                StatisticsMetric.MESSAGE_TOTAL);
+        Set<Long> deletedIds = new LinkedHashSet<>(memorialIds);
+        String currentGeneration = generation;
+        for (DigitalMemorial memorial : memorials) {
+            deletedIds.remove(memorial.getId());
+            writer.updateDocument(new Term(FIELD_ID, String.valueOf(memorial.getId())),
+                    toLuceneDocument(MemorialIndexManager.toDocument(memorial), currentGeneration));
+        }
+        for (Long memorialId : deletedIds) {
+            writer.deleteDocuments(new Term(FIELD_ID, String.valueOf(memorialId)));
+        }
+        dirty = true;
+    }
+
+    /**
+     * 提交到磁盘（调用方需持有writeLock）
+     */
+    private void commit() throws IOException {
+        Map<String, String> commitData = new HashMap<>();
+        commitData.put(COMMIT_POSITION, String.valueOf(position));
+        commitData.put(COMMIT_TIME, String.valueOf(System.currentTimeMillis()));
+        if (loaded) {
+            commitData.put(COMMIT_GENERATION, generation);
+        }
+        if (!openGaps.isEmpty()) {
+            commitData.put(COMMIT_OPEN_GAPS, StringUtils.join(openGaps.keySet(), ','));
+        }
+        writer.setLiveCommitData(commitData.entrySet());
+        writer.commit();
+        lastCommitTime = System.currentTimeMillis();
+        dirty = false;
+    }
+
+    private void ensureOpen() {
+        if (!open) {
+            throw new BusinessException("搜索索引不可用");
+        }
+    }
+
+    private static Document toLuceneDocument(MemorialDocument source, String generation) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, String.valueOf(source.getId()), Field.Store.YES));
+        document.add(new StringField(FIELD_GENERATION, generation, Field.Store.NO));
+        addKeyword(document, FIELD_SPACE_NO, source.getSpaceNo());
+        addText(document, FIELD_SPACE_NAME, source.getSpaceName());
+        addText(document, FIELD_DECEASED_NAME, source.getDeceasedName());
+        addText(document, FIELD_BIOGRAPHY, source.getBiography());
+        addText(document, FIELD_LIFE_ACHIEVEMENTS, source.getLifeAchievements());
+        addText(document, FIELD_FAMILY_WORDS, source.getFamilyWords());
+        addFilterInt(document, FIELD_ACCESS_PERMISSION, source.getAccessPermission());
+        addKeyword(document, FIELD_BACKGROUND_THEME, source.getBackgroundTheme());
+        addStoredInt(document, FIELD_VISIT_COUNT, source.getVisitCount());
+        addStoredInt(document, FIELD_CANDLE_COUNT, source.getCandleCount());
+        addStoredInt(document, FIELD_FLOWER_COUNT, source.getFlowerCount());
+        addStoredInt(document, FIELD_INCENSE_COUNT, source.getIncenseCount());
+        addStoredInt(document, FIELD_MESSAGE_COUNT, source.getMessageCount());
+        addFilterInt(document, FIELD_IS_PUBLISHED, source.getIsPublished());
+        addStoredTime(document, FIELD_PUBLISH_TIME, source.getPublishTime());
+        addStoredTime(document, FIELD_CREATE_TIME, source.getCreateTime());
+        addKeyword(document, FIELD_TOMB_NO, source.getTombNo());
+        if (source.getDeceasedPhoto() != null) {
+            document.add(new StoredField(FIELD_DECEASED_PHOTO, source.getDeceasedPhoto()));
+        }
+        if (source.getScore() != null) {
+            document.add(new StoredField(FIELD_SCORE, source.getScore()));
+        }
+        return document;
+    }
+
+    private static MemorialDocument toMemorialDocument(Document document) {
+        MemorialDocument result = new MemorialDocument();
+        result.setId(Long.valueOf(document.get(FIELD_ID)));
+        result.setSpaceNo(document.get(FIELD_SPACE_NO));
+        result.setSpaceName(document.get(FIELD_SPACE_NAME));
+        result.setDeceasedName(document.get(FIELD_DECEASED_NAME));
+        result.setBiography(document.get(FIELD_BIOGRAPHY));
+        result.setLifeAchievements(document.get(FIELD_LIFE_ACHIEVEMENTS));
+        result.setFamilyWords(document.get(FIELD_FAMILY_WORDS));
+        result.setAccessPermission(getInt(document, FIELD_ACCESS_PERMISSION));
+        result.setBackgroundTheme(document.get(FIELD_BACKGROUND_THEME));
+        result.setVisitCount(getInt(document, FIELD_VISIT_COUNT));
+        result.setCandleCount(getInt(document, FIELD_CANDLE_COUNT));
+        result.setFlowerCount(getInt(document, FIELD_FLOWER_COUNT));
+        result.setIncenseCount(getInt(document, FIELD_INCENSE_COUNT));
+        result.setMessageCount(getInt(document, FIELD_MESSAGE_COUNT));
+        result.setIsPublished(getInt(document, FIELD_IS_PUBLISHED));
+        result.setPublishTime(getTime(document, FIELD_PUBLISH_TIME));
+        result.setCreateTime(getTime(document, FIELD_CREATE_TIME));
+        result.setTombNo(document.get(FIELD_TOMB_NO));
+        result.setDeceasedPhoto(document.get(FIELD_DECEASED_PHOTO));
+        IndexableField score = document.getField(FIELD_SCORE);
+        result.setScore(score != null ? score.numericValue().doubleValue() : null);
+        return result;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new StringField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static void addFilterInt(Document document, String field, Integer value) {
+        if (value != null) {
+            document.add(new IntPoint(field, value));
+            document.add(new StoredField(field, value));
+        }
+    }
+
+    private static void addStoredInt(Document document, String field, Integer value) {
+        if (value != null) {
+            document.add(new StoredField(field, value));
+        }
+    }
+
+    private static void addStoredTime(Document document, String field, LocalDateTime value) {
+        if (value != null) {
+            document.add(new StoredField(field, value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+    }
+
+    private static Integer getInt(Document document, String field) {
+        IndexableField value = document.getField(field);
+        return value != null ? value.numericValue().intValue() : null;
+    }
+
+    private static LocalDateTime getTime(Document document, String field) {
+        IndexableField value = document.getField(field);
+        if (value == null) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(value.numericValue().longValue()),
+                ZoneId.systemDefault());
+    }
+
+    private static long parseLong(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,21 @@
+package com.cemetery.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 索引重建状态
+ */
+@Getter
+@AllArgsConstructor
+public enum IndexRebuildStatus {
+
+    PENDING("排队中"),
+    LOADING("导入中"),
+    CATCHING_UP("追平增量"),
+    SWITCHING("切换别名"),
+    SUCCESS("已完成"),
+    FAILED("失败");
+
+    private final String desc;
+}
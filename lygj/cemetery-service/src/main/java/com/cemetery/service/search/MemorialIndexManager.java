@@ -0,0 +1,376 @@
+package com.cemetery.service.search;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.EmbeddedSearchConfig;
+import com.cemetery.common.config.SearchIndexConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.document.MemorialDocument;
+import com.cemetery.domain.entity.DigitalMemorial;
+import com.cemetery.domain.entity.MemorialIndexOutbox;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.domain.mapper.MemorialIndexOutboxMapper;
+import com.cemetery.service.statistics.StatisticsMetric;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.xcontent.XContentType;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 纪念空间搜索索引同步管理器
+ * 写入：纪念空间及关联的逝者、墓位变更时，在业务事务内写入发件箱，事务回滚则记录一起回滚，不会漏同步也不会同步未提交的数据。
+ * 同步：定时任务按ID顺序拉取到期记录，同一纪念空间合并为一次写入；文档以处理时的数据库状态为准，
+ * 一条联表查询批量读取，存在的写入、已删除的从索引删除，整批通过一个_bulk请求提交。
+ * 失败的记录按指数退避重试，多节点由分布式锁保证同一时间只有一个节点同步。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialIndexManager {
+
+    public static final String OPERATION_UPSERT = "UPSERT";
+    public static final String OPERATION_DELETE = "DELETE";
+
+    private static final String RELAY_LOCK_KEY = "search:index:relay:lock";
+
+    /**
+     * last_error列长度
+     */
+    private static final int ERROR_MAX_LENGTH = 500;
+
+    /**
+     * 单次清理删除的已完成记录数
+     */
+    private static final int CLEANUP_BATCH_SIZE = 5000;
+
+    private final MemorialIndexOutboxMapper outboxMapper;
+    private final DigitalMemorialMapper memorialMapper;
+    private final SearchIndexConfig indexConfig;
+    private final EmbeddedSearchConfig embeddedConfig;
+    private final CacheConfig cacheConfig;
+    private final RedissonClient redissonClient;
+
+    @Autowired(required = false)
+    private ElasticsearchRestTemplate elasticsearchTemplate;
+
+    /**
+     * 写入发件箱（需在业务事务内调用）
+     */
+    public void enqueue(Long memorialId, String operation) {
+        if (memorialId == null || !isEnabled()) {
+            return;
+        }
+        MemorialIndexOutbox outbox = new MemorialIndexOutbox();
+        outbox.setMemorialId(memorialId);
+        outbox.setOperation(operation);
+        outbox.setStatus(0);
+        outbox.setRetryCount(0);
+        outbox.setNextRetryTime(new Date());
+        outboxMapper.insert(outbox);
+    }
+
+    /**
+     * 逝者信息变更，写入其纪念空间的发件箱记录
+     */
+    public void enqueueByDeceased(Long deceasedId) {
+        if (deceasedId != null && isEnabled()) {
+            outboxMapper.insertByDeceasedId(deceasedId, OPERATION_UPSERT);
+        }
+    }
+
+    /**
+     * 墓位信息变更，写入其纪念空间的发件箱记录
+     */
+    public void enqueueByTomb(Long tombId) {
+        if (tombId != null && isEnabled()) {
+            outboxMapper.insertByTombId(tombId, OPERATION_UPSERT);
+        }
+    }
+
+    /**
+     * 处理到期的发件箱记录
+     * 未使用Elasticsearch时记录只供嵌入式索引按位置追踪，直接标记为已完成，按保留天数清理
+     * @return 写入索引的纪念空间数量，未获得锁或未使用Elasticsearch时返回0
+     */
+    public int relay() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        RLock lock = redissonClient.getLock(cacheConfig.getKeyPrefix() + RELAY_LOCK_KEY);
+        boolean locked;
+        try {
+            locked = lock.tryLock(0, indexConfig.getLockLeaseSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        if (!locked) {
+            return 0;
+        }
+
+        try {
+            int total = 0;
+            for (int round = 0; round < indexConfig.getMaxBatchesPerRun(); round++) {
+                List<MemorialIndexOutbox> rows = outboxMapper.selectDue(indexConfig.getBatchSize());
+                if (rows.isEmpty()) {
+                    break;
+                }
+                if (isElasticsearchActive()) {
+                    total += relayBatch(rows);
+                } else {
+                    List<Long> ids = new ArrayList<>();
+                    for (MemorialIndexOutbox row : rows) {
+                        ids.add(row.getId());
+                    }
+                    outboxMapper.markDone(ids);
+                }
+                if (rows.size() < indexConfig.getBatchSize()) {
+                    break;
+                }
+            }
+            return total;
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 立即同步指定纪念空间（不经过发件箱，用于手动索引和重建）
+     * @return 写入或删除成功的数量
+     */
+    public int sync(Collection<Long> memorialIds) {
+        if (elasticsearchTemplate == null) {
+            log.warn("Elasticsearch未配置，跳过索引操作");
+            return 0;
+        }
+        return sync(getIndexName(), memorialIds);
+    }
+
+    /**
+     * 立即同步指定纪念空间到指定索引
+     * @return 写入或删除成功的数量
+     */
+    int sync(String indexName, Collection<Long> memorialIds) {
+        Map<Long, String> failures = bulkWrite(indexName, new LinkedHashSet<>(memorialIds));
+        if (!failures.isEmpty()) {
+            log.error("同步搜索索引部分失败, failed={}, first={}",
+                    failures.size(), failures.values().iterator().next());
+        }
+        return memorialIds.size() - failures.size();
+    }
+
+    /**
+     * 清理已完成的发件箱记录
+     * @return 删除行数
+     */
+    public int cleanup() {
+        Date beforeTime = new Date(System.currentTimeMillis()
+                - TimeUnit.DAYS.toMillis(indexConfig.getRetainDays()));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = outboxMapper.deleteDoneBefore(beforeTime, CLEANUP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted >= CLEANUP_BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * 读写使用的索引名（重建索引后为指向当前版本索引的别名）
+     */
+    public String getIndexName() {
+        if (elasticsearchTemplate == null) {
+            throw new BusinessException("Elasticsearch未配置");
+        }
+        return elasticsearchTemplate.getIndexCoordinatesFor(MemorialDocument.class).getIndexName();
+    }
+
+    private int relayBatch(List<MemorialIndexOutbox> rows) {
+        // 同一纪念空间的多条记录合并为一次写入
+        Map<Long, List<Long>> rowIdsByMemorial = new LinkedHashMap<>();
+        for (MemorialIndexOutbox row : rows) {
+            rowIdsByMemorial.computeIfAbsent(row.getMemorialId(), id -> new ArrayList<>()).add(row.getId());
+        }
+
+        Map<Long, String> failures = bulkWrite(getIndexName(), rowIdsByMemorial.keySet());
+
+        List<Long> doneIds = new ArrayList<>();
+        Map<String, List<Long>> retryIdsByError = new HashMap<>();
+        rowIdsByMemorial.forEach((memorialId, rowIds) -> {
+            String error = failures.get(memorialId);
+            if (error == null) {
+                doneIds.addAll(rowIds);
+            } else {
+                retryIdsByError.computeIfAbsent(truncate(error), e -> new ArrayList<>()).addAll(rowIds);
+            }
+        });
+        if (!doneIds.isEmpty()) {
+            outboxMapper.markDone(doneIds);
+        }
+        retryIdsByError.forEach((error, ids) -> outboxMapper.markRetry(ids, error,
+                indexConfig.getRetryBaseDelaySeconds(), indexConfig.getRetryMaxDelaySeconds(),
+                indexConfig.getMaxRetries()));
+
+        if (!failures.isEmpty()) {
+            log.warn("搜索索引同步部分失败，等待重试, memorials={}, failed={}",
+                    rowIdsByMemorial.size(), failures.size());
+        }
+        log.debug("搜索索引同步完成, rows={}, memorials={}", rows.size(), rowIdsByMemorial.size());
+        return rowIdsByMemorial.size() - failures.size();
+    }
+
+    /**
+     * 联表读取文档并以一个_bulk请求写入：存在的纪念空间写入，已删除或不存在的从索引删除
+     * @return 失败的纪念空间ID及原因
+     */
+    private Map<Long, String> bulkWrite(String indexName, Collection<Long> memorialIds) {
+        if (memorialIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<DigitalMemorial> memorials;
+        try {
+            memorials = memorialMapper.selectForSearchIndex(memorialIds, StatisticsMetric.MESSAGE_TOTAL);
+        } catch (Exception e) {
+            log.error("读取搜索文档失败, memorials={}", memorialIds.size(), e);
+            return failAll(memorialIds, e);
+        }
+        Set<Long> deletedIds = new LinkedHashSet<>(memorialIds);
+        for (DigitalMemorial memorial : memorials) {
+            deletedIds.remove(memorial.getId());
+        }
+        return bulk(indexName, memorials, deletedIds);
+    }
+
+    /**
+     * 将已读取的纪念空间以一个_bulk请求写入指定索引（重建索引时直接写入新索引）
+     * @return 失败的纪念空间ID及原因
+     */
+    Map<Long, String> writeDocuments(String indexName, List<DigitalMemorial> memorials) {
+        return bulk(indexName, memorials, Collections.emptySet());
+    }
+
+    private Map<Long, String> bulk(String indexName, List<DigitalMemorial> memorials, Collection<Long> deletedIds) {
+        Map<Long, String> failures = new HashMap<>();
+        if (memorials.isEmpty() && deletedIds.isEmpty()) {
+            return failures;
+        }
+        try {
+            BulkRequest request = new BulkRequest();
+            for (DigitalMemorial memorial : memorials) {
+                String json = elasticsearchTemplate.getElasticsearchConverter()
+                        .mapObject(toDocument(memorial)).toJson();
+                request.add(new IndexRequest(indexName).id(String.valueOf(memorial.getId()))
+                        .source(json, XContentType.JSON));
+            }
+            for (Long memorialId : deletedIds) {
+                request.add(new DeleteRequest(indexName, String.valueOf(memorialId)));
+            }
+
+            BulkResponse response = elasticsearchTemplate.execute(client -> client.bulk(request, RequestOptions.DEFAULT));
+            if (response.hasFailures()) {
+                // 删除不存在的文档返回not_found，不算失败
+                for (BulkItemResponse item : response.getItems()) {
+                    if (item.isFailed()) {
+                        failures.put(Long.valueOf(item.getId()), item.getFailureMessage());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量写入搜索索引失败, index={}, memorials={}", indexName, memorials.size() + deletedIds.size(), e);
+            List<Long> ids = new ArrayList<>(deletedIds);
+            for (DigitalMemorial memorial : memorials) {
+                ids.add(memorial.getId());
+            }
+            return failAll(ids, e);
+        }
+        return failures;
+    }
+
+    private static Map<Long, String> failAll(Collection<Long> memorialIds, Exception e) {
+        Map<Long, String> failures = new HashMap<>();
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        for (Long memorialId : memorialIds) {
+            failures.put(memorialId, error);
+        }
+        return failures;
+    }
+
+    /**
+     * 转换为搜索文档
+     */
+    static MemorialDocument toDocument(DigitalMemorial memorial) {
+        MemorialDocument document = new MemorialDocument();
+        document.setId(memorial.getId());
+        document.setSpaceNo(memorial.getSpaceNo());
+        document.setSpaceName(memorial.getSpaceName());
+        document.setBiography(memorial.getBiography());
+        document.setLifeAchievements(memorial.getLifeAchievements());
+        document.setFamilyWords(memorial.getFamilyWords());
+        document.setAccessPermission(memorial.getAccessPermission() != null
+                ? memorial.getAccessPermission().getCode() : null);
+        document.setBackgroundTheme(memorial.getBackgroundTheme());
+        document.setVisitCount(memorial.getVisitCount());
+        document.setCandleCount(memorial.getCandleCount());
+        document.setFlowerCount(memorial.getFlowerCount());
+        document.setIncenseCount(memorial.getIncenseCount());
+        document.setMessageCount(memorial.getMessageCount());
+        document.setIsPublished(memorial.getIsPublished());
+        document.setPublishTime(toLocalDateTime(memorial.getPublishTime()));
+        document.setCreateTime(toLocalDateTime(memorial.getCreateTime()));
+        if (memorial.getDeceasedInfo() != null) {
+            document.setDeceasedName(memorial.getDeceasedInfo().getDeceasedName());
+            document.setDeceasedPhoto(memorial.getDeceasedInfo().getPhoto());
+        }
+        if (memorial.getTombLocation() != null) {
+            document.setTombNo(memorial.getTombLocation().getTombNo());
+        }
+        return document;
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(indexConfig.getEnabled());
+    }
+
+    /**
+     * 是否写入Elasticsearch（已配置且未启用嵌入式搜索）
+     */
+    private boolean isElasticsearchActive() {
+        return elasticsearchTemplate != null && !Boolean.TRUE.equals(embeddedConfig.getEnabled());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= ERROR_MAX_LENGTH ? error : error.substring(0, ERROR_MAX_LENGTH);
+    }
+}
@@ -0,0 +1,459 @@
+package com.cemetery.service.search;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.SearchIndexConfig;
+import com.cemetery.common.exception.BusinessException;
+import com.cemetery.domain.document.MemorialDocument;
+import com.cemetery.domain.entity.DigitalMemorial;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.domain.mapper.MemorialIndexOutboxMapper;
+import com.cemetery.service.statistics.StatisticsMetric;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.GetAliasesResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.xcontent.XContentType;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 纪念空间搜索索引重建器（不停机）
+ * 新建带版本号的索引（导入期间副本数为0、关闭刷新），按主键范围分给多个读取线程，各自以游标分批联表读取并_bulk写入；
+ * 导入完成后恢复副本和刷新间隔，按发件箱追平重建期间的变更，再以一次别名操作把别名从旧索引原子切换到新索引，最后删除旧索引。
+ * 整个过程中搜索和发件箱同步都经由别名访问旧索引，用户始终能搜到结果；任一步骤失败则删除新索引，别名保持不变。
+ * 重建在后台线程执行，进度保存在Redis中，任一节点都能查询。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialIndexRebuilder {
+
+    private static final String PROGRESS_KEY = "search:index:rebuild:progress";
+    private static final String LOCK_KEY = "search:index:rebuild:lock";
+
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_INDEXED = "indexed";
+    private static final String FIELD_FAILED = "failed";
+    private static final String FIELD_MESSAGE = "message";
+
+    private static final DateTimeFormatter VERSION_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /**
+     * 导入进度上报间隔（毫秒）
+     */
+    private static final long PROGRESS_INTERVAL_MS = 2000L;
+
+    /**
+     * 追平增量的最多轮数，每轮处理上一轮期间新增的发件箱记录
+     */
+    private static final int CATCH_UP_ROUNDS = 3;
+
+    private final DigitalMemorialMapper memorialMapper;
+    private final MemorialIndexOutboxMapper outboxMapper;
+    private final MemorialIndexManager indexManager;
+    private final SearchIndexConfig indexConfig;
+    private final CacheConfig cacheConfig;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+
+    @Autowired(required = false)
+    private ElasticsearchRestTemplate elasticsearchTemplate;
+
+    /**
+     * 重建协调线程，同一节点同时只运行一个重建
+     */
+    private ThreadPoolExecutor coordinator;
+
+    @PostConstruct
+    public void init() {
+        coordinator = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "search-index-rebuild");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        coordinator.shutdownNow();
+    }
+
+    /**
+     * 提交重建任务
+     * @return 提交时的进度
+     */
+    public Map<String, Object> submit() {
+        if (elasticsearchTemplate == null) {
+            throw new BusinessException("Elasticsearch未配置");
+        }
+        if (redissonClient.getLock(key(LOCK_KEY)).isLocked()) {
+            throw new BusinessException("索引重建正在进行中");
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_STATUS, IndexRebuildStatus.PENDING.name());
+        fields.put(FIELD_INDEXED, "0");
+        fields.put(FIELD_FAILED, "0");
+        fields.put("createTime", String.valueOf(System.currentTimeMillis()));
+        stringRedisTemplate.delete(key(PROGRESS_KEY));
+        updateProgress(fields);
+
+        try {
+            coordinator.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException("索引重建正在进行中");
+        }
+        log.info("提交搜索索引重建任务");
+        return getProgress();
+    }
+
+    /**
+     * 查询最近一次重建的状态和进度
+     */
+    public Map<String, Object> getProgress() {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key(PROGRESS_KEY));
+        if (entries.isEmpty()) {
+            throw new BusinessException("没有索引重建记录");
+        }
+        Map<String, Object> progress = new LinkedHashMap<>();
+        entries.forEach((field, value) -> progress.put(field.toString(), value));
+        IndexRebuildStatus status = IndexRebuildStatus.valueOf(entries.get(FIELD_STATUS).toString());
+        progress.put("statusDesc", status.getDesc());
+        return progress;
+    }
+
+    private void run() {
+        RLock lock = redissonClient.getLock(key(LOCK_KEY));
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(0, indexConfig.getRebuildLockLeaseMinutes(), TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            fail("其他节点正在重建索引");
+            return;
+        }
+
+        String alias = indexManager.getIndexName();
+        String newIndex = alias + "_" + LocalDateTime.now().format(VERSION_FORMATTER);
+        boolean created = false;
+        long startTime = System.currentTimeMillis();
+        try {
+            // 以发件箱当前位置为起点，重建期间的变更在导入后追平
+            long outboxPosition = nullToZero(outboxMapper.selectMaxId());
+
+            createIndex(newIndex);
+            created = true;
+            Map<String, String> loading = new HashMap<>();
+            loading.put(FIELD_STATUS, IndexRebuildStatus.LOADING.name());
+            loading.put("newIndex", newIndex);
+            loading.put("startTime", String.valueOf(startTime));
+            updateProgress(loading);
+
+            long indexed = load(newIndex);
+            restoreSettings(newIndex);
+
+            updateProgress(singleField(FIELD_STATUS, IndexRebuildStatus.CATCHING_UP.name()));
+            for (int round = 0; round < CATCH_UP_ROUNDS; round++) {
+                long next = catchUp(newIndex, outboxPosition);
+                if (next == outboxPosition) {
+                    break;
+                }
+                outboxPosition = next;
+            }
+
+            updateProgress(singleField(FIELD_STATUS, IndexRebuildStatus.SWITCHING.name()));
+            Set<String> oldIndices = switchAlias(alias, newIndex);
+            // 切换前发件箱同步写入的是旧索引，切换后再追平一次
+            catchUp(newIndex, outboxPosition);
+            if (!oldIndices.isEmpty()) {
+                elasticsearchTemplate.execute(client -> client.indices().delete(
+                        new DeleteIndexRequest(oldIndices.toArray(new String[0])), RequestOptions.DEFAULT));
+            }
+
+            long cost = System.currentTimeMillis() - startTime;
+            Map<String, String> success = new HashMap<>();
+            success.put(FIELD_STATUS, IndexRebuildStatus.SUCCESS.name());
+            success.put(FIELD_INDEXED, String.valueOf(indexed));
+            success.put("oldIndices", String.join(",", oldIndices));
+            success.put("costMs", String.valueOf(cost));
+            success.put("finishTime", String.valueOf(System.currentTimeMillis()));
+            updateProgress(success);
+            log.info("搜索索引重建完成, alias={}, newIndex={}, oldIndices={}, indexed={}, cost={}ms",
+                    alias, newIndex, oldIndices, indexed, cost);
+        } catch (Exception e) {
+            log.error("搜索索引重建失败，别名保持不变, alias={}, newIndex={}", alias, newIndex, e);
+            if (created) {
+                deleteQuietly(newIndex);
+            }
+            fail(StringUtils.defaultString(StringUtils.left(e.getMessage(), 200), "重建失败"));
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 创建新索引：映射取自MemorialDocument，导入期间不建副本、关闭刷新
+     */
+    private void createIndex(String newIndex) {
+        String mapping = elasticsearchTemplate.indexOps(MemorialDocument.class)
+                .createMapping(MemorialDocument.class).toJson();
+        CreateIndexRequest request = new CreateIndexRequest(newIndex)
+                .settings(Settings.builder()
+                        .put("index.number_of_shards", indexConfig.getRebuildShards())
+                        .put("index.number_of_replicas", 0)
+                        .put("index.refresh_interval", "-1"))
+                .mapping(mapping, XContentType.JSON);
+        elasticsearchTemplate.execute(client -> client.indices().create(request, RequestOptions.DEFAULT));
+        log.info("创建新版本索引, index={}", newIndex);
+    }
+
+    /**
+     * 按主键范围均分给多个读取线程并行导入
+     * @return 导入文档数
+     */
+    private long load(String newIndex) throws InterruptedException, ExecutionException {
+        Map<String, Object> range = memorialMapper.selectIdRange();
+        if (range == null || range.get("minId") == null) {
+            log.info("没有需要导入的纪念空间, index={}", newIndex);
+            return 0;
+        }
+        long minId = ((Number) range.get("minId")).longValue();
+        long maxId = ((Number) range.get("maxId")).longValue();
+        long total = nullToZero(memorialMapper.countMemorials(null));
+        int parallelism = Math.max(indexConfig.getRebuildParallelism(), 1);
+        long span = Math.max((maxId - minId + 1 + parallelism - 1) / parallelism, 1);
+        updateProgress(singleField("total", String.valueOf(total)));
+
+        AtomicLong indexed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "search-index-rebuild-reader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startTime = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = minId - 1; from < maxId; from += span) {
+                long lastId = from;
+                long endId = Math.min(from + span, maxId);
+                futures.add(readers.submit(() -> loadRange(newIndex, lastId, endId, indexed, failed, aborted)));
+            }
+
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        reportProgress(indexed.get(), failed.get(), total, startTime);
+                    } catch (ExecutionException e) {
+                        aborted.set(true);
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        reportProgress(indexed.get(), failed.get(), total, startTime);
+        return indexed.get();
+    }
+
+    /**
+     * 读取一个主键区间并写入新索引，任一批次失败即中止全部读取线程
+     */
+    private void loadRange(String newIndex, long lastId, long endId,
+                           AtomicLong indexed, AtomicLong failed, AtomicBoolean aborted) {
+        int batchSize = Math.max(indexConfig.getRebuildBatchSize(), 1);
+        while (!aborted.get()) {
+            List<DigitalMemorial> memorials = memorialMapper.selectForSearchIndexAfter(lastId, endId, batchSize,
+                    StatisticsMetric.MESSAGE_TOTAL);
+            if (memorials.isEmpty()) {
+                return;
+            }
+            Map<Long, String> failures = indexManager.writeDocuments(newIndex, memorials);
+            indexed.addAndGet(memorials.size() - failures.size());
+            if (!failures.isEmpty()) {
+                failed.addAndGet(failures.size());
+                aborted.set(true);
+                throw new BusinessException("写入新索引失败: " + failures.values().iterator().next());
+            }
+            if (memorials.size() < batchSize) {
+                return;
+            }
+            lastId = memorials.get(memorials.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 恢复副本数和刷新间隔，刷新后等待主分片就绪
+     */
+    private void restoreSettings(String newIndex) {
+        UpdateSettingsRequest settings = new UpdateSettingsRequest(newIndex).settings(Settings.builder()
+                .put("index.number_of_replicas", indexConfig.getRebuildReplicas())
+                .put("index.refresh_interval", indexConfig.getRebuildRefreshInterval()));
+        elasticsearchTemplate.execute(client -> client.indices().putSettings(settings, RequestOptions.DEFAULT));
+        elasticsearchTemplate.execute(client -> client.indices().refresh(new RefreshRequest(newIndex),
+                RequestOptions.DEFAULT));
+
+        ClusterHealthRequest health = new ClusterHealthRequest(newIndex)
+                .waitForYellowStatus()
+                .timeout(TimeValue.timeValueMinutes(2));
+        ClusterHealthResponse response = elasticsearchTemplate.execute(client -> client.cluster()
+                .health(health, RequestOptions.DEFAULT));
+        if (response.isTimedOut()) {
+            throw new BusinessException("新索引分片未就绪: " + newIndex);
+        }
+    }
+
+    /**
+     * 按发件箱把指定位置之后变更过的纪念空间重新写入新索引
+     * @return 处理到的发件箱位置
+     */
+    private long catchUp(String newIndex, long afterId) {
+        long toId = nullToZero(outboxMapper.selectMaxId());
+        if (toId <= afterId) {
+            return afterId;
+        }
+        List<Long> memorialIds = outboxMapper.selectMemorialIdsBetween(afterId, toId);
+        int batchSize = Math.max(indexConfig.getRebuildBatchSize(), 1);
+        for (int from = 0; from < memorialIds.size(); from += batchSize) {
+            List<Long> batch = memorialIds.subList(from, Math.min(from + batchSize, memorialIds.size()));
+            if (indexManager.sync(newIndex, batch) < batch.size()) {
+                throw new BusinessException("追平重建期间的变更失败");
+            }
+        }
+        log.info("追平重建期间的变更, index={}, outbox=({}, {}], memorials={}",
+                newIndex, afterId, toId, memorialIds.size());
+        return toId;
+    }
+
+    /**
+     * 原子切换别名：移除旧索引上的别名（首次重建时旧索引与别名同名，直接删除该索引）并指向新索引
+     * @return 需要删除的旧索引
+     */
+    private Set<String> switchAlias(String alias, String newIndex) {
+        GetAliasesResponse aliases = elasticsearchTemplate.execute(client -> client.indices()
+                .getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT));
+        Set<String> oldIndices = new HashSet<>(aliases.getAliases().keySet());
+        oldIndices.remove(newIndex);
+        boolean concreteIndex = oldIndices.isEmpty() && elasticsearchTemplate.execute(client -> client.indices()
+                .exists(new GetIndexRequest(alias), RequestOptions.DEFAULT));
+
+        IndicesAliasesRequest request = new IndicesAliasesRequest();
+        if (concreteIndex) {
+            request.addAliasAction(AliasActions.removeIndex().index(alias));
+        }
+        for (String oldIndex : oldIndices) {
+            request.addAliasAction(AliasActions.remove().index(oldIndex).alias(alias));
+        }
+        request.addAliasAction(AliasActions.add().index(newIndex).alias(alias));
+        elasticsearchTemplate.execute(client -> client.indices().updateAliases(request, RequestOptions.DEFAULT));
+        log.info("切换索引别名, alias={}, newIndex={}, oldIndices={}, removedConcreteIndex={}",
+                alias, newIndex, oldIndices, concreteIndex);
+        return oldIndices;
+    }
+
+    private void reportProgress(long indexed, long failed, long total, long startTime) {
+        long elapsed = Math.max(System.currentTimeMillis() - startTime, 1);
+        long docsPerSecond = indexed * 1000 / elapsed;
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_INDEXED, String.valueOf(indexed));
+        fields.put(FIELD_FAILED, String.valueOf(failed));
+        fields.put("docsPerSecond", String.valueOf(docsPerSecond));
+        fields.put("percent", String.valueOf(total > 0 ? Math.min(indexed * 100 / total, 100) : 100));
+        updateProgress(fields);
+        log.info("搜索索引重建进度, indexed={}/{}, failed={}, docsPerSecond={}", indexed, total, failed, docsPerSecond);
+    }
+
+    private void fail(String message) {
+        Map<String, String> failed = new HashMap<>();
+        failed.put(FIELD_STATUS, IndexRebuildStatus.FAILED.name());
+        failed.put(FIELD_MESSAGE, message);
+        failed.put("finishTime", String.valueOf(System.currentTimeMillis()));
+        updateProgress(failed);
+    }
+
+    private void deleteQuietly(String index) {
+        try {
+            elasticsearchTemplate.execute(client -> client.indices().delete(new DeleteIndexRequest(index),
+                    RequestOptions.DEFAULT));
+        } catch (Exception e) {
+            log.warn("删除未完成的新索引失败，请手动清理, index={}", index, e);
+        }
+    }
+
+    private void updateProgress(Map<String, String> fields) {
+        try {
+            String key = key(PROGRESS_KEY);
+            stringRedisTemplate.opsForHash().putAll(key, fields);
+            stringRedisTemplate.expire(key, indexConfig.getRebuildProgressExpireHours(), TimeUnit.HOURS);
+        } catch (Exception e) {
+            log.warn("更新索引重建进度失败", e);
+        }
+    }
+
+    private static Map<String, String> singleField(String field, String value) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(field, value);
+        return fields;
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cemetery.service.statistics;
+
+import com.cemetery.domain.enums.ContentTypeEnum;
+import com.cemetery.domain.enums.MessageTypeEnum;
+import com.cemetery.service.counter.MemorialCounterType;
+
+/**
+ * 统计汇总表指标名
+ */
+public final class StatisticsMetric {
+
+    /**
+     * 纪念空间数量（按天汇总中为当天新增）
+     */
+    public static final String MEMORIAL_TOTAL = "memorial_total";
+
+    /**
+     * 已发布纪念空间数量
+     */
+    public static final String MEMORIAL_PUBLISHED = "memorial_published";
+
+    public static final String VISIT = "visit";
+    public static final String CANDLE = "candle";
+    public static final String FLOWER = "flower";
+    public static final String INCENSE = "incense";
+
+    /**
+     * 留言数量（含回复）
+     */
+    public static final String MESSAGE_TOTAL = "message_total";
+
+    /**
+     * 内容数量
+     */
+    public static final String CONTENT_TOTAL = "content_total";
+
+    private static final String MESSAGE_TYPE_PREFIX = "message_type_";
+    private static final String CONTENT_TYPE_PREFIX = "content_type_";
+    private static final String CONTENT_SIZE_PREFIX = "content_size_";
+
+    private StatisticsMetric() {
+    }
+
+    /**
+     * 各类型留言数量
+     */
+    public static String messageType(MessageTypeEnum type) {
+        return MESSAGE_TYPE_PREFIX + type.getCode();
+    }
+
+    /**
+     * 各类型内容数量
+     */
+    public static String contentType(ContentTypeEnum type) {
+        return CONTENT_TYPE_PREFIX + type.getCode();
+    }
+
+    /**
+     * 各类型内容文件大小（字节）
+     */
+    public static String contentSize(ContentTypeEnum type) {
+        return CONTENT_SIZE_PREFIX + type.getCode();
+    }
+
+    /**
+     * 互动计数对应的指标
+     */
+    public static String counter(MemorialCounterType type) {
+        switch (type) {
+            case CANDLE:
+                return CANDLE;
+            case FLOWER:
+                return FLOWER;
+            case INCENSE:
+                return INCENSE;
+            default:
+                return VISIT;
+        }
+    }
+}
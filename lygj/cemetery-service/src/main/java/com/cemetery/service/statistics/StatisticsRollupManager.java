@@ -0,0 +1,511 @@
+package com.cemetery.service.statistics;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.StatisticsRollupConfig;
+import com.cemetery.domain.dto.StatRollupDeltaDTO;
+import com.cemetery.domain.entity.DigitalMemorial;
+import com.cemetery.domain.entity.MemorialContent;
+import com.cemetery.domain.entity.MemorialMessage;
+import com.cemetery.domain.enums.ContentTypeEnum;
+import com.cemetery.domain.enums.MessageTypeEnum;
+import com.cemetery.domain.mapper.DigitalMemorialMapper;
+import com.cemetery.domain.mapper.StatisticsRollupMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计汇总管理器
+ * 写入链路：业务事务提交后把指标增量累加到本地缓冲 -> 定时批量 INSERT ... ON DUPLICATE KEY UPDATE 累加到汇总表；
+ * 每个增量同时计入全站、纪念空间、按天（全站和纪念空间）四个维度。
+ * 对账：按源表分批 GROUP BY 重算并覆盖汇总表，修正停机丢失的缓冲增量；对账期间的并发写入可能产生少量偏差，下次对账修正。
+ * 读取：统计报表只按主键读取汇总表，不再加载源表数据。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticsRollupManager {
+
+    /**
+     * 按天汇总中表示全站的纪念空间ID
+     */
+    public static final long GLOBAL_SCOPE = 0L;
+
+    private static final String RECONCILE_LOCK_KEY = "statistics:rollup:reconcile:lock";
+
+    private final StatisticsRollupMapper rollupMapper;
+    private final StatisticsRollupWriter rollupWriter;
+    private final DigitalMemorialMapper memorialMapper;
+    private final StatisticsRollupConfig rollupConfig;
+    private final CacheConfig cacheConfig;
+    private final RedissonClient redissonClient;
+
+    private final ConcurrentHashMap<RollupKey, Long> buffer = new ConcurrentHashMap<>();
+
+    /**
+     * 新建纪念空间
+     */
+    public void onMemorialCreated(DigitalMemorial memorial) {
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        collect(deltas, null, memorial.getCreateTime(), StatisticsMetric.MEMORIAL_TOTAL, 1L);
+        submit(deltas);
+    }
+
+    /**
+     * 删除纪念空间（扣减数量、发布状态和已回写的互动计数）
+     */
+    public void onMemorialDeleted(DigitalMemorial memorial) {
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        collect(deltas, null, memorial.getCreateTime(), StatisticsMetric.MEMORIAL_TOTAL, -1L);
+        if (Integer.valueOf(1).equals(memorial.getIsPublished())) {
+            collect(deltas, null, null, StatisticsMetric.MEMORIAL_PUBLISHED, -1L);
+        }
+        collect(deltas, null, null, StatisticsMetric.VISIT, -valueOf(memorial.getVisitCount()));
+        collect(deltas, null, null, StatisticsMetric.CANDLE, -valueOf(memorial.getCandleCount()));
+        collect(deltas, null, null, StatisticsMetric.FLOWER, -valueOf(memorial.getFlowerCount()));
+        collect(deltas, null, null, StatisticsMetric.INCENSE, -valueOf(memorial.getIncenseCount()));
+        submit(deltas);
+    }
+
+    /**
+     * 发布状态变化
+     * @param wasPublished 变更前是否已发布
+     * @param published 变更后是否已发布
+     */
+    public void onMemorialPublishChanged(boolean wasPublished, boolean published) {
+        if (wasPublished == published) {
+            return;
+        }
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        collect(deltas, null, null, StatisticsMetric.MEMORIAL_PUBLISHED, published ? 1L : -1L);
+        submit(deltas);
+    }
+
+    /**
+     * 新增留言（含回复）
+     */
+    public void onMessagesAdded(Collection<MemorialMessage> messages) {
+        submit(collectMessages(messages, 1L));
+    }
+
+    /**
+     * 删除留言（含回复），从留言当天的按天汇总中扣减
+     */
+    public void onMessagesDeleted(Collection<MemorialMessage> messages) {
+        submit(collectMessages(messages, -1L));
+    }
+
+    /**
+     * 新增内容
+     */
+    public void onContentsAdded(Collection<MemorialContent> contents) {
+        submit(collectContents(contents, 1L));
+    }
+
+    /**
+     * 删除内容，从上传当天的按天汇总中扣减
+     */
+    public void onContentsDeleted(Collection<MemorialContent> contents) {
+        submit(collectContents(contents, -1L));
+    }
+
+    /**
+     * 内容类型、大小或所属纪念空间变化：先扣除旧值再计入新值
+     */
+    public void onContentUpdated(MemorialContent before, MemorialContent after) {
+        if (Objects.equals(before.getMemorialId(), after.getMemorialId())
+                && before.getContentType() == after.getContentType()
+                && valueOf(before.getFileSize()) == valueOf(after.getFileSize())) {
+            return;
+        }
+        Map<RollupKey, Long> deltas = collectContents(Collections.singletonList(before), -1L);
+        collectContents(deltas, Collections.singletonList(after), 1L);
+        submit(deltas);
+    }
+
+    /**
+     * 互动计数直接累加（未启用计数异步回写时使用，只计入全站和全站按天汇总）
+     */
+    public void onCounterIncremented(String metric, long delta) {
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        collect(deltas, null, new Date(), metric, delta);
+        submit(deltas);
+    }
+
+    /**
+     * 全站汇总
+     * @return 指标名 -> 指标值
+     */
+    public Map<String, Long> getGlobal() {
+        return toMap(rollupMapper.selectGlobal());
+    }
+
+    /**
+     * 纪念空间汇总
+     * @return 指标名 -> 指标值
+     */
+    public Map<String, Long> getMemorial(Long memorialId) {
+        return toMap(rollupMapper.selectMemorial(memorialId));
+    }
+
+    /**
+     * 按日期范围合计按天汇总
+     * @param memorialId 纪念空间ID，为空时统计全站
+     * @return 指标名 -> 合计值
+     */
+    public Map<String, Long> sumDaily(Long memorialId, LocalDate startDate, LocalDate endDate) {
+        return toMap(rollupMapper.sumDaily(memorialId != null ? memorialId : GLOBAL_SCOPE,
+                toDate(startDate), toDate(endDate)));
+    }
+
+    /**
+     * 将本地缓冲的增量写入汇总表，失败时放回缓冲等待下次重试
+     */
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        for (RollupKey key : buffer.keySet()) {
+            Long delta = buffer.remove(key);
+            if (delta != null && delta != 0) {
+                deltas.put(key, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<StatRollupDeltaDTO> global = new ArrayList<>();
+        List<StatRollupDeltaDTO> memorial = new ArrayList<>();
+        List<StatRollupDeltaDTO> daily = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (key.getStatDate() != null) {
+                daily.add(new StatRollupDeltaDTO(toDate(key.getStatDate()), key.getMemorialId(), key.getMetric(), delta));
+            } else if (key.getMemorialId() != null) {
+                memorial.add(new StatRollupDeltaDTO(null, key.getMemorialId(), key.getMetric(), delta));
+            } else {
+                global.add(new StatRollupDeltaDTO(null, null, key.getMetric(), delta));
+            }
+        });
+
+        try {
+            rollupWriter.applyIncrements(global, memorial, daily, rollupConfig.getBatchSize());
+            log.debug("统计增量写入完成, global={}, memorial={}, daily={}", global.size(), memorial.size(), daily.size());
+        } catch (Exception e) {
+            log.error("统计增量写入失败，放回本地缓冲, rows={}", deltas.size(), e);
+            deltas.forEach(this::merge);
+        }
+    }
+
+    /**
+     * 按源表重算汇总表（集群内同一时刻只有一个节点执行）
+     * @return 是否执行了对账
+     */
+    public boolean reconcile() {
+        RLock lock = redissonClient.getLock(cacheConfig.getKeyPrefix() + RECONCILE_LOCK_KEY);
+        boolean locked;
+        try {
+            locked = lock.tryLock(0, rollupConfig.getLockLeaseSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (!locked) {
+            log.info("统计汇总正在由其他节点对账");
+            return false;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            flush();
+            reconcileGlobal();
+            int memorials = reconcileMemorials();
+            reconcileDaily();
+            log.info("统计汇总对账完成, memorials={}, cost={}ms", memorials, System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 首次启动时汇总表为空，按源表回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            Long rows = rollupMapper.countGlobal();
+            if (rows == null || rows == 0) {
+                log.info("统计汇总表为空，开始按源表回填");
+                reconcile();
+            }
+        } catch (Exception e) {
+            log.error("统计汇总回填失败", e);
+        }
+    }
+
+    /**
+     * 停机前写入剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用停止，写入剩余统计增量, bufferSize={}", buffer.size());
+        flush();
+    }
+
+    private void reconcileGlobal() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        Map<String, Object> totals = rollupMapper.aggregateMemorialTotals();
+        for (String metric : Arrays.asList(StatisticsMetric.MEMORIAL_TOTAL, StatisticsMetric.MEMORIAL_PUBLISHED,
+                StatisticsMetric.VISIT, StatisticsMetric.CANDLE, StatisticsMetric.FLOWER, StatisticsMetric.INCENSE)) {
+            values.put(metric, totals != null ? toLong(totals.get(metric)) : 0L);
+        }
+
+        // 没有数据的类型也写入0，覆盖旧值
+        values.put(StatisticsMetric.CONTENT_TOTAL, 0L);
+        for (ContentTypeEnum type : ContentTypeEnum.values()) {
+            values.put(StatisticsMetric.contentType(type), 0L);
+            values.put(StatisticsMetric.contentSize(type), 0L);
+        }
+        for (Map<String, Object> row : rollupMapper.aggregateContents(null)) {
+            long count = toLong(row.get("cnt"));
+            values.merge(StatisticsMetric.CONTENT_TOTAL, count, Long::sum);
+            ContentTypeEnum type = ContentTypeEnum.getByCode(toInteger(row.get("contentType")));
+            if (type == null) {
+                continue;
+            }
+            values.put(StatisticsMetric.contentType(type), count);
+            values.put(StatisticsMetric.contentSize(type), toLong(row.get("totalSize")));
+        }
+
+        values.put(StatisticsMetric.MESSAGE_TOTAL, 0L);
+        for (MessageTypeEnum type : MessageTypeEnum.values()) {
+            values.put(StatisticsMetric.messageType(type), 0L);
+        }
+        for (Map<String, Object> row : rollupMapper.aggregateMessages(null)) {
+            long count = toLong(row.get("cnt"));
+            values.merge(StatisticsMetric.MESSAGE_TOTAL, count, Long::sum);
+            MessageTypeEnum type = MessageTypeEnum.getByCode(toInteger(row.get("messageType")));
+            if (type == null) {
+                continue;
+            }
+            values.put(StatisticsMetric.messageType(type), count);
+        }
+
+        List<StatRollupDeltaDTO> rows = new ArrayList<>(values.size());
+        values.forEach((metric, value) -> rows.add(new StatRollupDeltaDTO(null, null, metric, value)));
+        rollupWriter.replaceGlobal(rows, rollupConfig.getBatchSize());
+    }
+
+    private int reconcileMemorials() {
+        int batchSize = rollupConfig.getReconcileBatchSize();
+        int total = 0;
+        long lastId = 0L;
+        while (true) {
+            List<Long> ids = memorialMapper.selectIdsAfter(lastId, batchSize);
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            Map<RollupKey, Long> values = new HashMap<>();
+            for (Map<String, Object> row : rollupMapper.aggregateContents(ids)) {
+                addContentRow(values, null, toLong(row.get("memorialId")), row);
+            }
+            for (Map<String, Object> row : rollupMapper.aggregateMessages(ids)) {
+                addMessageRow(values, null, toLong(row.get("memorialId")), row);
+            }
+            rollupWriter.replaceMemorials(ids, toRows(values), rollupConfig.getBatchSize());
+
+            total += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private void reconcileDaily() {
+        LocalDate startDate = LocalDate.now().minusDays(Math.max(1, rollupConfig.getReconcileDays()) - 1);
+        Date startTime = toDate(startDate);
+
+        Map<RollupKey, Long> values = new HashMap<>();
+        for (Map<String, Object> row : rollupMapper.aggregateDailyMemorials(startTime)) {
+            values.merge(new RollupKey(toLocalDate(row.get("statDate")), GLOBAL_SCOPE, StatisticsMetric.MEMORIAL_TOTAL),
+                    toLong(row.get("cnt")), Long::sum);
+        }
+        for (Map<String, Object> row : rollupMapper.aggregateDailyContents(startTime)) {
+            LocalDate day = toLocalDate(row.get("statDate"));
+            addContentRow(values, day, toLong(row.get("memorialId")), row);
+            addContentRow(values, day, GLOBAL_SCOPE, row);
+        }
+        for (Map<String, Object> row : rollupMapper.aggregateDailyMessages(startTime)) {
+            LocalDate day = toLocalDate(row.get("statDate"));
+            addMessageRow(values, day, toLong(row.get("memorialId")), row);
+            addMessageRow(values, day, GLOBAL_SCOPE, row);
+        }
+        rollupWriter.replaceDaily(startTime, toRows(values), rollupConfig.getBatchSize());
+    }
+
+    private void addContentRow(Map<RollupKey, Long> values, LocalDate day, long memorialId, Map<String, Object> row) {
+        long count = toLong(row.get("cnt"));
+        values.merge(new RollupKey(day, memorialId, StatisticsMetric.CONTENT_TOTAL), count, Long::sum);
+        ContentTypeEnum type = ContentTypeEnum.getByCode(toInteger(row.get("contentType")));
+        if (type == null) {
+            return;
+        }
+        values.merge(new RollupKey(day, memorialId, StatisticsMetric.contentType(type)), count, Long::sum);
+        values.merge(new RollupKey(day, memorialId, StatisticsMetric.contentSize(type)), toLong(row.get("totalSize")), Long::sum);
+    }
+
+    private void addMessageRow(Map<RollupKey, Long> values, LocalDate day, long memorialId, Map<String, Object> row) {
+        long count = toLong(row.get("cnt"));
+        values.merge(new RollupKey(day, memorialId, StatisticsMetric.MESSAGE_TOTAL), count, Long::sum);
+        MessageTypeEnum type = MessageTypeEnum.getByCode(toInteger(row.get("messageType")));
+        if (type == null) {
+            return;
+        }
+        values.merge(new RollupKey(day, memorialId, StatisticsMetric.messageType(type)), count, Long::sum);
+    }
+
+    private Map<RollupKey, Long> collectMessages(Collection<MemorialMessage> messages, long sign) {
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        for (MemorialMessage message : messages) {
+            Date day = message.getMessageTime() != null ? message.getMessageTime() : new Date();
+            collect(deltas, message.getMemorialId(), day, StatisticsMetric.MESSAGE_TOTAL, sign);
+            if (message.getMessageType() != null) {
+                collect(deltas, message.getMemorialId(), day, StatisticsMetric.messageType(message.getMessageType()), sign);
+            }
+        }
+        return deltas;
+    }
+
+    private Map<RollupKey, Long> collectContents(Collection<MemorialContent> contents, long sign) {
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        collectContents(deltas, contents, sign);
+        return deltas;
+    }
+
+    private void collectContents(Map<RollupKey, Long> deltas, Collection<MemorialContent> contents, long sign) {
+        for (MemorialContent content : contents) {
+            Date day = content.getUploadTime() != null ? content.getUploadTime() : new Date();
+            collect(deltas, content.getMemorialId(), day, StatisticsMetric.CONTENT_TOTAL, sign);
+            if (content.getContentType() != null) {
+                collect(deltas, content.getMemorialId(), day, StatisticsMetric.contentType(content.getContentType()), sign);
+                collect(deltas, content.getMemorialId(), day, StatisticsMetric.contentSize(content.getContentType()),
+                        sign * valueOf(content.getFileSize()));
+            }
+        }
+    }
+
+    /**
+     * 将一个增量展开到各汇总维度
+     * @param memorialId 为空时只计入全站
+     * @param day 为空时不计入按天汇总
+     */
+    private void collect(Map<RollupKey, Long> deltas, Long memorialId, Date day, String metric, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        deltas.merge(new RollupKey(null, null, metric), delta, Long::sum);
+        LocalDate statDate = day != null ? day.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+        if (statDate != null) {
+            deltas.merge(new RollupKey(statDate, GLOBAL_SCOPE, metric), delta, Long::sum);
+        }
+        if (memorialId != null) {
+            deltas.merge(new RollupKey(null, memorialId, metric), delta, Long::sum);
+            if (statDate != null) {
+                deltas.merge(new RollupKey(statDate, memorialId, metric), delta, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * 在事务中调用时延迟到提交后计入，回滚的写入不会留下统计
+     */
+    private void submit(Map<RollupKey, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deltas.forEach(StatisticsRollupManager.this::merge);
+                }
+            });
+        } else {
+            deltas.forEach(this::merge);
+        }
+    }
+
+    private void merge(RollupKey key, Long delta) {
+        buffer.merge(key, delta, Long::sum);
+    }
+
+    private List<StatRollupDeltaDTO> toRows(Map<RollupKey, Long> values) {
+        List<StatRollupDeltaDTO> rows = new ArrayList<>(values.size());
+        values.forEach((key, value) -> rows.add(new StatRollupDeltaDTO(
+                key.getStatDate() != null ? toDate(key.getStatDate()) : null, key.getMemorialId(), key.getMetric(), value)));
+        return rows;
+    }
+
+    private static Map<String, Long> toMap(List<StatRollupDeltaDTO> rows) {
+        Map<String, Long> result = new HashMap<>();
+        if (rows != null) {
+            rows.forEach(row -> result.put(row.getMetric(), row.getMetricValue() != null ? row.getMetricValue() : 0L));
+        }
+        return result;
+    }
+
+    private static Date toDate(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    private static long valueOf(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+
+    /**
+     * 汇总行标识：statDate为空且memorialId为空表示全站汇总，statDate为空表示纪念空间汇总，否则为按天汇总
+     */
+    @Value
+    private static class RollupKey {
+        LocalDate statDate;
+        Long memorialId;
+        String metric;
+    }
+}
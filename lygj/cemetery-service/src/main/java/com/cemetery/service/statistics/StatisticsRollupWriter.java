@@ -0,0 +1,80 @@
+package com.cemetery.service.statistics;
+
+import com.cemetery.domain.dto.StatRollupDeltaDTO;
+import com.cemetery.domain.mapper.StatisticsRollupMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 统计汇总表写入器
+ * 行按主键排序后分批写入，多个节点同时累加相同的行时加锁顺序一致，避免死锁
+ */
+@Component
+@RequiredArgsConstructor
+public class StatisticsRollupWriter {
+
+    private static final Comparator<StatRollupDeltaDTO> ROW_ORDER = Comparator
+            .comparing(StatRollupDeltaDTO::getStatDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(StatRollupDeltaDTO::getMemorialId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(StatRollupDeltaDTO::getMetric);
+
+    private final StatisticsRollupMapper rollupMapper;
+
+    /**
+     * 累加增量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void applyIncrements(List<StatRollupDeltaDTO> global, List<StatRollupDeltaDTO> memorial,
+                                List<StatRollupDeltaDTO> daily, int batchSize) {
+        writeInBatches(global, batchSize, rollupMapper::batchIncrementGlobal);
+        writeInBatches(memorial, batchSize, rollupMapper::batchIncrementMemorial);
+        writeInBatches(daily, batchSize, rollupMapper::batchIncrementDaily);
+    }
+
+    /**
+     * 覆盖全站汇总
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void replaceGlobal(List<StatRollupDeltaDTO> rows, int batchSize) {
+        writeInBatches(rows, batchSize, rollupMapper::batchReplaceGlobal);
+    }
+
+    /**
+     * 重写一批纪念空间的内容和留言指标
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void replaceMemorials(Collection<Long> memorialIds, List<StatRollupDeltaDTO> rows, int batchSize) {
+        if (memorialIds.isEmpty()) {
+            return;
+        }
+        rollupMapper.deleteMemorialMetrics(memorialIds);
+        writeInBatches(rows, batchSize, rollupMapper::batchInsertMemorial);
+    }
+
+    /**
+     * 重写指定日期起的按天汇总（互动计数除外）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void replaceDaily(Date startDate, List<StatRollupDeltaDTO> rows, int batchSize) {
+        rollupMapper.deleteDailyMetrics(startDate);
+        writeInBatches(rows, batchSize, rollupMapper::batchInsertDaily);
+    }
+
+    private void writeInBatches(List<StatRollupDeltaDTO> rows, int batchSize,
+                                Function<List<StatRollupDeltaDTO>, Integer> writer) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        rows.sort(ROW_ORDER);
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            writer.apply(rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
+}
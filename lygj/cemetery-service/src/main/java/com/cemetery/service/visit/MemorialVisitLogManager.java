@@ -0,0 +1,166 @@
+package com.cemetery.service.visit;
+
+import com.cemetery.common.config.MemorialVisitLogConfig;
+import com.cemetery.domain.entity.MemorialVisitLog;
+import com.cemetery.domain.enums.VisitTypeEnum;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 纪念空间访问日志管理器
+ * 请求线程只读取用户、IP、User-Agent并写入环形缓冲区（无锁、不阻塞、不访问数据库），
+ * 设备类型解析和批量写库都在后台定时任务中完成；缓冲区写满时丢弃事件并计数，不影响页面响应。
+ * 访问日志用于趋势分析和独立访客统计，计数以 MemorialCounterManager 为准。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemorialVisitLogManager {
+
+    private static final int MAX_DEVICE_INFO_LENGTH = 200;
+    private static final int MAX_IP_LENGTH = 50;
+
+    private final MemorialVisitLogWriter visitLogWriter;
+    private final UniqueVisitorManager uniqueVisitorManager;
+    private final MemorialVisitLogConfig visitLogConfig;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private VisitLogRingBuffer<MemorialVisitLog> buffer;
+
+    @PostConstruct
+    public void init() {
+        buffer = new VisitLogRingBuffer<>(visitLogConfig.getBufferCapacity());
+        log.info("访问日志管理器初始化完成, enabled={}, capacity={}",
+                visitLogConfig.getEnabled(), buffer.capacity());
+    }
+
+    /**
+     * 记录一次访问或互动（在请求线程调用）
+     */
+    public void record(Long memorialId, VisitTypeEnum visitType) {
+        if (memorialId == null || !Boolean.TRUE.equals(visitLogConfig.getEnabled())) {
+            return;
+        }
+        MemorialVisitLog visit = new MemorialVisitLog();
+        visit.setMemorialId(memorialId);
+        visit.setVisitType(visitType);
+        visit.setVisitTime(new Date());
+        visit.setUserId(VisitorContext.currentUserId());
+        visit.setIpAddress(StringUtils.left(VisitorContext.currentIp(), MAX_IP_LENGTH));
+        visit.setDeviceInfo(StringUtils.left(VisitorContext.currentUserAgent(), MAX_DEVICE_INFO_LENGTH));
+
+        if (!buffer.offer(visit)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 将缓冲区中的访问记录批量写入数据库
+     * @return 写入的记录数
+     */
+    public int flush() {
+        int batchSize = visitLogConfig.getBatchSize();
+        int maxDrain = visitLogConfig.getMaxDrainPerFlush();
+        int written = 0;
+
+        while (written < maxDrain) {
+            List<MemorialVisitLog> batch = new ArrayList<>(batchSize);
+            if (buffer.drainTo(batch, Math.min(batchSize, maxDrain - written)) == 0) {
+                break;
+            }
+            batch.forEach(MemorialVisitLogManager::resolveDevice);
+            recordUniqueVisitors(batch);
+            try {
+                visitLogWriter.writeBatch(batch, batchSize);
+                written += batch.size();
+            } catch (Exception e) {
+                log.error("访问记录写入失败，放回缓冲区, count={}", batch.size(), e);
+                for (MemorialVisitLog visit : batch) {
+                    if (!buffer.offer(visit)) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            }
+        }
+
+        long droppedCount = dropped.sumThenReset();
+        if (droppedCount > 0) {
+            log.warn("访问日志缓冲区已满，丢弃事件, dropped={}, capacity={}", droppedCount, buffer.capacity());
+        }
+        if (written > 0) {
+            log.debug("访问记录写入完成, count={}, backlog={}", written, buffer.size());
+        }
+        return written;
+    }
+
+    /**
+     * 缓冲区积压数量
+     */
+    public int getBacklog() {
+        return buffer.size();
+    }
+
+    /**
+     * 停机前写入剩余访问记录
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用停止，写入剩余访问记录, backlog={}", buffer.size());
+        // 写完为止，写入失败时退出
+        int written;
+        do {
+            written = flush();
+        } while (written > 0 && buffer.size() > 0);
+    }
+
+    /**
+     * 独立访客与访问记录分开写入，Redis异常不影响访问记录落库（HyperLogLog重复添加不影响结果）
+     */
+    private void recordUniqueVisitors(List<MemorialVisitLog> batch) {
+        try {
+            uniqueVisitorManager.addAll(batch);
+        } catch (Exception e) {
+            log.error("独立访客统计写入失败, count={}", batch.size(), e);
+        }
+    }
+
+    /**
+     * 按User-Agent粗略识别设备类型和浏览器
+     */
+    private static void resolveDevice(MemorialVisitLog visit) {
+        String userAgent = visit.getDeviceInfo();
+        if (StringUtils.isBlank(userAgent)) {
+            return;
+        }
+        if (StringUtils.containsAny(userAgent, "iPad", "Tablet")) {
+            visit.setDeviceType("Tablet");
+        } else if (StringUtils.containsAny(userAgent, "Mobile", "Android", "iPhone")) {
+            visit.setDeviceType("Mobile");
+        } else {
+            visit.setDeviceType("PC");
+        }
+
+        if (userAgent.contains("MicroMessenger")) {
+            visit.setBrowserInfo("WeChat");
+        } else if (userAgent.contains("Edg/")) {
+            visit.setBrowserInfo("Edge");
+        } else if (userAgent.contains("Chrome/")) {
+            visit.setBrowserInfo("Chrome");
+        } else if (userAgent.contains("Firefox/")) {
+            visit.setBrowserInfo("Firefox");
+        } else if (userAgent.contains("Safari/")) {
+            visit.setBrowserInfo("Safari");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.cemetery.service.visit;
+
+import com.cemetery.domain.dto.VisitStatBucketDTO;
+import com.cemetery.domain.entity.MemorialVisitLog;
+import com.cemetery.domain.mapper.MemorialVisitLogMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 访问记录批量写入器
+ * 访问记录与按小时、按天分桶统计在同一事务内写入，分桶统计与明细保持一致；
+ * 分桶行按主键排序后写入，多个节点同时累加相同分桶时加锁顺序一致。
+ */
+@Component
+@RequiredArgsConstructor
+public class MemorialVisitLogWriter {
+
+    /**
+     * 分桶统计中表示全站的纪念空间ID
+     */
+    public static final long GLOBAL_SCOPE = 0L;
+
+    private static final Comparator<VisitStatBucketDTO> BUCKET_ORDER = Comparator
+            .comparing(VisitStatBucketDTO::getMemorialId)
+            .thenComparing(VisitStatBucketDTO::getBucketTime)
+            .thenComparing(VisitStatBucketDTO::getVisitType);
+
+    private final MemorialVisitLogMapper visitLogMapper;
+
+    /**
+     * 写入一批访问记录并累加分桶统计
+     * @param logs 访问记录
+     * @param batchSize 单条多行INSERT包含的记录数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void writeBatch(List<MemorialVisitLog> logs, int batchSize) {
+        if (logs == null || logs.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < logs.size(); from += batchSize) {
+            visitLogMapper.batchInsert(logs.subList(from, Math.min(from + batchSize, logs.size())));
+        }
+        writeBuckets(aggregate(logs, ChronoUnit.HOURS), batchSize, visitLogMapper::batchIncrementHourly);
+        writeBuckets(aggregate(logs, ChronoUnit.DAYS), batchSize, visitLogMapper::batchIncrementDaily);
+    }
+
+    /**
+     * 按纪念空间、时间桶、访问类型汇总，同时计入全站
+     */
+    private List<VisitStatBucketDTO> aggregate(List<MemorialVisitLog> logs, ChronoUnit unit) {
+        Map<List<Object>, Long> counts = new HashMap<>();
+        for (MemorialVisitLog visit : logs) {
+            Date bucket = truncate(visit.getVisitTime(), unit);
+            Integer type = visit.getVisitType().getCode();
+            counts.merge(Arrays.asList(visit.getMemorialId(), bucket, type), 1L, Long::sum);
+            counts.merge(Arrays.asList(GLOBAL_SCOPE, bucket, type), 1L, Long::sum);
+        }
+        List<VisitStatBucketDTO> buckets = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> buckets.add(new VisitStatBucketDTO(
+                (Long) key.get(0), (Date) key.get(1), (Integer) key.get(2), count)));
+        buckets.sort(BUCKET_ORDER);
+        return buckets;
+    }
+
+    private void writeBuckets(List<VisitStatBucketDTO> buckets, int batchSize,
+                              Function<List<VisitStatBucketDTO>, Integer> writer) {
+        for (int from = 0; from < buckets.size(); from += batchSize) {
+            writer.apply(buckets.subList(from, Math.min(from + batchSize, buckets.size())));
+        }
+    }
+
+    private static Date truncate(Date time, ChronoUnit unit) {
+        LocalDateTime local = LocalDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault()).truncatedTo(unit);
+        return Date.from(local.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
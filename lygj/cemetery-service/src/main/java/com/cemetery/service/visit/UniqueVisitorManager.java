@@ -0,0 +1,233 @@
+package com.cemetery.service.visit;
+
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.common.config.MemorialVisitLogConfig;
+import com.cemetery.domain.entity.MemorialVisitLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 独立访客统计（Redis HyperLogLog）
+ * 访客标识为用户ID，匿名访问时为IP；每个键固定约12KB，误差约0.81%。
+ * 键：全站每日、纪念空间每日、纪念空间累计；全站每日每晚合并进每周、每月键。
+ * 日期范围查询优先使用已合并完整的周、月键，其余用日键，一次PFCOUNT多键取并集。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UniqueVisitorManager {
+
+    private static final String DAY_KEY = "uv:day:";
+    private static final String MEMORIAL_DAY_KEY = "uv:memorial:day:";
+    private static final String MEMORIAL_TOTAL_KEY = "uv:memorial:total:";
+    private static final String WEEK_KEY = "uv:week:";
+    private static final String MONTH_KEY = "uv:month:";
+    private static final String MERGED_KEY = "uv:merged";
+    private static final String MERGED_FROM_KEY = "uv:merged:from";
+
+    /**
+     * 合并补偿的最大天数（停机多天后启动只补最近一个月）
+     */
+    private static final int MAX_MERGE_DAYS = 31;
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MemorialVisitLogConfig visitLogConfig;
+    private final CacheConfig cacheConfig;
+
+    /**
+     * 记录一批访问的访客（后台写入访问记录时调用，不在请求线程访问Redis）
+     */
+    public void addAll(List<MemorialVisitLog> visits) {
+        if (!Boolean.TRUE.equals(visitLogConfig.getUvEnabled()) || visits.isEmpty()) {
+            return;
+        }
+
+        // 同一个键的访客合并为一次PFADD
+        Map<String, Set<String>> members = new HashMap<>();
+        Map<String, Long> ttl = new HashMap<>();
+        long dayTtl = daysToSeconds(visitLogConfig.getUvDayRetainDays());
+        long memorialDayTtl = daysToSeconds(visitLogConfig.getUvMemorialDayRetainDays());
+        for (MemorialVisitLog visit : visits) {
+            String visitor = VisitorContext.visitorId(visit.getUserId(), visit.getIpAddress());
+            if (visitor == null) {
+                continue;
+            }
+            String day = toLocalDate(visit.getVisitTime()).format(DAY_FORMATTER);
+            add(members, ttl, key(DAY_KEY + day), visitor, dayTtl);
+            add(members, ttl, key(MEMORIAL_DAY_KEY + day + ":" + visit.getMemorialId()), visitor, memorialDayTtl);
+            add(members, ttl, key(MEMORIAL_TOTAL_KEY + visit.getMemorialId()), visitor, 0L);
+        }
+        if (members.isEmpty()) {
+            return;
+        }
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            members.forEach((key, values) -> {
+                conn.pfAdd(key, values.toArray(new String[0]));
+                long seconds = ttl.get(key);
+                if (seconds > 0) {
+                    conn.expire(key, seconds);
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * 全站某天的独立访客数
+     */
+    public long countDay(LocalDate day) {
+        return pfCount(Collections.singletonList(key(DAY_KEY + day.format(DAY_FORMATTER))));
+    }
+
+    /**
+     * 全站日期范围内的独立访客数（去重后）
+     */
+    public long countRange(LocalDate startDate, LocalDate endDate) {
+        return pfCount(rangeKeys(startDate, endDate));
+    }
+
+    /**
+     * 纪念空间某天的独立访客数
+     */
+    public long countMemorialDay(Long memorialId, LocalDate day) {
+        return pfCount(Collections.singletonList(key(MEMORIAL_DAY_KEY + day.format(DAY_FORMATTER) + ":" + memorialId)));
+    }
+
+    /**
+     * 纪念空间累计独立访客数
+     */
+    public long countMemorialTotal(Long memorialId) {
+        return pfCount(Collections.singletonList(key(MEMORIAL_TOTAL_KEY + memorialId)));
+    }
+
+    /**
+     * 将已结束的每日访客合并进每周、每月键（PFMERGE可重复执行，多节点同时执行结果一致）
+     * @return 本次合并的天数
+     */
+    public int mergeRollups() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate merged = getMergedDate(MERGED_KEY);
+        LocalDate day = merged != null ? merged.plusDays(1) : yesterday;
+        if (day.isBefore(yesterday.minusDays(MAX_MERGE_DAYS - 1))) {
+            day = yesterday.minusDays(MAX_MERGE_DAYS - 1);
+        }
+        if (merged == null || !day.equals(merged.plusDays(1))) {
+            // 首次合并或中间有缺口：只有此后开始的周、月才完整
+            stringRedisTemplate.opsForValue().set(key(MERGED_FROM_KEY), day.format(DAY_FORMATTER));
+        }
+
+        long rollupTtl = daysToSeconds(visitLogConfig.getUvRollupRetainDays());
+        int count = 0;
+        for (; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            String dayKey = key(DAY_KEY + day.format(DAY_FORMATTER));
+            for (String rollupKey : Arrays.asList(weekKey(day), monthKey(day))) {
+                stringRedisTemplate.opsForHyperLogLog().union(rollupKey, rollupKey, dayKey);
+                stringRedisTemplate.expire(rollupKey, rollupTtl, TimeUnit.SECONDS);
+            }
+            stringRedisTemplate.opsForValue().set(key(MERGED_KEY), day.format(DAY_FORMATTER));
+            count++;
+        }
+        if (count > 0) {
+            log.info("独立访客周/月合并完成, days={}, mergedUpTo={}", count, yesterday);
+        }
+        return count;
+    }
+
+    /**
+     * 选出覆盖日期范围的键：完整且已合并的自然月、ISO周用合并键，其余用日键
+     */
+    private List<String> rangeKeys(LocalDate startDate, LocalDate endDate) {
+        LocalDate merged = getMergedDate(MERGED_KEY);
+        LocalDate mergedFrom = getMergedDate(MERGED_FROM_KEY);
+        if (mergedFrom == null) {
+            merged = null;
+        }
+        List<String> keys = new ArrayList<>();
+        LocalDate day = startDate;
+        while (!day.isAfter(endDate)) {
+            if (merged != null && day.isBefore(mergedFrom)) {
+                keys.add(key(DAY_KEY + day.format(DAY_FORMATTER)));
+                day = day.plusDays(1);
+                continue;
+            }
+            if (merged != null && day.getDayOfMonth() == 1) {
+                LocalDate monthEnd = day.with(TemporalAdjusters.lastDayOfMonth());
+                if (!monthEnd.isAfter(endDate) && !monthEnd.isAfter(merged)) {
+                    keys.add(monthKey(day));
+                    day = monthEnd.plusDays(1);
+                    continue;
+                }
+            }
+            if (merged != null && day.getDayOfWeek() == DayOfWeek.MONDAY) {
+                LocalDate weekEnd = day.plusDays(6);
+                if (!weekEnd.isAfter(endDate) && !weekEnd.isAfter(merged)) {
+                    keys.add(weekKey(day));
+                    day = weekEnd.plusDays(1);
+                    continue;
+                }
+            }
+            keys.add(key(DAY_KEY + day.format(DAY_FORMATTER)));
+            day = day.plusDays(1);
+        }
+        return keys;
+    }
+
+    private LocalDate getMergedDate(String suffix) {
+        String value = stringRedisTemplate.opsForValue().get(key(suffix));
+        return StringUtils.isNotBlank(value) ? LocalDate.parse(value, DAY_FORMATTER) : null;
+    }
+
+    private long pfCount(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0L;
+        }
+        Long count = stringRedisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+        return count != null ? count : 0L;
+    }
+
+    private String weekKey(LocalDate day) {
+        return key(WEEK_KEY + day.get(IsoFields.WEEK_BASED_YEAR) + "W"
+                + String.format("%02d", day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)));
+    }
+
+    private String monthKey(LocalDate day) {
+        return key(MONTH_KEY + day.format(MONTH_FORMATTER));
+    }
+
+    private static void add(Map<String, Set<String>> members, Map<String, Long> ttl,
+                            String key, String visitor, long seconds) {
+        members.computeIfAbsent(key, k -> new HashSet<>()).add(visitor);
+        ttl.putIfAbsent(key, seconds);
+    }
+
+    private static LocalDate toLocalDate(Date time) {
+        return time.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static long daysToSeconds(Integer days) {
+        return days != null && days > 0 ? days * 86400L : 0L;
+    }
+
+    private String key(String suffix) {
+        return cacheConfig.getKeyPrefix() + suffix;
+    }
+}
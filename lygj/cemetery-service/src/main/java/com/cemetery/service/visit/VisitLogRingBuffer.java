@@ -0,0 +1,101 @@
+package com.cemetery.service.visit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 访问事件环形缓冲区（多生产者、单消费者，有界）
+ * 每个槽位带一个序号：序号等于写入位置表示可写，等于写入位置+1表示已写入可读。
+ * 请求线程只做一次CAS抢占写入位置，缓冲区写满时直接返回false，不加锁也不阻塞；
+ * 取出由后台任务串行完成，读完后把槽位序号推进一圈，交还给生产者。
+ */
+public class VisitLogRingBuffer<E> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final AtomicLongArray sequences;
+
+    /**
+     * 下一个写入位置（生产者共享）
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取位置（只由消费者修改）
+     */
+    private volatile long head;
+
+    public VisitLogRingBuffer(int capacity) {
+        int size = 1;
+        while (size < Math.max(capacity, 2)) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一个事件
+     * @return 缓冲区已满时返回false
+     */
+    public boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取出最多max个事件（遇到尚未写完的槽位即停止，保证按写入顺序取出）
+     * @return 实际取出数量
+     */
+    public synchronized int drainTo(List<E> sink, int max) {
+        long pos = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) pos & mask;
+            if (sequences.get(index) != pos + 1) {
+                break;
+            }
+            sink.add(slots.get(index));
+            slots.set(index, null);
+            sequences.set(index, pos + mask + 1);
+            pos++;
+            count++;
+        }
+        head = pos;
+        return count;
+    }
+
+    /**
+     * 当前积压数量（近似值）
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
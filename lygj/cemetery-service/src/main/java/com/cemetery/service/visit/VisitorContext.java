@@ -0,0 +1,77 @@
+package com.cemetery.service.visit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 当前请求的访客信息（用户ID、IP、User-Agent）
+ * 只读取线程上下文，不访问Redis和数据库，可在请求线程直接调用
+ */
+public final class VisitorContext {
+
+    private VisitorContext() {
+    }
+
+    /**
+     * 当前登录用户ID，匿名访问时为null
+     */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Long) {
+            return (Long) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    /**
+     * 当前请求的客户端IP（优先取代理头），不在请求线程时为null
+     */
+    public static String currentIp() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return null;
+        }
+        String ip = request.getHeader("X-Forwarded-For");
+        if (StringUtils.isNotBlank(ip) && !"unknown".equalsIgnoreCase(ip)) {
+            int comma = ip.indexOf(',');
+            return comma > 0 ? ip.substring(0, comma).trim() : ip.trim();
+        }
+        ip = request.getHeader("X-Real-IP");
+        if (StringUtils.isNotBlank(ip) && !"unknown".equalsIgnoreCase(ip)) {
+            return ip.trim();
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * 当前请求的User-Agent
+     */
+    public static String currentUserAgent() {
+        HttpServletRequest request = currentRequest();
+        return request != null ? request.getHeader("User-Agent") : null;
+    }
+
+    /**
+     * 访客标识：登录用户为 u:用户ID，匿名访问为 ip:IP
+     */
+    public static String visitorId(Long userId, String ip) {
+        if (userId != null) {
+            return "u:" + userId;
+        }
+        return StringUtils.isNotBlank(ip) ? "ip:" + ip : null;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest();
+        }
+        return null;
+    }
+}
@@ -13,4 +13,5 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class AsyncConfig {
     // Spring Boot 会自动配置默认的异步执行器
+    // 定时任务线程池大小见 spring.task.scheduling.pool.size，默认单线程时一个慢任务会拖住所有定时任务
 }
@@ -1,14 +1,17 @@
 package com.cemetery.web.config;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.cemetery.common.config.CacheConfig;
+import com.cemetery.service.cache.CacheInvalidationListener;
+import com.cemetery.service.cache.serializer.CacheClassRegistry;
+import com.cemetery.service.cache.serializer.CacheSerializerFactory;
+import com.cemetery.service.live.MemorialLiveFeedManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -17,18 +20,24 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+    /**
+     * 缓存类型注册表（紧凑格式下用短ID代替类名）
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public CacheClassRegistry cacheClassRegistry() {
+        return CacheClassRegistry.createDefault();
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       CacheConfig cacheConfig,
+                                                       CacheClassRegistry cacheClassRegistry) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        // 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值
-        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
-
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-        serializer.setObjectMapper(mapper);
+        // value序列化器：可读取JSON和紧凑二进制两种格式，写入格式由 cache.redis.serializer-mode 决定
+        RedisSerializer<Object> serializer = CacheSerializerFactory.createCompactSerializer(cacheClassRegistry,
+                cacheConfig.getSerializerMode(), cacheConfig.getCompressionThreshold(), cacheConfig.getCompressionCodec());
 
         // 使用StringRedisSerializer来序列化和反序列化redis的key值
         StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
@@ -37,12 +46,26 @@ public class RedisConfig {
         template.setKeySerializer(stringRedisSerializer);
         // hash的key也采用String的序列化方式
         template.setHashKeySerializer(stringRedisSerializer);
-        // value序列化方式采用jackson
+        // value序列化方式
         template.setValueSerializer(serializer);
-        // hash的value序列化方式采用jackson
+        // hash的value序列化方式
         template.setHashValueSerializer(serializer);
         
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Redis消息监听容器（订阅本地缓存失效广播）
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CacheInvalidationListener invalidationListener,
+                                                                       MemorialLiveFeedManager liveFeedManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationListener, new ChannelTopic(invalidationListener.getChannel()));
+        container.addMessageListener(liveFeedManager, new ChannelTopic(liveFeedManager.getChannel()));
+        return container;
+    }
 }
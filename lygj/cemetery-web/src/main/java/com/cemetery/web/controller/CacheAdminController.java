@@ -0,0 +1,77 @@
+package com.cemetery.web.controller;
+
+import com.cemetery.common.annotation.RequireRole;
+import com.cemetery.common.result.Result;
+import com.cemetery.service.CacheService;
+import com.cemetery.service.cache.BloomFilterManager;
+import com.cemetery.service.cache.BloomFilterStats;
+import com.cemetery.service.cache.CachePrefixStats;
+import com.cemetery.service.cache.HotKeyDetector;
+import com.cemetery.service.cache.HotKeyInfo;
+import com.cemetery.service.cache.serializer.CacheClassRegistry;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存管理接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Api(tags = "缓存管理")
+public class CacheAdminController {
+
+    private final CacheClassRegistry cacheClassRegistry;
+    private final BloomFilterManager bloomFilterManager;
+    private final HotKeyDetector hotKeyDetector;
+    private final CacheService cacheService;
+
+    @GetMapping("/serializer/registry")
+    @RequireRole({"ADMIN"})
+    @ApiOperation(value = "缓存类型注册表", notes = "紧凑格式下已注册的类型ID")
+    public Result<Map<String, String>> getClassRegistry() {
+        return Result.success(cacheClassRegistry.describe());
+    }
+
+    @GetMapping("/bloom")
+    @RequireRole({"ADMIN"})
+    @ApiOperation(value = "布隆过滤器状态", notes = "各实体布隆过滤器的代数、容量、饱和度和估算误判率")
+    public Result<List<BloomFilterStats>> getBloomFilterStats() {
+        return Result.success(bloomFilterManager.getStats());
+    }
+
+    @PostMapping("/bloom/{name}/rebuild")
+    @RequireRole({"ADMIN"})
+    @ApiOperation(value = "重建布隆过滤器", notes = "从数据库重建新一代并切换，其他节点正在重建时返回false")
+    public Result<Boolean> rebuildBloomFilter(
+            @ApiParam(value = "名称", required = true, example = "memorial") @PathVariable String name) {
+        log.info("重建布隆过滤器, name={}", name);
+
+        return Result.success(bloomFilterManager.rebuild(name));
+    }
+
+    @GetMapping("/stats")
+    @RequireRole({"ADMIN"})
+    @ApiOperation(value = "缓存指标排行", notes = "按key前缀汇总的命中率、回源耗时、Redis耗时、值大小和异常，按指定指标倒序；完整时序数据见actuator的metrics/prometheus端点")
+    public Result<List<CachePrefixStats>> getCacheStats(
+            @ApiParam(value = "排序字段：miss, missRate, loadTime, redisLatency, valueSize, error", example = "missRate")
+            @RequestParam(defaultValue = "missRate") String sort,
+            @ApiParam(value = "返回数量", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+        return Result.success(cacheService.getTopPrefixes(sort, limit));
+    }
+
+    @GetMapping("/hot-keys")
+    @RequireRole({"ADMIN"})
+    @ApiOperation(value = "热点key列表", notes = "当前被判定为热点并在本地保留副本的缓存key，按窗口内访问次数倒序")
+    public Result<List<HotKeyInfo>> getHotKeys() {
+        return Result.success(hotKeyDetector.getHotKeys());
+    }
+}
@@ -2,6 +2,7 @@ package com.cemetery.web.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cemetery.common.annotation.RequireRole;
+import com.cemetery.common.exception.BusinessException;
 import com.cemetery.common.result.Result;
 import com.cemetery.domain.dto.DigitalMemorialDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
@@ -13,8 +14,10 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -166,6 +169,23 @@ public class DigitalMemorialController {
         return Result.success();
     }
 
+    @GetMapping(value = "/{id}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "订阅实时推送", notes = "SSE长连接，推送新留言（message）和点烛、献花、上香汇总（interaction）事件；断线重连时携带Last-Event-ID补发")
+    public SseEmitter subscribeLiveFeed(
+            @ApiParam("纪念空间ID") @PathVariable Long id,
+            @ApiParam(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @ApiParam("最后收到的事件ID（无法设置请求头时使用）") @RequestParam(required = false) Long lastEventId,
+            @ApiParam("访问密码（如需要）") @RequestParam(required = false) String password) {
+        Long resumeFrom = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        log.info("订阅实时推送, memorialId={}, lastEventId={}", id, resumeFrom);
+        
+        // 验证访问权限（与详情接口一致），未通过不建立连接
+        if (!memorialService.verifyAccess(id, password)) {
+            throw new BusinessException("访问权限验证失败");
+        }
+        return memorialService.subscribeLiveFeed(id, resumeFrom);
+    }
+
     @GetMapping("/popular")
     @ApiOperation("获取热门纪念空间")
     public Result<List<DigitalMemorialVO>> getPopularMemorials(
@@ -2,9 +2,12 @@ package com.cemetery.web.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cemetery.common.annotation.RequireRole;
+import com.cemetery.common.result.CursorPageResult;
 import com.cemetery.common.result.Result;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.MemorialContentDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
+import com.cemetery.domain.vo.BatchOperationVO;
 import com.cemetery.domain.vo.MemorialContentVO;
 import com.cemetery.service.MemorialContentService;
 import io.swagger.annotations.Api;
@@ -93,6 +96,20 @@ public class MemorialContentController {
         return Result.success(contentPage);
     }
 
+    @GetMapping("/memorial/{memorialId}/cursor")
+    @ApiOperation(value = "游标分页查询纪念空间内容", notes = "按创建时间倒序翻页，不返回总数；首页不传cursor，之后传上一页返回的nextCursor")
+    public Result<CursorPageResult<MemorialContentVO>> cursorMemorialContents(
+            @ApiParam(value = "纪念空间ID", required = true) @PathVariable Long memorialId,
+            @ApiParam(value = "内容类型：1-文本，2-图片，3-视频，4-音频，5-文档") @RequestParam(required = false) Integer contentType,
+            @Validated CursorQueryDTO cursorQueryDTO) {
+        log.info("游标分页查询纪念空间内容, memorialId={}, contentType={}, cursor={}",
+                memorialId, contentType, cursorQueryDTO.getCursor());
+
+        CursorPageResult<MemorialContentVO> contentPage =
+                contentService.cursorMemorialContents(memorialId, contentType, cursorQueryDTO);
+        return Result.success(contentPage);
+    }
+
     @GetMapping("/memorial/{memorialId}/featured")
     @ApiOperation(value = "获取精选内容", notes = "获取标记为精选展示的内容")
     public Result<List<MemorialContentVO>> getFeaturedContents(
@@ -149,11 +166,11 @@ public class MemorialContentController {
     @PostMapping("/batch-delete")
     @RequireRole({"ADMIN", "SERVICE"})
     @ApiOperation(value = "批量删除内容", notes = "批量删除多个内容")
-    public Result<Void> batchDeleteContents(
+    public Result<BatchOperationVO> batchDeleteContents(
             @ApiParam(value = "内容ID列表", required = true) @RequestBody List<Long> ids) {
-        log.info("批量删除内容, ids={}", ids);
+        log.info("批量删除内容, count={}", ids.size());
         
-        contentService.batchDeleteContents(ids);
-        return Result.success();
+        BatchOperationVO result = contentService.batchDeleteContents(ids);
+        return Result.success(result);
     }
 }
@@ -2,9 +2,12 @@ package com.cemetery.web.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.cemetery.common.annotation.RequireRole;
+import com.cemetery.common.result.CursorPageResult;
 import com.cemetery.common.result.Result;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.MemorialMessageDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
+import com.cemetery.domain.vo.BatchOperationVO;
 import com.cemetery.domain.vo.MemorialMessageVO;
 import com.cemetery.service.MemorialMessageService;
 import io.swagger.annotations.Api;
@@ -16,6 +19,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 追思留言管理接口
@@ -79,6 +83,16 @@ public class MemorialMessageController {
         return Result.success(messages);
     }
 
+    @GetMapping("/memorial/{memorialId}/pinned")
+    @ApiOperation(value = "获取纪念空间的置顶留言", notes = "获取指定纪念空间审核通过的置顶留言")
+    public Result<List<MemorialMessageVO>> getPinnedMessages(
+            @ApiParam(value = "纪念空间ID", required = true) @PathVariable Long memorialId) {
+        log.info("获取置顶留言, memorialId={}", memorialId);
+
+        List<MemorialMessageVO> messages = messageService.getPinnedMessages(memorialId);
+        return Result.success(messages);
+    }
+
     @GetMapping("/memorial/{memorialId}/page")
     @ApiOperation(value = "分页查询留言", notes = "分页查询指定纪念空间的留言")
     public Result<Page<MemorialMessageVO>> pageMemorialMessages(
@@ -92,6 +106,20 @@ public class MemorialMessageController {
         return Result.success(messagePage);
     }
 
+    @GetMapping("/memorial/{memorialId}/cursor")
+    @ApiOperation(value = "游标分页查询留言", notes = "按创建时间倒序翻页，不返回总数；首页不传cursor，之后传上一页返回的nextCursor")
+    public Result<CursorPageResult<MemorialMessageVO>> cursorMemorialMessages(
+            @ApiParam(value = "纪念空间ID", required = true) @PathVariable Long memorialId,
+            @ApiParam(value = "留言类型：1-普通留言，2-祭日留言，3-纪念日留言") @RequestParam(required = false) Integer messageType,
+            @Validated CursorQueryDTO cursorQueryDTO) {
+        log.info("游标分页查询留言, memorialId={}, messageType={}, cursor={}",
+                memorialId, messageType, cursorQueryDTO.getCursor());
+
+        CursorPageResult<MemorialMessageVO> messagePage =
+                messageService.cursorMemorialMessages(memorialId, messageType, cursorQueryDTO);
+        return Result.success(messagePage);
+    }
+
     @GetMapping("/{id}/replies")
     @ApiOperation(value = "获取留言的所有回复", notes = "获取指定留言的所有回复（树形结构）")
     public Result<List<MemorialMessageVO>> getMessageReplies(
@@ -103,12 +131,29 @@ public class MemorialMessageController {
     }
 
     @PostMapping("/{id}/like")
-    @ApiOperation(value = "点赞留言", notes = "为留言点赞")
-    public Result<Void> likeMessage(@ApiParam(value = "留言ID", required = true) @PathVariable Long id) {
+    @ApiOperation(value = "点赞留言", notes = "为留言点赞，同一用户（匿名按IP）重复点赞不重复计数，返回当前点赞数")
+    public Result<Integer> likeMessage(@ApiParam(value = "留言ID", required = true) @PathVariable Long id) {
         log.info("点赞留言, messageId={}", id);
         
-        messageService.likeMessage(id);
-        return Result.success();
+        Integer likeCount = messageService.likeMessage(id);
+        return Result.success(likeCount);
+    }
+
+    @DeleteMapping("/{id}/like")
+    @ApiOperation(value = "取消点赞留言", notes = "取消当前用户对留言的点赞，返回当前点赞数")
+    public Result<Integer> unlikeMessage(@ApiParam(value = "留言ID", required = true) @PathVariable Long id) {
+        log.info("取消点赞留言, messageId={}", id);
+
+        Integer likeCount = messageService.unlikeMessage(id);
+        return Result.success(likeCount);
+    }
+
+    @PostMapping("/liked")
+    @ApiOperation(value = "批量查询点赞状态", notes = "查询当前用户是否点赞过一页留言，一次调用返回全部结果")
+    public Result<Map<Long, Boolean>> getLikedStatus(
+            @ApiParam(value = "留言ID列表", required = true) @RequestBody List<Long> ids) {
+        Map<Long, Boolean> likedStatus = messageService.getLikedStatus(ids);
+        return Result.success(likedStatus);
     }
 
     @PostMapping("/{id}/pin")
@@ -167,23 +212,24 @@ public class MemorialMessageController {
     @PostMapping("/batch-delete")
     @RequireRole({"ADMIN", "SERVICE"})
     @ApiOperation(value = "批量删除留言", notes = "批量删除多条留言及其回复")
-    public Result<Void> batchDeleteMessages(
+    public Result<BatchOperationVO> batchDeleteMessages(
             @ApiParam(value = "留言ID列表", required = true) @RequestBody List<Long> ids) {
-        log.info("批量删除留言, ids={}", ids);
+        log.info("批量删除留言, count={}", ids.size());
         
-        messageService.batchDeleteMessages(ids);
-        return Result.success();
+        BatchOperationVO result = messageService.batchDeleteMessages(ids);
+        return Result.success(result);
     }
 
     @PostMapping("/batch-audit")
     @RequireRole({"ADMIN", "SERVICE"})
     @ApiOperation(value = "批量审核留言", notes = "批量审核多条留言")
-    public Result<Void> batchAuditMessages(
+    public Result<BatchOperationVO> batchAuditMessages(
             @ApiParam(value = "留言ID列表", required = true) @RequestBody List<Long> ids,
-            @ApiParam(value = "审核状态：1-通过，2-拒绝", required = true) @RequestParam Integer status) {
-        log.info("批量审核留言, ids={}, status={}", ids, status);
+            @ApiParam(value = "审核状态：1-通过，2-拒绝", required = true) @RequestParam Integer status,
+            @ApiParam(value = "审核备注") @RequestParam(required = false) String remark) {
+        log.info("批量审核留言, count={}, status={}, remark={}", ids.size(), status, remark);
         
-        messageService.batchAuditMessages(ids, status);
-        return Result.success();
+        BatchOperationVO result = messageService.batchAuditMessages(ids, status, remark);
+        return Result.success(result);
     }
 }
@@ -1,5 +1,6 @@
 package com.cemetery.web.controller;
 
+import com.cemetery.common.annotation.RequireRole;
 import com.cemetery.common.result.Result;
 import com.cemetery.domain.dto.MemorialSearchDTO;
 import com.cemetery.service.MemorialSearchService;
@@ -126,12 +127,21 @@ public class MemorialSearchController {
     }
 
     @PostMapping("/index/rebuild")
-    @ApiOperation(value = "重建索引", notes = "重建所有纪念空间的搜索索引")
-    public Result<Void> rebuildIndex() {
+    @RequireRole({"ADMIN", "SERVICE"})
+    @ApiOperation(value = "重建索引", notes = "后台导入新版本索引后原子切换别名，重建期间搜索不受影响，立即返回重建进度")
+    public Result<Map<String, Object>> rebuildIndex() {
         log.info("开始重建搜索索引");
         
-        searchService.rebuildIndex();
-        return Result.success();
+        Map<String, Object> progress = searchService.rebuildIndex();
+        return Result.success(progress);
+    }
+
+    @GetMapping("/index/rebuild/progress")
+    @RequireRole({"ADMIN", "SERVICE"})
+    @ApiOperation(value = "查询索引重建进度", notes = "返回状态、已导入数量、每秒导入文档数和完成百分比")
+    public Result<Map<String, Object>> getRebuildProgress() {
+        Map<String, Object> progress = searchService.getRebuildProgress();
+        return Result.success(progress);
     }
 
     @GetMapping("/advanced")
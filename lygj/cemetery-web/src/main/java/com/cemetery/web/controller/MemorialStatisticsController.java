@@ -8,9 +8,15 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -152,7 +158,7 @@ public class MemorialStatisticsController {
 
     @GetMapping("/export")
     @RequireRole({"ADMIN", "SERVICE"})
-    @ApiOperation(value = "导出统计报表", notes = "导出Excel格式的统计报表")
+    @ApiOperation(value = "导出统计报表", notes = "异步导出Excel格式的统计报表，返回导出任务ID")
     public Result<String> exportStatistics(
             @ApiParam(value = "报表类型：overview-概况，visit-访问，interaction-互动，message-留言", 
                       required = true) 
@@ -164,8 +170,36 @@ public class MemorialStatisticsController {
             @ApiParam(value = "纪念空间ID") @RequestParam(required = false) Long memorialId) {
         log.info("导出统计报表, reportType={}, startDate={}, endDate={}", reportType, startDate, endDate);
         
-        String fileUrl = statisticsService.exportStatistics(reportType, startDate, endDate, memorialId);
-        return Result.success(fileUrl);
+        String taskId = statisticsService.exportStatistics(reportType, startDate, endDate, memorialId);
+        return Result.success(taskId);
+    }
+
+    @GetMapping("/export/{taskId}")
+    @RequireRole({"ADMIN", "SERVICE"})
+    @ApiOperation(value = "查询导出任务", notes = "查询导出任务的状态、已写入行数，完成后通过下载接口获取文件")
+    public Result<Map<String, Object>> getExportTask(
+            @ApiParam(value = "导出任务ID", required = true) @PathVariable String taskId) {
+        Map<String, Object> task = statisticsService.getExportTask(taskId);
+        return Result.success(task);
+    }
+
+    @GetMapping("/export/{taskId}/file")
+    @RequireRole({"ADMIN", "SERVICE"})
+    @ApiOperation(value = "下载导出文件", notes = "下载已完成导出任务的Excel文件")
+    public ResponseEntity<Resource> downloadExportFile(
+            @ApiParam(value = "导出任务ID", required = true) @PathVariable String taskId) {
+        Resource file = statisticsService.getExportFile(taskId);
+        log.info("下载导出文件, taskId={}, file={}", taskId, file.getFilename());
+
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(file.getFilename(), StandardCharsets.UTF_8)
+                .build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .contentType(MediaType.parseMediaType(
+                        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(file);
     }
 
     @GetMapping("/real-time")
@@ -1,7 +1,9 @@
 package com.cemetery.web.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.result.CursorPageResult;
 import com.cemetery.common.result.Result;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.dto.ServiceOrderDTO;
 import com.cemetery.domain.enums.OrderStatusEnum;
@@ -65,6 +67,13 @@ public class OrderController {
         return Result.success(page);
     }
 
+    @ApiOperation("游标分页查询订单列表")
+    @PostMapping("/cursor")
+    public Result<CursorPageResult<ServiceOrderVO>> cursorOrders(@RequestBody CursorQueryDTO cursorQueryDTO) {
+        CursorPageResult<ServiceOrderVO> page = orderService.cursorOrders(cursorQueryDTO);
+        return Result.success(page);
+    }
+
     @ApiOperation("根据订单编号查询")
     @GetMapping("/order-no/{orderNo}")
     public Result<ServiceOrderVO> getOrderByOrderNo(@PathVariable String orderNo) {
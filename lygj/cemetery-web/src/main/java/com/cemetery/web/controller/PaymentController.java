@@ -1,7 +1,9 @@
 package com.cemetery.web.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.cemetery.common.result.CursorPageResult;
 import com.cemetery.common.result.Result;
+import com.cemetery.domain.dto.CursorQueryDTO;
 import com.cemetery.domain.dto.PageQueryDTO;
 import com.cemetery.domain.dto.PaymentRecordDTO;
 import com.cemetery.domain.enums.PaymentStatusEnum;
@@ -47,6 +49,13 @@ public class PaymentController {
         return Result.success(page);
     }
 
+    @ApiOperation("游标分页查询支付记录列表")
+    @PostMapping("/cursor")
+    public Result<CursorPageResult<PaymentRecordVO>> cursorPayments(@RequestBody CursorQueryDTO cursorQueryDTO) {
+        CursorPageResult<PaymentRecordVO> page = paymentService.cursorPayments(cursorQueryDTO);
+        return Result.success(page);
+    }
+
     @ApiOperation("根据订单ID查询支付记录列表")
     @GetMapping("/order/{orderId}")
     public Result<List<PaymentRecordVO>> getPaymentsByOrderId(@PathVariable Long orderId) {
@@ -0,0 +1,47 @@
+package com.cemetery.web.task;
+
+import com.cemetery.service.cache.BloomFilterManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 布隆过滤器轮换定时任务
+ * 类比：像定期换新的登记簿，旧簿写满或记了太多已注销的名字时，照着档案重抄一本新的再换上
+ */
+@Component
+public class BloomFilterRotateTask {
+
+    private static final Logger log = LoggerFactory.getLogger(BloomFilterRotateTask.class);
+
+    private final BloomFilterManager bloomFilterManager;
+
+    public BloomFilterRotateTask(BloomFilterManager bloomFilterManager) {
+        this.bloomFilterManager = bloomFilterManager;
+    }
+
+    /**
+     * 刷新代数，饱和度达到阈值时轮换（默认每分钟）
+     */
+    @Scheduled(fixedDelayString = "${cache.redis.bloom-filter-check-interval-ms:60000}")
+    public void checkRotation() {
+        try {
+            bloomFilterManager.checkRotation();
+        } catch (Exception e) {
+            log.error("布隆过滤器轮换检查任务异常", e);
+        }
+    }
+
+    /**
+     * 每天凌晨4点重建，剔除已删除实体的ID
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void rebuild() {
+        try {
+            bloomFilterManager.rebuild(BloomFilterManager.MEMORIAL);
+        } catch (Exception e) {
+            log.error("布隆过滤器重建任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.cemetery.web.task;
+
+import com.cemetery.service.CacheService;
+import com.cemetery.service.cache.BloomFilterManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动缓存预热
+ * ApplicationRunner 在应用就绪（readiness=ACCEPTING_TRAFFIC）之前同步执行，
+ * 预热完成或超时后实例才会被负载均衡摘入，避免发布后第一波请求直接打到数据库
+ */
+@Component
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmupRunner.class);
+
+    private final CacheService cacheService;
+    private final BloomFilterManager bloomFilterManager;
+
+    public CacheWarmupRunner(CacheService cacheService, BloomFilterManager bloomFilterManager) {
+        this.cacheService = cacheService;
+        this.bloomFilterManager = bloomFilterManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // 先加载布隆过滤器（首次部署时从数据库构建），预热时的详情查询会经过它
+        try {
+            bloomFilterManager.initialize();
+        } catch (Exception e) {
+            log.error("布隆过滤器初始化异常", e);
+        }
+
+        try {
+            cacheService.preloadCache();
+        } catch (Exception e) {
+            // 预热失败不影响启动
+            log.error("启动缓存预热异常", e);
+        }
+    }
+}
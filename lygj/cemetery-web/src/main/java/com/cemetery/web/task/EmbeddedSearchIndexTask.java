@@ -0,0 +1,41 @@
+package com.cemetery.web.task;
+
+import com.cemetery.service.search.EmbeddedMemorialIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 嵌入式搜索索引定时任务（按发件箱追踪变更、刷新可见性、定期提交）
+ * 类比：像各家自己订的报纸，每天按期号往后翻着看，不用等邮局挨家送；出差回来发现缺了太多期，就把合订本整本换掉
+ */
+@Component
+public class EmbeddedSearchIndexTask {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedSearchIndexTask.class);
+
+    private final EmbeddedMemorialIndex embeddedIndex;
+
+    public EmbeddedSearchIndexTask(EmbeddedMemorialIndex embeddedIndex) {
+        this.embeddedIndex = embeddedIndex;
+    }
+
+    /**
+     * 追踪发件箱写入本机索引（默认每秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.embedded-search.refresh-interval-ms:1000}")
+    public void tail() {
+        if (!embeddedIndex.isEnabled()) {
+            return;
+        }
+        try {
+            int count = embeddedIndex.tail();
+            if (count > 0) {
+                log.debug("嵌入式搜索索引追踪变更, memorials={}", count);
+            }
+        } catch (Exception e) {
+            log.error("嵌入式搜索索引任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.MemorialCounterConfig;
+import com.cemetery.service.counter.MemorialCounterManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间互动计数回写定时任务
+ * 类比：像收银台定时把零钱交到保险柜，再由财务统一入账，而不是每收一笔都跑一趟银行
+ */
+@Component
+public class MemorialCounterFlushTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MemorialCounterFlushTask.class);
+
+    private final MemorialCounterManager counterManager;
+    private final MemorialCounterConfig counterConfig;
+
+    public MemorialCounterFlushTask(MemorialCounterManager counterManager, MemorialCounterConfig counterConfig) {
+        this.counterManager = counterManager;
+        this.counterConfig = counterConfig;
+    }
+
+    /**
+     * 本地增量同步到Redis（默认每秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.counter.drain-interval-ms:1000}")
+    public void drain() {
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            return;
+        }
+        try {
+            counterManager.drainToRedis();
+        } catch (Exception e) {
+            log.error("互动计数同步任务异常", e);
+        }
+    }
+
+    /**
+     * Redis增量批量回写MySQL（默认每10秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.counter.flush-interval-ms:10000}")
+    public void flush() {
+        if (!Boolean.TRUE.equals(counterConfig.getEnabled())) {
+            return;
+        }
+        try {
+            counterManager.flushToDatabase();
+        } catch (Exception e) {
+            log.error("互动计数回写任务异常", e);
+        }
+    }
+
+    /**
+     * 每天凌晨3点清理过期的回写批次记录
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void purgeFlushLog() {
+        try {
+            counterManager.purgeFlushLog();
+        } catch (Exception e) {
+            log.error("清理计数回写批次记录任务异常", e);
+        }
+    }
+}
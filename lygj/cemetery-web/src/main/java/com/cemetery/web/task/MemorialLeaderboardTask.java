@@ -0,0 +1,42 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.MemorialLeaderboardConfig;
+import com.cemetery.service.leaderboard.MemorialLeaderboardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间排行榜重建定时任务
+ * 类比：像光荣榜平时随时往上加分，每晚闭馆后再对照账本重新誊一遍，白天积累的小误差当晚清零
+ */
+@Component
+public class MemorialLeaderboardTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MemorialLeaderboardTask.class);
+
+    private final MemorialLeaderboardManager leaderboardManager;
+    private final MemorialLeaderboardConfig leaderboardConfig;
+
+    public MemorialLeaderboardTask(MemorialLeaderboardManager leaderboardManager,
+                                   MemorialLeaderboardConfig leaderboardConfig) {
+        this.leaderboardManager = leaderboardManager;
+        this.leaderboardConfig = leaderboardConfig;
+    }
+
+    /**
+     * 每天凌晨3点40分按数据库计数重建总榜
+     */
+    @Scheduled(cron = "0 40 3 * * ?")
+    public void rebuild() {
+        if (!Boolean.TRUE.equals(leaderboardConfig.getEnabled())) {
+            return;
+        }
+        try {
+            leaderboardManager.rebuild();
+        } catch (Exception e) {
+            log.error("排行榜重建任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.LiveFeedConfig;
+import com.cemetery.service.live.MemorialLiveFeedManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间实时推送定时任务（互动事件合并发布、连接心跳）
+ * 类比：像追思会的司仪每隔一会儿通报一次“又有多少人献了花”，而不是每献一朵都打断一次
+ */
+@Component
+public class MemorialLiveFeedTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MemorialLiveFeedTask.class);
+
+    private final MemorialLiveFeedManager liveFeedManager;
+    private final LiveFeedConfig liveConfig;
+
+    public MemorialLiveFeedTask(MemorialLiveFeedManager liveFeedManager, LiveFeedConfig liveConfig) {
+        this.liveFeedManager = liveFeedManager;
+        this.liveConfig = liveConfig;
+    }
+
+    /**
+     * 发布合并后的点烛、献花、上香事件（默认每秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.live.interaction-flush-ms:1000}")
+    public void flushInteractions() {
+        if (!Boolean.TRUE.equals(liveConfig.getEnabled())) {
+            return;
+        }
+        try {
+            liveFeedManager.flushInteractions();
+        } catch (Exception e) {
+            log.error("实时推送互动事件发布任务异常", e);
+        }
+    }
+
+    /**
+     * 向本节点连接发送心跳（默认每15秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.live.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (!Boolean.TRUE.equals(liveConfig.getEnabled())) {
+            return;
+        }
+        try {
+            liveFeedManager.heartbeat();
+        } catch (Exception e) {
+            log.error("实时推送心跳任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.SearchIndexConfig;
+import com.cemetery.service.search.MemorialIndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间搜索索引同步定时任务（发件箱投递、已完成记录清理）
+ * 类比：像邮局的投递员每隔一会儿清空一次发件箱，同一地址的信合在一起送，送不到的过一阵再送
+ */
+@Component
+public class MemorialSearchIndexTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MemorialSearchIndexTask.class);
+
+    private final MemorialIndexManager indexManager;
+    private final SearchIndexConfig indexConfig;
+
+    public MemorialSearchIndexTask(MemorialIndexManager indexManager, SearchIndexConfig indexConfig) {
+        this.indexManager = indexManager;
+        this.indexConfig = indexConfig;
+    }
+
+    /**
+     * 发件箱记录写入Elasticsearch（默认每秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.search-index.relay-interval-ms:1000}")
+    public void relay() {
+        if (!Boolean.TRUE.equals(indexConfig.getEnabled())) {
+            return;
+        }
+        try {
+            indexManager.relay();
+        } catch (Exception e) {
+            log.error("搜索索引同步任务异常", e);
+        }
+    }
+
+    /**
+     * 清理已完成的发件箱记录（每天凌晨3点50分）
+     */
+    @Scheduled(cron = "0 50 3 * * ?")
+    public void cleanup() {
+        try {
+            int deleted = indexManager.cleanup();
+            log.info("清理搜索索引发件箱完成, deleted={}", deleted);
+        } catch (Exception e) {
+            log.error("清理搜索索引发件箱任务异常", e);
+        }
+    }
+}
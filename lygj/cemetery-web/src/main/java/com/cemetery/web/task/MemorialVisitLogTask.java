@@ -0,0 +1,60 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.MemorialVisitLogConfig;
+import com.cemetery.service.visit.MemorialVisitLogManager;
+import com.cemetery.service.visit.UniqueVisitorManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 纪念空间访问日志写入定时任务
+ * 类比：像访客登记簿先记在前台便签上，值班员定时整页誊抄进档案，访客不用排队等誊抄
+ */
+@Component
+public class MemorialVisitLogTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MemorialVisitLogTask.class);
+
+    private final MemorialVisitLogManager visitLogManager;
+    private final UniqueVisitorManager uniqueVisitorManager;
+    private final MemorialVisitLogConfig visitLogConfig;
+
+    public MemorialVisitLogTask(MemorialVisitLogManager visitLogManager, UniqueVisitorManager uniqueVisitorManager,
+                                MemorialVisitLogConfig visitLogConfig) {
+        this.visitLogManager = visitLogManager;
+        this.uniqueVisitorManager = uniqueVisitorManager;
+        this.visitLogConfig = visitLogConfig;
+    }
+
+    /**
+     * 缓冲区访问记录批量写入数据库（默认每秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.visit-log.flush-interval-ms:1000}")
+    public void flush() {
+        if (!Boolean.TRUE.equals(visitLogConfig.getEnabled())) {
+            return;
+        }
+        try {
+            visitLogManager.flush();
+        } catch (Exception e) {
+            log.error("访问记录写入任务异常", e);
+        }
+    }
+
+    /**
+     * 每天凌晨0点10分将前一天的独立访客合并进每周、每月统计
+     */
+    @Scheduled(cron = "0 10 0 * * ?")
+    public void mergeUniqueVisitors() {
+        if (!Boolean.TRUE.equals(visitLogConfig.getUvEnabled())) {
+            return;
+        }
+        try {
+            uniqueVisitorManager.mergeRollups();
+        } catch (Exception e) {
+            log.error("独立访客合并任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.MessageLikeConfig;
+import com.cemetery.service.like.MessageLikeManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 留言点赞数回写定时任务
+ * 类比：像投票箱攒一阵再统一唱票，而不是每投一票都把计票板摘下来改完再挂回去
+ */
+@Component
+public class MessageLikeFlushTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageLikeFlushTask.class);
+
+    private final MessageLikeManager likeManager;
+    private final MessageLikeConfig likeConfig;
+
+    public MessageLikeFlushTask(MessageLikeManager likeManager, MessageLikeConfig likeConfig) {
+        this.likeManager = likeManager;
+        this.likeConfig = likeConfig;
+    }
+
+    /**
+     * 本地点赞数增量回写MySQL（默认每3秒）
+     */
+    @Scheduled(fixedDelayString = "${memorial.message-like.flush-interval-ms:3000}")
+    public void flush() {
+        if (!Boolean.TRUE.equals(likeConfig.getEnabled())) {
+            return;
+        }
+        try {
+            likeManager.flush();
+        } catch (Exception e) {
+            log.error("点赞数回写任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.MessageModerationConfig;
+import com.cemetery.service.moderation.MessageModerationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 留言自动审核定时任务（敏感词表热加载、超时留言补审）
+ * 类比：像门岗定期领取最新的访客黑名单，并把漏登记的访客重新叫回来核对一遍
+ */
+@Component
+public class MessageModerationTask {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageModerationTask.class);
+
+    private final MessageModerationManager moderationManager;
+    private final MessageModerationConfig moderationConfig;
+
+    public MessageModerationTask(MessageModerationManager moderationManager,
+                                 MessageModerationConfig moderationConfig) {
+        this.moderationManager = moderationManager;
+        this.moderationConfig = moderationConfig;
+    }
+
+    /**
+     * 检查敏感词表是否变更（默认每分钟）
+     */
+    @Scheduled(fixedDelayString = "${memorial.moderation.reload-interval-ms:60000}")
+    public void reloadWords() {
+        if (!Boolean.TRUE.equals(moderationConfig.getEnabled())) {
+            return;
+        }
+        try {
+            moderationManager.reloadWords();
+        } catch (Exception e) {
+            log.error("敏感词表热加载任务异常", e);
+        }
+    }
+
+    /**
+     * 重新提交超时未自动审核的留言（默认每分钟）
+     */
+    @Scheduled(fixedDelayString = "${memorial.moderation.retry-interval-ms:60000}")
+    public void retryStale() {
+        if (!Boolean.TRUE.equals(moderationConfig.getEnabled())) {
+            return;
+        }
+        try {
+            moderationManager.retryStale();
+        } catch (Exception e) {
+            log.error("留言补审任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cemetery.web.task;
+
+import com.cemetery.common.config.RealTimeStatisticsConfig;
+import com.cemetery.service.realtime.RealTimeStatisticsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实时统计同步定时任务
+ * 类比：像各个入口的计数员每隔几秒向总台报一次数，总台汇总后挂在大屏上，看数的人只看大屏不去挨个问
+ */
+@Component
+public class RealTimeStatisticsTask {
+
+    private static final Logger log = LoggerFactory.getLogger(RealTimeStatisticsTask.class);
+
+    private final RealTimeStatisticsManager realTimeManager;
+    private final RealTimeStatisticsConfig realTimeConfig;
+
+    public RealTimeStatisticsTask(RealTimeStatisticsManager realTimeManager, RealTimeStatisticsConfig realTimeConfig) {
+        this.realTimeManager = realTimeManager;
+        this.realTimeConfig = realTimeConfig;
+    }
+
+    /**
+     * 同步本节点计数并汇总全部节点（默认每2秒）
+     */
+    @Scheduled(fixedDelayString = "${statistics.realtime.sync-interval-ms:2000}")
+    public void sync() {
+        if (!Boolean.TRUE.equals(realTimeConfig.getEnabled())) {
+            return;
+        }
+        try {
+            realTimeManager.sync();
+        } catch (Exception e) {
+            log.error("实时统计同步任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.cemetery.web.task;
+
+import com.cemetery.service.export.StatisticsExportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 导出文件清理定时任务
+ * 类比：像档案室的借阅复印件，过了取件期限就统一销毁，不在柜台上一直摆着
+ */
+@Component
+public class StatisticsExportCleanupTask {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsExportCleanupTask.class);
+
+    private final StatisticsExportManager exportManager;
+
+    public StatisticsExportCleanupTask(StatisticsExportManager exportManager) {
+        this.exportManager = exportManager;
+    }
+
+    /**
+     * 每小时第10分钟删除超过保留时间的导出文件
+     */
+    @Scheduled(cron = "0 10 * * * ?")
+    public void clean() {
+        try {
+            exportManager.cleanExpiredFiles();
+        } catch (Exception e) {
+            log.error("导出文件清理任务异常", e);
+        }
+    }
+}
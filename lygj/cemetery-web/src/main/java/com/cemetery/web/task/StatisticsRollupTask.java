@@ -0,0 +1,47 @@
+package com.cemetery.web.task;
+
+import com.cemetery.service.statistics.StatisticsRollupManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 统计汇总定时任务
+ * 类比：像门店每天记流水账、月底再盘一次库，报表直接看账本而不是每次去仓库清点
+ */
+@Component
+public class StatisticsRollupTask {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsRollupTask.class);
+
+    private final StatisticsRollupManager rollupManager;
+
+    public StatisticsRollupTask(StatisticsRollupManager rollupManager) {
+        this.rollupManager = rollupManager;
+    }
+
+    /**
+     * 本地增量写入汇总表（默认每5秒）
+     */
+    @Scheduled(fixedDelayString = "${statistics.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        try {
+            rollupManager.flush();
+        } catch (Exception e) {
+            log.error("统计增量写入任务异常", e);
+        }
+    }
+
+    /**
+     * 每天凌晨3点30分按源表对账
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void reconcile() {
+        try {
+            rollupManager.reconcile();
+        } catch (Exception e) {
+            log.error("统计汇总对账任务异常", e);
+        }
+    }
+}
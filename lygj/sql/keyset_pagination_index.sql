@@ -0,0 +1,31 @@
+-- ============================================
+-- 数字纪念空间 - 游标分页索引脚本
+-- 版本: 2.4.0
+-- 说明：留言、内容、订单、支付记录的游标分页按 (create_time, id) 倒序定位，
+--       WHERE 条件为 create_time < ? OR (create_time = ? AND id < ?)，不再查询总数。
+--       以下复合索引使每页只扫描 pageSize + 1 行，与翻到第几页无关。
+-- 依赖：schema.sql、digital_memorial_schema.sql
+-- ============================================
+
+USE cemetery_db;
+
+SET NAMES utf8mb4;
+SET CHARACTER SET utf8mb4;
+
+-- ============================================
+-- 1. 留言游标分页（按纪念空间、审核状态过滤）
+-- ============================================
+ALTER TABLE `memorial_message` ADD INDEX `idx_memorial_cursor` (`memorial_id`, `audit_status`, `create_time` DESC, `id` DESC);
+
+-- ============================================
+-- 2. 内容游标分页（按纪念空间过滤）
+-- ============================================
+ALTER TABLE `memorial_content` ADD INDEX `idx_memorial_cursor` (`memorial_id`, `create_time` DESC, `id` DESC);
+
+-- ============================================
+-- 3. 订单、支付记录游标分页
+-- ============================================
+ALTER TABLE `service_order` ADD INDEX `idx_cursor` (`create_time` DESC, `id` DESC);
+ALTER TABLE `payment_record` ADD INDEX `idx_cursor` (`create_time` DESC, `id` DESC);
+
+SELECT '✓ 游标分页索引创建完成！' AS status;
@@ -0,0 +1,25 @@
+-- ============================================
+-- 数字纪念空间 - 互动计数异步回写脚本
+-- 版本: 2.1.0
+-- 说明：访问/点烛/献花/上香计数先在应用内累加、同步到Redis，
+--       再由定时任务按批次以 UPDATE ... CASE 回写 digital_memorial。
+--       本表记录已回写的批次号，批次与计数更新在同一事务内提交，
+--       应用崩溃后重放同一批次时可据此跳过，避免重复累加。
+-- ============================================
+
+USE cemetery_db;
+
+SET NAMES utf8mb4;
+SET CHARACTER SET utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `memorial_counter_flush_log` (
+  `batch_no` VARCHAR(64) NOT NULL COMMENT '回写批次号',
+  `memorial_count` INT(11) DEFAULT 0 COMMENT '本批次涉及的纪念空间数量',
+  `flush_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '回写时间',
+  PRIMARY KEY (`batch_no`),
+  KEY `idx_flush_time` (`flush_time`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='互动计数回写批次记录表';
+
+SELECT '✓ 互动计数回写批次表创建完成！' AS status;
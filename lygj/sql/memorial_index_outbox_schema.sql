@@ -0,0 +1,33 @@
+-- ============================================
+-- 数字纪念空间 - 搜索索引同步发件箱脚本
+-- 版本: 2.5.0
+-- 说明：纪念空间新增、修改、发布、取消发布、删除（以及关联的逝者、墓位修改）时，
+--       在同一事务内写入一条发件箱记录；后台任务按ID顺序拉取待处理记录，
+--       同一纪念空间合并为一次写入，从数据库联表读取完整文档后通过 _bulk 写入Elasticsearch。
+--       失败的记录按指数退避重试，超过次数标记为失败，已完成记录定期清理。
+-- ============================================
+
+USE cemetery_db;
+
+SET NAMES utf8mb4;
+SET CHARACTER SET utf8mb4;
+
+CREATE TABLE IF NOT EXISTS `memorial_index_outbox` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `memorial_id` BIGINT(20) NOT NULL COMMENT '纪念空间ID',
+  `operation` VARCHAR(16) NOT NULL COMMENT '触发操作（UPSERT-新增或修改，DELETE-删除），实际写入以处理时的数据库状态为准',
+  `status` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '状态（0-待处理，1-已完成，2-失败）',
+  `retry_count` INT(11) NOT NULL DEFAULT 0 COMMENT '已重试次数',
+  `next_retry_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最早可处理时间',
+  `last_error` VARCHAR(500) DEFAULT NULL COMMENT '最近一次失败原因',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status_retry` (`status`, `next_retry_time`, `id`),
+  KEY `idx_memorial_id` (`memorial_id`),
+  KEY `idx_update_time` (`update_time`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='纪念空间搜索索引同步发件箱';
+
+SELECT '✓ 搜索索引同步发件箱表创建完成！' AS status;
@@ -0,0 +1,61 @@
+-- ============================================
+-- 数字纪念空间 - 访问日志时间序列脚本
+-- 版本: 2.3.0
+-- 说明：访问/点烛/献花/上香事件在请求线程只写入应用内环形缓冲区，
+--       由后台定时任务以多行 INSERT 批量写入 memorial_visit_log，
+--       并在同一事务内累加按小时、按天的分桶统计表。
+--       趋势接口只按时间范围查询分桶表，按年分区裁剪。
+--       memorial_id = 0 的行为全站合计。
+-- 依赖：digital_memorial_schema.sql 中的 memorial_visit_log 表
+-- ============================================
+
+USE cemetery_db;
+
+SET NAMES utf8mb4;
+SET CHARACTER SET utf8mb4;
+
+-- ============================================
+-- 1. 按小时分桶统计表（memorial_visit_stat_hourly）
+-- ============================================
+CREATE TABLE IF NOT EXISTS `memorial_visit_stat_hourly` (
+  `memorial_id` BIGINT(20) NOT NULL COMMENT '纪念空间ID（0表示全站）',
+  `stat_hour` DATETIME NOT NULL COMMENT '统计小时（整点）',
+  `visit_type` TINYINT(1) NOT NULL COMMENT '访问类型（1-浏览，2-点烛，3-献花，4-上香，5-留言）',
+  `visit_count` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '次数',
+  PRIMARY KEY (`memorial_id`, `stat_hour`, `visit_type`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='访问按小时分桶统计表'
+  PARTITION BY RANGE (YEAR(stat_hour)) (
+    PARTITION p2024 VALUES LESS THAN (2025),
+    PARTITION p2025 VALUES LESS THAN (2026),
+    PARTITION p2026 VALUES LESS THAN (2027),
+    PARTITION p2027 VALUES LESS THAN (2028),
+    PARTITION p2028 VALUES LESS THAN (2029),
+    PARTITION p2029 VALUES LESS THAN (2030),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+  );
+
+-- ============================================
+-- 2. 按天分桶统计表（memorial_visit_stat_daily）
+-- ============================================
+CREATE TABLE IF NOT EXISTS `memorial_visit_stat_daily` (
+  `memorial_id` BIGINT(20) NOT NULL COMMENT '纪念空间ID（0表示全站）',
+  `stat_date` DATE NOT NULL COMMENT '统计日期',
+  `visit_type` TINYINT(1) NOT NULL COMMENT '访问类型（1-浏览，2-点烛，3-献花，4-上香，5-留言）',
+  `visit_count` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '次数',
+  PRIMARY KEY (`memorial_id`, `stat_date`, `visit_type`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='访问按天分桶统计表'
+  PARTITION BY RANGE (YEAR(stat_date)) (
+    PARTITION p2024 VALUES LESS THAN (2025),
+    PARTITION p2025 VALUES LESS THAN (2026),
+    PARTITION p2026 VALUES LESS THAN (2027),
+    PARTITION p2027 VALUES LESS THAN (2028),
+    PARTITION p2028 VALUES LESS THAN (2029),
+    PARTITION p2029 VALUES LESS THAN (2030),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+  );
+
+SELECT '✓ 访问分桶统计表创建完成！' AS status;
@@ -0,0 +1,64 @@
+-- ============================================
+-- 数字纪念空间 - 统计汇总表脚本
+-- 版本: 2.2.0
+-- 说明：统计报表不再全表加载纪念空间/内容/留言后在内存中汇总，
+--       改为读取以下汇总表。写入链路在业务事务提交后累加增量，
+--       由定时任务批量 INSERT ... ON DUPLICATE KEY UPDATE 写入；
+--       互动计数随计数批次在同一事务内累加；每天凌晨按源表重算对账。
+-- 指标名：memorial_total, memorial_published, visit, candle, flower, incense,
+--         message_total, message_type_{类型}, content_total,
+--         content_type_{类型}, content_size_{类型}
+-- ============================================
+
+USE cemetery_db;
+
+SET NAMES utf8mb4;
+SET CHARACTER SET utf8mb4;
+
+-- ============================================
+-- 1. 全站汇总表（stat_global_summary）
+-- ============================================
+CREATE TABLE IF NOT EXISTS `stat_global_summary` (
+  `metric` VARCHAR(64) NOT NULL COMMENT '指标名',
+  `metric_value` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '指标值',
+  `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`metric`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='全站统计汇总表';
+
+-- ============================================
+-- 2. 纪念空间汇总表（stat_memorial_summary）
+-- ============================================
+CREATE TABLE IF NOT EXISTS `stat_memorial_summary` (
+  `memorial_id` BIGINT(20) NOT NULL COMMENT '纪念空间ID',
+  `metric` VARCHAR(64) NOT NULL COMMENT '指标名',
+  `metric_value` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '指标值',
+  `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`memorial_id`, `metric`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='纪念空间统计汇总表';
+
+-- ============================================
+-- 3. 按天汇总表（stat_daily_summary）
+-- 说明：memorial_id = 0 表示全站；留言/内容按创建日期归属，删除时从创建当天扣减
+-- ============================================
+CREATE TABLE IF NOT EXISTS `stat_daily_summary` (
+  `stat_date` DATE NOT NULL COMMENT '统计日期',
+  `memorial_id` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '纪念空间ID（0表示全站）',
+  `metric` VARCHAR(64) NOT NULL COMMENT '指标名',
+  `metric_value` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '指标值',
+  `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`stat_date`, `memorial_id`, `metric`),
+  KEY `idx_memorial_date` (`memorial_id`, `stat_date`)
+) ENGINE=InnoDB
+  DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='按天统计汇总表';
+
+-- ============================================
+-- 4. 排行查询索引（按留言数排行）
+-- ============================================
+ALTER TABLE `digital_memorial` ADD INDEX `idx_message_count` (`message_count` DESC);
+
+SELECT '✓ 统计汇总表创建完成！首次启动时应用会按源表回填汇总数据' AS status;